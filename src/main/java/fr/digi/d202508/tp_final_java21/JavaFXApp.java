@@ -1,9 +1,14 @@
 package fr.digi.d202508.tp_final_java21;
 
+import fr.digi.d202508.tp_final_java21.config.CheckpointProperties;
+import fr.digi.d202508.tp_final_java21.config.PacingProperties;
+import fr.digi.d202508.tp_final_java21.config.RaceConfig;
+import fr.digi.d202508.tp_final_java21.controller.RaceController;
 import javafx.application.Application;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Scene;
 import javafx.stage.Stage;
+import org.springframework.context.ConfigurableApplicationContext;
 
 import java.io.IOException;
 
@@ -12,10 +17,22 @@ import java.io.IOException;
  */
 public class JavaFXApp extends Application {
 
+    private ConfigurableApplicationContext context;
+
+    @Override
+    public void init() {
+        // Bind race parameters from application.properties before the UI is built
+        context = Main.startContext(getParameters().getRaw().toArray(new String[0]));
+    }
+
     @Override
     public void start(Stage stage) throws IOException {
         FXMLLoader fxmlLoader = new FXMLLoader(JavaFXApp.class.getResource("/fxml/race-view.fxml"));
         Scene scene = new Scene(fxmlLoader.load(), 1200, 900);
+        RaceController controller = fxmlLoader.getController();
+        controller.setRaceConfig(context.getBean(RaceConfig.class));
+        controller.setPacingPolicy(context.getBean(PacingProperties.class).toPolicy());
+        controller.setCheckpointProperties(context.getBean(CheckpointProperties.class));
         stage.setTitle("Course d'Animaux - Tournoi");
         stage.setScene(scene);
         stage.setResizable(true);
@@ -24,6 +41,13 @@ public class JavaFXApp extends Application {
         stage.show();
     }
 
+    @Override
+    public void stop() {
+        if (context != null) {
+            context.close();
+        }
+    }
+
     public static void main(String[] args) {
         launch();
     }
@@ -1,17 +1,41 @@
 package fr.digi.d202508.tp_final_java21;
 
+import fr.digi.d202508.tp_final_java21.config.CheckpointProperties;
+import fr.digi.d202508.tp_final_java21.config.PacingProperties;
+import fr.digi.d202508.tp_final_java21.config.RaceConfig;
+import fr.digi.d202508.tp_final_java21.service.PacingPolicy;
+import fr.digi.d202508.tp_final_java21.service.ParallelTournament;
 import fr.digi.d202508.tp_final_java21.service.Race;
 import fr.digi.d202508.tp_final_java21.service.Tournament;
+import fr.digi.d202508.tp_final_java21.simulation.KnockoutTournament;
+import fr.digi.d202508.tp_final_java21.web.LiveFeedEndpoint;
+import org.springframework.boot.Banner;
+import org.springframework.boot.WebApplicationType;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
+import org.springframework.context.ConfigurableApplicationContext;
 
 
 import java.util.Scanner;
 
 
 @SpringBootApplication
+@ConfigurationPropertiesScan
 public class Main {
     private static final Scanner scanner = new Scanner(System.in);
+    private static RaceConfig raceConfig;
+    private static PacingPolicy pacing;
+    private static CheckpointProperties checkpoints;
+    private static LiveFeedEndpoint liveFeed; // null unless race.web.enabled=true
+
     public static void main(String[] args) {
+        ConfigurableApplicationContext context = startContext(args);
+        raceConfig = context.getBean(RaceConfig.class);
+        pacing = context.getBean(PacingProperties.class).toPolicy();
+        checkpoints = context.getBean(CheckpointProperties.class);
+        liveFeed = context.getBeanProvider(LiveFeedEndpoint.class).getIfAvailable();
+
         displayWelcome();
 
         try {
@@ -23,7 +47,9 @@ public class Main {
                 switch (choice) {
                     case 1 -> runSingleRace();
                     case 2 -> runTournament();
-                    case 3 -> running = false;
+                    case 3 -> runParallelHeats();
+                    case 4 -> runKnockout();
+                    case 5 -> running = false;
                     default -> System.out.println("Choix invalide, veuillez réessayer.");
                 }
             }
@@ -36,9 +62,26 @@ public class Main {
             System.exit(1);
         } finally {
             scanner.close();
+            context.close();
         }
     }
 
+    /**
+     * Starts the Spring context quietly (no banner, no servlet container) so that
+     * race parameters are bound from application.properties.
+     * The embedded live feed server only starts with race.web.enabled=true
+     * @param args command line arguments (may override properties, e.g. --race.finish-line=200)
+     * @return the running application context
+     */
+    static ConfigurableApplicationContext startContext(String[] args) {
+        return new SpringApplicationBuilder(Main.class)
+                .web(WebApplicationType.NONE)
+                .bannerMode(Banner.Mode.OFF)
+                .logStartupInfo(false)
+                .headless(false)
+                .run(args);
+    }
+
     /**
      * Displays welcome message
      */
@@ -62,9 +105,11 @@ public class Main {
         System.out.println("\n═══════════════ MENU PRINCIPAL ═══════════════");
         System.out.println("  1. 🏃 Course simple (1 manche)");
         System.out.println("  2. 🏆 Mode tournoi (plusieurs manches)");
-        System.out.println("  3. 🚪 Quitter");
+        System.out.println("  3. ⚡ Mode multi-pistes (manches en parallèle)");
+        System.out.println("  4. 🏟  Qualifications à élimination directe");
+        System.out.println("  5. 🚪 Quitter");
         System.out.println("══════════════════════════════════════════════");
-        System.out.print("\nVotre choix (1-3): ");
+        System.out.print("\nVotre choix (1-5): ");
 
         try {
             return Integer.parseInt(scanner.nextLine().trim());
@@ -79,8 +124,12 @@ public class Main {
     private static void runSingleRace() {
         System.out.println("\n Lancement d'une course simple...\n");
 
-        Race race = new Race();
-        race.run();
+        try (Race race = new Race(raceConfig, pacing)) {
+            if (liveFeed != null) {
+                liveFeed.broadcast(race.getRaceTrack());
+            }
+            race.run();
+        }
 
         System.out.println("\nAppuyez sur Entrée pour revenir au menu...");
         scanner.nextLine();
@@ -101,7 +150,11 @@ public class Main {
         boolean useReferee = askForReferee();
 
         // Run tournament
-        Tournament tournament = new Tournament(rounds, useReferee);
+        Tournament tournament = new Tournament(rounds, useReferee, raceConfig, pacing);
+        tournament.setCheckpoints(checkpoints);
+        if (liveFeed != null) {
+            tournament.setTrackListener(liveFeed::broadcast);
+        }
         tournament.runTournament();
 
         System.out.println("\nAppuyez sur Entrée pour revenir au menu...");
@@ -110,6 +163,71 @@ public class Main {
         displayWelcome();
     }
 
+    /**
+     * Runs many independent heats in parallel on separate tracks
+     */
+    private static void runParallelHeats() {
+        System.out.println("\n⚡ Configuration du mode multi-pistes\n");
+
+        int heats = askPositiveNumber("Combien de manches au total? ");
+        int cores = Runtime.getRuntime().availableProcessors();
+        int tracks = askPositiveNumber("Combien de pistes en parallèle? (" + cores + " cœurs disponibles): ");
+
+        ParallelTournament tournament = new ParallelTournament(heats, tracks, raceConfig, System.out::println);
+        tournament.runTournament();
+        tournament.displayReport();
+
+        System.out.println("\nAppuyez sur Entrée pour revenir au menu...");
+        scanner.nextLine();
+        clearConsole();
+        displayWelcome();
+    }
+
+    /**
+     * Runs a knockout qualification event with a large number of entrants
+     */
+    private static void runKnockout() {
+        System.out.println("\n🏟  Configuration des qualifications\n");
+
+        int entrants = askPositiveNumber("Nombre de concurrents (ex: 1000000): ");
+        int heatSize = askPositiveNumber("Concurrents par manche (ex: 10): ");
+        int advancers = askPositiveNumber("Qualifiés par manche (ex: 3): ");
+        int workers = Runtime.getRuntime().availableProcessors();
+
+        try {
+            KnockoutTournament knockout = new KnockoutTournament(entrants, heatSize, advancers, workers, raceConfig);
+            knockout.runTournament();
+            knockout.displayReport();
+        } catch (IllegalArgumentException e) {
+            System.out.println("Configuration invalide: " + e.getMessage());
+        }
+
+        System.out.println("\nAppuyez sur Entrée pour revenir au menu...");
+        scanner.nextLine();
+        clearConsole();
+        displayWelcome();
+    }
+
+    /**
+     * Asks the user for a strictly positive number
+     * @param prompt question displayed to the user
+     * @return the number entered
+     */
+    private static int askPositiveNumber(String prompt) {
+        while (true) {
+            System.out.print(prompt);
+            try {
+                int value = Integer.parseInt(scanner.nextLine().trim());
+                if (value > 0) {
+                    return value;
+                }
+                System.out.println("Veuillez entrer un nombre positif.");
+            } catch (NumberFormatException e) {
+                System.out.println("Veuillez entrer un nombre valide.");
+            }
+        }
+    }
+
     /**
      * Gets number of tournament rounds from user
      * @return number of rounds
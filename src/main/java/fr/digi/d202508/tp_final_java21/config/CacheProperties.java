@@ -0,0 +1,33 @@
+package fr.digi.d202508.tp_final_java21.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Settings of the seeded simulation result cache (prefix "race.cache")
+ *
+ * @param maxEntries results kept in memory, least recently used evicted first
+ * @param ttl lifetime of a result, in memory and on disk
+ * @param spillDirectory directory receiving the results evicted from memory (empty = no spill)
+ */
+@ConfigurationProperties(prefix = "race.cache")
+public record CacheProperties(
+        @DefaultValue("1024") int maxEntries,
+        @DefaultValue("1h") Duration ttl,
+        @DefaultValue("") String spillDirectory) {
+
+    public CacheProperties {
+        if (maxEntries < 0) {
+            throw new IllegalArgumentException("La taille du cache ne peut pas être négative: " + maxEntries);
+        }
+        if (ttl == null || ttl.isNegative() || ttl.isZero()) {
+            throw new IllegalArgumentException("La durée de vie du cache doit être positive: " + ttl);
+        }
+    }
+
+    public boolean spillEnabled() {
+        return spillDirectory != null && !spillDirectory.isBlank();
+    }
+}
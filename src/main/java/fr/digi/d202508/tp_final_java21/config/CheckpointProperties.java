@@ -0,0 +1,36 @@
+package fr.digi.d202508.tp_final_java21.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Checkpoints of the multi-round tournaments (prefix "race.checkpoint")
+ *
+ * @param directory directory receiving the checkpoint files (empty = no checkpoint)
+ * @param interval minimum time between two checkpoints (0 = after every round)
+ */
+@ConfigurationProperties(prefix = "race.checkpoint")
+public record CheckpointProperties(
+        @DefaultValue("") String directory,
+        @DefaultValue("5s") Duration interval) {
+
+    public CheckpointProperties {
+        if (interval == null || interval.isNegative()) {
+            throw new IllegalArgumentException("L'intervalle de sauvegarde ne peut pas être négatif: " + interval);
+        }
+    }
+
+    /**
+     * Settings without any checkpoint
+     * @return disabled checkpoints
+     */
+    public static CheckpointProperties disabled() {
+        return new CheckpointProperties("", Duration.ofSeconds(5));
+    }
+
+    public boolean enabled() {
+        return directory != null && !directory.isBlank();
+    }
+}
@@ -0,0 +1,32 @@
+package fr.digi.d202508.tp_final_java21.config;
+
+import fr.digi.d202508.tp_final_java21.simulation.HeatSimulator;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Settings of the simulation job queue bound from application.properties (prefix "race.jobs")
+ *
+ * @param workers number of threads running jobs
+ * @param queueCapacity jobs waiting for a worker before new submissions are rejected
+ * @param maxRounds largest number of rounds accepted for one job
+ * @param retainedJobs finished jobs kept for polling (the oldest are forgotten first)
+ * @param engine heat engine of the jobs: STEP (tick by tick) or SKIP_AHEAD (blocks of ticks drawn at once)
+ */
+@ConfigurationProperties(prefix = "race.jobs")
+public record JobProperties(
+        @DefaultValue("2") int workers,
+        @DefaultValue("64") int queueCapacity,
+        @DefaultValue("100000") int maxRounds,
+        @DefaultValue("1000") int retainedJobs,
+        @DefaultValue("SKIP_AHEAD") HeatSimulator.Engine engine) {
+
+    public JobProperties {
+        if (workers <= 0 || queueCapacity <= 0 || maxRounds <= 0 || retainedJobs <= 0) {
+            throw new IllegalArgumentException("Les paramètres de la file de jobs doivent être positifs");
+        }
+        if (engine == null) {
+            engine = HeatSimulator.Engine.SKIP_AHEAD;
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package fr.digi.d202508.tp_final_java21.config;
+
+import fr.digi.d202508.tp_final_java21.service.PacingPolicy;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Pacing settings bound from application.properties (prefix "race.pacing")
+ *
+ * @param mode INTERACTIVE, ACCELERATED or UNPACED
+ * @param factor acceleration factor used in ACCELERATED mode
+ */
+@ConfigurationProperties(prefix = "race.pacing")
+public record PacingProperties(
+        @DefaultValue("INTERACTIVE") Mode mode,
+        @DefaultValue("10") double factor) {
+
+    public enum Mode {
+        INTERACTIVE,
+        ACCELERATED,
+        UNPACED
+    }
+
+    /**
+     * Builds the pacing policy matching these settings
+     * @return the pacing policy
+     */
+    public PacingPolicy toPolicy() {
+        return switch (mode) {
+            case INTERACTIVE -> PacingPolicy.interactive();
+            case ACCELERATED -> PacingPolicy.accelerated(factor);
+            case UNPACED -> PacingPolicy.unpaced();
+        };
+    }
+}
@@ -0,0 +1,178 @@
+package fr.digi.d202508.tp_final_java21.config;
+
+import fr.digi.d202508.tp_final_java21.model.Species;
+import fr.digi.d202508.tp_final_java21.service.SimulationClock;
+import fr.digi.d202508.tp_final_java21.service.TickScheduler;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.util.Locale;
+
+/**
+ * Immutable race parameters bound from application.properties (prefix "race").
+ * Replaces the compile-time constants previously spread across RaceTrack, Animal
+ * and the animal subclasses, so that track length, tick rate and physics can be
+ * changed without recompiling.
+ *
+ * @param finishLine track length in units (1 unit = 1 meter)
+ * @param tickIntervalMs simulated time between two moves, in milliseconds
+ * @param clockMode REAL, SCALED or VIRTUAL, see {@link SimulationClock}
+ * @param timeScale simulated seconds per real second in SCALED mode (100 = 100x faster)
+ * @param runnerMode THREADS (one thread per animal), LOCKSTEP (one thread per animal, released and advanced
+ *                   together by a barrier) or TICKS (one timer, see {@link TickScheduler})
+ * @param boostProbability chance of a speed boost on each move
+ * @param fatigueProbability base chance of a slowdown on each move (before stamina)
+ * @param boostMultiplier speed multiplier applied during a boost
+ * @param fatigueMultiplier speed multiplier applied during fatigue
+ * @param tortue speed range and stamina of the Tortue
+ * @param lapin speed range and stamina of the Lapin
+ * @param cheval speed range and stamina of the Cheval
+ */
+@ConfigurationProperties(prefix = "race")
+public record RaceConfig(
+        @DefaultValue("50") int finishLine,
+        @DefaultValue("500") long tickIntervalMs,
+        @DefaultValue("REAL") SimulationClock.Mode clockMode,
+        @DefaultValue("1") double timeScale,
+        @DefaultValue("THREADS") RunnerMode runnerMode,
+        @DefaultValue("0.15") double boostProbability,
+        @DefaultValue("0.20") double fatigueProbability,
+        @DefaultValue("1.5") double boostMultiplier,
+        @DefaultValue("0.7") double fatigueMultiplier,
+        SpeciesConfig tortue,
+        SpeciesConfig lapin,
+        SpeciesConfig cheval) {
+
+    // Default species characteristics (km/h and stamina 0.0 to 1.0)
+    private static final SpeciesConfig DEFAULT_TORTUE = new SpeciesConfig(6.0, 8.0, 0.9);
+    private static final SpeciesConfig DEFAULT_LAPIN = new SpeciesConfig(7.0, 11.0, 0.5);
+    private static final SpeciesConfig DEFAULT_CHEVAL = new SpeciesConfig(8.0, 10.0, 0.7);
+
+    /**
+     * How the runners are driven
+     */
+    public enum RunnerMode {
+        // Each animal loops on its own thread and waits for its next tick
+        THREADS,
+        // Each animal has its own thread, but a tiered Phaser starts them together and keeps them on the same tick
+        LOCKSTEP,
+        // A single timer fires the ticks and steps every animal in batches
+        TICKS
+    }
+
+    /**
+     * Speed range and stamina of one species
+     * @param minSpeed minimum base speed in km/h
+     * @param maxSpeed maximum base speed in km/h
+     * @param stamina endurance (0.0 to 1.0), higher = less fatigue
+     */
+    public record SpeciesConfig(double minSpeed, double maxSpeed, double stamina) {
+
+        public SpeciesConfig {
+            if (minSpeed <= 0 || maxSpeed < minSpeed) {
+                throw new IllegalArgumentException(
+                        "Plage de vitesse invalide: " + minSpeed + "-" + maxSpeed + " km/h");
+            }
+            if (stamina < 0.0 || stamina > 1.0) {
+                throw new IllegalArgumentException("La stamina doit être entre 0 et 1: " + stamina);
+            }
+        }
+    }
+
+    public RaceConfig {
+        if (finishLine <= 0) {
+            throw new IllegalArgumentException("La ligne d'arrivée doit être positive: " + finishLine);
+        }
+        if (tickIntervalMs <= 0) {
+            throw new IllegalArgumentException("L'intervalle de simulation doit être positif: " + tickIntervalMs);
+        }
+        if (clockMode == null) {
+            clockMode = SimulationClock.Mode.REAL;
+        }
+        if (runnerMode == null) {
+            runnerMode = RunnerMode.THREADS;
+        }
+        if (timeScale <= 0) {
+            throw new IllegalArgumentException("Le facteur de temps doit être positif: " + timeScale);
+        }
+        if (boostProbability < 0 || fatigueProbability < 0 || boostProbability + fatigueProbability > 1.0) {
+            throw new IllegalArgumentException("Probabilités de boost/fatigue invalides");
+        }
+
+        // Species not overridden in the properties keep their historical values
+        if (tortue == null) tortue = DEFAULT_TORTUE;
+        if (lapin == null) lapin = DEFAULT_LAPIN;
+        if (cheval == null) cheval = DEFAULT_CHEVAL;
+    }
+
+    /**
+     * Returns the default configuration (50 units, 500 ms ticks)
+     * @return default race configuration
+     */
+    public static RaceConfig defaults() {
+        return new RaceConfig(50, 500, SimulationClock.Mode.REAL, 1, RunnerMode.THREADS, 0.15, 0.20, 1.5, 0.7, null, null, null);
+    }
+
+    /**
+     * Returns a copy of this configuration using another clock
+     * @param mode clock mode
+     * @param scale time scale (only used in SCALED mode)
+     * @return the modified configuration
+     */
+    public RaceConfig withClock(SimulationClock.Mode mode, double scale) {
+        return new RaceConfig(finishLine, tickIntervalMs, mode, scale, runnerMode, boostProbability, fatigueProbability,
+                boostMultiplier, fatigueMultiplier, tortue, lapin, cheval);
+    }
+
+    /**
+     * Returns a copy of this configuration with another track length
+     * @param length finish line in units
+     * @return the modified configuration
+     */
+    public RaceConfig withFinishLine(int length) {
+        return new RaceConfig(length, tickIntervalMs, clockMode, timeScale, runnerMode, boostProbability, fatigueProbability,
+                boostMultiplier, fatigueMultiplier, tortue, lapin, cheval);
+    }
+
+    /**
+     * Returns a copy of this configuration driving the runners another way
+     * @param mode runner mode
+     * @return the modified configuration
+     */
+    public RaceConfig withRunnerMode(RunnerMode mode) {
+        return new RaceConfig(finishLine, tickIntervalMs, clockMode, timeScale, mode, boostProbability,
+                fatigueProbability, boostMultiplier, fatigueMultiplier, tortue, lapin, cheval);
+    }
+
+    /**
+     * Simulated time elapsed on each move
+     * @return tick duration in seconds
+     */
+    public double tickSeconds() {
+        return tickIntervalMs / 1000.0;
+    }
+
+    /**
+     * Canonical description of everything that changes the outcome of a race
+     * (track length, tick duration, probabilities, multipliers, species).
+     * The clock mode and time scale only change the pacing and are left out.
+     * @return stable text, equal for two configurations that produce the same races
+     */
+    public String describePhysics() {
+        StringBuilder canonical = new StringBuilder(192);
+        canonical.append("finishLine=").append(finishLine)
+                .append(";tickIntervalMs=").append(tickIntervalMs)
+                .append(";boostProbability=").append(boostProbability)
+                .append(";fatigueProbability=").append(fatigueProbability)
+                .append(";boostMultiplier=").append(boostMultiplier)
+                .append(";fatigueMultiplier=").append(fatigueMultiplier);
+        for (Species species : Species.values()) {
+            SpeciesConfig speciesConfig = species.configIn(this);
+            canonical.append(';').append(species.name().toLowerCase(Locale.ROOT))
+                    .append('=').append(speciesConfig.minSpeed())
+                    .append('/').append(speciesConfig.maxSpeed())
+                    .append('/').append(speciesConfig.stamina());
+        }
+        return canonical.toString();
+    }
+}
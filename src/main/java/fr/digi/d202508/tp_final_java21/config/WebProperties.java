@@ -0,0 +1,32 @@
+package fr.digi.d202508.tp_final_java21.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Embedded HTTP server settings bound from application.properties (prefix "race.web")
+ *
+ * @param enabled starts the server (off by default, the console and the GUI don't need it)
+ * @param port listening port
+ * @param keepAliveMs delay after which an idle live feed connection receives a keep-alive comment
+ * @param writeTimeoutMs longest a write to a live feed viewer may block before the viewer is dropped
+ */
+@ConfigurationProperties(prefix = "race.web")
+public record WebProperties(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue("8080") int port,
+        @DefaultValue("15000") long keepAliveMs,
+        @DefaultValue("500") long writeTimeoutMs) {
+
+    public WebProperties {
+        if (port < 0 || port > 65535) {
+            throw new IllegalArgumentException("Port invalide: " + port);
+        }
+        if (keepAliveMs <= 0) {
+            throw new IllegalArgumentException("L'intervalle de keep-alive doit être positif: " + keepAliveMs);
+        }
+        if (writeTimeoutMs <= 0) {
+            throw new IllegalArgumentException("Le délai d'écriture doit être positif: " + writeTimeoutMs);
+        }
+    }
+}
@@ -1,11 +1,14 @@
 package fr.digi.d202508.tp_final_java21.controller;
 
+import fr.digi.d202508.tp_final_java21.config.CheckpointProperties;
+import fr.digi.d202508.tp_final_java21.config.RaceConfig;
 import fr.digi.d202508.tp_final_java21.model.Animal;
 import fr.digi.d202508.tp_final_java21.model.RaceStatistics;
+import fr.digi.d202508.tp_final_java21.service.OddsEngine;
+import fr.digi.d202508.tp_final_java21.service.PacingPolicy;
 import fr.digi.d202508.tp_final_java21.service.Race;
-import fr.digi.d202508.tp_final_java21.service.RaceTrack;
-import fr.digi.d202508.tp_final_java21.service.Referee;
 import fr.digi.d202508.tp_final_java21.service.Tournament;
+import fr.digi.d202508.tp_final_java21.service.TournamentCheckpoints;
 import javafx.animation.AnimationTimer;
 import javafx.application.Platform;
 import javafx.fxml.FXML;
@@ -19,6 +22,7 @@ import javafx.scene.shape.Rectangle;
 import java.net.URL;
 import java.util.List;
 import java.util.ResourceBundle;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * Controller for the race GUI with speed indicators
@@ -61,12 +65,19 @@ public class RaceController implements Initializable {
     private Rectangle finishLine;
     
     // Race management
+    private RaceConfig raceConfig = RaceConfig.defaults();
+    private PacingPolicy pacing = PacingPolicy.interactive();
+    private CheckpointProperties checkpointProperties = CheckpointProperties.disabled();
     private Race currentRace;
     private Tournament currentTournament;
     private AnimationTimer raceAnimationTimer;
-    private Referee referee;
-    private Thread refereeThread;
+    private RaceFrames raceFrames;
+    // Background threads never post to Platform.runLater directly
+    private final UiUpdateQueue uiUpdates = new UiUpdateQueue(Platform::runLater);
     
+    // Kinds of coalesced UI updates: a pending update is replaced by a newer one of the same kind
+    private enum UiUpdate { ROUND, ANIMATION, RESULTS, END }
+
     // Constants for display
     private static final double TRACK_WIDTH = 700;
     private static final double TRACK_HEIGHT = 50;
@@ -80,6 +91,30 @@ public class RaceController implements Initializable {
         resetSpeedIndicators();
     }
 
+    /**
+     * Sets the race parameters used for the next races
+     * @param raceConfig race configuration bound from application.properties
+     */
+    public void setRaceConfig(RaceConfig raceConfig) {
+        this.raceConfig = raceConfig;
+    }
+
+    /**
+     * Sets the pacing of the pause between tournament rounds
+     * @param pacing pacing policy
+     */
+    public void setPacingPolicy(PacingPolicy pacing) {
+        this.pacing = pacing;
+    }
+
+    /**
+     * Enables the checkpoints of the tournaments started from the window
+     * @param checkpointProperties checkpoint directory and interval
+     */
+    public void setCheckpointProperties(CheckpointProperties checkpointProperties) {
+        this.checkpointProperties = checkpointProperties;
+    }
+
     private void setupUI() {
         roundsSpinner.setValueFactory(new SpinnerValueFactory.IntegerSpinnerValueFactory(1, 10, 3));
         raceStatusLabel.setText("Prêt à commencer");
@@ -145,25 +180,38 @@ public class RaceController implements Initializable {
         resetSpeedIndicators();
         
         // Create and initialize race
-        currentRace = new Race();
+        currentRace = new Race(raceConfig, pacing);
         currentRace.initializeRace();
         
-        // Start referee if enabled
-        if (useRefereeCheckBox.isSelected()) {
-            referee = new Referee(currentRace.getRaceTrack(), 2000);
-            refereeThread = new Thread(referee, "Thread-Referee");
-            refereeThread.start();
-        }
+        boolean useReferee = useRefereeCheckBox.isSelected();
         
         // Start race in background thread
         Thread raceThread = new Thread(() -> {
             currentRace.startRace();
-            startRaceAnimation();
-            currentRace.monitorRace();
             
-            Platform.runLater(() -> {
-                stopRaceAnimation();
-                displayRaceResults();
+            // Start referee if enabled (stopped by the race once it is over)
+            if (useReferee) {
+                currentRace.startReferee(2000, pacing);
+            }
+            
+            uiUpdates.post(UiUpdate.ANIMATION, this::startRaceAnimation);
+            String failure = null;
+            try {
+                currentRace.monitorRace();
+            } catch (IllegalStateException e) {
+                // Round failed: a runner did not stop, there are no results to show
+                failure = e.getMessage();
+            }
+            currentRace.close();
+            
+            uiUpdates.post(UiUpdate.ANIMATION, this::stopRaceAnimation);
+            String failureMessage = failure;
+            uiUpdates.post(UiUpdate.END, () -> {
+                if (failureMessage == null) {
+                    displayRaceResults();
+                } else {
+                    raceStatusLabel.setText(failureMessage);
+                }
                 enableButtons();
             });
         });
@@ -188,13 +236,20 @@ public class RaceController implements Initializable {
         
         // Create and start tournament in background thread
         Thread tournamentThread = new Thread(() -> {
-            currentTournament = new Tournament(rounds, useReferee);
+            currentTournament = new Tournament(rounds, useReferee, raceConfig, pacing);
             
             // Run tournament with GUI updates
-            runTournamentWithGUI(rounds, useReferee);
+            String status = "Tournoi terminé";
+            try {
+                runTournamentWithGUI(rounds, useReferee);
+            } catch (IllegalStateException e) {
+                // Failed round: the checkpoint of the last completed one is kept
+                status = e.getMessage();
+            }
             
-            Platform.runLater(() -> {
-                raceStatusLabel.setText("Tournoi terminé");
+            String finalStatus = status;
+            uiUpdates.post(UiUpdate.END, () -> {
+                raceStatusLabel.setText(finalStatus);
                 enableButtons();
                 currentTournament = null;
             });
@@ -206,65 +261,77 @@ public class RaceController implements Initializable {
 
     private void runTournamentWithGUI(int totalRounds, boolean useReferee) {
         RaceStatistics statistics = new RaceStatistics();
+        long seed = ThreadLocalRandom.current().nextLong();
+        int firstRound = 1;
+        boolean completed = true;
         
-        for (int round = 1; round <= totalRounds; round++) {
-            final int currentRound = round;
-            
-            Platform.runLater(() -> {
-                raceStatusLabel.setText(String.format("Tournoi - Manche %d/%d", currentRound, totalRounds));
-                resetAnimalPositions();
-                resetSpeedIndicators();
-            });
-            
-            // Create and run race for this round
-            Race race = new Race();
-            race.initializeRace();
-            
-            // Start referee if enabled
-            if (useReferee) {
-                referee = new Referee(race.getRaceTrack(), 2000);
-                refereeThread = new Thread(referee, "Thread-Referee");
-                refereeThread.start();
+        // A single race is reused for every round: same animals, same pooled threads
+        try (Race race = new Race(raceConfig, pacing);
+             TournamentCheckpoints checkpoints = new TournamentCheckpoints(checkpointProperties, "tournoi-gui", raceConfig, totalRounds)) {
+            var restored = checkpoints.restore();
+            if (restored.isPresent()) {
+                seed = restored.get().seed();
+                firstRound = restored.get().completedRounds() + 1;
+                statistics.merge(restored.get().statistics());
+                final int resumedRound = firstRound;
+                uiUpdates.post(() -> resultsArea.appendText(
+                        String.format("♻ Reprise du tournoi interrompu à la manche %d/%d%n", resumedRound, totalRounds)));
             }
             
-            race.startRace();
-            
-            Platform.runLater(() -> startRaceAnimationForRace(race));
-            
-            race.monitorRace();
-            
-            Platform.runLater(() -> stopRaceAnimation());
-            
-            // Stop referee
-            if (referee != null) {
-                referee.stop();
-                if (refereeThread != null && refereeThread.isAlive()) {
-                    refereeThread.interrupt();
+            for (int round = firstRound; round <= totalRounds; round++) {
+                final int currentRound = round;
+                
+                uiUpdates.post(UiUpdate.ROUND, () -> {
+                    raceStatusLabel.setText(String.format("Tournoi - Manche %d/%d", currentRound, totalRounds));
+                    resetAnimalPositions();
+                    resetSpeedIndicators();
+                });
+                
+                // Put the animals back on the starting line (created on the first round)
+                race.initializeRace(Tournament.roundRandom(seed, round));
+                race.startRace();
+                
+                // Start referee if enabled (stopped by the race once it is over)
+                if (useReferee) {
+                    race.startReferee(2000, pacing);
                 }
-            }
-            
-            // Record results
-            List<Animal> scoreboard = race.getRaceTrack().getFinalScoreboard();
-            statistics.recordRound(scoreboard);
-            
-            // Update results display
-            Platform.runLater(() -> {
-                updateTournamentResults(currentRound, totalRounds, statistics, scoreboard);
-            });
-            
-            // Wait between rounds (except last one)
-            if (round < totalRounds) {
-                try {
-                    Thread.sleep(2000);
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
-                    break;
+                
+                // Replaced by the stop below if the round ends before the FX thread gets to it
+                uiUpdates.post(UiUpdate.ANIMATION, () -> startRaceAnimationForRace(race));
+                
+                race.monitorRace();
+                
+                uiUpdates.post(UiUpdate.ANIMATION, this::stopRaceAnimation);
+                
+                // Record results
+                List<Animal> scoreboard = race.getRaceTrack().getFinalScoreboard();
+                statistics.recordRound(scoreboard);
+                checkpoints.roundCompleted(round, seed, statistics);
+                
+                // The text is built here: the FX thread never reads the statistics being updated
+                String results = tournamentResults(currentRound, totalRounds, statistics, scoreboard);
+                uiUpdates.post(UiUpdate.RESULTS, () -> resultsArea.setText(results));
+                
+                // Wait between rounds (except last one)
+                if (round < totalRounds) {
+                    try {
+                        pacing.pause(2000);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        completed = false;
+                        break;
+                    }
                 }
             }
+            // An interrupted tournament keeps its checkpoint for the next start
+            if (completed) {
+                checkpoints.finish();
+            }
         }
         
         // Display final results
-        Platform.runLater(() -> displayFinalTournamentResults(statistics));
+        String finalResults = finalTournamentResults(statistics);
+        uiUpdates.post(UiUpdate.RESULTS, () -> resultsArea.setText(finalResults));
     }
 
     private void startRaceAnimation() {
@@ -274,14 +341,20 @@ public class RaceController implements Initializable {
     }
 
     private void startRaceAnimationForRace(Race race) {
-        if (raceAnimationTimer != null) {
-            raceAnimationTimer.stop();
-        }
+        stopRaceAnimation();
+        
+        // Frames are prepared off the FX thread; snapshots published between two pulses are skipped
+        RaceFrames frames = new RaceFrames(new OddsEngine(race.getRaceTrack().getConfig()));
+        race.getRaceTrack().snapshots().subscribe(frames);
+        raceFrames = frames;
         
         raceAnimationTimer = new AnimationTimer() {
             @Override
             public void handle(long now) {
-                updateRaceDisplay(race.getRaceTrack());
+                RaceFrames.Frame frame = frames.poll();
+                if (frame != null) {
+                    updateRaceDisplay(frame);
+                }
             }
         };
         raceAnimationTimer.start();
@@ -292,72 +365,68 @@ public class RaceController implements Initializable {
             raceAnimationTimer.stop();
             raceAnimationTimer = null;
         }
+        if (raceFrames != null) {
+            raceFrames.cancel();
+            raceFrames = null;
+        }
     }
 
-    private void updateRaceDisplay(RaceTrack raceTrack) {
-        List<Animal> participants = raceTrack.getParticipants();
-        
-        for (Animal animal : participants) {
-            double progress = animal.getPosition() / RaceTrack.FINISH_LINE;
+    void updateRaceDisplay(RaceFrames.Frame frame) {
+        for (int i = 0; i < frame.size(); i++) {
+            double progress = frame.position(i) / frame.finishLine();
             double xPosition = Math.min(progress * (TRACK_WIDTH - ANIMAL_SIZE), TRACK_WIDTH - ANIMAL_SIZE);
             
             // Update position on track
-            if (animal.getName().equals("Tortue")) {
-                tortueRect.setX(xPosition);
-                updateSpeedIndicator(tortueSpeedBar, tortueSpeedLabel, tortuePositionLabel, animal);
-            } else if (animal.getName().equals("Lapin")) {
-                lapinRect.setX(xPosition);
-                updateSpeedIndicator(lapinSpeedBar, lapinSpeedLabel, lapinPositionLabel, animal);
-            } else if (animal.getName().equals("Cheval")) {
-                chevalRect.setX(xPosition);
-                updateSpeedIndicator(chevalSpeedBar, chevalSpeedLabel, chevalPositionLabel, animal);
+            switch (frame.species(i)) {
+                case TORTUE -> {
+                    tortueRect.setX(xPosition);
+                    updateSpeedIndicator(tortueSpeedBar, tortueSpeedLabel, tortuePositionLabel,
+                            tortueStateCircle, tortueStateLabel, frame, i);
+                }
+                case LAPIN -> {
+                    lapinRect.setX(xPosition);
+                    updateSpeedIndicator(lapinSpeedBar, lapinSpeedLabel, lapinPositionLabel,
+                            lapinStateCircle, lapinStateLabel, frame, i);
+                }
+                case CHEVAL -> {
+                    chevalRect.setX(xPosition);
+                    updateSpeedIndicator(chevalSpeedBar, chevalSpeedLabel, chevalPositionLabel,
+                            chevalStateCircle, chevalStateLabel, frame, i);
+                }
             }
         }
     }
 
-    private void updateSpeedIndicator(ProgressBar speedBar, Label speedLabel, Label positionLabel, Animal animal) {
-        // Get references to state indicators based on animal name
-        Circle stateCircle = null;
-        Label stateLabel = null;
-
-        if (animal.getName().equals("Tortue")) {
-            stateCircle = tortueStateCircle;
-            stateLabel = tortueStateLabel;
-        } else if (animal.getName().equals("Lapin")) {
-            stateCircle = lapinStateCircle;
-            stateLabel = lapinStateLabel;
-        } else if (animal.getName().equals("Cheval")) {
-            stateCircle = chevalStateCircle;
-            stateLabel = chevalStateLabel;
-        }
-
-        double normalizedSpeed = animal.getCurrentSpeed() / MAX_SPEED;
+    private void updateSpeedIndicator(ProgressBar speedBar, Label speedLabel, Label positionLabel,
+                                      Circle stateCircle, Label stateLabel, RaceFrames.Frame frame, int runner) {
+        double currentSpeed = frame.currentSpeed(runner);
+        double normalizedSpeed = currentSpeed / MAX_SPEED;
         speedBar.setProgress(Math.min(normalizedSpeed, 1.0));
 
-        // Determine speed state based on base speed comparison
-        double speedRatio = animal.getCurrentSpeed() / animal.getSpeed();
+        // Speed state drawn by the animal on its last move
         String speedState;
         Color circleColor;
         String speedTextColor;
 
-        if (speedRatio > 1.2) {
-            // BOOST state (> 120% of base speed)
-            speedState = "🚀 BOOST!";
-            circleColor = Color.rgb(76, 175, 80); // Green
-            speedTextColor = "#4CAF50"; // Green text
-            speedBar.setStyle("-fx-accent: #4CAF50;"); // Green progress bar
-        } else if (speedRatio < 0.8) {
-            // FATIGUE state (< 80% of base speed)
-            speedState = "😴 Fatigue";
-            circleColor = Color.rgb(244, 67, 54); // Red
-            speedTextColor = "#F44336"; // Red text
-            speedBar.setStyle("-fx-accent: #F44336;"); // Red progress bar
-        } else {
-            // NORMAL state
-            speedState = "🤖";
-            circleColor = Color.rgb(33, 150, 243); // Blue
-            speedTextColor = "#2196F3"; // Blue text
-            speedBar.setStyle("-fx-accent: #2196F3;"); // Blue progress bar
+        switch (frame.speedState(runner)) {
+            case BOOST -> {
+                speedState = "🚀 BOOST!";
+                circleColor = Color.rgb(76, 175, 80); // Green
+                speedTextColor = "#4CAF50"; // Green text
+                speedBar.setStyle("-fx-accent: #4CAF50;"); // Green progress bar
+            }
+            case FATIGUE -> {
+                speedState = "😴 Fatigue";
+                circleColor = Color.rgb(244, 67, 54); // Red
+                speedTextColor = "#F44336"; // Red text
+                speedBar.setStyle("-fx-accent: #F44336;"); // Red progress bar
+            }
+            default -> {
+                speedState = "🤖";
+                circleColor = Color.rgb(33, 150, 243); // Blue
+                speedTextColor = "#2196F3"; // Blue text
+                speedBar.setStyle("-fx-accent: #2196F3;"); // Blue progress bar
+            }
         }
 
         // Update state circle and label
@@ -370,10 +439,10 @@ public class RaceController implements Initializable {
         }
 
         // Update speed label with color coding
-        speedLabel.setText(String.format("%.1f km/h", animal.getCurrentSpeed()));
+        speedLabel.setText(String.format("%.1f km/h", currentSpeed));
         speedLabel.setStyle(String.format("-fx-text-fill: %s; -fx-font-weight: bold; -fx-font-size: 14px;", speedTextColor));
 
-        positionLabel.setText(String.format("%.1f m", animal.getPosition()));
+        positionLabel.setText(String.format("%.1f m · %.0f%%", frame.position(runner), frame.winProbability(runner) * 100));
     }
 
     private void resetSpeedIndicators() {
@@ -440,7 +509,7 @@ public class RaceController implements Initializable {
         }
     }
 
-    private void updateTournamentResults(int currentRound, int totalRounds, RaceStatistics statistics, List<Animal> scoreboard) {
+    private String tournamentResults(int currentRound, int totalRounds, RaceStatistics statistics, List<Animal> scoreboard) {
         StringBuilder results = new StringBuilder();
         results.append(String.format("=== TOURNOI - MANCHE %d/%d ===\n\n", currentRound, totalRounds));
         
@@ -466,10 +535,10 @@ public class RaceController implements Initializable {
                 medal, stats.getName(), stats.getWins(), stats.getWinRate()));
         }
         
-        resultsArea.setText(results.toString());
+        return results.toString();
     }
 
-    private void displayFinalTournamentResults(RaceStatistics statistics) {
+    private String finalTournamentResults(RaceStatistics statistics) {
         StringBuilder results = new StringBuilder();
         results.append("=== RÉSULTATS FINAUX DU TOURNOI ===\n\n");
         
@@ -491,10 +560,10 @@ public class RaceController implements Initializable {
                 default -> "  ";
             };
             results.append(String.format("%s %s - Victoires: %d, Participations: %d (%.1f%%)\n", 
-                medal, stats.getName(), stats.getWins(), stats.getSpeeds().size(), stats.getWinRate()));
+                medal, stats.getName(), stats.getWins(), stats.getRaces(), stats.getWinRate()));
         }
         
-        resultsArea.setText(results.toString());
+        return results.toString();
     }
 
     private void enableButtons() {
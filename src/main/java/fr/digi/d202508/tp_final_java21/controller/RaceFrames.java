@@ -0,0 +1,122 @@
+package fr.digi.d202508.tp_final_java21.controller;
+
+import fr.digi.d202508.tp_final_java21.model.Species;
+import fr.digi.d202508.tp_final_java21.model.SpeedState;
+import fr.digi.d202508.tp_final_java21.model.TickSnapshot;
+import fr.digi.d202508.tp_final_java21.service.OddsEngine;
+import fr.digi.d202508.tp_final_java21.service.TripleBuffer;
+
+import java.util.List;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Snapshot subscriber turning the race feed into ready-to-draw frames for the animation timer.
+ * <p>
+ * Frames are written on the feed thread (track state and win odds copied into preallocated arrays)
+ * and handed over through a {@link TripleBuffer}: the JavaFX thread only takes the newest complete
+ * frame on each pulse and draws it, without computing anything nor waiting for the simulation.
+ * The next snapshot is requested when a frame is taken, so at most one frame is written per pulse.
+ */
+final class RaceFrames implements Flow.Subscriber<TickSnapshot> {
+
+    private final OddsEngine odds;
+    private final TripleBuffer<Frame> buffer = new TripleBuffer<>(Frame::new);
+    private final AtomicBoolean requested = new AtomicBoolean();
+    private volatile Flow.Subscription subscription;
+
+    RaceFrames(OddsEngine odds) {
+        this.odds = odds;
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        this.subscription = subscription;
+        requestNext();
+    }
+
+    @Override
+    public void onNext(TickSnapshot snapshot) {
+        buffer.back().fill(snapshot, odds.winProbabilities(snapshot));
+        buffer.publish();
+        requested.set(false);
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+    }
+
+    @Override
+    public void onComplete() {
+    }
+
+    /**
+     * Takes the newest frame written since the last call and asks for the next snapshot
+     * (called once per animation pulse, on the JavaFX thread)
+     * @return newest frame, or null if the track has not moved since the last call
+     */
+    Frame poll() {
+        Frame frame = buffer.acquire();
+        requestNext();
+        return frame;
+    }
+
+    /**
+     * Stops receiving snapshots
+     */
+    void cancel() {
+        Flow.Subscription current = subscription;
+        if (current != null) {
+            current.cancel();
+        }
+    }
+
+    private void requestNext() {
+        Flow.Subscription current = subscription;
+        if (current != null && requested.compareAndSet(false, true)) {
+            current.request(1);
+        }
+    }
+
+    /**
+     * State of the track to draw, reused from one snapshot to another
+     */
+    static final class Frame {
+        private int size;
+        private double finishLine;
+        private Species[] species = new Species[0];
+        private double[] positions = new double[0];
+        private double[] currentSpeeds = new double[0];
+        private SpeedState[] speedStates = new SpeedState[0];
+        private double[] winProbabilities = new double[0];
+
+        void fill(TickSnapshot snapshot, double[] probabilities) {
+            List<TickSnapshot.Runner> runners = snapshot.runners();
+            size = runners.size();
+            if (species.length < size) {
+                species = new Species[size];
+                positions = new double[size];
+                currentSpeeds = new double[size];
+                speedStates = new SpeedState[size];
+                winProbabilities = new double[size];
+            }
+            finishLine = snapshot.finishLine();
+            for (int i = 0; i < size; i++) {
+                TickSnapshot.Runner runner = runners.get(i);
+                species[i] = runner.species();
+                positions[i] = runner.position();
+                currentSpeeds[i] = runner.currentSpeed();
+                speedStates[i] = runner.speedState();
+                winProbabilities[i] = probabilities[i];
+            }
+        }
+
+        int size() { return size; }
+        double finishLine() { return finishLine; }
+        Species species(int runner) { return species[runner]; }
+        double position(int runner) { return positions[runner]; }
+        double currentSpeed(int runner) { return currentSpeeds[runner]; }
+        SpeedState speedState(int runner) { return speedStates[runner]; }
+        double winProbability(int runner) { return winProbabilities[runner]; }
+    }
+}
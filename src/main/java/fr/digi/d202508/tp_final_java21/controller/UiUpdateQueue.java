@@ -0,0 +1,72 @@
+package fr.digi.d202508.tp_final_java21.controller;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+/**
+ * Coalesces the UI updates posted by background threads into a single task on the UI thread.
+ * <p>
+ * Updates wait in a pending map until the UI thread runs them; only the first update posted
+ * after a flush schedules one, so a burst of updates costs one {@code Platform.runLater}. An update
+ * posted under a key replaces the pending update of the same key (e.g. the status label of an
+ * older round), so the pending map never holds more than one update per key, however fast the
+ * background thread goes. Updates run in the order they were last posted.
+ */
+public final class UiUpdateQueue {
+
+    private final Executor uiThread;
+    private final Map<Object, Runnable> pending = new LinkedHashMap<>();
+    private boolean scheduled;
+
+    /**
+     * @param uiThread runs the flushes on the UI thread ({@code Platform::runLater})
+     */
+    public UiUpdateQueue(Executor uiThread) {
+        this.uiThread = uiThread;
+    }
+
+    /**
+     * Posts an update replacing the pending one of the same key
+     * @param key kind of update
+     * @param update code to run on the UI thread
+     */
+    public void post(Object key, Runnable update) {
+        boolean schedule;
+        synchronized (pending) {
+            // Moved to the end: it runs after the updates posted before it
+            pending.remove(key);
+            pending.put(key, update);
+            schedule = !scheduled;
+            scheduled = true;
+        }
+        if (schedule) {
+            uiThread.execute(this::flush);
+        }
+    }
+
+    /**
+     * Posts an update that is never replaced
+     * @param update code to run on the UI thread
+     */
+    public void post(Runnable update) {
+        post(new Object(), update);
+    }
+
+    /**
+     * Runs the pending updates; on the UI thread
+     */
+    private void flush() {
+        List<Runnable> updates;
+        synchronized (pending) {
+            updates = new ArrayList<>(pending.values());
+            pending.clear();
+            scheduled = false;
+        }
+        for (Runnable update : updates) {
+            update.run();
+        }
+    }
+}
@@ -1,7 +1,8 @@
 package fr.digi.d202508.tp_final_java21.display;
 
+import fr.digi.d202508.tp_final_java21.config.RaceConfig;
 import fr.digi.d202508.tp_final_java21.model.Animal;
-import fr.digi.d202508.tp_final_java21.service.RaceTrack;
+import fr.digi.d202508.tp_final_java21.service.PacingPolicy;
 
 import java.util.List;
 
@@ -11,7 +12,23 @@ import java.util.List;
  */
 public class ConsoleDisplay {
 
-    private static final int TRACK_WIDTH = 50; // Visual width matching the 50 units
+    private static final int TRACK_WIDTH = 50; // Visual width in characters, whatever the track length
+
+    private final RaceConfig config;
+    private final PacingPolicy pacing;
+
+    public ConsoleDisplay() {
+        this(RaceConfig.defaults(), PacingPolicy.interactive());
+    }
+
+    public ConsoleDisplay(RaceConfig config) {
+        this(config, PacingPolicy.interactive());
+    }
+
+    public ConsoleDisplay(RaceConfig config, PacingPolicy pacing) {
+        this.config = config;
+        this.pacing = pacing;
+    }
 
     /**
      * Clears the console screen using ANSI escape codes.
@@ -42,28 +59,27 @@ public class ConsoleDisplay {
         System.out.println("╚════════════════════════════════════════════════════════╝");
         System.out.println();
         System.out.println("  Participants:");
-        System.out.println("    - Tortue 🐢 : Vitesse 5-7 km/h");
-        System.out.println("    - Lapin  🐰 : Vitesse 8-10 km/h");
-        System.out.println("    - Cheval 🐴 : Vitesse 9-10 km/h");
+        System.out.printf("    - Tortue 🐢 : Vitesse %.0f-%.0f km/h%n",
+                config.tortue().minSpeed(), config.tortue().maxSpeed());
+        System.out.printf("    - Lapin  🐰 : Vitesse %.0f-%.0f km/h%n",
+                config.lapin().minSpeed(), config.lapin().maxSpeed());
+        System.out.printf("    - Cheval 🐴 : Vitesse %.0f-%.0f km/h%n",
+                config.cheval().minSpeed(), config.cheval().maxSpeed());
         System.out.println();
-        System.out.println("  Distance à parcourir: 50 unités");
+        System.out.println("  Distance à parcourir: " + config.finishLine() + " unités");
         System.out.println();
         System.out.println("  La course va commencer dans...");
 
-        // Countdown
-        for (int i = 3; i > 0; i--) {
-            System.out.println("    " + i + "...");
-            try {
-                Thread.sleep(1000);
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
+        // Countdown (delays go through the pacing policy, skipped when unpaced)
+        try {
+            for (int i = 3; i > 0; i--) {
+                System.out.println("    " + i + "...");
+                pacing.pause(1000);
             }
-        }
-        System.out.println("    GO! ");
-        System.out.println();
+            System.out.println("    GO! ");
+            System.out.println();
 
-        try {
-            Thread.sleep(500);
+            pacing.pause(500);
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
         }
@@ -95,7 +111,7 @@ public class ConsoleDisplay {
         }
 
         System.out.println();
-        System.out.println("Distance totale: 50 unités");
+        System.out.println("Distance totale: " + config.finishLine() + " unités");
     }
 
     /**
@@ -103,7 +119,7 @@ public class ConsoleDisplay {
      * @param animal the animal to draw
      */
     private void drawAnimalPosition(Animal animal) {
-        int visualPosition = (int) ((animal.getPosition() / RaceTrack.FINISH_LINE) * TRACK_WIDTH);
+        int visualPosition = (int) ((animal.getPosition() / config.finishLine()) * TRACK_WIDTH);
 
         if (visualPosition > TRACK_WIDTH) {
             visualPosition = TRACK_WIDTH;
@@ -135,8 +151,8 @@ public class ConsoleDisplay {
             speedIndicator = "️🤖"; // Normal
         }
 
-        trackLine.append(String.format(" %s %.1f/50 (%.1f km/h %s)",
-                speedIndicator, animal.getPosition(), currentSpeed,
+        trackLine.append(String.format(" %s %.1f/%d (%.1f km/h %s)",
+                speedIndicator, animal.getPosition(), config.finishLine(), currentSpeed,
                 currentSpeed > baseSpeed ? "⬆" : currentSpeed < baseSpeed ? "⬇︎️" : ""));
 
         System.out.println(trackLine);
@@ -1,141 +1,235 @@
 package fr.digi.d202508.tp_final_java21.model;
 
 import fr.digi.d202508.tp_final_java21.service.RaceTrack;
+import fr.digi.d202508.tp_final_java21.service.SimulationClock;
 
-import java.util.Random;
+import java.util.Comparator;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.random.RandomGenerator;
 
+/**
+ * Base class of every runner.
+ * The immutable characteristics of the species are shared through a {@link SpeciesProfile}
+ * (flyweight); an Animal only holds a reference to it plus its own mutable race state.
+ */
 public sealed abstract class Animal implements Runnable permits Tortue, Lapin, Cheval {
 
-    private final String name;
-    private double position; // Current position in units (0 to 50)
+    /**
+     * Finishing order: animals that crossed the line first (earliest fractional tick),
+     * then the others by position; exact ties go to the lowest runner index
+     */
+    public static final Comparator<Animal> FINISH_ORDER = Comparator
+            .comparing(Animal::isFinished).reversed()
+            .thenComparingDouble(animal -> animal.isFinished() ? animal.getFinishTick() : -animal.getPosition())
+            .thenComparingInt(Animal::getRunnerIndex);
+
+    private final SpeciesProfile profile; // Shared species constants and precomputed thresholds
+    private final RaceTrack raceTrack;
+    private double position; // Current position in units (0 to finish line)
     private double baseSpeed; // Base speed in km/h
     private double currentSpeed; // Current speed (can vary)
-    private boolean finished;
-    private final RaceTrack raceTrack;
+    private SpeedState speedState; // Variation drawn on the last move
+    private double finishTick; // Fractional tick at which the finish line was crossed
     private int moveCount; // Track number of moves for fatigue calculation
+    private boolean finished;
+    private int runnerIndex = -1; // Place among the participants of its track
 
-    // Random generator for speed variation
-    private static final Random random = new Random();
-
-    // Conversion factor: 1 unit = 1 meter
-    private static final double CONVERSION_FACTOR = 1.0;
-
-    // Speed variation constants
-    private static final double SPEED_BOOST_PROBABILITY = 0.15; // 15% chance of boost
-    private static final double SPEED_FATIGUE_PROBABILITY = 0.20; // 20% chance of slowdown
-    private static final double BOOST_MULTIPLIER = 1.5; // 50% speed increase
-    private static final double FATIGUE_MULTIPLIER = 0.7; // 30% speed decrease
-
-    protected Animal(String name, RaceTrack raceTrack) {
-        this.name = name;
+    protected Animal(Species species, RaceTrack raceTrack) {
+        this.profile = raceTrack.getProfile(species);
+        this.raceTrack = raceTrack;
         this.position = 0.0;
         this.finished = false;
-        this.raceTrack = raceTrack;
         this.moveCount = 0;
 
         // Generate random speed within the animal's speed range
-        double[] speedRange = getSpeedRange();
-        this.baseSpeed = speedRange[0] + (speedRange[1] - speedRange[0]) * random.nextDouble();
+        drawBaseSpeed(ThreadLocalRandom.current());
+    }
+
+    /**
+     * Draws a new random base speed within the animal's speed range
+     * @param random random generator to draw from
+     */
+    private void drawBaseSpeed(RandomGenerator random) {
+        setBaseSpeedQuantile(random.nextDouble());
+    }
+
+    private void setBaseSpeedQuantile(double quantile) {
+        this.baseSpeed = profile.minSpeed() + profile.speedSpan() * quantile;
         this.currentSpeed = baseSpeed;
+        this.speedState = SpeedState.NORMAL;
     }
 
     /**
-     * Abstract method to define speed range for each animal type
-     * @return array with [minSpeed, maxSpeed] in km/h
+     * Puts the animal back on the starting line with a new base speed,
+     * so that the same instance can run another round
      */
-    protected abstract double[] getSpeedRange();
+    public void reset() {
+        reset(ThreadLocalRandom.current());
+    }
 
     /**
-     * Abstract method to get the character representation for display
-     * @return character or emoji representing the animal
+     * Puts the animal back on the starting line with a base speed drawn from the given generator
+     * @param random random generator to draw from (seeded for reproducible batch runs)
      */
-    public abstract String getDisplayChar();
+    public void reset(RandomGenerator random) {
+        resetAtSpeedQuantile(random.nextDouble());
+    }
 
     /**
-     * Abstract method to get stamina characteristics
-     * Higher stamina = less affected by fatigue
-     * @return stamina value (0.0 to 1.0)
+     * Puts the animal back on the starting line with a chosen base speed
+     * (used to stratify the base speeds of batch simulations)
+     * @param quantile position of the base speed in the species' speed range, from 0 (min) to 1 (max)
      */
-    protected abstract double getStamina();
+    public void resetAtSpeedQuantile(double quantile) {
+        if (quantile < 0.0 || quantile > 1.0) {
+            throw new IllegalArgumentException("Le quantile de vitesse doit être entre 0 et 1: " + quantile);
+        }
+        this.position = 0.0;
+        this.finished = false;
+        this.moveCount = 0;
+        this.finishTick = 0.0;
+        setBaseSpeedQuantile(quantile);
+    }
 
     /**
-     * Calculates current speed with random variations
-     * Simulates bursts of energy and moments of fatigue
+     * Calculates current speed with random variations and the distance it covers in one tick.
+     * Simulates bursts of energy and moments of fatigue; the stamina-adjusted thresholds
+     * and the km/h to units-per-tick factors are precomputed in the species profile.
+     *
+     * @param random random generator for the variation
+     * @return distance moved during this tick, in units
      */
-    private void updateCurrentSpeed() {
-        double speedMultiplier = 1.0;
+    private double updateCurrentSpeed(RandomGenerator random) {
         double rand = random.nextDouble();
 
-        // Apply stamina factor (better stamina = less fatigue effect)
-        double staminaFactor = getStamina();
-        double adjustedFatigueProbability = SPEED_FATIGUE_PROBABILITY * (1 - staminaFactor * 0.5);
-
-        if (rand < SPEED_BOOST_PROBABILITY) {
+        if (rand < profile.boostCutoff()) {
             // Speed boost! (burst of energy)
-            speedMultiplier = BOOST_MULTIPLIER;
-        } else if (rand < SPEED_BOOST_PROBABILITY + adjustedFatigueProbability) {
-            // Fatigue/slowdown
-            speedMultiplier = FATIGUE_MULTIPLIER;
+            currentSpeed = baseSpeed * profile.boostMultiplier();
+            speedState = SpeedState.BOOST;
+            return baseSpeed * profile.boostDistanceFactor();
+        } else if (rand < profile.fatigueCutoff()) {
+            // Fatigue/slowdown (less likely with a good stamina)
+            currentSpeed = baseSpeed * profile.fatigueMultiplier();
+            speedState = SpeedState.FATIGUE;
+            return baseSpeed * profile.fatigueDistanceFactor();
         }
         // else: normal speed
-        currentSpeed = baseSpeed * speedMultiplier;
+        currentSpeed = baseSpeed;
+        speedState = SpeedState.NORMAL;
+        return baseSpeed * profile.normalDistanceFactor();
+    }
+
+    /**
+     * Performs one move: draws the speed variation and advances by one simulated tick.
+     * Used by the runner threads and, without any thread, by batch heat simulations.
+     *
+     * @param random random generator for the speed variation
+     * @return true if this move reached the finish line
+     */
+    public boolean step(RandomGenerator random) {
+        // Update speed with random variation and get the distance moved during one simulated tick
+        double distanceMoved = updateCurrentSpeed(random);
+        double previousPosition = position;
+        position += distanceMoved;
+        moveCount++;
+
+        // Check if animal reached finish line
+        double finishLine = profile.finishLine();
+        if (position >= finishLine) {
+            // Fraction of the tick actually needed, to separate animals finishing on the same tick
+            finishTick = moveCount - 1 + (finishLine - previousPosition) / distanceMoved;
+            position = finishLine;
+            finished = true;
+            return true;
+        }
+        return false;
     }
 
     /**
-     * Calculates distance moved based on speed and time interval
-     * Formula: distance = speed * time
-     * Speed is in km/h, converted to units/second
+     * Performs several moves at once, given how many of them were boosts and slowdowns.
+     * Used by batch simulations that draw whole blocks of ticks; the moves must not reach the line.
      *
-     * @param speedKmh speed in kilometers per hour
-     * @param timeSeconds time interval in seconds
-     * @return distance moved in units
+     * @param ticks number of moves
+     * @param boosts moves drawn as a boost
+     * @param fatigues moves drawn as a slowdown (the others are at normal pace)
+     * @param lastState variation of the last move of the block
+     * @throws IllegalArgumentException if the counts are inconsistent or the block reaches the line
      */
-    private double calculateDistance(double speedKmh, double timeSeconds) {
-        // Convert km/h to m/s: speed * 1000 / 3600
-        // Then multiply by time to get distance
-        double metersPerSecond = speedKmh * 1000.0 / 3600.0;
-        return metersPerSecond * timeSeconds * CONVERSION_FACTOR;
+    public void skipAhead(int ticks, int boosts, int fatigues, SpeedState lastState) {
+        int normals = ticks - boosts - fatigues;
+        if (boosts < 0 || fatigues < 0 || normals < 0) {
+            throw new IllegalArgumentException("Répartition de mouvements invalide: " + ticks + "/" + boosts + "/" + fatigues);
+        }
+        double distance = baseSpeed * (boosts * profile.boostDistanceFactor()
+                + fatigues * profile.fatigueDistanceFactor()
+                + normals * profile.normalDistanceFactor());
+        if (position + distance >= profile.finishLine()) {
+            throw new IllegalArgumentException("Un bloc de mouvements ne doit pas atteindre l'arrivée");
+        }
+        position += distance;
+        moveCount += ticks;
+        speedState = lastState;
+        currentSpeed = switch (lastState) {
+            case BOOST -> baseSpeed * profile.boostMultiplier();
+            case FATIGUE -> baseSpeed * profile.fatigueMultiplier();
+            case NORMAL -> baseSpeed;
+        };
     }
 
     /**
      * Main run method for the thread.
      * Animal moves at regular intervals until race finishes or it reaches the finish line.
+     * Each move covers one simulated tick; the race clock decides how long to wait in real time.
      */
     @Override
     public void run() {
+        SimulationClock clock = raceTrack.getClock();
         try {
+            RandomGenerator random = ThreadLocalRandom.current();
+            // Released together with the other runners in LOCKSTEP mode
+            clock.awaitStart();
             while (!raceTrack.isRaceFinished() && !finished) {
-                // Update speed with random variation
-                updateCurrentSpeed();
-
-                // Calculate distance moved in 500ms interval
-                double distanceMoved = calculateDistance(currentSpeed, RaceTrack.SLEEP_INTERVAL_MS / 1000.0);
-                position += distanceMoved;
-                moveCount++;
-
                 // Check if animal reached finish line
-                if (position >= RaceTrack.FINISH_LINE) {
-                    position = RaceTrack.FINISH_LINE;
-                    finished = true;
-
+                if (step(random)) {
                     // Attempt to declare victory
                     if (raceTrack.declareWinner(this)) {
                         // This animal won!
                     }
                 }
 
-                // Sleep for the specified interval
-                Thread.sleep(RaceTrack.SLEEP_INTERVAL_MS);
+                // Let the observers know (no-op while nobody is subscribed)
+                raceTrack.publishMove(this);
+
+                // Wait for the next tick (real, scaled or virtual time)
+                clock.awaitNextTick();
             }
         } catch (InterruptedException e) {
             // Thread was interrupted (race ended by another winner)
             Thread.currentThread().interrupt();
+        } finally {
+            clock.deregister();
         }
     }
 
     // Getters
     public String getName() {
-        return name;
+        return profile.name();
+    }
+
+    /**
+     * Returns the character representation for display
+     * @return emoji representing the animal
+     */
+    public String getDisplayChar() {
+        return profile.displayChar();
+    }
+
+    public Species getSpecies() {
+        return profile.species();
+    }
+
+    public SpeciesProfile getProfile() {
+        return profile;
     }
 
     public double getPosition() {
@@ -150,12 +244,45 @@ public sealed abstract class Animal implements Runnable permits Tortue, Lapin, C
         return currentSpeed;
     }
 
+    public SpeedState getSpeedState() {
+        return speedState;
+    }
+
     public boolean isFinished() {
         return finished;
     }
 
+    public int getMoveCount() {
+        return moveCount;
+    }
+
+    /**
+     * Place of the animal among the participants of its track, used by the track to index
+     * the moves it publishes and to break exact ties at the finish
+     * @return index in {@link RaceTrack#getParticipants()}, -1 before it joins the track
+     */
+    public int getRunnerIndex() {
+        return runnerIndex;
+    }
+
+    /**
+     * Called by the track when the animal joins it
+     * @param runnerIndex index in {@link RaceTrack#getParticipants()}
+     */
+    public void setRunnerIndex(int runnerIndex) {
+        this.runnerIndex = runnerIndex;
+    }
+
+    /**
+     * Simulated time needed to reach the finish line, in ticks (fractional)
+     * @return finish tick, or 0 if the animal has not finished
+     */
+    public double getFinishTick() {
+        return finishTick;
+    }
+
     @Override
     public String toString() {
-        return String.format("%s (%.2f km/h)", name, baseSpeed);
+        return String.format("%s (%.2f km/h)", getName(), baseSpeed);
     }
 }
\ No newline at end of file
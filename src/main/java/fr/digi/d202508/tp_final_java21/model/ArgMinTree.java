@@ -0,0 +1,63 @@
+package fr.digi.d202508.tp_final_java21.model;
+
+import java.util.Arrays;
+
+/**
+ * Index of the smallest of a growing array of values, kept up to date in O(log n) per change.
+ * <p>
+ * Tournament tree stored in flat arrays: the leaves hold the values, every inner node the index of
+ * the smallest leaf below it, so that changing a value replays only the matches on its way up to
+ * the root. Ties go to the lowest index. Unset indexes hold +infinity. Not thread-safe.
+ */
+final class ArgMinTree {
+
+    private double[] values = new double[0];
+    // winners[node] for node in 1..capacity-1; leaf i is node capacity + i
+    private int[] winners = new int[0];
+    private int capacity;
+    private int size;
+
+    /**
+     * Sets the value at an index, growing the tree if needed
+     * @param index index of the value (e.g. competitor id)
+     * @param value new value
+     */
+    void set(int index, double value) {
+        if (index >= capacity) {
+            grow(index + 1);
+        }
+        values[index] = value;
+        size = Math.max(size, index + 1);
+        for (int node = (capacity + index) >>> 1; node > 0; node >>>= 1) {
+            winners[node] = winner(node << 1, (node << 1) + 1);
+        }
+    }
+
+    /**
+     * Index of the smallest value
+     * @return index, or -1 if no value was set
+     */
+    int argMin() {
+        if (size == 0) {
+            return -1;
+        }
+        return capacity == 1 ? 0 : winners[1];
+    }
+
+    private int winner(int left, int right) {
+        int leftIndex = left >= capacity ? left - capacity : winners[left];
+        int rightIndex = right >= capacity ? right - capacity : winners[right];
+        return values[rightIndex] < values[leftIndex] ? rightIndex : leftIndex;
+    }
+
+    private void grow(int minimum) {
+        int newCapacity = Math.max(1, Integer.highestOneBit(minimum - 1) << 1);
+        values = Arrays.copyOf(values, newCapacity);
+        Arrays.fill(values, capacity, newCapacity, Double.POSITIVE_INFINITY);
+        capacity = newCapacity;
+        winners = new int[capacity];
+        for (int node = capacity - 1; node > 0; node--) {
+            winners[node] = winner(node << 1, (node << 1) + 1);
+        }
+    }
+}
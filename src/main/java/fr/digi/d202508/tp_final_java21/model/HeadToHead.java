@@ -0,0 +1,329 @@
+package fr.digi.d202508.tp_final_java21.model;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Head-to-head counts between competitors: how many times a finished ahead of b, for every pair
+ * that met in a round. Competitors are the dense ids of {@link RaceStatistics}.
+ * <p>
+ * Up to {@value #DENSE_LIMIT} competitors the counts live in a dense row-major {@code int[]}
+ * matrix, grown by doubling (16 MB at the limit); beyond, in a sparse open-addressing table with
+ * one entry per pair that actually met, holding both counts. A round of k competitors adds one to
+ * the k(k-1)/2 pairs it decides, walking its ranking once per place: for each competitor, the ones
+ * ranked after it. Not thread-safe: one per statistics tracker, merged afterwards.
+ */
+public final class HeadToHead {
+
+    static final int DENSE_LIMIT = 2048;
+
+    private static final long EMPTY_KEY = -1L;
+
+    // Dense storage: counts[a * capacity + b], null once sparse
+    private int[] counts = new int[0];
+    private int capacity;
+    // Sparse storage: pair key (a << 32 | b with a < b), times a and b finished ahead, linear probing
+    private long[] keys;
+    private int[] lowAhead;
+    private int[] highAhead;
+    private int used;
+
+    /**
+     * Receives the pairs that met, once per unordered pair
+     */
+    @FunctionalInterface
+    public interface MeetingVisitor {
+        /**
+         * @param a id of the first competitor (a < b)
+         * @param b id of the second competitor
+         * @param aAhead times a finished ahead of b
+         * @param bAhead times b finished ahead of a
+         */
+        void visit(int a, int b, int aAhead, int bAhead);
+    }
+
+    /**
+     * Counts the pairs decided by a round
+     * @param ranking ids of the round, winner first
+     * @param count number of competitors in the round
+     */
+    void recordRanking(int[] ranking, int count) {
+        int highest = -1;
+        for (int i = 0; i < count; i++) {
+            highest = Math.max(highest, ranking[i]);
+        }
+        ensureCompetitors(highest + 1);
+        for (int r = 0; r < count; r++) {
+            int ahead = ranking[r];
+            if (counts != null) {
+                int row = ahead * capacity;
+                for (int s = r + 1; s < count; s++) {
+                    if (ranking[s] != ahead) {
+                        counts[row + ranking[s]]++;
+                    }
+                }
+            } else {
+                for (int s = r + 1; s < count; s++) {
+                    if (ranking[s] != ahead) {
+                        add(ahead, ranking[s], 1);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Times a finished ahead of b
+     * @param a id of a competitor
+     * @param b id of another competitor
+     * @return count, 0 if they never met
+     */
+    public int ahead(int a, int b) {
+        if (counts != null) {
+            return a < capacity && b < capacity ? counts[a * capacity + b] : 0;
+        }
+        int slot = find(key(a, b));
+        if (keys[slot] == EMPTY_KEY) {
+            return 0;
+        }
+        return a < b ? lowAhead[slot] : highAhead[slot];
+    }
+
+    /**
+     * Number of rounds where a and b both raced
+     * @param a id of a competitor
+     * @param b id of another competitor
+     * @return count
+     */
+    public int meetings(int a, int b) {
+        return ahead(a, b) + ahead(b, a);
+    }
+
+    /**
+     * Tells whether the counts are still in the dense matrix
+     * @return false once there are more than {@value #DENSE_LIMIT} competitors
+     */
+    public boolean isDense() {
+        return counts != null;
+    }
+
+    /**
+     * Hands every pair that met to the visitor, in no particular order
+     * @param visitor receives the pairs
+     */
+    public void forEachMeeting(MeetingVisitor visitor) {
+        if (counts != null) {
+            for (int a = 0; a < capacity; a++) {
+                int row = a * capacity;
+                for (int b = a + 1; b < capacity; b++) {
+                    int aAhead = counts[row + b];
+                    int bAhead = counts[b * capacity + a];
+                    if (aAhead != 0 || bAhead != 0) {
+                        visitor.visit(a, b, aAhead, bAhead);
+                    }
+                }
+            }
+            return;
+        }
+        for (int slot = 0; slot < keys.length; slot++) {
+            long key = keys[slot];
+            if (key != EMPTY_KEY) {
+                visitor.visit((int) (key >>> 32), (int) key, lowAhead[slot], highAhead[slot]);
+            }
+        }
+    }
+
+    /**
+     * Adds the counts of another tracker
+     * @param other counts gathered elsewhere
+     * @param ids id in this tracker of each id of the other one
+     */
+    void merge(HeadToHead other, int[] ids) {
+        other.forEachMeeting((a, b, aAhead, bAhead) -> {
+            add(ids[a], ids[b], aAhead);
+            add(ids[b], ids[a], bAhead);
+        });
+    }
+
+    HeadToHead copy() {
+        HeadToHead copy = new HeadToHead();
+        copy.capacity = capacity;
+        copy.counts = counts == null ? null : counts.clone();
+        copy.keys = keys == null ? null : keys.clone();
+        copy.lowAhead = lowAhead == null ? null : lowAhead.clone();
+        copy.highAhead = highAhead == null ? null : highAhead.clone();
+        copy.used = used;
+        return copy;
+    }
+
+    /**
+     * Writes the pairs that met (see {@link #readFrom(DataInput)})
+     * @param out destination
+     * @throws IOException if writing fails
+     */
+    void writeTo(DataOutput out) throws IOException {
+        int[] meetings = new int[1];
+        forEachMeeting((a, b, aAhead, bAhead) -> meetings[0]++);
+        out.writeInt(meetings[0]);
+        IOException[] failure = new IOException[1];
+        forEachMeeting((a, b, aAhead, bAhead) -> {
+            if (failure[0] == null) {
+                try {
+                    out.writeInt(a);
+                    out.writeInt(b);
+                    out.writeInt(aAhead);
+                    out.writeInt(bAhead);
+                } catch (IOException e) {
+                    failure[0] = e;
+                }
+            }
+        });
+        if (failure[0] != null) {
+            throw failure[0];
+        }
+    }
+
+    /**
+     * Reads counts written by {@link #writeTo(DataOutput)}
+     * @param in source
+     * @param competitors number of competitors of the statistics being read
+     * @return the counts
+     * @throws IOException if reading fails or a competitor id is out of range
+     */
+    static HeadToHead readFrom(DataInput in, int competitors) throws IOException {
+        HeadToHead headToHead = new HeadToHead();
+        headToHead.ensureCompetitors(competitors);
+        int meetings = in.readInt();
+        for (int i = 0; i < meetings; i++) {
+            int a = in.readInt();
+            int b = in.readInt();
+            if (a < 0 || b < 0 || a >= competitors || b >= competitors) {
+                throw new IOException("Face-à-face invalide: " + a + " / " + b);
+            }
+            headToHead.add(a, b, in.readInt());
+            headToHead.add(b, a, in.readInt());
+        }
+        return headToHead;
+    }
+
+    /**
+     * Makes room for ids 0..competitors-1, switching to the sparse table past the dense limit
+     */
+    void ensureCompetitors(int competitors) {
+        if (counts == null || competitors <= capacity) {
+            return;
+        }
+        if (competitors > DENSE_LIMIT) {
+            toSparse();
+            return;
+        }
+        int newCapacity = Math.max(4, capacity);
+        while (newCapacity < competitors) {
+            newCapacity <<= 1;
+        }
+        newCapacity = Math.min(newCapacity, DENSE_LIMIT);
+        int[] grown = new int[newCapacity * newCapacity];
+        for (int a = 0; a < capacity; a++) {
+            System.arraycopy(counts, a * capacity, grown, a * newCapacity, capacity);
+        }
+        counts = grown;
+        capacity = newCapacity;
+    }
+
+    private void toSparse() {
+        int[] dense = counts;
+        int denseCapacity = capacity;
+        int pairs = 0;
+        for (int count : dense) {
+            pairs += count != 0 ? 1 : 0;
+        }
+        keys = new long[tableSize(pairs)];
+        Arrays.fill(keys, EMPTY_KEY);
+        lowAhead = new int[keys.length];
+        highAhead = new int[keys.length];
+        counts = null;
+        for (int a = 0; a < denseCapacity; a++) {
+            for (int b = 0; b < denseCapacity; b++) {
+                int count = dense[a * denseCapacity + b];
+                if (count != 0) {
+                    add(a, b, count);
+                }
+            }
+        }
+    }
+
+    private void add(int a, int b, int count) {
+        if (count == 0) {
+            return;
+        }
+        if (counts != null) {
+            ensureCompetitors(Math.max(a, b) + 1);
+        }
+        if (counts != null) {
+            counts[a * capacity + b] += count;
+            return;
+        }
+        long key = key(a, b);
+        int slot = find(key);
+        if (keys[slot] == EMPTY_KEY) {
+            if ((used + 1) * 2 > keys.length) {
+                rehash(keys.length * 2);
+                slot = find(key);
+            }
+            keys[slot] = key;
+            used++;
+        }
+        if (a < b) {
+            lowAhead[slot] += count;
+        } else {
+            highAhead[slot] += count;
+        }
+    }
+
+    private int find(long key) {
+        int mask = keys.length - 1;
+        int slot = (int) mix(key) & mask;
+        while (keys[slot] != EMPTY_KEY && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void rehash(int newSize) {
+        long[] oldKeys = keys;
+        int[] oldLowAhead = lowAhead;
+        int[] oldHighAhead = highAhead;
+        keys = new long[newSize];
+        Arrays.fill(keys, EMPTY_KEY);
+        lowAhead = new int[newSize];
+        highAhead = new int[newSize];
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY_KEY) {
+                int slot = find(oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                lowAhead[slot] = oldLowAhead[i];
+                highAhead[slot] = oldHighAhead[i];
+            }
+        }
+    }
+
+    private static int tableSize(int pairs) {
+        return Math.max(16, Integer.highestOneBit(Math.max(1, pairs) * 4 - 1) << 1);
+    }
+
+    /**
+     * Same key for (a, b) and (b, a)
+     */
+    private static long key(int a, int b) {
+        return ((long) Math.min(a, b) << 32) | Math.max(a, b);
+    }
+
+    private static long mix(long key) {
+        // Spreads the pair over the table (Stafford variant 13 of the MurmurHash3 finalizer)
+        key = (key ^ (key >>> 30)) * 0xBF58476D1CE4E5B9L;
+        key = (key ^ (key >>> 27)) * 0x94D049BB133111EBL;
+        return key ^ (key >>> 31);
+    }
+}
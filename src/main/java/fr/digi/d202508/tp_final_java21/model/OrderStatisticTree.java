@@ -0,0 +1,171 @@
+package fr.digi.d202508.tp_final_java21.model;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Sorted set answering "rank of x" and "first k elements" in O(log n) (plus k), besides insertion and removal.
+ * <p>
+ * Randomized balanced tree (treap): every node keeps the size of its subtree, so a rank is the sum
+ * of the left subtree sizes met on the way down. The order must be total (ties broken, e.g. by
+ * name) and the key of an element must not change while it is in the tree: remove it, update it,
+ * then add it back. Priorities come from a fixed seed, so the shape is reproducible. Not thread-safe.
+ *
+ * @param <T> type of the elements
+ */
+final class OrderStatisticTree<T> {
+
+    private final Comparator<? super T> comparator;
+    private final SplittableRandom priorities = new SplittableRandom(0x5EED);
+    private Node<T> root;
+    // Result of the last split
+    private Node<T> splitLeft;
+    private Node<T> splitRight;
+
+    OrderStatisticTree(Comparator<? super T> comparator) {
+        this.comparator = comparator;
+    }
+
+    private static final class Node<T> {
+        private final T value;
+        private final int priority;
+        private int size = 1;
+        private Node<T> left;
+        private Node<T> right;
+
+        private Node(T value, int priority) {
+            this.value = value;
+            this.priority = priority;
+        }
+    }
+
+    /**
+     * Adds an element, which must not be in the tree already
+     * @param value element to add
+     */
+    void add(T value) {
+        split(root, value, false);
+        Node<T> left = splitLeft;
+        Node<T> right = splitRight;
+        root = join(join(left, new Node<>(value, priorities.nextInt())), right);
+    }
+
+    /**
+     * Removes an element, looked up with its current key
+     * @param value element to remove
+     * @return true if it was in the tree
+     */
+    boolean remove(T value) {
+        split(root, value, false);
+        Node<T> left = splitLeft;
+        split(splitRight, value, true);
+        Node<T> removed = splitLeft;
+        Node<T> right = splitRight;
+        root = join(left, right);
+        return removed != null;
+    }
+
+    /**
+     * Position of an element in the order
+     * @param value element to look up
+     * @return 0 for the first element, -1 if it is not in the tree
+     */
+    int rank(T value) {
+        int rank = 0;
+        Node<T> node = root;
+        while (node != null) {
+            int order = comparator.compare(value, node.value);
+            if (order < 0) {
+                node = node.left;
+            } else if (order > 0) {
+                rank += size(node.left) + 1;
+                node = node.right;
+            } else {
+                return rank + size(node.left);
+            }
+        }
+        return -1;
+    }
+
+    int size() {
+        return size(root);
+    }
+
+    /**
+     * Elements in order, at most the given number
+     * @param count number of elements wanted
+     * @return the first elements, in O(count + log n)
+     */
+    List<T> first(int count) {
+        List<T> values = new ArrayList<>(Math.min(count, size()));
+        Deque<Node<T>> path = new ArrayDeque<>();
+        Node<T> node = root;
+        while (values.size() < count && (node != null || !path.isEmpty())) {
+            if (node != null) {
+                path.push(node);
+                node = node.left;
+            } else {
+                node = path.pop();
+                values.add(node.value);
+                node = node.right;
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Splits a subtree into the elements before the value (splitLeft) and the others (splitRight);
+     * with inclusive, the value itself goes to splitLeft
+     */
+    private void split(Node<T> node, T value, boolean inclusive) {
+        if (node == null) {
+            splitLeft = null;
+            splitRight = null;
+            return;
+        }
+        int order = comparator.compare(node.value, value);
+        if (order < 0 || (inclusive && order == 0)) {
+            split(node.right, value, inclusive);
+            node.right = splitLeft;
+            update(node);
+            splitLeft = node;
+        } else {
+            split(node.left, value, inclusive);
+            node.left = splitRight;
+            update(node);
+            splitRight = node;
+        }
+    }
+
+    /**
+     * Joins two subtrees, every element of the left one coming before those of the right one
+     */
+    private Node<T> join(Node<T> left, Node<T> right) {
+        if (left == null) {
+            return right;
+        }
+        if (right == null) {
+            return left;
+        }
+        if (left.priority > right.priority) {
+            left.right = join(left.right, right);
+            update(left);
+            return left;
+        }
+        right.left = join(left, right.left);
+        update(right);
+        return right;
+    }
+
+    private static void update(Node<?> node) {
+        node.size = 1 + size(node.left) + size(node.right);
+    }
+
+    private static int size(Node<?> node) {
+        return node == null ? 0 : node.size;
+    }
+}
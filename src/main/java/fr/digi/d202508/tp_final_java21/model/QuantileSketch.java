@@ -0,0 +1,206 @@
+package fr.digi.d202508.tp_final_java21.model;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Fixed-memory, mergeable summary of a distribution of non-negative values, answering
+ * quantiles (p50, p95, p99...) within {@value #RELATIVE_ACCURACY} relative error.
+ * <p>
+ * Values are counted in logarithmic buckets (DDSketch): bucket i holds the values in
+ * (gamma^(i-1), gamma^i], with gamma = (1 + a) / (1 - a), so that the middle of a bucket is
+ * within a relative error a of every value in it. Between {@value #MIN_VALUE} and
+ * {@value #MAX_VALUE} this takes at most {@link #MAX_BUCKETS} counters whatever the number of
+ * values, and only the range of buckets actually reached is allocated (a few hundred for a speed
+ * or a finish tick). Smaller values share a single zero bucket, larger ones the last bucket;
+ * the exact minimum and maximum are kept besides.
+ * Two sketches merge exactly by adding their counters, e.g. those of parallel heat workers.
+ */
+public final class QuantileSketch {
+
+    public static final double RELATIVE_ACCURACY = 0.01;
+    static final double MIN_VALUE = 1e-3;
+    static final double MAX_VALUE = 1e7;
+
+    private static final double GAMMA = (1 + RELATIVE_ACCURACY) / (1 - RELATIVE_ACCURACY);
+    private static final double LOG_GAMMA = Math.log(GAMMA);
+    private static final int MIN_INDEX = rawIndex(MIN_VALUE);
+    private static final int MAX_INDEX = rawIndex(MAX_VALUE);
+    static final int MAX_BUCKETS = MAX_INDEX - MIN_INDEX + 1;
+
+    // Buckets MIN_INDEX + offset .. MIN_INDEX + offset + counts.length - 1
+    private long[] counts = new long[0];
+    private int offset;
+    private long zeroCount;
+    private long count;
+    private double min = Double.NaN;
+    private double max = Double.NaN;
+
+    /**
+     * Counts a value
+     * @param value non-negative value (negative ones count as zero)
+     */
+    public void add(double value) {
+        if (Double.isNaN(value)) {
+            return;
+        }
+        value = Math.max(0.0, value);
+        if (value <= MIN_VALUE) {
+            zeroCount++;
+        } else {
+            int bucket = Math.min(rawIndex(value), MAX_INDEX) - MIN_INDEX;
+            ensureCapacity(bucket, bucket);
+            counts[bucket - offset]++;
+        }
+        count++;
+        min = count == 1 ? value : Math.min(min, value);
+        max = count == 1 ? value : Math.max(max, value);
+    }
+
+    /**
+     * Adds the values counted by another sketch
+     * @param other sketch filled elsewhere (e.g. by another heat worker)
+     */
+    public void merge(QuantileSketch other) {
+        if (other.count == 0) {
+            return;
+        }
+        if (other.counts.length > 0) {
+            ensureCapacity(other.offset, other.offset + other.counts.length - 1);
+            for (int i = 0; i < other.counts.length; i++) {
+                counts[other.offset + i - offset] += other.counts[i];
+            }
+        }
+        zeroCount += other.zeroCount;
+        min = count == 0 ? other.min : Math.min(min, other.min);
+        max = count == 0 ? other.max : Math.max(max, other.max);
+        count += other.count;
+    }
+
+    /**
+     * Value below which the given fraction of the values lie
+     * @param quantile fraction between 0 and 1 (0.5 for the median, 0.99 for p99)
+     * @return estimated value, within the relative accuracy; NaN if no value was counted
+     */
+    public double quantile(double quantile) {
+        if (quantile < 0 || quantile > 1) {
+            throw new IllegalArgumentException("Le quantile doit être compris entre 0 et 1: " + quantile);
+        }
+        if (count == 0) {
+            return Double.NaN;
+        }
+        long rank = (long) (quantile * (count - 1));
+        if (rank == count - 1) {
+            return max;
+        }
+        if (rank < zeroCount) {
+            return min;
+        }
+        long seen = zeroCount;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen > rank) {
+                double value = 2 * Math.pow(GAMMA, MIN_INDEX + offset + i) / (GAMMA + 1);
+                return Math.min(max, Math.max(min, value));
+            }
+        }
+        return max;
+    }
+
+    /**
+     * Returns an independent copy of this sketch
+     * @return deep copy
+     */
+    public QuantileSketch copy() {
+        QuantileSketch copy = new QuantileSketch();
+        copy.merge(this);
+        return copy;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public double getMin() {
+        return min;
+    }
+
+    public double getMax() {
+        return max;
+    }
+
+    /**
+     * Writes the non-empty buckets (see {@link #readFrom(DataInput)})
+     * @param out destination
+     * @throws IOException if writing fails
+     */
+    void writeTo(DataOutput out) throws IOException {
+        out.writeLong(count);
+        out.writeLong(zeroCount);
+        out.writeDouble(min);
+        out.writeDouble(max);
+        int nonEmpty = 0;
+        for (long bucketCount : counts) {
+            nonEmpty += bucketCount > 0 ? 1 : 0;
+        }
+        out.writeInt(nonEmpty);
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] > 0) {
+                out.writeShort(offset + i);
+                out.writeLong(counts[i]);
+            }
+        }
+    }
+
+    /**
+     * Reads a sketch written by {@link #writeTo(DataOutput)}
+     * @param in source
+     * @return the sketch
+     * @throws IOException if reading fails or a bucket is out of range
+     */
+    static QuantileSketch readFrom(DataInput in) throws IOException {
+        QuantileSketch sketch = new QuantileSketch();
+        sketch.count = in.readLong();
+        sketch.zeroCount = in.readLong();
+        sketch.min = in.readDouble();
+        sketch.max = in.readDouble();
+        int nonEmpty = in.readInt();
+        for (int i = 0; i < nonEmpty; i++) {
+            int bucket = in.readUnsignedShort();
+            if (bucket >= MAX_BUCKETS) {
+                throw new IOException("Case d'histogramme invalide: " + bucket);
+            }
+            sketch.ensureCapacity(bucket, bucket);
+            sketch.counts[bucket - sketch.offset] = in.readLong();
+        }
+        return sketch;
+    }
+
+    /**
+     * Grows the counters so that they cover the buckets from..to, never beyond MAX_BUCKETS
+     */
+    private void ensureCapacity(int from, int to) {
+        if (counts.length == 0) {
+            counts = new long[to - from + 1];
+            offset = from;
+            return;
+        }
+        int end = offset + counts.length - 1;
+        if (from >= offset && to <= end) {
+            return;
+        }
+        // Grow by half again on the side that overflows, to amortize successive extensions
+        int margin = counts.length / 2;
+        int newOffset = from < offset ? Math.max(0, Math.min(from, offset - margin)) : offset;
+        int newEnd = to > end ? Math.min(MAX_BUCKETS - 1, Math.max(to, end + margin)) : end;
+        long[] grown = new long[newEnd - newOffset + 1];
+        System.arraycopy(counts, 0, grown, offset - newOffset, counts.length);
+        counts = grown;
+        offset = newOffset;
+    }
+
+    private static int rawIndex(double value) {
+        return (int) Math.ceil(Math.log(value) / LOG_GAMMA);
+    }
+}
@@ -0,0 +1,45 @@
+package fr.digi.d202508.tp_final_java21.model;
+
+/**
+ * Discrete events published by the RaceTrack next to the tick snapshots.
+ * Sealed: subscribers can switch over every kind of event exhaustively.
+ */
+public sealed interface RaceEvent permits RaceEvent.Boost, RaceEvent.Fatigue, RaceEvent.Finish, RaceEvent.Winner {
+
+    /**
+     * Move after which the event happened (same numbering as {@link TickSnapshot#sequence()})
+     * @return move sequence number
+     */
+    long sequence();
+
+    Species species();
+
+    /**
+     * An animal drew a burst of energy
+     * @param speed boosted speed in km/h
+     */
+    record Boost(long sequence, Species species, double speed) implements RaceEvent {
+    }
+
+    /**
+     * An animal drew a slowdown
+     * @param speed reduced speed in km/h
+     */
+    record Fatigue(long sequence, Species species, double speed) implements RaceEvent {
+    }
+
+    /**
+     * An animal crossed the finish line
+     * @param finishTick fractional tick at which the line was crossed
+     */
+    record Finish(long sequence, Species species, double finishTick) implements RaceEvent {
+    }
+
+    /**
+     * An animal was declared the winner. A later Winner event replaces an earlier one: an animal
+     * that crossed the line earlier in the same tick but was declared later takes the victory
+     * @param finishTick fractional tick at which the winner crossed the line
+     */
+    record Winner(long sequence, Species species, double finishTick) implements RaceEvent {
+    }
+}
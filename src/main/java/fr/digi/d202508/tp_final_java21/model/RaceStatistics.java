@@ -1,28 +1,79 @@
 package fr.digi.d202508.tp_final_java21.model;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.util.*;
 
 /**
  * Tracks statistics across multiple race rounds.
- * Uses Java Streams API for data analysis.
+ * <p>
+ * Means and position variances are kept as running sums, and the rankings are kept up to date by
+ * {@link #recordRound(List)} instead of being sorted or scanned on every query, so that the standings,
+ * the rank of an animal and the fastest or most consistent animal cost O(log n) even with a hundred
+ * thousand competitors:
+ * <ul>
+ *   <li>standings by wins (ties by name) in an {@link OrderStatisticTree}, where only the winner
+ *       of a round moves;</li>
+ *   <li>best average speed and lowest position variance in {@link ArgMinTree}s indexed by
+ *       competitor id (order of first appearance, which also breaks ties), updated for every
+ *       participant of the round.</li>
+ * </ul>
+ * Every round also counts who finished ahead of whom in a {@link HeadToHead} and updates the skill
+ * {@link Ratings}, both indexed by the same ids.
  */
 public class RaceStatistics {
 
+    private static final Comparator<AnimalStats> BY_WINS = Comparator.comparingInt(AnimalStats::getWins).reversed()
+            .thenComparing(AnimalStats::getName);
+    // Beyond, the pairs no longer fit in a report: see writeHeadToHeadCsv
+    private static final int FACE_TO_FACE_REPORT_LIMIT = 8;
+    private static final int CSV_CHUNK = 8192;
+
     private final Map<String, AnimalStats> animalStatistics;
+    // Indexed by competitor id
+    private final List<AnimalStats> competitors = new ArrayList<>();
+    private final OrderStatisticTree<AnimalStats> byWins = new OrderStatisticTree<>(BY_WINS);
+    // Negated average speeds, to find the largest one
+    private final ArgMinTree slowestFirst = new ArgMinTree();
+    private final ArgMinTree byPositionVariance = new ArgMinTree();
+    private HeadToHead headToHead = new HeadToHead();
+    private Ratings ratings = new Ratings();
+    // Ids of the round being recorded, reused from round to round
+    private int[] roundIds = new int[0];
     private int totalRounds;
 
     /**
-     * Inner class to hold statistics for a single animal
+     * Place of one competitor in a round, for competitors that are not {@link Animal}s
+     * @param name name of the competitor, its key in the statistics
+     * @param distance distance covered in units
+     * @param speed base speed in km/h
+     * @param finishTick tick at which it crossed the line, NaN if it did not
+     */
+    public record Placing(String name, double distance, double speed, double finishTick) {
+    }
+
+    /**
+     * Inner class to hold statistics for a single animal.
+     * Besides the means, fixed-memory {@link QuantileSketch}es give the percentiles of its base speed,
+     * final distance, finish tick (rounds where it crossed the line) and winning margin (rounds won).
      */
     public static class AnimalStats {
         private final String name;
+        private int id = -1;
         private int wins;
         private int secondPlace;
         private int thirdPlace;
         private double totalDistance;
-        private double averageSpeed;
-        private final List<Double> speeds;
-        private final List<Integer> positions;
+        private int races;
+        private double speedSum;
+        // Running mean and sum of squared deviations of the positions (Welford)
+        private double positionMean;
+        private double positionSquares;
+        private final QuantileSketch speedSketch = new QuantileSketch();
+        private final QuantileSketch distanceSketch = new QuantileSketch();
+        private final QuantileSketch finishTickSketch = new QuantileSketch();
+        private final QuantileSketch winningMarginSketch = new QuantileSketch();
 
         public AnimalStats(String name) {
             this.name = name;
@@ -30,40 +81,101 @@ public class RaceStatistics {
             this.secondPlace = 0;
             this.thirdPlace = 0;
             this.totalDistance = 0;
-            this.averageSpeed = 0;
-            this.speeds = new ArrayList<>();
-            this.positions = new ArrayList<>();
         }
 
-        public void addRaceResult(int position, double distance, double speed) {
+        /**
+         * Counts one result; only through RaceStatistics, which moves the animal in its rankings
+         */
+        private void addRaceResult(int position, double distance, double speed) {
             switch (position) {
                 case 1 -> wins++;
                 case 2 -> secondPlace++;
                 case 3 -> thirdPlace++;
             }
             totalDistance += distance;
-            speeds.add(speed);
-            positions.add(position);
-            averageSpeed = speeds.stream().mapToDouble(Double::doubleValue).average().orElse(0.0);
+            speedSketch.add(speed);
+            distanceSketch.add(distance);
+            addToMeans(speed, position);
+        }
+
+        private void addToMeans(double speed, int position) {
+            races++;
+            speedSum += speed;
+            double deviation = position - positionMean;
+            positionMean += deviation / races;
+            positionSquares += deviation * (position - positionMean);
+        }
+
+        /**
+         * Adds the results of another tracker of the same animal
+         * @param other statistics gathered elsewhere (e.g. by another heat worker)
+         */
+        private void merge(AnimalStats other) {
+            wins += other.wins;
+            secondPlace += other.secondPlace;
+            thirdPlace += other.thirdPlace;
+            totalDistance += other.totalDistance;
+            if (other.races > 0) {
+                // Combined sums of squared deviations (Chan et al.)
+                int combined = races + other.races;
+                double deviation = other.positionMean - positionMean;
+                positionSquares += other.positionSquares + deviation * deviation * races * other.races / combined;
+                positionMean += deviation * other.races / combined;
+                races = combined;
+                speedSum += other.speedSum;
+            }
+            speedSketch.merge(other.speedSketch);
+            distanceSketch.merge(other.distanceSketch);
+            finishTickSketch.merge(other.finishTickSketch);
+            winningMarginSketch.merge(other.winningMarginSketch);
+        }
+
+        private AnimalStats copy() {
+            AnimalStats copy = new AnimalStats(name);
+            copy.wins = wins;
+            copy.secondPlace = secondPlace;
+            copy.thirdPlace = thirdPlace;
+            copy.totalDistance = totalDistance;
+            copy.races = races;
+            copy.speedSum = speedSum;
+            copy.positionMean = positionMean;
+            copy.positionSquares = positionSquares;
+            copy.speedSketch.merge(speedSketch);
+            copy.distanceSketch.merge(distanceSketch);
+            copy.finishTickSketch.merge(finishTickSketch);
+            copy.winningMarginSketch.merge(winningMarginSketch);
+            return copy;
         }
 
         public double getWinRate() {
-            int totalRaces = speeds.size();
-            return totalRaces > 0 ? (double) wins / totalRaces * 100 : 0.0;
+            return races > 0 ? (double) wins / races * 100 : 0.0;
         }
 
         public double getAveragePosition() {
-            return positions.stream().mapToInt(Integer::intValue).average().orElse(0.0);
+            return positionMean;
+        }
+
+        /**
+         * Population variance of the finishing positions (0 when always at the same place)
+         * @return variance, 0 before the first race
+         */
+        public double getPositionVariance() {
+            return races > 0 ? positionSquares / races : 0.0;
         }
 
         // Getters
         public String getName() { return name; }
+        public int getId() { return id; }
         public int getWins() { return wins; }
         public int getSecondPlace() { return secondPlace; }
         public int getThirdPlace() { return thirdPlace; }
         public double getTotalDistance() { return totalDistance; }
-        public double getAverageSpeed() { return averageSpeed; }
-        public List<Double> getSpeeds() { return new ArrayList<>(speeds); }
+        public int getRaces() { return races; }
+        public double getAverageSpeed() { return races > 0 ? speedSum / races : 0.0; }
+        public QuantileSketch getSpeedSketch() { return speedSketch.copy(); }
+        public QuantileSketch getDistanceSketch() { return distanceSketch.copy(); }
+        public QuantileSketch getFinishTickSketch() { return finishTickSketch.copy(); }
+        public QuantileSketch getWinningMarginSketch() { return winningMarginSketch.copy(); }
     }
 
     /**
@@ -79,19 +191,175 @@ public class RaceStatistics {
      * @param scoreboard sorted list of animals (winner first)
      */
     public void recordRound(List<Animal> scoreboard) {
+        List<Placing> placings = new ArrayList<>(scoreboard.size());
+        for (Animal animal : scoreboard) {
+            placings.add(new Placing(animal.getName(), animal.getPosition(), animal.getSpeed(),
+                    animal.isFinished() ? animal.getFinishTick() : Double.NaN));
+        }
+        recordPlacings(placings);
+    }
+
+    /**
+     * Records the results of a round of named competitors (e.g. bib numbers of a batch event)
+     * @param ranking places of the round, winner first
+     */
+    public void recordPlacings(List<Placing> ranking) {
         totalRounds++;
+        if (roundIds.length < ranking.size()) {
+            roundIds = new int[ranking.size()];
+        }
+
+        for (int i = 0; i < ranking.size(); i++) {
+            Placing placing = ranking.get(i);
+            AnimalStats stats = animalStatistics.get(placing.name());
+            boolean created = stats == null;
+            if (created) {
+                stats = new AnimalStats(placing.name());
+            } else if (i == 0) {
+                // Only the winner's key in the standings changes
+                byWins.remove(stats);
+            }
+            stats.addRaceResult(i + 1, placing.distance(), placing.speed());
+            if (!Double.isNaN(placing.finishTick())) {
+                stats.finishTickSketch.add(placing.finishTick());
+            }
+            if (i == 0 && ranking.size() > 1) {
+                // Lead over the runner-up when the race stopped
+                stats.winningMarginSketch.add(placing.distance() - ranking.get(1).distance());
+            }
+            if (created) {
+                register(stats);
+            } else {
+                if (i == 0) {
+                    byWins.add(stats);
+                }
+                updateRankings(stats);
+            }
+            roundIds[i] = stats.id;
+        }
+        headToHead.recordRanking(roundIds, ranking.size());
+        ratings.rate(roundIds, ranking.size());
+    }
+
+    /**
+     * Gives a new animal the next id and puts it in the rankings
+     */
+    private void register(AnimalStats stats) {
+        stats.id = competitors.size();
+        competitors.add(stats);
+        animalStatistics.put(stats.name, stats);
+        byWins.add(stats);
+        updateRankings(stats);
+    }
+
+    private void updateRankings(AnimalStats stats) {
+        slowestFirst.set(stats.id, -stats.getAverageSpeed());
+        byPositionVariance.set(stats.id, stats.getPositionVariance());
+    }
 
-        for (int i = 0; i < scoreboard.size(); i++) {
-            Animal animal = scoreboard.get(i);
-            String name = animal.getName();
+    /**
+     * Merges the rounds recorded by another tracker into this one.
+     * Used to combine the statistics of heats run in parallel, each worker
+     * recording into its own tracker without locking.
+     * @param other statistics to add
+     */
+    public void merge(RaceStatistics other) {
+        totalRounds += other.totalRounds;
+        // Id here of each id there
+        int[] ids = new int[other.competitors.size()];
+        // In the other tracker's id order, so that merging the same trackers in the same order gives the same ids
+        for (AnimalStats stats : other.competitors) {
+            AnimalStats merged = animalStatistics.get(stats.name);
+            if (merged == null) {
+                merged = new AnimalStats(stats.name);
+                merged.merge(stats);
+                register(merged);
+            } else {
+                byWins.remove(merged);
+                merged.merge(stats);
+                byWins.add(merged);
+                updateRankings(merged);
+            }
+            ids[stats.id] = merged.id;
+        }
+        headToHead.merge(other.headToHead, ids);
+        ratings.merge(other.ratings, ids);
+    }
+
+    /**
+     * Returns an independent copy of these statistics, e.g. to save them while rounds go on
+     * @return deep copy
+     */
+    public RaceStatistics copy() {
+        RaceStatistics copy = new RaceStatistics();
+        copy.totalRounds = totalRounds;
+        for (AnimalStats stats : competitors) {
+            copy.register(stats.copy());
+        }
+        copy.headToHead = headToHead.copy();
+        copy.ratings = ratings.copy();
+        return copy;
+    }
+
+    /**
+     * Writes these statistics in a compact binary form (see {@link #readFrom(DataInput)})
+     * @param out destination
+     * @throws IOException if writing fails
+     */
+    public void writeTo(DataOutput out) throws IOException {
+        out.writeInt(totalRounds);
+        out.writeInt(competitors.size());
+        for (AnimalStats stats : competitors) {
+            out.writeUTF(stats.name);
+            out.writeInt(stats.wins);
+            out.writeInt(stats.secondPlace);
+            out.writeInt(stats.thirdPlace);
+            out.writeDouble(stats.totalDistance);
+            out.writeInt(stats.races);
+            out.writeDouble(stats.speedSum);
+            out.writeDouble(stats.positionMean);
+            out.writeDouble(stats.positionSquares);
+            stats.speedSketch.writeTo(out);
+            stats.distanceSketch.writeTo(out);
+            stats.finishTickSketch.writeTo(out);
+            stats.winningMarginSketch.writeTo(out);
+        }
+        headToHead.writeTo(out);
+        ratings.writeTo(out);
+    }
 
-            animalStatistics.putIfAbsent(name, new AnimalStats(name));
-            animalStatistics.get(name).addRaceResult(
-                    i + 1,
-                    animal.getPosition(),
-                    animal.getSpeed()
-            );
+    /**
+     * Reads statistics written by {@link #writeTo(DataOutput)}
+     * @param in source
+     * @return the statistics
+     * @throws IOException if reading fails or the data is truncated
+     */
+    public static RaceStatistics readFrom(DataInput in) throws IOException {
+        RaceStatistics statistics = new RaceStatistics();
+        statistics.totalRounds = in.readInt();
+        int animals = in.readInt();
+        for (int a = 0; a < animals; a++) {
+            AnimalStats stats = new AnimalStats(in.readUTF());
+            stats.wins = in.readInt();
+            stats.secondPlace = in.readInt();
+            stats.thirdPlace = in.readInt();
+            stats.totalDistance = in.readDouble();
+            stats.races = in.readInt();
+            if (stats.races < 0) {
+                throw new IOException("Nombre de courses invalide: " + stats.races);
+            }
+            stats.speedSum = in.readDouble();
+            stats.positionMean = in.readDouble();
+            stats.positionSquares = in.readDouble();
+            stats.speedSketch.merge(QuantileSketch.readFrom(in));
+            stats.distanceSketch.merge(QuantileSketch.readFrom(in));
+            stats.finishTickSketch.merge(QuantileSketch.readFrom(in));
+            stats.winningMarginSketch.merge(QuantileSketch.readFrom(in));
+            statistics.register(stats);
         }
+        statistics.headToHead = HeadToHead.readFrom(in, animals);
+        statistics.ratings = Ratings.readFrom(in, animals);
+        return statistics;
     }
 
     /**
@@ -104,22 +372,39 @@ public class RaceStatistics {
     }
 
     /**
-     * Returns all animal statistics sorted by wins
+     * Returns all animal statistics sorted by wins (ties by name)
      * @return sorted list of animal statistics
      */
     public List<AnimalStats> getAllStatsSortedByWins() {
-        return animalStatistics.values().stream()
-                .sorted(Comparator.comparingInt(AnimalStats::getWins).reversed())
-                .toList();
+        return byWins.first(byWins.size());
+    }
+
+    /**
+     * Returns the head of the standings, without going through the other animals
+     * @param count number of animals wanted
+     * @return at most count animal statistics, most wins first
+     */
+    public List<AnimalStats> getTopStandings(int count) {
+        return byWins.first(count);
     }
 
     /**
-     * Returns the animal with the best average speed using Streams API
+     * Returns the place of an animal in the standings by wins
+     * @param animalName name of the animal
+     * @return 1 for the leader, empty if the animal never raced
+     */
+    public OptionalInt getRank(String animalName) {
+        AnimalStats stats = animalStatistics.get(animalName);
+        return stats != null ? OptionalInt.of(byWins.rank(stats) + 1) : OptionalInt.empty();
+    }
+
+    /**
+     * Returns the animal with the best average speed
      * @return optional containing the fastest animal stats
      */
     public Optional<AnimalStats> getFastestAnimalAverage() {
-        return animalStatistics.values().stream()
-                .max(Comparator.comparingDouble(AnimalStats::getAverageSpeed));
+        int id = slowestFirst.argMin();
+        return id >= 0 ? Optional.of(competitors.get(id)) : Optional.empty();
     }
 
     /**
@@ -127,24 +412,89 @@ public class RaceStatistics {
      * @return optional containing the most consistent animal
      */
     public Optional<AnimalStats> getMostConsistentAnimal() {
-        return animalStatistics.values().stream()
-                .min(Comparator.comparingDouble(stats ->
-                        calculateVariance(stats.positions)));
+        int id = byPositionVariance.argMin();
+        return id >= 0 ? Optional.of(competitors.get(id)) : Optional.empty();
+    }
+
+    /**
+     * Returns how many times an animal finished ahead of another
+     * @param animalName name of the animal
+     * @param opponentName name of the other animal
+     * @return count, 0 if they never raced together
+     */
+    public int getTimesAhead(String animalName, String opponentName) {
+        AnimalStats stats = animalStatistics.get(animalName);
+        AnimalStats opponent = animalStatistics.get(opponentName);
+        return stats != null && opponent != null ? headToHead.ahead(stats.id, opponent.id) : 0;
+    }
+
+    /**
+     * Returns the best rated animals, by conservative rating (see {@link Ratings})
+     * @param count number of animals wanted
+     * @return at most count animal statistics, best rated first
+     */
+    public List<AnimalStats> getTopRated(int count) {
+        int[] top = ratings.top(count);
+        List<AnimalStats> stats = new ArrayList<>(top.length);
+        for (int id : top) {
+            stats.add(competitors.get(id));
+        }
+        return stats;
     }
 
     /**
-     * Calculates variance of a list of numbers
-     * @param numbers list of numbers
-     * @return variance
+     * Returns the skill ratings, indexed by {@link AnimalStats#getId()}
+     * @return live ratings, not to be read while rounds are being recorded
      */
-    private double calculateVariance(List<Integer> numbers) {
-        if (numbers.isEmpty()) return 0.0;
+    public Ratings getRatings() {
+        return ratings;
+    }
 
-        double mean = numbers.stream().mapToInt(Integer::intValue).average().orElse(0.0);
-        return numbers.stream()
-                .mapToDouble(n -> Math.pow(n - mean, 2))
-                .average()
-                .orElse(0.0);
+    /**
+     * Returns the head-to-head counts, indexed by {@link AnimalStats#getId()}
+     * @return live counts, not to be read while rounds are being recorded
+     */
+    public HeadToHead getHeadToHead() {
+        return headToHead;
+    }
+
+    /**
+     * Writes the head-to-head counts as CSV, one line per pair of animals that raced together
+     * @param out destination
+     * @throws IOException if writing fails
+     */
+    public void writeHeadToHeadCsv(Appendable out) throws IOException {
+        // Names escaped once, lines written by chunks rather than one by one
+        String[] fields = new String[competitors.size()];
+        for (AnimalStats stats : competitors) {
+            fields[stats.id] = csvField(stats.name);
+        }
+        StringBuilder chunk = new StringBuilder(CSV_CHUNK + 256);
+        chunk.append("concurrent_a,concurrent_b,a_devant,b_devant\n");
+        IOException[] failure = new IOException[1];
+        headToHead.forEachMeeting((a, b, aAhead, bAhead) -> {
+            chunk.append(fields[a]).append(',').append(fields[b]).append(',')
+                    .append(aAhead).append(',').append(bAhead).append('\n');
+            if (chunk.length() >= CSV_CHUNK && failure[0] == null) {
+                try {
+                    out.append(chunk);
+                } catch (IOException e) {
+                    failure[0] = e;
+                }
+                chunk.setLength(0);
+            }
+        });
+        if (failure[0] != null) {
+            throw failure[0];
+        }
+        out.append(chunk);
+    }
+
+    private static String csvField(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
     }
 
     /**
@@ -191,12 +541,34 @@ public class RaceStatistics {
             System.out.printf("  • Taux de victoire: %.1f%%%n", stats.getWinRate());
             System.out.printf("  • Position moyenne: %.2f%n", stats.getAveragePosition());
             System.out.printf("  • Vitesse moyenne: %.2f km/h%n", stats.getAverageSpeed());
+            System.out.printf("  • Vitesse p50 / p95 / p99: %s km/h%n", percentiles(stats.speedSketch));
+            if (stats.finishTickSketch.getCount() > 0) {
+                System.out.printf("  • Tick d'arrivée p50 / p95 / p99: %s%n", percentiles(stats.finishTickSketch));
+            }
+            if (stats.winningMarginSketch.getCount() > 0) {
+                System.out.printf("  • Marge de victoire p50 / p95 / p99: %s unités%n", percentiles(stats.winningMarginSketch));
+            }
             System.out.printf("  • Distance totale: %.2f unités%n", stats.getTotalDistance());
         }
 
-        // Stream API analyses
+        if (sortedStats.size() <= FACE_TO_FACE_REPORT_LIMIT) {
+            System.out.println("\n─────────────────────────────────────────────────────────");
+            System.out.println("FACE-À-FACE:");
+            System.out.println("─────────────────────────────────────────────────────────");
+            for (int i = 0; i < sortedStats.size(); i++) {
+                for (int j = i + 1; j < sortedStats.size(); j++) {
+                    AnimalStats first = sortedStats.get(i);
+                    AnimalStats second = sortedStats.get(j);
+                    System.out.printf("%-10s %3d - %-3d %s%n", first.getName(),
+                            headToHead.ahead(first.id, second.id), headToHead.ahead(second.id, first.id),
+                            second.getName());
+                }
+            }
+        }
+
+        // Analyses
         System.out.println("\n─────────────────────────────────────────────────────────");
-        System.out.println("ANALYSES AVANCÉES (Stream API):");
+        System.out.println("ANALYSES AVANCÉES:");
         System.out.println("─────────────────────────────────────────────────────────");
 
         getFastestAnimalAverage().ifPresent(stats ->
@@ -207,6 +579,11 @@ public class RaceStatistics {
                 System.out.printf("Animal le plus régulier: %s (position moyenne: %.2f)%n",
                         stats.getName(), stats.getAveragePosition()));
 
+        for (AnimalStats stats : getTopRated(3)) {
+            System.out.printf("Cote de %s: %.1f ± %.1f (retenue: %.1f)%n", stats.getName(),
+                    ratings.mean(stats.id), ratings.deviation(stats.id), ratings.conservative(stats.id));
+        }
+
         // Total distance comparison using Streams
         double totalDistanceAllAnimals = animalStatistics.values().stream()
                 .mapToDouble(AnimalStats::getTotalDistance)
@@ -216,4 +593,8 @@ public class RaceStatistics {
 
         System.out.println("─────────────────────────────────────────────────────────\n");
     }
-}
\ No newline at end of file
+
+    private static String percentiles(QuantileSketch sketch) {
+        return String.format("%.2f / %.2f / %.2f", sketch.quantile(0.50), sketch.quantile(0.95), sketch.quantile(0.99));
+    }
+}
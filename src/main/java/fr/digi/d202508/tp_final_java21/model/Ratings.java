@@ -0,0 +1,233 @@
+package fr.digi.d202508.tp_final_java21.model;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Skill ratings of competitors, updated after every round from its full ranking.
+ * <p>
+ * Each competitor has a mean skill μ and an uncertainty σ (TrueSkill-style), stored in primitive
+ * arrays indexed by the dense competitor ids of {@link RaceStatistics}. A round is rated with the
+ * Bradley-Terry "partial pairing" update of Weng and Lin (2011): every competitor is only compared
+ * with the ones just ahead of and just behind it, so a round of k competitors costs O(k) instead of
+ * the O(k²) of a pairwise Elo. Before each round the uncertainty of its participants grows a little
+ * (dynamics τ), so that ratings keep moving in long-running leagues.
+ * <p>
+ * The leaderboard orders competitors by their conservative rating μ - 3σ, kept in an
+ * {@link ArgMinTree}: a rated round costs O(k log n), the top n O(n log n). Not thread-safe: one per
+ * statistics tracker, merged afterwards.
+ */
+public final class Ratings {
+
+    static final double INITIAL_MEAN = 25.0;
+    static final double INITIAL_DEVIATION = INITIAL_MEAN / 3;
+    // Performance spread of a single round
+    private static final double BETA = INITIAL_DEVIATION / 2;
+    private static final double TWO_BETA_SQUARED = 2 * BETA * BETA;
+    private static final double TAU_SQUARED = Math.pow(INITIAL_DEVIATION / 100, 2);
+    // Lowest factor by which a round may shrink a variance
+    private static final double KAPPA = 1e-4;
+
+    private double[] means = new double[0];
+    private double[] variances = new double[0];
+    private int size;
+    // Negated conservative ratings, to find the highest one
+    private final ArgMinTree leaderboard = new ArgMinTree();
+    // Updates of the round being rated, reused from round to round
+    private double[] meanSteps = new double[0];
+    private double[] varianceFactors = new double[0];
+
+    /**
+     * Rates a round
+     * @param ranking ids of the round, winner first
+     * @param count number of competitors in the round
+     */
+    public void rate(int[] ranking, int count) {
+        if (meanSteps.length < count) {
+            meanSteps = new double[count];
+            varianceFactors = new double[count];
+        }
+        for (int i = 0; i < count; i++) {
+            ensureCompetitors(ranking[i] + 1);
+        }
+        for (int i = 0; i < count; i++) {
+            variances[ranking[i]] += TAU_SQUARED;
+        }
+        // Every update is computed from the ratings before the round, then applied
+        for (int i = 0; i < count; i++) {
+            int id = ranking[i];
+            double mean = means[id];
+            double variance = variances[id];
+            double step = 0;
+            double shrink = 0;
+            for (int neighbour = i - 1; neighbour <= i + 1; neighbour += 2) {
+                if (neighbour < 0 || neighbour >= count || ranking[neighbour] == id) {
+                    continue;
+                }
+                int other = ranking[neighbour];
+                double c = Math.sqrt(variance + variances[other] + TWO_BETA_SQUARED);
+                double expected = 1 / (1 + Math.exp((means[other] - mean) / c));
+                double score = neighbour > i ? 1 : 0;
+                step += variance / c * (score - expected);
+                shrink += Math.sqrt(variance) / c * variance / (c * c) * expected * (1 - expected);
+            }
+            meanSteps[i] = step;
+            varianceFactors[i] = Math.max(1 - shrink, KAPPA);
+        }
+        for (int i = 0; i < count; i++) {
+            int id = ranking[i];
+            means[id] += meanSteps[i];
+            variances[id] *= varianceFactors[i];
+        }
+        for (int i = 0; i < count; i++) {
+            leaderboard.set(ranking[i], -conservative(ranking[i]));
+        }
+    }
+
+    /**
+     * Mean skill of a competitor
+     * @param id competitor id
+     * @return μ, the initial rating if it was never rated
+     */
+    public double mean(int id) {
+        return id < size ? means[id] : INITIAL_MEAN;
+    }
+
+    /**
+     * Uncertainty of a competitor's skill
+     * @param id competitor id
+     * @return σ, the initial uncertainty if it was never rated
+     */
+    public double deviation(int id) {
+        return id < size ? Math.sqrt(variances[id]) : INITIAL_DEVIATION;
+    }
+
+    /**
+     * Rating the competitor is very likely above, used for the leaderboard
+     * @param id competitor id
+     * @return μ - 3σ
+     */
+    public double conservative(int id) {
+        return mean(id) - 3 * deviation(id);
+    }
+
+    /**
+     * Highest conservative ratings
+     * @param count number of competitors wanted
+     * @return at most count ids, best first (ties by id)
+     */
+    public int[] top(int count) {
+        int[] top = new int[Math.min(count, size)];
+        // Takes the best out of the tree one by one, then puts them back
+        for (int i = 0; i < top.length; i++) {
+            top[i] = leaderboard.argMin();
+            leaderboard.set(top[i], Double.POSITIVE_INFINITY);
+        }
+        for (int id : top) {
+            leaderboard.set(id, -conservative(id));
+        }
+        return top;
+    }
+
+    /**
+     * Number of rated competitors (highest id + 1)
+     * @return count
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Adds the ratings of another tracker, whose rounds are independent of the ones rated here (e.g.
+     * parallel heats). Competitors new here take its ratings as they are. For the others, what its
+     * rounds taught about them (its rating compared with the initial one) is combined with their
+     * rating here as independent Gaussian evidence: precisions add up, and so do precision-weighted
+     * means. Deterministic for a given merge order, which the callers fix (e.g. track order).
+     * @param other ratings gathered elsewhere, starting from the initial rating
+     * @param ids id in this tracker of each id of the other one
+     */
+    void merge(Ratings other, int[] ids) {
+        int known = size;
+        double initialPrecision = 1 / (INITIAL_DEVIATION * INITIAL_DEVIATION);
+        for (int a = 0; a < other.size; a++) {
+            int id = ids[a];
+            ensureCompetitors(id + 1);
+            if (id >= known) {
+                means[id] = other.means[a];
+                variances[id] = other.variances[a];
+            } else {
+                // Precision the other rounds added, none if the dynamics outweighed them
+                double otherPrecision = 1 / other.variances[a];
+                double evidence = Math.max(otherPrecision - initialPrecision, 0);
+                double weightedEvidence = evidence == 0 ? 0
+                        : otherPrecision * other.means[a] - initialPrecision * INITIAL_MEAN;
+                double precision = 1 / variances[id] + evidence;
+                means[id] = (means[id] / variances[id] + weightedEvidence) / precision;
+                variances[id] = 1 / precision;
+            }
+            leaderboard.set(id, -conservative(id));
+        }
+    }
+
+    Ratings copy() {
+        Ratings copy = new Ratings();
+        int[] ids = new int[size];
+        Arrays.setAll(ids, id -> id);
+        copy.merge(this, ids);
+        return copy;
+    }
+
+    /**
+     * Writes the ratings (see {@link #readFrom(DataInput, int)})
+     * @param out destination
+     * @throws IOException if writing fails
+     */
+    void writeTo(DataOutput out) throws IOException {
+        out.writeInt(size);
+        for (int id = 0; id < size; id++) {
+            out.writeDouble(means[id]);
+            out.writeDouble(variances[id]);
+        }
+    }
+
+    /**
+     * Reads ratings written by {@link #writeTo(DataOutput)}
+     * @param in source
+     * @param competitors number of competitors of the statistics being read
+     * @return the ratings
+     * @throws IOException if reading fails or there are more ratings than competitors
+     */
+    static Ratings readFrom(DataInput in, int competitors) throws IOException {
+        Ratings ratings = new Ratings();
+        int size = in.readInt();
+        if (size < 0 || size > competitors) {
+            throw new IOException("Nombre de cotes invalide: " + size);
+        }
+        ratings.ensureCompetitors(size);
+        for (int id = 0; id < size; id++) {
+            ratings.means[id] = in.readDouble();
+            ratings.variances[id] = in.readDouble();
+            ratings.leaderboard.set(id, -ratings.conservative(id));
+        }
+        return ratings;
+    }
+
+    private void ensureCompetitors(int competitors) {
+        if (competitors <= size) {
+            return;
+        }
+        if (competitors > means.length) {
+            int capacity = Math.max(competitors, Math.max(16, means.length * 2));
+            means = Arrays.copyOf(means, capacity);
+            variances = Arrays.copyOf(variances, capacity);
+        }
+        Arrays.fill(means, size, competitors, INITIAL_MEAN);
+        Arrays.fill(variances, size, competitors, INITIAL_DEVIATION * INITIAL_DEVIATION);
+        for (int id = size; id < competitors; id++) {
+            leaderboard.set(id, -(INITIAL_MEAN - 3 * INITIAL_DEVIATION));
+        }
+        size = competitors;
+    }
+}
@@ -0,0 +1,57 @@
+package fr.digi.d202508.tp_final_java21.model;
+
+import fr.digi.d202508.tp_final_java21.config.RaceConfig;
+import fr.digi.d202508.tp_final_java21.service.RaceTrack;
+
+/**
+ * The three species allowed in a race, matching the permitted subclasses of Animal.
+ * Holds the constants shared by every animal of a species (name, display character),
+ * and lets batch simulations describe entrants without creating an Animal for each of them.
+ */
+public enum Species {
+    TORTUE("Tortue", "🐢"),
+    LAPIN("Lapin", "🐇"),
+    CHEVAL("Cheval", "🐎");
+
+    private final String displayName;
+    private final String displayChar;
+
+    Species(String displayName, String displayChar) {
+        this.displayName = displayName;
+        this.displayChar = displayChar;
+    }
+
+    /**
+     * Creates an animal of this species on the given track
+     * @param raceTrack track providing the race configuration
+     * @return a new animal
+     */
+    public Animal create(RaceTrack raceTrack) {
+        return switch (this) {
+            case TORTUE -> new Tortue(raceTrack);
+            case LAPIN -> new Lapin(raceTrack);
+            case CHEVAL -> new Cheval(raceTrack);
+        };
+    }
+
+    /**
+     * Returns the speed range and stamina configured for this species
+     * @param config race configuration
+     * @return species configuration
+     */
+    public RaceConfig.SpeciesConfig configIn(RaceConfig config) {
+        return switch (this) {
+            case TORTUE -> config.tortue();
+            case LAPIN -> config.lapin();
+            case CHEVAL -> config.cheval();
+        };
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    public String getDisplayChar() {
+        return displayChar;
+    }
+}
@@ -0,0 +1,128 @@
+package fr.digi.d202508.tp_final_java21.model;
+
+import fr.digi.d202508.tp_final_java21.config.RaceConfig;
+
+/**
+ * Immutable characteristics of a species for a given race configuration (flyweight).
+ * Each track builds one instance per species, shared by every animal on it, which only keeps
+ * a reference to it plus its own mutable state. There is no global cache: configurations come
+ * from clients (e.g. any finish line of a job), and a track's profiles go away with it. Everything the per-tick update needs
+ * is precomputed here: cumulative probability thresholds and distance factors.
+ *
+ * @param species the species described
+ * @param minSpeed minimum base speed in km/h
+ * @param speedSpan maxSpeed - minSpeed in km/h
+ * @param stamina endurance (0.0 to 1.0)
+ * @param boostCutoff a draw below this value is a boost
+ * @param fatigueCutoff a draw below this value (and above boostCutoff) is a slowdown
+ * @param boostMultiplier speed multiplier during a boost
+ * @param fatigueMultiplier speed multiplier during fatigue
+ * @param boostDistanceFactor distance per tick for 1 km/h of base speed during a boost
+ * @param normalDistanceFactor distance per tick for 1 km/h of base speed at normal pace
+ * @param fatigueDistanceFactor distance per tick for 1 km/h of base speed during fatigue
+ * @param finishLine track length in units
+ */
+public record SpeciesProfile(
+        Species species,
+        double minSpeed,
+        double speedSpan,
+        double stamina,
+        double boostCutoff,
+        double fatigueCutoff,
+        double boostMultiplier,
+        double fatigueMultiplier,
+        double boostDistanceFactor,
+        double normalDistanceFactor,
+        double fatigueDistanceFactor,
+        double finishLine) {
+
+    // Conversion factor: 1 unit = 1 meter, km/h to m/s
+    private static final double KMH_TO_METERS_PER_SECOND = 1000.0 / 3600.0;
+
+    /**
+     * Builds the profiles of every species for a configuration, to be shared by the caller's animals
+     * @param config race configuration
+     * @return new profiles indexed by {@link Species#ordinal()}
+     */
+    public static SpeciesProfile[] forConfig(RaceConfig config) {
+        Species[] species = Species.values();
+        SpeciesProfile[] profiles = new SpeciesProfile[species.length];
+        for (Species s : species) {
+            profiles[s.ordinal()] = of(s, config);
+        }
+        return profiles;
+    }
+
+    /**
+     * Precomputes the profile of a species
+     * @param species the species
+     * @param config race configuration
+     * @return a new profile
+     */
+    private static SpeciesProfile of(Species species, RaceConfig config) {
+        RaceConfig.SpeciesConfig speciesConfig = species.configIn(config);
+        double stamina = speciesConfig.stamina();
+
+        // Better stamina = less fatigue: adjusted = fatigue * (1 - stamina * 0.5)
+        double adjustedFatigueProbability = config.fatigueProbability() * (1 - stamina * 0.5);
+        double metersPerTick = KMH_TO_METERS_PER_SECOND * config.tickSeconds();
+
+        return new SpeciesProfile(
+                species,
+                speciesConfig.minSpeed(),
+                speciesConfig.maxSpeed() - speciesConfig.minSpeed(),
+                stamina,
+                config.boostProbability(),
+                config.boostProbability() + adjustedFatigueProbability,
+                config.boostMultiplier(),
+                config.fatigueMultiplier(),
+                config.boostMultiplier() * metersPerTick,
+                metersPerTick,
+                config.fatigueMultiplier() * metersPerTick,
+                config.finishLine());
+    }
+
+    /**
+     * Expected distance per tick for 1 km/h of base speed, over the boost/normal/fatigue draw
+     * @return mean distance factor
+     */
+    public double meanDistanceFactor() {
+        double normalProbability = 1 - fatigueCutoff;
+        return boostCutoff * boostDistanceFactor
+                + (fatigueCutoff - boostCutoff) * fatigueDistanceFactor
+                + normalProbability * normalDistanceFactor;
+    }
+
+    /**
+     * Variance of the distance per tick for 1 km/h of base speed
+     * @return distance factor variance
+     */
+    public double distanceFactorVariance() {
+        double normalProbability = 1 - fatigueCutoff;
+        double secondMoment = boostCutoff * boostDistanceFactor * boostDistanceFactor
+                + (fatigueCutoff - boostCutoff) * fatigueDistanceFactor * fatigueDistanceFactor
+                + normalProbability * normalDistanceFactor * normalDistanceFactor;
+        double mean = meanDistanceFactor();
+        return Math.max(0.0, secondMoment - mean * mean);
+    }
+
+    /**
+     * Longest distance per tick for 1 km/h of base speed, whatever the draw
+     * @return largest distance factor
+     */
+    public double maxDistanceFactor() {
+        return Math.max(boostDistanceFactor, Math.max(normalDistanceFactor, fatigueDistanceFactor));
+    }
+
+    public double maxSpeed() {
+        return minSpeed + speedSpan;
+    }
+
+    public String name() {
+        return species.getDisplayName();
+    }
+
+    public String displayChar() {
+        return species.getDisplayChar();
+    }
+}
@@ -0,0 +1,10 @@
+package fr.digi.d202508.tp_final_java21.model;
+
+/**
+ * Speed variation drawn by an animal on its last move
+ */
+public enum SpeedState {
+    NORMAL,
+    BOOST,
+    FATIGUE
+}
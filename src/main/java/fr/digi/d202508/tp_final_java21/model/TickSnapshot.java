@@ -0,0 +1,58 @@
+package fr.digi.d202508.tp_final_java21.model;
+
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Immutable view of the whole race taken after a move, published by the RaceTrack.
+ * One snapshot is shared by every observer (referee, GUI, ...) instead of each of them
+ * reading the animals' getters and copying the participant list on its own.
+ *
+ * @param sequence increasing number of the move after which the snapshot was taken. Moves are only
+ *                 numbered while someone subscribes to the track, so this is not a count of every move
+ *                 of the round
+ * @param finishLine track length in units
+ * @param winnerIndex index of the winner in {@code runners}, or -1 while the race is running
+ * @param runners state of every participant, in track order (unmodifiable)
+ */
+public record TickSnapshot(long sequence, int finishLine, int winnerIndex, List<Runner> runners) {
+
+    /**
+     * State of one participant in the snapshot
+     * @param species species of the animal
+     * @param position position in units
+     * @param baseSpeed base speed in km/h
+     * @param currentSpeed speed of the last move in km/h
+     * @param speedState variation drawn on the last move
+     * @param finished true once the finish line is crossed
+     */
+    public record Runner(Species species, double position, double baseSpeed, double currentSpeed,
+                         SpeedState speedState, boolean finished) {
+
+        public String name() {
+            return species.getDisplayName();
+        }
+    }
+
+    public boolean raceFinished() {
+        return winnerIndex >= 0;
+    }
+
+    /**
+     * Returns the species of the winner (several runners may share it)
+     * @return species of the winner, or null while the race is running
+     */
+    public Species winner() {
+        return winnerIndex >= 0 ? runners.get(winnerIndex).species() : null;
+    }
+
+    /**
+     * Returns the runners sorted by position, leader first
+     * @return current standings
+     */
+    public List<Runner> standings() {
+        return runners.stream()
+                .sorted(Comparator.comparingDouble(Runner::position).reversed())
+                .toList();
+    }
+}
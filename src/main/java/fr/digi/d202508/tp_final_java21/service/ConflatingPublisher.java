@@ -0,0 +1,171 @@
+package fr.digi.d202508.tp_final_java21.service;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Flow publisher delivering only the latest value to each subscriber.
+ * <p>
+ * Publishing never blocks and never queues: each subscription keeps a single pending
+ * item, overwritten by newer ones until the subscriber requests more. A slow subscriber
+ * therefore skips intermediate values instead of slowing down the publisher (the runners),
+ * and always receives the most recent one as soon as it signals demand.
+ * Items are delivered on the given executor, one at a time per subscriber. Publishing allocates
+ * nothing: a drain is only handed to the executor when a subscriber with demand goes from no
+ * pending item to one; while it has no demand, the next {@link Flow.Subscription#request} does it.
+ *
+ * @param <T> type of the published items
+ */
+public final class ConflatingPublisher<T> implements Flow.Publisher<T>, AutoCloseable {
+
+    private final Executor executor;
+    // Copied on subscribe and cancel, so that publishing iterates without an iterator
+    @SuppressWarnings("unchecked")
+    private volatile LatestSubscription[] subscriptions = (LatestSubscription[]) new ConflatingPublisher<?>.LatestSubscription[0];
+    private volatile boolean closed;
+
+    public ConflatingPublisher(Executor executor) {
+        this.executor = executor;
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super T> subscriber) {
+        Objects.requireNonNull(subscriber);
+        LatestSubscription subscription = new LatestSubscription(subscriber);
+        subscriber.onSubscribe(subscription);
+        synchronized (this) {
+            LatestSubscription[] current = subscriptions;
+            LatestSubscription[] grown = Arrays.copyOf(current, current.length + 1);
+            grown[current.length] = subscription;
+            subscriptions = grown;
+        }
+        if (closed) {
+            subscription.complete();
+        }
+    }
+
+    /**
+     * Replaces the pending item of every subscriber
+     * @param item the latest value
+     */
+    public void publish(T item) {
+        Objects.requireNonNull(item);
+        for (LatestSubscription subscription : subscriptions) {
+            subscription.offer(item);
+        }
+    }
+
+    public boolean hasSubscribers() {
+        return subscriptions.length > 0;
+    }
+
+    /**
+     * Completes every subscription once its pending item has been delivered
+     */
+    @Override
+    public void close() {
+        closed = true;
+        for (LatestSubscription subscription : subscriptions) {
+            subscription.complete();
+        }
+    }
+
+    private synchronized void remove(LatestSubscription subscription) {
+        LatestSubscription[] current = subscriptions;
+        for (int i = 0; i < current.length; i++) {
+            if (current[i] == subscription) {
+                LatestSubscription[] shrunk = Arrays.copyOf(current, current.length - 1);
+                System.arraycopy(current, i + 1, shrunk, i, current.length - i - 1);
+                subscriptions = shrunk;
+                return;
+            }
+        }
+    }
+
+    private final class LatestSubscription implements Flow.Subscription {
+        private final Flow.Subscriber<? super T> subscriber;
+        private final AtomicReference<T> pending = new AtomicReference<>();
+        private final AtomicLong demand = new AtomicLong();
+        // Number of drain requests; only the caller moving it from 0 schedules a drain
+        private final AtomicInteger work = new AtomicInteger();
+        private volatile boolean completed;
+        private volatile boolean cancelled;
+        private volatile Throwable error;
+
+        private LatestSubscription(Flow.Subscriber<? super T> subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        private void offer(T item) {
+            // A replaced item already has its drain; without demand, request() schedules one
+            if (pending.getAndSet(item) == null && demand.get() > 0) {
+                schedule();
+            }
+        }
+
+        private void complete() {
+            completed = true;
+            schedule();
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                error = new IllegalArgumentException("La demande doit être positive: " + n);
+            } else {
+                demand.accumulateAndGet(n, (current, added) -> current + added < 0 ? Long.MAX_VALUE : current + added);
+            }
+            schedule();
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            remove(this);
+        }
+
+        private void schedule() {
+            if (work.getAndIncrement() == 0) {
+                executor.execute(this::drain);
+            }
+        }
+
+        /**
+         * Delivers the pending item while there is demand; runs on one thread at a time
+         */
+        private void drain() {
+            int missed = 1;
+            do {
+                while (!cancelled && error == null && demand.get() > 0) {
+                    T item = pending.getAndSet(null);
+                    if (item == null) {
+                        break;
+                    }
+                    if (demand.get() != Long.MAX_VALUE) {
+                        demand.decrementAndGet();
+                    }
+                    try {
+                        subscriber.onNext(item);
+                    } catch (RuntimeException e) {
+                        error = e;
+                    }
+                }
+
+                if (!cancelled && (error != null || (completed && pending.get() == null))) {
+                    cancel();
+                    if (error != null) {
+                        subscriber.onError(error);
+                    } else {
+                        subscriber.onComplete();
+                    }
+                }
+                missed = work.addAndGet(-missed);
+            } while (missed != 0);
+        }
+    }
+}
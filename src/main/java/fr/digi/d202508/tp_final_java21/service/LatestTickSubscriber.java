@@ -0,0 +1,102 @@
+package fr.digi.d202508.tp_final_java21.service;
+
+import fr.digi.d202508.tp_final_java21.model.TickSnapshot;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Snapshot subscriber for observers that work at their own pace (referee, animation frames).
+ * Demand is signalled one snapshot at a time, only when the observer asks for the next one,
+ * so the conflating publisher always hands over the latest state instead of a backlog.
+ */
+public class LatestTickSubscriber implements Flow.Subscriber<TickSnapshot> {
+
+    private final BlockingQueue<TickSnapshot> delivered = new ArrayBlockingQueue<>(1);
+    private final AtomicBoolean requested = new AtomicBoolean();
+    private volatile Flow.Subscription subscription;
+    private volatile boolean completed;
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        this.subscription = subscription;
+    }
+
+    @Override
+    public void onNext(TickSnapshot snapshot) {
+        delivered.clear();
+        delivered.offer(snapshot);
+        requested.set(false);
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        completed = true;
+    }
+
+    @Override
+    public void onComplete() {
+        completed = true;
+    }
+
+    /**
+     * Tells whether the publisher has stopped sending snapshots
+     * @return true once the feed is completed or failed
+     */
+    public boolean isCompleted() {
+        return completed;
+    }
+
+    /**
+     * Returns the snapshot delivered since the last call, without waiting,
+     * and asks for the next one (used once per animation frame)
+     * @return latest snapshot, or null if none arrived since the last call
+     */
+    public TickSnapshot poll() {
+        TickSnapshot snapshot = delivered.poll();
+        requestNext();
+        return snapshot;
+    }
+
+    /**
+     * Asks for the latest snapshot and waits until it is delivered
+     * @return latest snapshot
+     * @throws InterruptedException if the waiting thread is interrupted
+     */
+    public TickSnapshot take() throws InterruptedException {
+        requestNext();
+        return delivered.take();
+    }
+
+    /**
+     * Asks for the latest snapshot and waits for it at most the given time
+     * @param timeout maximum wait
+     * @return latest snapshot, or null if none was published in time
+     * @throws InterruptedException if the waiting thread is interrupted
+     */
+    public TickSnapshot take(Duration timeout) throws InterruptedException {
+        requestNext();
+        return delivered.poll(timeout.toNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Stops receiving snapshots
+     */
+    public void cancel() {
+        Flow.Subscription current = subscription;
+        if (current != null) {
+            current.cancel();
+        }
+    }
+
+    private void requestNext() {
+        Flow.Subscription current = subscription;
+        if (current != null && requested.compareAndSet(false, true)) {
+            current.request(1);
+        }
+    }
+}
@@ -0,0 +1,246 @@
+package fr.digi.d202508.tp_final_java21.service;
+
+import fr.digi.d202508.tp_final_java21.config.RaceConfig;
+import fr.digi.d202508.tp_final_java21.model.SpeciesProfile;
+import fr.digi.d202508.tp_final_java21.model.TickSnapshot;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Live win probabilities, recomputed from a snapshot without simulating the rest of the race.
+ * <p>
+ * Once its base speed is drawn, an animal covers on each tick a random distance whose mean and
+ * variance only depend on its species (boost/fatigue/normal draw, precomputed in the profile).
+ * The number of ticks it still needs is therefore close to a normal law of mean d/m and
+ * variance d.v/m^3 (renewal theorem), d being the remaining distance. The probability that
+ * runner i finishes first is the integral over t of its hazard at t times the probability that
+ * nobody has finished by t, evaluated on a small time grid around the expected winning time:
+ * <pre>
+ *   P(i wins) = sum over t of hazard_i(t) * exp(sum over j of log S_j(t)) * dt
+ * </pre>
+ * log S (survival) and the hazard of the standard normal law come from lookup tables built once,
+ * so a tick costs two table reads per runner and grid point, without any exp or log per runner.
+ * Not thread-safe (reuses its buffers): one engine per observer.
+ */
+public class OddsEngine {
+
+    // Grid of the time integral
+    private static final int GRID_POINTS = 64;
+    // Spread of the grid around the expected finishing times, in standard deviations
+    private static final double GRID_SPREAD = 6.0;
+    // Lowest spread of the remaining time, in ticks (avoids dividing by zero on the last tick)
+    private static final double MIN_DEVIATION = 0.05;
+    // Grid points where the log probability that nobody has finished yet has dropped by more are ignored
+    private static final double LOG_ALIVE_CUTOFF = -50.0;
+
+    // Standard normal tables, linearly interpolated between TABLE_MIN and TABLE_MAX
+    private static final double TABLE_MIN = -8.0;
+    private static final double TABLE_MAX = 40.0;
+    private static final int TABLE_STEPS_PER_UNIT = 64;
+    private static final double[] LOG_SURVIVAL;
+    private static final double[] HAZARD;
+
+    static {
+        int size = (int) ((TABLE_MAX - TABLE_MIN) * TABLE_STEPS_PER_UNIT) + 2;
+        LOG_SURVIVAL = new double[size];
+        HAZARD = new double[size];
+        for (int i = 0; i < size; i++) {
+            double z = TABLE_MIN + (double) i / TABLE_STEPS_PER_UNIT;
+            double logSurvival = logSurvival(z);
+            LOG_SURVIVAL[i] = logSurvival;
+            // Density over survival, computed in the log domain so that it stays finite in the tail
+            HAZARD[i] = Math.exp(-0.5 * z * z - 0.5 * Math.log(2 * Math.PI) - logSurvival);
+        }
+    }
+
+    private final double[] meanFactor;
+    private final double[] varianceFactor;
+    private final double[] gridLogAlive = new double[GRID_POINTS];
+    private final double[] gridAlive = new double[GRID_POINTS];
+    private double[] means = new double[0];
+    private double[] deviations = new double[0];
+
+    public OddsEngine(RaceConfig config) {
+        SpeciesProfile[] profiles = SpeciesProfile.forConfig(config);
+        this.meanFactor = new double[profiles.length];
+        this.varianceFactor = new double[profiles.length];
+        for (int i = 0; i < profiles.length; i++) {
+            meanFactor[i] = profiles[i].meanDistanceFactor();
+            varianceFactor[i] = profiles[i].distanceFactorVariance();
+        }
+    }
+
+    /**
+     * Win probability of every runner of a snapshot
+     * @param snapshot state of the race
+     * @return probabilities in the order of {@link TickSnapshot#runners()}, summing to 1
+     */
+    public double[] winProbabilities(TickSnapshot snapshot) {
+        List<TickSnapshot.Runner> runners = snapshot.runners();
+        int count = runners.size();
+        double[] probabilities = new double[count];
+
+        if (snapshot.raceFinished()) {
+            // By index: other runners of the winner's species have lost
+            probabilities[snapshot.winnerIndex()] = 1.0;
+            return probabilities;
+        }
+
+        double[] remaining = new double[count];
+        double[] meanPerTick = new double[count];
+        double[] variancePerTick = new double[count];
+        for (int i = 0; i < count; i++) {
+            TickSnapshot.Runner runner = runners.get(i);
+            int species = runner.species().ordinal();
+            remaining[i] = snapshot.finishLine() - runner.position();
+            meanPerTick[i] = runner.baseSpeed() * meanFactor[species];
+            variancePerTick[i] = runner.baseSpeed() * runner.baseSpeed() * varianceFactor[species];
+        }
+        winProbabilities(remaining, meanPerTick, variancePerTick, probabilities);
+        return probabilities;
+    }
+
+    /**
+     * Win probabilities from raw arrays (used for large fields)
+     * @param remaining distance left to each runner
+     * @param meanPerTick expected distance per tick of each runner
+     * @param variancePerTick variance of the distance per tick of each runner
+     * @param probabilities receives the win probabilities (same length)
+     */
+    public void winProbabilities(double[] remaining, double[] meanPerTick, double[] variancePerTick,
+                                 double[] probabilities) {
+        int count = remaining.length;
+        if (means.length < count) {
+            means = new double[count];
+            deviations = new double[count];
+        }
+
+        // Remaining time of each runner: normal approximation, and the range where the winner finishes
+        double lowestStart = Double.MAX_VALUE;
+        double gridEnd = Double.MAX_VALUE;
+        for (int i = 0; i < count; i++) {
+            double distance = Math.max(0.0, remaining[i]);
+            double mean = distance / meanPerTick[i];
+            double deviation = Math.max(MIN_DEVIATION,
+                    Math.sqrt(distance * variancePerTick[i] / (meanPerTick[i] * meanPerTick[i] * meanPerTick[i])));
+            means[i] = mean;
+            deviations[i] = deviation;
+            lowestStart = Math.min(lowestStart, mean - GRID_SPREAD * deviation);
+            gridEnd = Math.min(gridEnd, mean + GRID_SPREAD * deviation);
+        }
+        double gridStart = Math.max(0.0, lowestStart);
+        if (gridEnd <= gridStart) {
+            gridEnd = gridStart + MIN_DEVIATION;
+        }
+        double step = (gridEnd - gridStart) / GRID_POINTS;
+
+        // Probability that nobody has finished yet at each grid point (midpoints)
+        Arrays.fill(gridLogAlive, 0.0);
+        for (int i = 0; i < count; i++) {
+            double inverseDeviation = 1.0 / deviations[i];
+            double zStep = step * inverseDeviation;
+            double firstZ = (gridStart + 0.5 * step - means[i]) * inverseDeviation;
+            // Grid points where this runner surely hasn't finished (log S = 0) are skipped
+            int first = firstRelevantPoint(firstZ, zStep);
+            int inTable = pointsInTable(firstZ, zStep, first);
+            double position = tablePosition(firstZ + first * zStep);
+            double positionStep = zStep * TABLE_STEPS_PER_UNIT;
+            int k = first;
+            for (; k < inTable; k++, position += positionStep) {
+                gridLogAlive[k] += interpolate(LOG_SURVIVAL, position);
+            }
+            for (; k < GRID_POINTS; k++) {
+                gridLogAlive[k] += LOG_SURVIVAL[LOG_SURVIVAL.length - 1];
+            }
+        }
+        // Past the cutoff the race is almost surely over, compared with the first point: hazards there weigh nothing
+        double cutoff = gridLogAlive[0] + LOG_ALIVE_CUTOFF;
+        int openPoints = 0;
+        while (openPoints < GRID_POINTS && gridLogAlive[openPoints] > cutoff) {
+            gridAlive[openPoints] = Math.exp(gridLogAlive[openPoints]) * step;
+            openPoints++;
+        }
+
+        // Each runner: its hazard weighted by the probability that the race is still open
+        double total = 0.0;
+        for (int i = 0; i < count; i++) {
+            double inverseDeviation = 1.0 / deviations[i];
+            double zStep = step * inverseDeviation;
+            double firstZ = (gridStart + 0.5 * step - means[i]) * inverseDeviation;
+            int first = firstRelevantPoint(firstZ, zStep);
+            int inTable = Math.min(openPoints, pointsInTable(firstZ, zStep, first));
+            double position = tablePosition(firstZ + first * zStep);
+            double positionStep = zStep * TABLE_STEPS_PER_UNIT;
+            double sum = 0.0;
+            int k = first;
+            for (; k < inTable; k++, position += positionStep) {
+                sum += interpolate(HAZARD, position) * gridAlive[k];
+            }
+            for (; k < openPoints; k++) {
+                sum += HAZARD[HAZARD.length - 1] * gridAlive[k];
+            }
+            probabilities[i] = sum * inverseDeviation;
+            total += probabilities[i];
+        }
+
+        // Normalize (the grid only covers the likely range)
+        for (int i = 0; i < count; i++) {
+            probabilities[i] = total > 0 ? probabilities[i] / total : 1.0 / count;
+        }
+    }
+
+    /**
+     * First grid point where the runner has a chance to have finished (z above the table)
+     * @param firstZ standardized time of the first grid point
+     * @param zStep standardized grid step
+     * @return index of the first relevant grid point, GRID_POINTS if none
+     */
+    private static int firstRelevantPoint(double firstZ, double zStep) {
+        if (firstZ >= TABLE_MIN) {
+            return 0;
+        }
+        return (int) Math.min(GRID_POINTS, Math.ceil((TABLE_MIN - firstZ) / zStep));
+    }
+
+    /**
+     * End of the grid points whose standardized time is still covered by the tables
+     * @param firstZ standardized time of the first grid point
+     * @param zStep standardized grid step
+     * @param first first relevant grid point
+     * @return index of the first grid point past TABLE_MAX (at least first), GRID_POINTS if none
+     */
+    private static int pointsInTable(double firstZ, double zStep, int first) {
+        return (int) Math.max(first, Math.min(GRID_POINTS, Math.ceil((TABLE_MAX - firstZ) / zStep)));
+    }
+
+    private static double tablePosition(double z) {
+        // Rounding may leave z a hair below TABLE_MIN on the first relevant point
+        return Math.max(0.0, (z - TABLE_MIN) * TABLE_STEPS_PER_UNIT);
+    }
+
+    /**
+     * Table value at a fractional position, which the callers keep within the table
+     */
+    private static double interpolate(double[] table, double position) {
+        int index = (int) position;
+        double fraction = position - index;
+        return table[index] + fraction * (table[index + 1] - table[index]);
+    }
+
+    /**
+     * log(P(Z > z)) for a standard normal Z, accurate in the far tail
+     * (complementary error function with fractional error below 1.2e-7)
+     */
+    private static double logSurvival(double z) {
+        double x = Math.abs(z) / Math.sqrt(2);
+        double t = 1.0 / (1.0 + 0.5 * x);
+        double logErfc = Math.log(t) - x * x - 1.26551223 + t * (1.00002368 + t * (0.37409196 + t * (0.09678418
+                + t * (-0.18628806 + t * (0.27886807 + t * (-1.13520398 + t * (1.48851587
+                + t * (-0.82215223 + t * 0.17087277))))))));
+        if (z >= 0) {
+            return Math.log(0.5) + logErfc;
+        }
+        return Math.log1p(-0.5 * Math.exp(logErfc));
+    }
+}
@@ -0,0 +1,101 @@
+package fr.digi.d202508.tp_final_java21.service;
+
+import java.time.Duration;
+
+/**
+ * Pacing policy applied to every cosmetic delay (countdown, referee refresh,
+ * pause between rounds) and to "press Enter" prompts.
+ * Sealed: only the three modes below exist.
+ * <ul>
+ *   <li>{@link Interactive}: today's behaviour, real delays and prompts</li>
+ *   <li>{@link Accelerated}: delays divided by a factor, no prompts</li>
+ *   <li>{@link Unpaced}: no delays at all, runs at CPU speed</li>
+ * </ul>
+ */
+public sealed interface PacingPolicy permits PacingPolicy.Interactive, PacingPolicy.Accelerated, PacingPolicy.Unpaced {
+
+    /**
+     * Waits for a delay that lasts nominalMillis in interactive mode
+     * @param nominalMillis delay in milliseconds at normal pace
+     * @throws InterruptedException if the waiting thread is interrupted
+     */
+    void pause(long nominalMillis) throws InterruptedException;
+
+    /**
+     * Tells whether a human is expected in front of the screen
+     * @return true if prompts and live displays should be shown
+     */
+    boolean isInteractive();
+
+    static PacingPolicy interactive() {
+        return new Interactive();
+    }
+
+    static PacingPolicy accelerated(double factor) {
+        return new Accelerated(factor);
+    }
+
+    static PacingPolicy unpaced() {
+        return new Unpaced();
+    }
+
+    /**
+     * Real delays, as experienced by a user at the console or in the GUI
+     */
+    record Interactive() implements PacingPolicy {
+        @Override
+        public void pause(long nominalMillis) throws InterruptedException {
+            if (nominalMillis > 0) {
+                Thread.sleep(nominalMillis);
+            }
+        }
+
+        @Override
+        public boolean isInteractive() {
+            return true;
+        }
+    }
+
+    /**
+     * Delays divided by a constant factor (x10 turns a 3 s countdown into 300 ms)
+     * @param factor acceleration factor, must be greater than or equal to 1
+     */
+    record Accelerated(double factor) implements PacingPolicy {
+        public Accelerated {
+            if (factor < 1.0) {
+                throw new IllegalArgumentException("Le facteur d'accélération doit être >= 1: " + factor);
+            }
+        }
+
+        @Override
+        public void pause(long nominalMillis) throws InterruptedException {
+            long nanos = (long) (nominalMillis * 1_000_000L / factor);
+            if (nanos > 0) {
+                Thread.sleep(Duration.ofNanos(nanos));
+            }
+        }
+
+        @Override
+        public boolean isInteractive() {
+            return false;
+        }
+    }
+
+    /**
+     * No delay at all, for automated runs
+     */
+    record Unpaced() implements PacingPolicy {
+        @Override
+        public void pause(long nominalMillis) throws InterruptedException {
+            // Only honour interruptions so that callers can still be stopped
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+        }
+
+        @Override
+        public boolean isInteractive() {
+            return false;
+        }
+    }
+}
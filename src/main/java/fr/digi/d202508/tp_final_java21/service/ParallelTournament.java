@@ -0,0 +1,149 @@
+package fr.digi.d202508.tp_final_java21.service;
+
+import fr.digi.d202508.tp_final_java21.config.RaceConfig;
+import fr.digi.d202508.tp_final_java21.model.Animal;
+import fr.digi.d202508.tp_final_java21.model.RaceStatistics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * ParallelTournament runs many independent heats at the same time, each on its own RaceTrack.
+ * <p>
+ * At most {@code concurrency} tracks are active at once: one worker per track picks the next
+ * heat number until every heat has been run, reusing its Race between heats. All animals run
+ * on a single shared runner executor sized for the active tracks. Each track records its heats
+ * in its own RaceStatistics (no locking), and the trackers are merged at the end.
+ * Heat reports are sent as one complete block per heat, so lines of different heats never interleave.
+ */
+public class ParallelTournament {
+
+    private final int totalHeats;
+    private final int concurrency;
+    private final RaceConfig config;
+    private final Consumer<String> heatOutput;
+    private final RaceStatistics statistics;
+    private long elapsedNanos;
+
+    /**
+     * Constructor for ParallelTournament
+     * @param totalHeats number of heats to run
+     * @param concurrency maximum number of tracks running at the same time
+     * @param config race parameters shared by every heat
+     * @param heatOutput receives one complete report per heat (console, GUI, or nothing)
+     */
+    public ParallelTournament(int totalHeats, int concurrency, RaceConfig config, Consumer<String> heatOutput) {
+        if (totalHeats <= 0 || concurrency <= 0) {
+            throw new IllegalArgumentException("Le nombre de manches et de pistes doit être positif");
+        }
+        this.totalHeats = totalHeats;
+        this.concurrency = Math.min(concurrency, totalHeats);
+        this.config = config;
+        this.heatOutput = heatOutput;
+        this.statistics = new RaceStatistics();
+    }
+
+    /**
+     * Runs every heat and merges the results
+     * @return merged statistics of all heats
+     */
+    public RaceStatistics runTournament() {
+        AtomicInteger nextHeat = new AtomicInteger();
+        ExecutorService runnerPool = Executors.newFixedThreadPool(
+                concurrency * Race.FIELD_SIZE, Race.runnerThreadFactory("Thread-Heat-Runner-"));
+        ExecutorService trackWorkers = Executors.newFixedThreadPool(
+                concurrency, Race.runnerThreadFactory("Thread-Track-"));
+
+        long start = System.nanoTime();
+        try {
+            List<Future<RaceStatistics>> tracks = new ArrayList<>();
+            for (int track = 1; track <= concurrency; track++) {
+                int trackNumber = track;
+                tracks.add(trackWorkers.submit(() -> runTrack(trackNumber, nextHeat, runnerPool)));
+            }
+
+            // Merge in track order so that the result doesn't depend on thread timing
+            for (Future<RaceStatistics> track : tracks) {
+                statistics.merge(track.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Une piste a échoué pendant le tournoi parallèle", e.getCause());
+        } finally {
+            elapsedNanos = System.nanoTime() - start;
+            trackWorkers.shutdownNow();
+            runnerPool.shutdownNow();
+        }
+        return statistics;
+    }
+
+    /**
+     * Runs heats on one track until there are none left
+     * @param trackNumber number of the track (for the reports)
+     * @param nextHeat shared heat counter
+     * @param runnerPool shared runner executor
+     * @return statistics of the heats run on this track
+     */
+    private RaceStatistics runTrack(int trackNumber, AtomicInteger nextHeat, ExecutorService runnerPool) {
+        RaceStatistics trackStatistics = new RaceStatistics();
+
+        try (Race race = new Race(config, PacingPolicy.unpaced(), runnerPool)) {
+            int heat;
+            while ((heat = nextHeat.incrementAndGet()) <= totalHeats && !Thread.currentThread().isInterrupted()) {
+                race.initializeRace();
+                race.launchRunners();
+                race.monitorRace();
+
+                List<Animal> scoreboard = race.getRaceTrack().getFinalScoreboard();
+                trackStatistics.recordRound(scoreboard);
+                heatOutput.accept(formatHeat(heat, trackNumber, scoreboard));
+            }
+        }
+        return trackStatistics;
+    }
+
+    /**
+     * Builds the one-line report of a heat
+     * @param heat heat number
+     * @param trackNumber track the heat ran on
+     * @param scoreboard final scoreboard (winner first)
+     * @return report line
+     */
+    private String formatHeat(int heat, int trackNumber, List<Animal> scoreboard) {
+        StringBuilder line = new StringBuilder(String.format("Manche %4d | Piste %2d |", heat, trackNumber));
+        String[] medals = {"🥇", "🥈", "🥉"};
+        for (int i = 0; i < scoreboard.size(); i++) {
+            line.append(' ').append(i < medals.length ? medals[i] : "  ")
+                    .append(' ').append(scoreboard.get(i).getName());
+        }
+        return line.toString();
+    }
+
+    /**
+     * Throughput of the last run
+     * @return heats per minute
+     */
+    public double getHeatsPerMinute() {
+        return elapsedNanos > 0 ? statistics.getTotalRounds() * 60e9 / elapsedNanos : 0.0;
+    }
+
+    public RaceStatistics getStatistics() {
+        return statistics;
+    }
+
+    /**
+     * Displays merged statistics and throughput
+     */
+    public void displayReport() {
+        statistics.displayStatisticsReport();
+        System.out.printf("Pistes en parallèle: %d | Durée: %.2f s | Débit: %.1f manches/minute%n",
+                concurrency, elapsedNanos / 1e9, getHeatsPerMinute());
+    }
+}
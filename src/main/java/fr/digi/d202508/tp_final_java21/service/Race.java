@@ -1,4 +1,5 @@
 package fr.digi.d202508.tp_final_java21.service;
+import fr.digi.d202508.tp_final_java21.config.RaceConfig;
 import fr.digi.d202508.tp_final_java21.display.ConsoleDisplay;
 import fr.digi.d202508.tp_final_java21.model.Animal;
 import fr.digi.d202508.tp_final_java21.model.Cheval;
@@ -7,44 +8,152 @@ import fr.digi.d202508.tp_final_java21.model.Tortue;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.random.RandomGenerator;
 
 /**
  * Race class manages the overall race execution.
  * Coordinates animals, threads, and display.
+ * A Race can be reused for several rounds: {@link #reset()} puts the same animals
+ * back on the starting line and the runners keep using the same pooled threads.
+ * Call {@link #close()} once the last round is over.
  */
-public class Race {
+public class Race implements AutoCloseable {
+
+    // Number of animals taking part in each race
+    public static final int FIELD_SIZE = 3;
+
+    // One pooled thread per animal plus one for the referee
+    private static final int RUNNER_POOL_SIZE = FIELD_SIZE + 1;
 
     private final RaceTrack raceTrack;
-    private final List<Thread> animalThreads;
+    private final List<Animal> animals;
+    private final List<Future<?>> runningTasks;
+    private final List<RunnerTask> runnerTasks;
+    private final ExecutorService runnerPool;
+    private final boolean ownsRunnerPool;
     private final ConsoleDisplay display;
+    private CountDownLatch runnersDone;
+    private TickScheduler tickScheduler;
+    private Referee referee;
 
     /**
-     * Constructor initializes the race components
+     * Constructor initializes the race components with the default configuration
      */
     public Race() {
-        this.raceTrack = new RaceTrack();
-        this.animalThreads = new ArrayList<>();
-        this.display = new ConsoleDisplay();
+        this(RaceConfig.defaults());
+    }
+
+    /**
+     * Constructor initializes the race components
+     * @param config race parameters (track length, tick interval, physics)
+     */
+    public Race(RaceConfig config) {
+        this(config, PacingPolicy.interactive());
+    }
+
+    /**
+     * Constructor initializes the race components
+     * @param config race parameters (track length, tick interval, physics)
+     * @param pacing pacing of the countdown and other cosmetic delays
+     */
+    public Race(RaceConfig config, PacingPolicy pacing) {
+        this(config, pacing, Executors.newFixedThreadPool(RUNNER_POOL_SIZE, runnerThreadFactory("Thread-Runner-")), true);
     }
 
     /**
-     * Initializes the race by creating all animals and their threads
+     * Constructor for races sharing a runner executor with other races (parallel heats).
+     * The executor must provide at least {@link #FIELD_SIZE} threads for this race,
+     * and is not shut down by {@link #close()}.
+     * @param config race parameters (track length, tick interval, physics)
+     * @param pacing pacing of the countdown and other cosmetic delays
+     * @param sharedRunnerPool executor running the animals
+     */
+    public Race(RaceConfig config, PacingPolicy pacing, ExecutorService sharedRunnerPool) {
+        this(config, pacing, sharedRunnerPool, false);
+    }
+
+    private Race(RaceConfig config, PacingPolicy pacing, ExecutorService runnerPool, boolean ownsRunnerPool) {
+        this.raceTrack = new RaceTrack(config);
+        this.animals = new ArrayList<>();
+        this.runningTasks = new ArrayList<>();
+        this.runnerTasks = new ArrayList<>();
+        this.runnerPool = runnerPool;
+        this.ownsRunnerPool = ownsRunnerPool;
+        this.display = new ConsoleDisplay(config, pacing);
+    }
+
+    /**
+     * Creates numbered daemon threads for runner pools
+     * @param prefix thread name prefix
+     * @return thread factory for a runner pool
+     */
+    static ThreadFactory runnerThreadFactory(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * Initializes the race by creating all animals.
+     * Threads come from the runner pool and are only borrowed in {@link #startRace()}.
      */
     public void initializeRace() {
+        initializeRace(ThreadLocalRandom.current());
+    }
+
+    /**
+     * Initializes the race, drawing the base speeds from the given generator
+     * @param random generator of the base speeds (seeded for reproducible rounds)
+     */
+    public void initializeRace(RandomGenerator random) {
+        if (!animals.isEmpty()) {
+            // Already initialized: reuse the animals of the previous round
+            reset(random);
+            return;
+        }
+
         // Create the three animals
-        Animal tortue = new Tortue(raceTrack);
-        Animal lapin = new Lapin(raceTrack);
-        Animal cheval = new Cheval(raceTrack);
+        animals.add(new Tortue(raceTrack));
+        animals.add(new Lapin(raceTrack));
+        animals.add(new Cheval(raceTrack));
 
         // Add animals to race track
-        raceTrack.addParticipant(tortue);
-        raceTrack.addParticipant(lapin);
-        raceTrack.addParticipant(cheval);
+        for (Animal animal : animals) {
+            animal.reset(random);
+            raceTrack.addParticipant(animal);
+        }
+    }
 
-        // Create threads for each animal
-        animalThreads.add(new Thread(tortue, "Thread-Tortue"));
-        animalThreads.add(new Thread(lapin, "Thread-Lapin"));
-        animalThreads.add(new Thread(cheval, "Thread-Cheval"));
+    /**
+     * Prepares the race for another round with the same animals.
+     * Positions are cleared and base speeds are drawn again.
+     */
+    public void reset() {
+        reset(ThreadLocalRandom.current());
+    }
+
+    private void reset(RandomGenerator random) {
+        // A runner still on its way out would deregister from the clock of the next round
+        if (runnersDone != null && runnersDone.getCount() > 0) {
+            throw new IllegalStateException("Les coureurs de la manche précédente ne sont pas tous arrêtés");
+        }
+        raceTrack.reset(random);
+        runningTasks.clear();
+        runnerTasks.clear();
+        tickScheduler = null;
+        referee = null;
     }
 
     public void displayStartingScreen() {
@@ -55,29 +164,88 @@ public class Race {
         System.out.println("Départ de la course!");
         System.out.println();
 
-        // Start all threads at the same time
-        for (Thread thread : animalThreads) {
-            thread.start();
+        launchRunners();
+    }
+
+    /**
+     * Starts the runners without printing anything (used by parallel heats)
+     */
+    public void launchRunners() {
+        if (raceTrack.getConfig().runnerMode() == RaceConfig.RunnerMode.TICKS) {
+            // One timer moves every animal on each tick; no thread per animal
+            runnersDone = new CountDownLatch(1);
+            tickScheduler = new TickScheduler(raceTrack);
+            tickScheduler.start(animals, runnersDone::countDown);
+            return;
         }
+
+        // Hand every runner to the pool at the same time; in LOCKSTEP mode the clock
+        // holds their first move until the last one has started
+        CountDownLatch done = new CountDownLatch(animals.size());
+        runnersDone = done;
+        for (Animal animal : animals) {
+            AtomicBoolean claimed = new AtomicBoolean();
+            Future<?> future = runnerPool.submit(() -> {
+                // Already counted if the race was stopped before this task got a thread
+                if (!claimed.compareAndSet(false, true)) {
+                    return;
+                }
+                try {
+                    animal.run();
+                } finally {
+                    done.countDown();
+                }
+            });
+            runnerTasks.add(new RunnerTask(future, claimed));
+        }
+    }
+
+    /**
+     * A runner handed to the pool, claimed either by the thread that runs it or by the
+     * stop of the race if it never started (a busy shared pool may not have reached it)
+     * @param future the pooled task
+     * @param claimed set by whoever gets there first
+     */
+    private record RunnerTask(Future<?> future, AtomicBoolean claimed) {
+
+        /**
+         * Interrupts the runner, or cancels it and counts it as stopped if it never started
+         * @param done latch of the stopped runners
+         */
+        void stop(CountDownLatch done) {
+            if (claimed.compareAndSet(false, true)) {
+                future.cancel(false);
+                done.countDown();
+            } else {
+                future.cancel(true);
+            }
+        }
+    }
+
+    /**
+     * Starts a referee displaying live rankings on a pooled thread.
+     * The referee is stopped automatically at the end of the race.
+     * @param updateIntervalMs interval between two live rankings
+     * @param pacing pacing of the referee refreshes
+     */
+    public void startReferee(long updateIntervalMs, PacingPolicy pacing) {
+        referee = new Referee(raceTrack, updateIntervalMs, pacing);
+        runningTasks.add(runnerPool.submit(referee));
     }
 
     /**
      * Monitors the race until a winner is found.
-     * Main thread waits and checks race status periodically.
+     * Main thread blocks until the race track signals the winner, without polling.
+     * @throws IllegalStateException if a runner did not stop in time: the round is failed,
+     *         its results are not to be recorded and the race cannot be reset
      */
     public void monitorRace() {
         try {
-            // Poll race status every 100ms
-            while (!raceTrack.isRaceFinished()) {
-                Thread.sleep(100);
-            }
+            raceTrack.awaitFinish();
 
-            // Race finished - stop all animal threads
+            // Race finished - stop all animal threads (joined in stopAllAnimals)
             stopAllAnimals();
 
-            // Small delay to ensure all threads have stopped
-            Thread.sleep(200);
-
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
             display.displayError("La surveillance de la course a été interrompue");
@@ -85,19 +253,29 @@ public class Race {
     }
 
     private void stopAllAnimals() {
-        for (Thread thread : animalThreads) {
-            if (thread.isAlive()) {
-                thread.interrupt();
-            }
+        if (referee != null) {
+            referee.stop();
+        }
+
+        if (tickScheduler != null) {
+            tickScheduler.stop();
+        }
+
+        // Interrupts the runners still sleeping; the pooled threads themselves survive
+        for (Future<?> task : runningTasks) {
+            task.cancel(true);
+        }
+        for (RunnerTask runner : runnerTasks) {
+            runner.stop(runnersDone);
         }
 
-        // Wait for all threads to finish
-        for (Thread thread : animalThreads) {
-            try {
-                thread.join(1000); // Wait up to 1 second for each thread
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
+        // Wait for every runner to leave its loop before the race can be reset
+        try {
+            if (runnersDone != null && !runnersDone.await(1, TimeUnit.SECONDS)) {
+                throw new IllegalStateException("Certains coureurs ne se sont pas arrêtés à temps");
             }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
         }
     }
 
@@ -135,4 +313,15 @@ public class Race {
             e.printStackTrace();
         }
     }
+
+    /**
+     * Completes the live feed and releases the pooled runner threads (unless the executor is shared)
+     */
+    @Override
+    public void close() {
+        raceTrack.closeFeed();
+        if (ownsRunnerPool) {
+            runnerPool.shutdownNow();
+        }
+    }
 }
\ No newline at end of file
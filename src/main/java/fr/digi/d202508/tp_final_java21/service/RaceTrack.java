@@ -1,20 +1,53 @@
 package fr.digi.d202508.tp_final_java21.service;
 
+import fr.digi.d202508.tp_final_java21.config.RaceConfig;
 import fr.digi.d202508.tp_final_java21.model.Animal;
+import fr.digi.d202508.tp_final_java21.model.RaceEvent;
+import fr.digi.d202508.tp_final_java21.model.Species;
+import fr.digi.d202508.tp_final_java21.model.SpeciesProfile;
+import fr.digi.d202508.tp_final_java21.model.TickSnapshot;
 
 import java.util.ArrayList;
-import java.util.Comparator;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.random.RandomGenerator;
 
 /**
  * RaceTrack manages the shared state of the race.
  * Handles winner declaration and race status using thread-safe mechanisms.
+ * <p>
+ * Observers subscribe to {@link #snapshots()} and {@link #events()} instead of polling
+ * the animals: after each move the track publishes one immutable {@link TickSnapshot}
+ * (latest value only, slow subscribers skip intermediate ones) and the boost, fatigue
+ * and finish {@link RaceEvent}s. Nothing is built while nobody is subscribed.
+ * Readers that want every move rather than the latest state read the {@link #moves()} ring,
+ * which the runners fill without allocating once a first reader has asked for it.
  */
 public class RaceTrack {
 
-    // Constants
-    public static final int FINISH_LINE = 50; // Distance in units
-    public static final int SLEEP_INTERVAL_MS = 500; // Sleep time between moves
+    // Delivers snapshots and events to subscribers, never on a runner thread
+    private static final ExecutorService FEED_EXECUTOR = Executors.newVirtualThreadPerTaskExecutor();
+
+    // Events buffered per subscriber before the oldest undelivered ones are dropped
+    private static final int EVENT_BUFFER_SIZE = 256;
+
+    // Moves kept in the ring before a lagging reader loses the oldest ones
+    private static final int MOVE_RING_CAPACITY = 1 << 12;
+
+    // Race parameters (finish line, tick interval, physics)
+    private final RaceConfig config;
+
+    // Species profiles shared by the animals of this track (indexed by Species ordinal)
+    private final SpeciesProfile[] profiles;
+
+    // Paces the runners in real, scaled or virtual time
+    private final SimulationClock clock;
 
     // Shared state (volatile for visibility across threads)
     private volatile boolean raceFinished = false;
@@ -26,12 +59,62 @@ public class RaceTrack {
     // Lock object for synchronization
     private final Object winnerLock = new Object();
 
+    // Released once the winner is declared, so observers don't have to poll
+    private volatile CountDownLatch finishLatch = new CountDownLatch(1);
+
+    // Live feed for observers
+    private final ConflatingPublisher<TickSnapshot> snapshotPublisher;
+    private final SubmissionPublisher<RaceEvent> eventPublisher;
+    private volatile boolean eventsSubscribed;
+    // Numbers the published moves only: moves made while nobody is subscribed are not counted
+    private final AtomicLong moveSequence = new AtomicLong();
+    private volatile TickRing moveRing;
+
     public RaceTrack() {
+        this(RaceConfig.defaults());
+    }
+
+    public RaceTrack(RaceConfig config) {
+        this.config = config;
+        this.profiles = SpeciesProfile.forConfig(config);
+        this.clock = SimulationClock.create(config);
         this.participants = new ArrayList<>();
+        this.snapshotPublisher = new ConflatingPublisher<>(FEED_EXECUTOR);
+        this.eventPublisher = new SubmissionPublisher<>(FEED_EXECUTOR, EVENT_BUFFER_SIZE);
     }
 
     public void addParticipant(Animal animal) {
+        animal.setRunnerIndex(participants.size());
         participants.add(animal);
+        // Registered before any thread starts so that no runner gets a head start
+        clock.register();
+    }
+
+    /**
+     * Puts the track back in its initial state for a new round.
+     * Participants stay on the track and are reset (position, base speed).
+     * Must only be called once every runner of the previous round has stopped.
+     */
+    public void reset() {
+        reset(ThreadLocalRandom.current());
+    }
+
+    /**
+     * Puts the track back in its initial state, drawing the base speeds from the given generator
+     * @param random generator of the base speeds (seeded for reproducible rounds)
+     */
+    public void reset(RandomGenerator random) {
+        synchronized (winnerLock) {
+            raceFinished = false;
+            winner = null;
+            finishLatch = new CountDownLatch(1);
+        }
+        moveSequence.set(0);
+        clock.reset();
+        for (Animal animal : participants) {
+            animal.reset(random);
+            clock.register();
+        }
     }
 
     public List<Animal> getParticipants() {
@@ -40,39 +123,193 @@ public class RaceTrack {
 
     /**
      * Thread-safe method to declare the winner.
-     * Only the first animal to call this method will be declared winner.
+     * The first animal to call this method ends the race. An animal that crossed the line
+     * earlier in the same tick ({@link Animal#FINISH_ORDER}) but whose thread declares it later
+     * takes its place, so that the winner is always the head of {@link #getFinalScoreboard()},
+     * whatever the order in which the runner threads were scheduled. Every declared winner,
+     * the first one and each replacement, is published as a {@link RaceEvent.Winner}.
      * Uses synchronized block to prevent race conditions.
      *
      * @param animal the animal attempting to declare victory
-     * @return true if this animal won, false if another animal already won
+     * @return true if this animal is the winner so far, false if another animal finished first
      */
     public boolean declareWinner(Animal animal) {
         synchronized (winnerLock) {
             if (!raceFinished) {
                 raceFinished = true;
                 winner = animal;
+                publishWinner(animal);
+                finishLatch.countDown();
+                return true;
+            }
+            if (animal.isFinished() && Animal.FINISH_ORDER.compare(animal, winner) < 0) {
+                // Corrects the observers that were already told about the previous winner
+                winner = animal;
+                publishWinner(animal);
                 return true;
             }
             return false;
         }
     }
 
+    /**
+     * Blocks the calling thread until a winner has been declared.
+     * Runners of the same tick may still replace that winner until they have all stopped.
+     * @throws InterruptedException if the waiting thread is interrupted
+     */
+    public void awaitFinish() throws InterruptedException {
+        finishLatch.await();
+    }
+
+    /**
+     * Publishes the state of the race after a move of the given animal.
+     * Called by the runners; never blocks them, whatever the speed of the subscribers.
+     * @param mover the animal that just moved
+     */
+    public void publishMove(Animal mover) {
+        TickRing ring = moveRing;
+        if (ring != null) {
+            ring.publish(mover.getRunnerIndex(), mover.getMoveCount(), mover.getPosition(), mover.getSpeed(),
+                    mover.getCurrentSpeed(), mover.getSpeedState(), mover.isFinished());
+        }
+
+        boolean snapshotsWanted = snapshotPublisher.hasSubscribers();
+        boolean eventsWanted = eventsSubscribed && eventPublisher.hasSubscribers();
+        if (!snapshotsWanted && !eventsWanted) {
+            return;
+        }
+
+        long sequence = moveSequence.incrementAndGet();
+        if (eventsWanted) {
+            publishEvents(sequence, mover);
+        }
+        if (snapshotsWanted) {
+            snapshotPublisher.publish(takeSnapshot(sequence));
+        }
+    }
+
+    private void publishEvents(long sequence, Animal mover) {
+        Species species = mover.getSpecies();
+        RaceEvent event = switch (mover.getSpeedState()) {
+            case BOOST -> new RaceEvent.Boost(sequence, species, mover.getCurrentSpeed());
+            case FATIGUE -> new RaceEvent.Fatigue(sequence, species, mover.getCurrentSpeed());
+            case NORMAL -> null;
+        };
+        // A lagging subscriber loses events rather than blocking the runner
+        if (event != null) {
+            eventPublisher.offer(event, (subscriber, dropped) -> false);
+        }
+        if (mover.isFinished()) {
+            eventPublisher.offer(new RaceEvent.Finish(sequence, species, mover.getFinishTick()),
+                    (subscriber, dropped) -> false);
+        }
+    }
+
+    /**
+     * Tells the event subscribers about a new winner (called under the winner lock)
+     * @param animal the declared winner
+     */
+    private void publishWinner(Animal animal) {
+        if (eventsSubscribed && eventPublisher.hasSubscribers()) {
+            eventPublisher.offer(new RaceEvent.Winner(moveSequence.get(), animal.getSpecies(), animal.getFinishTick()),
+                    (subscriber, dropped) -> false);
+        }
+    }
+
+    private TickSnapshot takeSnapshot(long sequence) {
+        TickSnapshot.Runner[] runners = new TickSnapshot.Runner[participants.size()];
+        for (int i = 0; i < runners.length; i++) {
+            Animal animal = participants.get(i);
+            runners[i] = new TickSnapshot.Runner(animal.getSpecies(), animal.getPosition(), animal.getSpeed(),
+                    animal.getCurrentSpeed(), animal.getSpeedState(), animal.isFinished());
+        }
+        Animal currentWinner = winner;
+        return new TickSnapshot(sequence, config.finishLine(),
+                currentWinner != null ? currentWinner.getRunnerIndex() : -1, List.of(runners));
+    }
+
+    /**
+     * Live state of the race, published after every move.
+     * Each subscriber only receives the latest snapshot when it requests one.
+     * @return snapshot publisher
+     */
+    public Flow.Publisher<TickSnapshot> snapshots() {
+        return snapshotPublisher;
+    }
+
+    /**
+     * Every move of the race, in a ring read by independent readers ({@link TickRing#newReader()}).
+     * Runner indexes are positions in {@link #getParticipants()}.
+     * @return the move ring, created on the first call
+     */
+    public synchronized TickRing moves() {
+        if (moveRing == null) {
+            moveRing = new TickRing(MOVE_RING_CAPACITY);
+        }
+        return moveRing;
+    }
+
+    /**
+     * Boost, fatigue and finish events of the race
+     * @return event publisher
+     */
+    public Flow.Publisher<RaceEvent> events() {
+        return subscriber -> {
+            eventsSubscribed = true;
+            eventPublisher.subscribe(subscriber);
+        };
+    }
+
+    /**
+     * Completes every subscription of the live feed (end of the last round)
+     */
+    public void closeFeed() {
+        snapshotPublisher.close();
+        eventPublisher.close();
+    }
+
     public boolean isRaceFinished() {
         return raceFinished;
     }
 
+    /**
+     * Winner declared so far. Only final once every runner has stopped
+     * (after {@link Race#monitorRace()} returns): until then an animal that crossed the line
+     * earlier in the same tick may still replace it.
+     * @return the winner, or null while nobody has finished
+     */
     public Animal getWinner() {
         return winner;
     }
 
+    /**
+     * Ranking of the round, to be read once every runner has stopped
+     * @return finishers by finish tick, then the others by position (ties by runner index)
+     */
     public List<Animal> getFinalScoreboard() {
         List<Animal> scoreboard = new ArrayList<>(participants);
-        // Sort by position in descending order
-        scoreboard.sort(Comparator.comparingDouble(Animal::getPosition).reversed());
+        scoreboard.sort(Animal.FINISH_ORDER);
         return scoreboard;
     }
 
     public int getFinishLine() {
-        return FINISH_LINE;
+        return config.finishLine();
+    }
+
+    /**
+     * Returns the shared profile of a species on this track
+     * @param species the species
+     * @return species profile
+     */
+    public SpeciesProfile getProfile(Species species) {
+        return profiles[species.ordinal()];
+    }
+
+    public SimulationClock getClock() {
+        return clock;
+    }
+
+    public RaceConfig getConfig() {
+        return config;
     }
 }
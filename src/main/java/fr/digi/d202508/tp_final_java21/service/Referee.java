@@ -1,67 +1,150 @@
 package fr.digi.d202508.tp_final_java21.service;
 
 import fr.digi.d202508.tp_final_java21.model.Animal;
+import fr.digi.d202508.tp_final_java21.model.SpeedState;
+import fr.digi.d202508.tp_final_java21.model.TickSnapshot;
 
+import java.util.Arrays;
 import java.util.Comparator;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
 
 /**
  * Referee thread that monitors and displays live rankings during the race.
  * Runs independently and updates the console with current positions periodically.
+ * Positions come from the track's move ring: when it is ready to display, the referee
+ * drains the moves published since its last ranking into its own arrays, so the runners
+ * never build anything for it. Each ranking also shows the live win probability of every animal ({@link OddsEngine}).
  */
 public class Referee implements Runnable {
 
     private final RaceTrack raceTrack;
     private final long updateIntervalMs;
+    private final PacingPolicy pacing;
+    private final OddsEngine odds;
     private volatile boolean running;
 
+    // Latest state of each runner, indexed like the track's participants
+    private List<Animal> participants;
+    private double[] positions;
+    private double[] baseSpeeds;
+    private double[] currentSpeeds;
+    private SpeedState[] speedStates;
+    private boolean[] finished;
+
     public Referee(RaceTrack raceTrack, long updateIntervalMs) {
+        this(raceTrack, updateIntervalMs, PacingPolicy.interactive());
+    }
+
+    public Referee(RaceTrack raceTrack, long updateIntervalMs, PacingPolicy pacing) {
         this.raceTrack = raceTrack;
         this.updateIntervalMs = updateIntervalMs;
+        this.pacing = pacing;
+        this.odds = new OddsEngine(raceTrack.getConfig());
         this.running = true;
     }
 
     @Override
     public void run() {
+        TickRing.Reader moves = raceTrack.moves().newReader();
+        participants = raceTrack.getParticipants();
+        int size = participants.size();
+        positions = new double[size];
+        baseSpeeds = new double[size];
+        currentSpeeds = new double[size];
+        speedStates = new SpeedState[size];
+        finished = new boolean[size];
+        for (int i = 0; i < size; i++) {
+            Animal animal = participants.get(i);
+            positions[i] = animal.getPosition();
+            baseSpeeds[i] = animal.getSpeed();
+            currentSpeeds[i] = animal.getCurrentSpeed();
+            speedStates[i] = animal.getSpeedState();
+            finished[i] = animal.isFinished();
+        }
         try {
             // Wait a bit before first update
-            Thread.sleep(1000);
+            pacing.pause(1000);
 
-            while (running && !raceTrack.isRaceFinished()) {
-                displayLiveRankings();
-                Thread.sleep(updateIntervalMs);
+            long sequence = 0;
+            while (running) {
+                int read = moves.drain(this::apply, Integer.MAX_VALUE);
+                if (raceTrack.isRaceFinished()) {
+                    break;
+                }
+                if (read == 0) {
+                    // Nobody moved since the last ranking
+                    LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+                    if (Thread.interrupted()) {
+                        throw new InterruptedException();
+                    }
+                    continue;
+                }
+                sequence += read;
+                displayLiveRankings(snapshot(sequence));
+                pacing.pause(updateIntervalMs);
             }
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
         }
     }
 
+    private void apply(TickRing.Move move) {
+        int runner = move.runner();
+        positions[runner] = move.position();
+        baseSpeeds[runner] = move.baseSpeed();
+        currentSpeeds[runner] = move.currentSpeed();
+        speedStates[runner] = move.speedState();
+        finished[runner] = move.finished();
+    }
+
+    /**
+     * Builds the state of the race from the moves read so far, only when a ranking is displayed
+     */
+    private TickSnapshot snapshot(long sequence) {
+        TickSnapshot.Runner[] runners = new TickSnapshot.Runner[positions.length];
+        for (int i = 0; i < runners.length; i++) {
+            runners[i] = new TickSnapshot.Runner(participants.get(i).getSpecies(), positions[i], baseSpeeds[i],
+                    currentSpeeds[i], speedStates[i], finished[i]);
+        }
+        return new TickSnapshot(sequence, raceTrack.getFinishLine(), -1, List.of(runners));
+    }
+
     /**
      * Displays current rankings without clearing the main race display
+     * @param snapshot latest state of the race
      */
-    private void displayLiveRankings() {
-        List<Animal> currentRankings = raceTrack.getParticipants().stream()
-                .sorted(Comparator.comparingDouble(Animal::getPosition).reversed())
-                .toList();
+    private void displayLiveRankings(TickSnapshot snapshot) {
+        double[] winProbabilities = odds.winProbabilities(snapshot);
+        List<TickSnapshot.Runner> runners = snapshot.runners();
+        Integer[] order = new Integer[runners.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.comparingDouble((Integer i) -> runners.get(i).position()).reversed());
 
         System.out.println("\n📊 CLASSEMENT EN TEMPS RÉEL:");
         int rank = 1;
-        for (Animal animal : currentRankings) {
-            String progressBar = createProgressBar(animal);
-            System.out.printf("   %d. %-8s %s %.1f/50 unités%n",
-                    rank++, animal.getName(), progressBar, animal.getPosition());
+        for (int index : order) {
+            TickSnapshot.Runner runner = runners.get(index);
+            String progressBar = createProgressBar(runner.position(), snapshot.finishLine());
+            System.out.printf("   %d. %-8s %s %.1f/%d unités | victoire: %5.1f%%%n",
+                    rank++, runner.name(), progressBar, runner.position(), snapshot.finishLine(),
+                    winProbabilities[index] * 100);
         }
         System.out.println();
     }
 
     /**
      * Creates a visual progress bar for an animal
-     * @param animal the animal to create bar for
+     * @param position position of the animal
+     * @param finishLine track length
      * @return progress bar string
      */
-    private String createProgressBar(Animal animal) {
+    private String createProgressBar(double position, int finishLine) {
         int totalBars = 20;
-        int filledBars = (int) ((animal.getPosition() / RaceTrack.FINISH_LINE) * totalBars);
+        int filledBars = (int) ((position / finishLine) * totalBars);
 
         StringBuilder bar = new StringBuilder("[");
         for (int i = 0; i < totalBars; i++) {
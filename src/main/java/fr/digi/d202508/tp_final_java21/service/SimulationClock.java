@@ -0,0 +1,312 @@
+package fr.digi.d202508.tp_final_java21.service;
+
+import fr.digi.d202508.tp_final_java21.config.RaceConfig;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Phaser;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Decouples simulated time from wall-clock time.
+ * Runners always advance by the simulated tick (RaceConfig.tickSeconds()),
+ * the clock only decides how long they wait in real time between two ticks:
+ * <ul>
+ *   <li>REAL: one simulated tick = one real tick (today's behaviour)</li>
+ *   <li>SCALED: real wait divided by the time scale (100 = 100x faster)</li>
+ *   <li>VIRTUAL: no real wait, runners advance in lock-step</li>
+ * </ul>
+ * Distances are computed from the simulated tick in every mode, so results
+ * are physically identical whatever the clock.
+ * In runner mode LOCKSTEP, a {@link Lockstep} clock paces the ticks of REAL or SCALED mode
+ * (or chains them in VIRTUAL mode) for every runner at once.
+ */
+public sealed interface SimulationClock permits SimulationClock.Sleeping, SimulationClock.Stepped, SimulationClock.Lockstep {
+
+    enum Mode {
+        REAL,
+        SCALED,
+        VIRTUAL
+    }
+
+    /**
+     * Registers a runner before the race starts
+     */
+    void register();
+
+    /**
+     * Waits until the runner may perform its first move
+     * @throws InterruptedException if the runner is interrupted
+     */
+    void awaitStart() throws InterruptedException;
+
+    /**
+     * Waits until the runner may perform its next move
+     * @throws InterruptedException if the runner is interrupted
+     */
+    void awaitNextTick() throws InterruptedException;
+
+    /**
+     * Removes a runner that stopped running
+     */
+    void deregister();
+
+    /**
+     * Forgets every registered runner before a new round
+     */
+    void reset();
+
+    /**
+     * Creates the clock described by the configuration
+     * @param config race parameters (clock mode, tick interval and time scale)
+     * @return a new clock, one per race track
+     */
+    static SimulationClock create(RaceConfig config) {
+        if (config.runnerMode() == RaceConfig.RunnerMode.LOCKSTEP) {
+            return new Lockstep(realInterval(config));
+        }
+        return switch (config.clockMode()) {
+            case REAL, SCALED -> new Sleeping(realInterval(config));
+            case VIRTUAL -> new Stepped();
+        };
+    }
+
+    /**
+     * Real time between two ticks described by the configuration
+     * @param config race parameters (clock mode, tick interval and time scale)
+     * @return wait between two moves, zero in VIRTUAL mode
+     */
+    static Duration realInterval(RaceConfig config) {
+        return switch (config.clockMode()) {
+            case REAL -> Duration.ofMillis(config.tickIntervalMs());
+            case SCALED -> Duration.ofNanos((long) (config.tickIntervalMs() * 1_000_000L / config.timeScale()));
+            case VIRTUAL -> Duration.ZERO;
+        };
+    }
+
+    /**
+     * Each runner sleeps independently for the (possibly scaled) tick duration
+     * @param interval real time between two moves
+     */
+    record Sleeping(Duration interval) implements SimulationClock {
+        @Override
+        public void register() {
+            // Nothing to coordinate
+        }
+
+        @Override
+        public void awaitStart() {
+            // Nothing to coordinate: each runner starts as soon as its thread does
+        }
+
+        @Override
+        public void awaitNextTick() throws InterruptedException {
+            if (interval.isZero()) {
+                Thread.yield();
+                if (Thread.interrupted()) {
+                    throw new InterruptedException();
+                }
+            } else {
+                Thread.sleep(interval);
+            }
+        }
+
+        @Override
+        public void deregister() {
+            // Nothing to coordinate
+        }
+
+        @Override
+        public void reset() {
+            // Nothing to coordinate
+        }
+    }
+
+    /**
+     * Virtual time: no sleep, but a Phaser keeps every runner on the same tick
+     * so that the fastest thread doesn't simply win by getting more CPU.
+     */
+    final class Stepped implements SimulationClock {
+        private volatile Phaser phaser = new Phaser();
+
+        @Override
+        public void register() {
+            phaser.register();
+        }
+
+        @Override
+        public void awaitStart() {
+            // The first tick barrier keeps the runners together
+        }
+
+        @Override
+        public void awaitNextTick() throws InterruptedException {
+            // Not interruptible on purpose: a runner that has arrived must not leave
+            // mid-phase, otherwise its deregistration would be counted twice
+            phaser.awaitAdvance(phaser.arrive());
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+        }
+
+        @Override
+        public void deregister() {
+            phaser.arriveAndDeregister();
+        }
+
+        @Override
+        public void reset() {
+            phaser = new Phaser();
+        }
+
+        /**
+         * Number of ticks completed by every runner so far
+         * @return current tick
+         */
+        public int getTick() {
+            return phaser.getPhase();
+        }
+    }
+
+    /**
+     * Runner mode LOCKSTEP: every runner keeps its own thread, but a tree of Phasers releases them
+     * all at once for the first move, then holds each tick until every runner has moved.
+     * <p>
+     * Runners arrive on leaf phasers of at most {@value #TIER_SIZE} parties, grouped under
+     * intermediate phasers of {@value #TIER_SIZE} leaves, so that no single barrier is contended
+     * by every thread. The last runner to arrive completes the tick at the root, which waits there
+     * until the tick is due (start time + ticks x interval) before releasing everyone: a single
+     * thread sleeps per tick instead of N, and the runners cannot drift apart.
+     * A late tick is not made up for, the next one is simply due at once.
+     */
+    final class Lockstep implements SimulationClock {
+        static final int TIER_SIZE = 64;
+
+        private final long intervalNanos;
+        private volatile Round round = new Round();
+
+        /**
+         * @param interval real time between two ticks, zero to chain them
+         */
+        public Lockstep(Duration interval) {
+            this.intervalNanos = interval.toNanos();
+        }
+
+        /**
+         * Registers a runner; registrations must all be made before the runners start
+         */
+        @Override
+        public void register() {
+            round.register();
+        }
+
+        @Override
+        public void awaitStart() throws InterruptedException {
+            round.await();
+        }
+
+        @Override
+        public void awaitNextTick() throws InterruptedException {
+            round.await();
+        }
+
+        @Override
+        public void deregister() {
+            round.deregister();
+        }
+
+        @Override
+        public void reset() {
+            round = new Round();
+        }
+
+        /**
+         * Number of ticks completed by every runner so far (the start counts as one)
+         * @return current phase of the barrier
+         */
+        public int getTick() {
+            return round.root.getPhase();
+        }
+
+        /**
+         * Time the runners were released for their first move
+         * @return System.nanoTime() of the start, 0 before it
+         */
+        public long getStartNanos() {
+            return round.startNanos;
+        }
+
+        /**
+         * Barriers of one round. Leaves are handed out to the runner threads in registration order:
+         * the n-th thread to arrive takes a party of the leaf holding the n-th registration.
+         */
+        private final class Round {
+            private final Phaser root = new Phaser() {
+                @Override
+                protected boolean onAdvance(int phase, int registeredParties) {
+                    if (phase == 0) {
+                        startNanos = System.nanoTime();
+                    } else if (intervalNanos > 0) {
+                        waitUntil(startNanos + phase * intervalNanos);
+                    }
+                    return registeredParties == 0;
+                }
+            };
+            private final List<Phaser> branches = new ArrayList<>();
+            private final List<Phaser> leaves = new ArrayList<>();
+            private final AtomicInteger claimedParties = new AtomicInteger();
+            private final ThreadLocal<Phaser> leafOfRunner = new ThreadLocal<>();
+            private int registeredParties;
+            private volatile long startNanos;
+
+            private void register() {
+                int leaf = registeredParties++ / TIER_SIZE;
+                if (leaf == leaves.size()) {
+                    int branch = leaf / TIER_SIZE;
+                    if (branch == branches.size()) {
+                        branches.add(new Phaser(root));
+                    }
+                    leaves.add(new Phaser(branches.get(branch)));
+                }
+                leaves.get(leaf).register();
+            }
+
+            private void await() throws InterruptedException {
+                Phaser leaf = leafOfCurrentRunner();
+                // Not interruptible on purpose, as in the Stepped clock: a runner that has
+                // arrived must not leave mid-phase
+                leaf.awaitAdvance(leaf.arrive());
+                if (Thread.interrupted()) {
+                    throw new InterruptedException();
+                }
+            }
+
+            private void deregister() {
+                leafOfCurrentRunner().arriveAndDeregister();
+                leafOfRunner.remove();
+            }
+
+            private Phaser leafOfCurrentRunner() {
+                Phaser leaf = leafOfRunner.get();
+                if (leaf == null) {
+                    leaf = leaves.get(claimedParties.getAndIncrement() / TIER_SIZE);
+                    leafOfRunner.set(leaf);
+                }
+                return leaf;
+            }
+
+            private void waitUntil(long deadline) {
+                long remaining;
+                while ((remaining = deadline - System.nanoTime()) > 0) {
+                    LockSupport.parkNanos(remaining);
+                    if (Thread.currentThread().isInterrupted()) {
+                        // Let the runner notice the interruption once the tick is released
+                        return;
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,241 @@
+package fr.digi.d202508.tp_final_java21.service;
+
+import fr.digi.d202508.tp_final_java21.model.SpeedState;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Preallocated ring of move records, written by the runners and read by any number of
+ * independent readers (Disruptor style).
+ * <p>
+ * A runner claims the next sequence number with a single atomic increment and owns the
+ * slot of that sequence until it has written the move into it: no lock, no allocation, and
+ * it never waits for the readers. It only waits, yielding, in the rare case where a runner
+ * a whole lap behind (e.g. descheduled mid-write) is still writing the same slot; a runner
+ * that finds its slot already taken by a later lap drops its move. Fields are stored in
+ * primitive arrays, one entry per slot. Each slot carries the sequence last published in it, which acts as the readers' sequence
+ * barrier: a reader goes forward only over published slots, and checks the stamp again after
+ * copying the fields, like a sequence lock, to reject a slot rewritten meanwhile.
+ * <p>
+ * Every reader has its own position and drains records in batches at its own pace into a
+ * single mutable {@link Move}, without allocating. A reader that falls more than a lap behind
+ * skips to the oldest record still in the ring and counts the records it lost, so a slow
+ * reader costs the runners nothing.
+ */
+public final class TickRing {
+
+    private static final VarHandle STAMPS = MethodHandles.arrayElementVarHandle(long[].class);
+    private static final long EMPTY = Long.MIN_VALUE;
+
+    private final int mask;
+    // Last sequence claimed by a runner
+    private final AtomicLong cursor = new AtomicLong(-1);
+    // Sequence published in each slot; -(s + 1) while sequence s is being written
+    private final long[] stamps;
+    private final int[] runners;
+    private final int[] moves;
+    private final double[] positions;
+    private final double[] baseSpeeds;
+    private final double[] currentSpeeds;
+    private final byte[] speedStates;
+    private final boolean[] finished;
+
+    /**
+     * @param capacity number of slots, a power of two
+     */
+    public TickRing(int capacity) {
+        if (capacity <= 0 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("La capacité de l'anneau doit être une puissance de 2: " + capacity);
+        }
+        this.mask = capacity - 1;
+        this.stamps = new long[capacity];
+        Arrays.fill(stamps, EMPTY);
+        this.runners = new int[capacity];
+        this.moves = new int[capacity];
+        this.positions = new double[capacity];
+        this.baseSpeeds = new double[capacity];
+        this.currentSpeeds = new double[capacity];
+        this.speedStates = new byte[capacity];
+        this.finished = new boolean[capacity];
+    }
+
+    /**
+     * Writes a move into the next slot. Never waits for the readers.
+     * @param runner index of the runner on the track
+     * @param move number of moves made by the runner
+     * @param position position after the move
+     * @param baseSpeed base speed in km/h
+     * @param currentSpeed speed of the move in km/h
+     * @param speedState variation drawn for the move
+     * @param hasFinished true if the runner has crossed the line
+     * @return sequence number of the record
+     */
+    public long publish(int runner, int move, double position, double baseSpeed, double currentSpeed,
+                        SpeedState speedState, boolean hasFinished) {
+        long sequence = cursor.incrementAndGet();
+        int slot = (int) sequence & mask;
+        while (true) {
+            long stamp = (long) STAMPS.getVolatile(stamps, slot);
+            if (stamp >= 0 ? stamp > sequence : stamp != EMPTY && -stamp - 1 > sequence) {
+                // Lapped before writing: a later move owns the slot
+                return sequence;
+            }
+            if (stamp < 0 && stamp != EMPTY) {
+                // The previous lap is still being written
+                Thread.yield();
+                continue;
+            }
+            // Readers copying the previous lap of this slot will see that it changes
+            if (STAMPS.compareAndSet(stamps, slot, stamp, -(sequence + 1))) {
+                break;
+            }
+        }
+        VarHandle.storeStoreFence();
+        runners[slot] = runner;
+        moves[slot] = move;
+        positions[slot] = position;
+        baseSpeeds[slot] = baseSpeed;
+        currentSpeeds[slot] = currentSpeed;
+        speedStates[slot] = (byte) speedState.ordinal();
+        finished[slot] = hasFinished;
+        STAMPS.setRelease(stamps, slot, sequence);
+        return sequence;
+    }
+
+    /**
+     * Creates a reader starting after the last record published so far
+     * @return new independent reader
+     */
+    public Reader newReader() {
+        return new Reader(cursor.get() + 1);
+    }
+
+    public int capacity() {
+        return mask + 1;
+    }
+
+    /**
+     * Number of records published since the ring was created
+     * @return records published or being written
+     */
+    public long getPublished() {
+        return cursor.get() + 1;
+    }
+
+    /**
+     * Receives the records of a batch, one at a time
+     */
+    @FunctionalInterface
+    public interface MoveHandler {
+        /**
+         * @param move record, only valid during the call (reused for the next one)
+         */
+        void onMove(Move move);
+    }
+
+    /**
+     * Copy of one record, owned by a reader and overwritten by each record it reads
+     */
+    public static final class Move {
+        private static final SpeedState[] STATES = SpeedState.values();
+
+        private long sequence;
+        private int runner;
+        private int move;
+        private double position;
+        private double baseSpeed;
+        private double currentSpeed;
+        private SpeedState speedState;
+        private boolean finished;
+
+        public long sequence() { return sequence; }
+        public int runner() { return runner; }
+        public int move() { return move; }
+        public double position() { return position; }
+        public double baseSpeed() { return baseSpeed; }
+        public double currentSpeed() { return currentSpeed; }
+        public SpeedState speedState() { return speedState; }
+        public boolean finished() { return finished; }
+    }
+
+    /**
+     * Position of one consumer in the ring. Not thread-safe: one thread per reader.
+     */
+    public final class Reader {
+        private final Move current = new Move();
+        private long next;
+        private long lost;
+
+        private Reader(long next) {
+            this.next = next;
+        }
+
+        /**
+         * Hands the records published since the last call to the handler, oldest first
+         * @param handler receives each record
+         * @param maxBatch largest number of records to read in this call
+         * @return number of records handed over
+         */
+        public int drain(MoveHandler handler, int maxBatch) {
+            long last = cursor.get();
+            long oldest = last - mask;
+            if (next < oldest) {
+                // Lapped by the runners: the records in between are gone
+                lost += oldest - next;
+                next = oldest;
+            }
+            int count = 0;
+            while (count < maxBatch && next <= last) {
+                int slot = (int) next & mask;
+                long stamp = (long) STAMPS.getAcquire(stamps, slot);
+                if (stamp != next) {
+                    if (stamp >= 0 ? stamp > next : stamp != EMPTY && -stamp - 1 > next) {
+                        // Already taken by a later lap
+                        lost++;
+                        next++;
+                        continue;
+                    }
+                    // Claimed but not written yet: the next call will get it
+                    break;
+                }
+                current.runner = runners[slot];
+                current.move = moves[slot];
+                current.position = positions[slot];
+                current.baseSpeed = baseSpeeds[slot];
+                current.currentSpeed = currentSpeeds[slot];
+                current.speedState = Move.STATES[speedStates[slot]];
+                current.finished = finished[slot];
+                VarHandle.loadLoadFence();
+                if ((long) STAMPS.getOpaque(stamps, slot) != next) {
+                    // Rewritten while being copied
+                    lost++;
+                    next++;
+                    continue;
+                }
+                current.sequence = next++;
+                handler.onMove(current);
+                count++;
+            }
+            return count;
+        }
+
+        /**
+         * Number of records overwritten before this reader could read them
+         * @return records lost
+         */
+        public long getLost() {
+            return lost;
+        }
+
+        /**
+         * Number of records published but not read yet
+         * @return backlog of this reader
+         */
+        public long getBacklog() {
+            return Math.max(0, cursor.get() + 1 - next);
+        }
+    }
+}
@@ -0,0 +1,207 @@
+package fr.digi.d202508.tp_final_java21.service;
+
+import fr.digi.d202508.tp_final_java21.model.Animal;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Drives the runners of a race from a single timer (runner mode TICKS).
+ * <p>
+ * In THREADS mode every animal sleeps on its own thread: N runners mean N timers, N wake-ups
+ * per tick, and the animals drift apart (the first one started has a head start).
+ * Here one timer thread, shared by every race, fires the ticks; each tick hands the animals
+ * to a small worker pool in batches of {@value #BATCH_SIZE}, so the wake-up cost of a tick
+ * no longer depends on the number of runners and every animal moves exactly once per tick.
+ * <p>
+ * The winner is declared at the end of the tick, among the animals that crossed the line
+ * during it, by fractional finishing tick: animals finishing on the same tick are separated
+ * by how far past the line they went, not by which thread got there first.
+ * A tick still running when the next one is due is not stacked: the late tick is skipped
+ * and counted as an overrun. In VIRTUAL mode ticks are chained without waiting.
+ * {@code onStop} is only called once no batch is running any more: a stop requested
+ * during a tick is signalled by the end of that tick.
+ */
+public class TickScheduler {
+
+    // Animals stepped by one worker task
+    static final int BATCH_SIZE = 64;
+
+    private static final ScheduledExecutorService TIMER = Executors.newSingleThreadScheduledExecutor(
+            Race.runnerThreadFactory("Thread-Tick-Timer-"));
+    private static final ExecutorService WORKERS = Executors.newFixedThreadPool(
+            Math.min(4, Runtime.getRuntime().availableProcessors()), Race.runnerThreadFactory("Thread-Tick-Worker-"));
+
+    private final RaceTrack raceTrack;
+    private final Duration interval;
+    private final AtomicBoolean tickInProgress = new AtomicBoolean();
+    private final AtomicInteger pendingBatches = new AtomicInteger();
+    private final AtomicLong ticks = new AtomicLong();
+    private final AtomicLong overruns = new AtomicLong();
+    private volatile List<Animal> animals = List.of();
+    private volatile Runnable onStop = () -> { };
+    private volatile boolean stopped = true;
+    private final AtomicBoolean stopSignalled = new AtomicBoolean(true);
+    private ScheduledFuture<?> timer;
+
+    /**
+     * @param raceTrack track whose configuration gives the tick interval
+     */
+    public TickScheduler(RaceTrack raceTrack) {
+        this.raceTrack = raceTrack;
+        this.interval = SimulationClock.realInterval(raceTrack.getConfig());
+    }
+
+    /**
+     * Starts firing ticks; every animal makes its first move on the first tick
+     * @param field animals to move
+     * @param onStop called once, when the race is over or the scheduler is stopped
+     */
+    public synchronized void start(List<Animal> field, Runnable onStop) {
+        this.animals = List.copyOf(field);
+        this.onStop = onStop;
+        this.stopSignalled.set(false);
+        this.stopped = false;
+        if (interval.isZero()) {
+            WORKERS.execute(this::fire);
+        } else {
+            timer = TIMER.scheduleAtFixedRate(this::fire, 0, interval.toNanos(), TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Stops firing ticks; a tick already running completes before {@code onStop} is called
+     */
+    public void stop() {
+        ScheduledFuture<?> current;
+        synchronized (this) {
+            if (stopped) {
+                return;
+            }
+            stopped = true;
+            current = timer;
+            timer = null;
+        }
+        if (current != null) {
+            current.cancel(false);
+        }
+        // stopped is written before tickInProgress is read, and the reverse in fire():
+        // if a tick slipped in, its end sees stopped and signals instead
+        if (!tickInProgress.get()) {
+            signalStopped();
+        }
+    }
+
+    /**
+     * Calls onStop, once per start, when no batch can run any more
+     */
+    private void signalStopped() {
+        if (stopSignalled.compareAndSet(false, true)) {
+            onStop.run();
+        }
+    }
+
+    /**
+     * Timer callback: dispatches the animals of one tick to the workers
+     */
+    private void fire() {
+        if (stopped) {
+            return;
+        }
+        if (!tickInProgress.compareAndSet(false, true)) {
+            overruns.incrementAndGet();
+            return;
+        }
+        if (stopped) {
+            // Stopped between the first check and the claim: stop() may have seen no tick running
+            tickInProgress.set(false);
+            signalStopped();
+            return;
+        }
+        List<Animal> field = animals;
+        int batches = (field.size() + BATCH_SIZE - 1) / BATCH_SIZE;
+        if (batches == 0) {
+            endOfTick(field);
+            return;
+        }
+        pendingBatches.set(batches);
+        for (int batch = 0; batch < batches; batch++) {
+            int from = batch * BATCH_SIZE;
+            int to = Math.min(field.size(), from + BATCH_SIZE);
+            WORKERS.execute(() -> runBatch(field, from, to));
+        }
+    }
+
+    private void runBatch(List<Animal> field, int from, int to) {
+        try {
+            var random = ThreadLocalRandom.current();
+            for (int i = from; i < to; i++) {
+                Animal animal = field.get(i);
+                if (!animal.isFinished()) {
+                    animal.step(random);
+                    raceTrack.publishMove(animal);
+                }
+            }
+        } finally {
+            // The last batch of the tick closes it
+            if (pendingBatches.decrementAndGet() == 0) {
+                endOfTick(field);
+            }
+        }
+    }
+
+    /**
+     * Declares the winner among the animals that finished during this tick, then
+     * either stops or (in VIRTUAL mode) chains the next tick
+     */
+    private void endOfTick(List<Animal> field) {
+        ticks.incrementAndGet();
+        if (!raceTrack.isRaceFinished()) {
+            Animal first = null;
+            for (Animal animal : field) {
+                if (animal.isFinished() && (first == null || Animal.FINISH_ORDER.compare(animal, first) < 0)) {
+                    first = animal;
+                }
+            }
+            if (first != null) {
+                raceTrack.declareWinner(first);
+            }
+        }
+        tickInProgress.set(false);
+
+        if (raceTrack.isRaceFinished() || field.stream().allMatch(Animal::isFinished)) {
+            stop();
+        } else if (interval.isZero() && !stopped) {
+            WORKERS.execute(this::fire);
+        }
+        if (stopped) {
+            // A stop() requested during this tick left the signal to it
+            signalStopped();
+        }
+    }
+
+    /**
+     * Number of ticks completed since the start
+     * @return completed ticks
+     */
+    public long getTicks() {
+        return ticks.get();
+    }
+
+    /**
+     * Number of ticks skipped because the previous one was still running
+     * @return skipped ticks
+     */
+    public long getOverruns() {
+        return overruns.get();
+    }
+}
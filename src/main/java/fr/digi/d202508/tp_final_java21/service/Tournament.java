@@ -1,22 +1,32 @@
 package fr.digi.d202508.tp_final_java21.service;
+import fr.digi.d202508.tp_final_java21.config.CheckpointProperties;
+import fr.digi.d202508.tp_final_java21.config.RaceConfig;
 import fr.digi.d202508.tp_final_java21.display.ConsoleDisplay;
 import fr.digi.d202508.tp_final_java21.model.Animal;
 import fr.digi.d202508.tp_final_java21.model.RaceStatistics;
 
 import java.util.List;
 import java.util.Scanner;
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
 
 /**
  * Tournament manages multiple rounds of races and tracks overall statistics.
+ * With checkpoints enabled, an interrupted tournament resumes from its last saved round.
  */
 public class Tournament {
 
+    private final RaceConfig config;
+    private final PacingPolicy pacing;
     private final RaceStatistics statistics;
     private final ConsoleDisplay display;
     private final Scanner scanner;
     private int currentRound;
     private final int totalRounds;
     private final boolean useReferee;
+    private Consumer<RaceTrack> trackListener = raceTrack -> { };
+    private CheckpointProperties checkpointProperties = CheckpointProperties.disabled();
 
     /**
      * Constructor for Tournament
@@ -24,69 +34,126 @@ public class Tournament {
      * @param useReferee whether to use live referee updates
      */
     public Tournament(int totalRounds, boolean useReferee) {
+        this(totalRounds, useReferee, RaceConfig.defaults());
+    }
+
+    /**
+     * Constructor for Tournament
+     * @param totalRounds number of rounds to play
+     * @param useReferee whether to use live referee updates
+     * @param config race parameters shared by every round
+     */
+    public Tournament(int totalRounds, boolean useReferee, RaceConfig config) {
+        this(totalRounds, useReferee, config, PacingPolicy.interactive());
+    }
+
+    /**
+     * Constructor for Tournament
+     * @param totalRounds number of rounds to play
+     * @param useReferee whether to use live referee updates
+     * @param config race parameters shared by every round
+     * @param pacing pacing of countdowns and prompts (unpaced = automated run at CPU speed)
+     */
+    public Tournament(int totalRounds, boolean useReferee, RaceConfig config, PacingPolicy pacing) {
+        this.config = config;
+        this.pacing = pacing;
         this.statistics = new RaceStatistics();
-        this.display = new ConsoleDisplay();
+        this.display = new ConsoleDisplay(config, pacing);
         this.scanner = new Scanner(System.in);
         this.currentRound = 0;
         this.totalRounds = totalRounds;
         this.useReferee = useReferee;
     }
 
+    /**
+     * Registers a callback receiving the track of the tournament before the first round
+     * (e.g. to broadcast it live); the same track is used for every round
+     * @param trackListener callback receiving the track
+     */
+    public void setTrackListener(Consumer<RaceTrack> trackListener) {
+        this.trackListener = trackListener;
+    }
+
+    /**
+     * Enables periodic checkpoints, and the resumption of a previously interrupted tournament
+     * @param checkpointProperties checkpoint directory and interval
+     */
+    public void setCheckpoints(CheckpointProperties checkpointProperties) {
+        this.checkpointProperties = checkpointProperties;
+    }
+
+    /**
+     * Base speeds of a round are drawn from the tournament seed and the round number,
+     * so that a resumed tournament draws them as the interrupted one would have
+     * @param seed seed of the tournament
+     * @param round round number (1-based)
+     * @return generator of the round's base speeds
+     */
+    public static SplittableRandom roundRandom(long seed, int round) {
+        return new SplittableRandom(seed + round);
+    }
+
     /**
      * Runs the complete tournament
      */
     public void runTournament() {
         displayTournamentIntro();
 
-        for (int round = 1; round <= totalRounds; round++) {
-            currentRound = round;
-
-            System.out.println("\n╔════════════════════════════════════════════════════════╗");
-            System.out.printf(   "║              MANCHE %d / %d                            ║%n",
-                    round, totalRounds);
-            System.out.println(  "╚════════════════════════════════════════════════════════╝");
+        long seed = ThreadLocalRandom.current().nextLong();
+        int firstRound = 1;
+
+        // A single race is reused for every round: same animals, same pooled threads
+        try (Race race = new Race(config, pacing);
+             TournamentCheckpoints checkpoints = new TournamentCheckpoints(checkpointProperties, "tournoi", config, totalRounds)) {
+            var restored = checkpoints.restore();
+            if (restored.isPresent()) {
+                seed = restored.get().seed();
+                firstRound = restored.get().completedRounds() + 1;
+                statistics.merge(restored.get().statistics());
+                System.out.printf("%n♻  Reprise du tournoi interrompu à la manche %d / %d%n", firstRound, totalRounds);
+            }
 
-            // Create and run a single race
-            Race race = new Race();
-            race.initializeRace();
+            trackListener.accept(race.getRaceTrack());
+            for (int round = firstRound; round <= totalRounds; round++) {
+                currentRound = round;
 
-            if (round > 1) {
-                System.out.println("\nAppuyez sur Entrée pour commencer la manche " + round + "...");
-                scanner.nextLine();
-            }
+                System.out.println("\n╔════════════════════════════════════════════════════════╗");
+                System.out.printf(   "║              MANCHE %d / %d                            ║%n",
+                        round, totalRounds);
+                System.out.println(  "╚════════════════════════════════════════════════════════╝");
 
-            race.displayStartingScreen();
-            race.startRace();
+                // Put the animals back on the starting line (created on the first round)
+                race.initializeRace(roundRandom(seed, round));
 
-            // Optional: Start referee thread for this race
-            Thread refereeThread = null;
-            Referee referee = null;
-            if (useReferee) {
-                referee = new Referee(race.getRaceTrack(), 2000);
-                refereeThread = new Thread(referee, "Thread-Referee");
-                refereeThread.start();
-            }
+                if (round > 1 && pacing.isInteractive()) {
+                    System.out.println("\nAppuyez sur Entrée pour commencer la manche " + round + "...");
+                    scanner.nextLine();
+                }
 
-            race.monitorRace();
+                race.displayStartingScreen();
+                race.startRace();
 
-            // Stop referee if running
-            if (referee != null) {
-                referee.stop();
-                if (refereeThread != null && refereeThread.isAlive()) {
-                    refereeThread.interrupt();
+                // Optional: Start referee for this race (pointless when nothing is paced)
+                if (useReferee && !(pacing instanceof PacingPolicy.Unpaced)) {
+                    race.startReferee(2000, pacing);
                 }
-            }
 
-            race.displayResults();
+                // Also stops the referee once the winner is known
+                race.monitorRace();
+
+                race.displayResults();
 
-            // Record results
-            List<Animal> scoreboard = race.getRaceTrack().getFinalScoreboard();
-            statistics.recordRound(scoreboard);
+                // Record results
+                List<Animal> scoreboard = race.getRaceTrack().getFinalScoreboard();
+                statistics.recordRound(scoreboard);
+                checkpoints.roundCompleted(round, seed, statistics);
 
-            // Show interim standings if not last round
-            if (round < totalRounds) {
-                displayInterimStandings();
+                // Show interim standings if not last round
+                if (round < totalRounds) {
+                    displayInterimStandings();
+                }
             }
+            checkpoints.finish();
         }
 
         // Display final tournament statistics
@@ -109,8 +176,10 @@ public class Tournament {
         System.out.println();
         System.out.println("  Le gagnant sera déterminé par le nombre de victoires!");
         System.out.println();
-        System.out.println("Appuyez sur Entrée pour commencer le tournoi...");
-        scanner.nextLine();
+        if (pacing.isInteractive()) {
+            System.out.println("Appuyez sur Entrée pour commencer le tournoi...");
+            scanner.nextLine();
+        }
     }
 
     /**
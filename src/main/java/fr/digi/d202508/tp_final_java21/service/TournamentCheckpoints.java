@@ -0,0 +1,193 @@
+package fr.digi.d202508.tp_final_java21.service;
+
+import fr.digi.d202508.tp_final_java21.config.CheckpointProperties;
+import fr.digi.d202508.tp_final_java21.config.RaceConfig;
+import fr.digi.d202508.tp_final_java21.model.RaceStatistics;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Periodic checkpoints of a tournament, so that a long run interrupted by a crash
+ * resumes from the last saved round instead of starting over.
+ * <p>
+ * A checkpoint holds the statistics gathered so far, the number of rounds completed and the
+ * seed of the rounds' base speed draws. The round thread only copies the statistics; encoding
+ * and writing happen on a background thread, in a temp file renamed over the previous
+ * checkpoint, so a crash during a write leaves the previous checkpoint intact.
+ * A write still in progress when the next one is due is not queued: the next round retries.
+ * A checkpoint is only restored by a tournament with the same physics and number of rounds.
+ */
+public class TournamentCheckpoints implements AutoCloseable {
+
+    private static final int MAGIC = 0x52434B50; // "RCKP"
+    // 2: quantile sketches in the statistics, 3: head-to-head counts, 4: ratings,
+    // 5: running sums instead of the speed and position of every race
+    private static final int VERSION = 5;
+
+    /**
+     * State saved after a round
+     * @param completedRounds rounds already played
+     * @param seed seed of the base speed draws of the tournament
+     * @param statistics statistics of the completed rounds
+     */
+    public record Checkpoint(int completedRounds, long seed, RaceStatistics statistics) {
+    }
+
+    private final Path file;
+    private final long intervalNanos;
+    private final String fingerprint;
+    private final int totalRounds;
+    private final ExecutorService writer;
+    private Future<?> pendingWrite;
+    private long lastSaveNanos;
+
+    /**
+     * @param properties checkpoint settings (no file is touched when disabled)
+     * @param name name of the checkpoint file, one per kind of tournament
+     * @param config race parameters of the tournament
+     * @param totalRounds number of rounds of the tournament
+     */
+    public TournamentCheckpoints(CheckpointProperties properties, String name, RaceConfig config, int totalRounds) {
+        this.file = properties.enabled() ? Path.of(properties.directory()).resolve(name + ".ckpt") : null;
+        this.intervalNanos = properties.interval().toNanos();
+        this.fingerprint = config.describePhysics();
+        this.totalRounds = totalRounds;
+        this.writer = file != null ? Executors.newSingleThreadExecutor(Thread.ofPlatform()
+                .name("Thread-Checkpoint").daemon(true).factory()) : null;
+        this.lastSaveNanos = System.nanoTime();
+        if (file != null) {
+            try {
+                Files.createDirectories(file.getParent());
+            } catch (IOException e) {
+                throw new UncheckedIOException("Impossible de créer le répertoire des sauvegardes: " + file.getParent(), e);
+            }
+        }
+    }
+
+    /**
+     * Reads the last checkpoint of a matching tournament
+     * @return the checkpoint, empty if there is none or it belongs to another tournament
+     */
+    public Optional<Checkpoint> restore() {
+        if (file == null) {
+            return Optional.empty();
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION
+                    || !in.readUTF().equals(fingerprint) || in.readInt() != totalRounds) {
+                return Optional.empty();
+            }
+            int completedRounds = in.readInt();
+            long seed = in.readLong();
+            RaceStatistics statistics = RaceStatistics.readFrom(in);
+            if (completedRounds <= 0 || completedRounds >= totalRounds) {
+                return Optional.empty();
+            }
+            return Optional.of(new Checkpoint(completedRounds, seed, statistics));
+        } catch (NoSuchFileException e) {
+            return Optional.empty();
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Sauvegarde illisible, le tournoi repart de zéro: " + e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Called after each round: saves a checkpoint if the interval has elapsed.
+     * Only the copy of the statistics runs on the caller's thread.
+     * @param completedRounds rounds played so far
+     * @param seed seed of the base speed draws
+     * @param statistics statistics of the completed rounds (copied, not retained)
+     */
+    public void roundCompleted(int completedRounds, long seed, RaceStatistics statistics) {
+        if (file == null || completedRounds >= totalRounds) {
+            return;
+        }
+        long now = System.nanoTime();
+        if (now - lastSaveNanos < intervalNanos || (pendingWrite != null && !pendingWrite.isDone())) {
+            return;
+        }
+        lastSaveNanos = now;
+        Checkpoint checkpoint = new Checkpoint(completedRounds, seed, statistics.copy());
+        pendingWrite = writer.submit(() -> write(checkpoint));
+    }
+
+    /**
+     * Called once the tournament is over: its checkpoint is no longer needed
+     */
+    public void finish() {
+        if (file == null) {
+            return;
+        }
+        awaitPendingWrite();
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            System.err.println("Impossible de supprimer la sauvegarde " + file + ": " + e.getMessage());
+        }
+    }
+
+    private void write(Checkpoint checkpoint) {
+        try {
+            // Written next to the target then renamed, so a crash never leaves half a checkpoint
+            Path temp = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeUTF(fingerprint);
+                out.writeInt(totalRounds);
+                out.writeInt(checkpoint.completedRounds());
+                out.writeLong(checkpoint.seed());
+                checkpoint.statistics().writeTo(out);
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            // The previous checkpoint is still valid: only the progress since then is at risk
+            System.err.println("Échec de la sauvegarde du tournoi: " + e.getMessage());
+        }
+    }
+
+    private void awaitPendingWrite() {
+        if (pendingWrite == null) {
+            return;
+        }
+        try {
+            pendingWrite.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            // Already reported by the writer
+        }
+    }
+
+    /**
+     * Waits for the last write and stops the writer thread; the checkpoint file is kept
+     */
+    @Override
+    public void close() {
+        if (writer == null) {
+            return;
+        }
+        awaitPendingWrite();
+        writer.shutdown();
+        try {
+            writer.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package fr.digi.d202508.tp_final_java21.service;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Lock-free handoff of mutable frames from one writer to one reader (triple buffering).
+ * <p>
+ * Three frames are preallocated: the writer fills the back one, the reader draws the front one,
+ * and the third sits in the middle. Publishing swaps the back frame with the middle one and
+ * marks it fresh; acquiring swaps the middle frame with the front one if it is fresh. Each swap
+ * is a single atomic exchange, so neither side ever waits for the other: the writer overwrites
+ * a frame the reader has not taken yet, and the reader always gets the newest complete frame,
+ * never one being written.
+ * <p>
+ * One writer thread at a time and one reader thread at a time (e.g. a feed thread and the
+ * JavaFX application thread).
+ *
+ * @param <T> type of the frames
+ */
+public final class TripleBuffer<T> {
+
+    private static final int INDEX_MASK = 0b11;
+    private static final int FRESH = 0b100;
+
+    private final Object[] frames = new Object[3];
+    // Index of the middle frame, with FRESH when it was published since the last acquire
+    private final AtomicInteger middle = new AtomicInteger(1);
+    private int back = 0;
+    private int front = 2;
+
+    /**
+     * @param frameFactory creates the three frames
+     */
+    public TripleBuffer(Supplier<T> frameFactory) {
+        for (int i = 0; i < frames.length; i++) {
+            frames[i] = frameFactory.get();
+        }
+    }
+
+    /**
+     * Frame to fill before {@link #publish()}; writer side only
+     * @return back frame, possibly holding an older frame's content
+     */
+    @SuppressWarnings("unchecked")
+    public T back() {
+        return (T) frames[back];
+    }
+
+    /**
+     * Hands the back frame over to the reader, replacing a frame it has not taken yet
+     */
+    public void publish() {
+        back = middle.getAndSet(back | FRESH) & INDEX_MASK;
+    }
+
+    /**
+     * Takes the newest frame published since the last call; reader side only
+     * @return newest complete frame, or null if nothing was published since the last call
+     */
+    @SuppressWarnings("unchecked")
+    public T acquire() {
+        if ((middle.get() & FRESH) == 0) {
+            return null;
+        }
+        front = middle.getAndSet(front) & INDEX_MASK;
+        return (T) frames[front];
+    }
+
+    /**
+     * Frame returned by the last {@link #acquire()}, e.g. to draw it again; reader side only
+     * @return front frame
+     */
+    @SuppressWarnings("unchecked")
+    public T front() {
+        return (T) frames[front];
+    }
+}
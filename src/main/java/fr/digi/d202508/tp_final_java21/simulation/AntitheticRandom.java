@@ -0,0 +1,30 @@
+package fr.digi.d202508.tp_final_java21.simulation;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Mirror image of a random stream: each uniform u of the wrapped generator becomes 1 - u.
+ * Fed with the same seed as the first round of a pair, it gives the antithetic round:
+ * a fast base speed becomes a slow one and a boost becomes a normal move, so the two
+ * rounds of the pair are negatively correlated and their average varies less.
+ */
+final class AntitheticRandom implements RandomGenerator {
+
+    private final RandomGenerator delegate;
+
+    AntitheticRandom(RandomGenerator delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public long nextLong() {
+        return ~delegate.nextLong();
+    }
+
+    @Override
+    public double nextDouble() {
+        double u = delegate.nextDouble();
+        // Stays in [0, 1): u = 0 would give exactly 1
+        return u == 0.0 ? Math.nextDown(1.0) : 1.0 - u;
+    }
+}
@@ -0,0 +1,151 @@
+package fr.digi.d202508.tp_final_java21.simulation;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Exact binomial draws in constant expected time, used to skip many ticks at once.
+ * <p>
+ * Small means (n.p below 10) are drawn by inversion; larger ones by Hörmann's BTRD
+ * (transformed rejection with decomposition, "The generation of binomial random variates",
+ * 1993), which needs about one uniform per draw whatever n.
+ */
+final class Binomial {
+
+    // Below this mean, inversion is faster than rejection
+    private static final double INVERSION_MAX_MEAN = 10.0;
+
+    // log(k!) - [(k + 1/2) log(k + 1) - (k + 1) + log(2 pi)/2], for k = 0..9
+    private static final double[] STIRLING_CORRECTION = {
+            0.08106146679532726, 0.04134069595540929, 0.02767792568499834,
+            0.02079067210376509, 0.01664469118982119, 0.01387612882307075,
+            0.01189670994589177, 0.01041126526197209, 0.009255462182712733,
+            0.008330563433362871
+    };
+
+    private Binomial() {
+    }
+
+    /**
+     * Number of successes in n independent trials of probability p
+     * @param random random generator
+     * @param n number of trials
+     * @param p probability of success of each trial
+     * @return a binomial(n, p) draw
+     */
+    static int sample(RandomGenerator random, int n, double p) {
+        if (n <= 0 || p <= 0.0) {
+            return 0;
+        }
+        if (p >= 1.0) {
+            return n;
+        }
+        // Both methods expect p <= 1/2: count the failures instead
+        if (p > 0.5) {
+            return n - sample(random, n, 1.0 - p);
+        }
+        return n * p < INVERSION_MAX_MEAN ? inversion(random, n, p) : btrd(random, n, p);
+    }
+
+    /**
+     * Walks the cumulative distribution from 0, about n.p + 1 steps
+     */
+    private static int inversion(RandomGenerator random, int n, double p) {
+        double q = 1.0 - p;
+        double s = p / q;
+        double a = (n + 1) * s;
+        double probability = Math.pow(q, n);
+        double u = random.nextDouble();
+        int k = 0;
+        while (u > probability && k < n) {
+            u -= probability;
+            k++;
+            probability *= a / k - s;
+        }
+        return k;
+    }
+
+    private static int btrd(RandomGenerator random, int n, double p) {
+        double q = 1.0 - p;
+        int m = (int) ((n + 1) * p);
+        double r = p / q;
+        double nr = (n + 1) * r;
+        double npq = n * p * q;
+        double spq = Math.sqrt(npq);
+        double b = 1.15 + 2.53 * spq;
+        double a = -0.0873 + 0.0248 * b + 0.01 * p;
+        double c = n * p + 0.5;
+        double alpha = (2.83 + 5.1 / b) * spq;
+        double vr = 0.92 - 4.2 / b;
+        double urvr = 0.86 * vr;
+
+        while (true) {
+            double v = random.nextDouble();
+            double u;
+            if (v <= urvr) {
+                // Most draws: inside the box, accepted at once
+                u = v / vr - 0.43;
+                return (int) Math.floor((2 * a / (0.5 - Math.abs(u)) + b) * u + c);
+            }
+            if (v >= vr) {
+                u = random.nextDouble() - 0.5;
+            } else {
+                u = v / vr - 0.93;
+                u = Math.signum(u) * 0.5 - u;
+                v = random.nextDouble() * vr;
+            }
+
+            double us = 0.5 - Math.abs(u);
+            int k = (int) Math.floor((2 * a / us + b) * u + c);
+            if (k < 0 || k > n) {
+                continue;
+            }
+            v = v * alpha / (a / (us * us) + b);
+            int km = Math.abs(k - m);
+
+            if (km <= 15) {
+                // Close to the mode: ratio of probabilities computed by recurrence
+                double f = 1.0;
+                if (m < k) {
+                    for (int i = m + 1; i <= k; i++) {
+                        f *= nr / i - r;
+                    }
+                } else if (m > k) {
+                    for (int i = k + 1; i <= m; i++) {
+                        v *= nr / i - r;
+                    }
+                }
+                if (v <= f) {
+                    return k;
+                }
+                continue;
+            }
+
+            // Squeeze, then exact comparison in the log domain
+            v = Math.log(v);
+            double rho = (km / npq) * (((km / 3.0 + 0.625) * km + 1.0 / 6.0) / npq + 0.5);
+            double t = -km * (double) km / (2 * npq);
+            if (v < t - rho) {
+                return k;
+            }
+            if (v > t + rho) {
+                continue;
+            }
+            int nm = n - m + 1;
+            double h = (m + 0.5) * Math.log((m + 1) / (r * nm)) + stirlingCorrection(m) + stirlingCorrection(n - m);
+            int nk = n - k + 1;
+            if (v <= h + (n + 1) * Math.log((double) nm / nk) + (k + 0.5) * Math.log(nk * r / (k + 1))
+                    - stirlingCorrection(k) - stirlingCorrection(n - k)) {
+                return k;
+            }
+        }
+    }
+
+    private static double stirlingCorrection(int k) {
+        if (k < STIRLING_CORRECTION.length) {
+            return STIRLING_CORRECTION[k];
+        }
+        double inverse = 1.0 / (k + 1);
+        double inverseSquare = inverse * inverse;
+        return (1.0 / 12 - (1.0 / 360 - inverseSquare / 1260) * inverseSquare) * inverse;
+    }
+}
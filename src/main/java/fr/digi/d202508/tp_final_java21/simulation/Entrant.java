@@ -0,0 +1,21 @@
+package fr.digi.d202508.tp_final_java21.simulation;
+
+import fr.digi.d202508.tp_final_java21.model.Species;
+
+/**
+ * A competitor of a batch event, identified by its bib number.
+ * Much lighter than an Animal: animals are only created while a heat is running.
+ *
+ * @param id bib number
+ * @param species species of the competitor
+ */
+public record Entrant(int id, Species species) {
+
+    /**
+     * Returns a readable name such as "Lapin #1234"
+     * @return display name
+     */
+    public String displayName() {
+        return species.getDisplayName() + " #" + id;
+    }
+}
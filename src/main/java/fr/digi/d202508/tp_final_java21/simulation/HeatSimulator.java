@@ -0,0 +1,173 @@
+package fr.digi.d202508.tp_final_java21.simulation;
+
+import fr.digi.d202508.tp_final_java21.config.RaceConfig;
+import fr.digi.d202508.tp_final_java21.model.Animal;
+import fr.digi.d202508.tp_final_java21.model.Species;
+import fr.digi.d202508.tp_final_java21.model.SpeciesProfile;
+import fr.digi.d202508.tp_final_java21.model.SpeedState;
+import fr.digi.d202508.tp_final_java21.service.RaceTrack;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.random.RandomGenerator;
+
+/**
+ * Runs a heat entirely in the calling thread, without runner threads nor sleeping.
+ * All animals advance in lock-step, one simulated tick at a time, until the first
+ * one crosses the finish line: the same rules as a threaded race with a VIRTUAL clock,
+ * but cheap enough to run hundreds of thousands of heats.
+ * <p>
+ * With the {@link Engine#SKIP_AHEAD} engine, ticks where nobody can reach the line are not
+ * simulated one by one: each move is one of three distances (boost, normal, slowdown) drawn
+ * independently, so the moves of a block of k ticks follow a multinomial law, drawn with
+ * two binomial draws per animal. Every animal jumps by the largest block in which even a
+ * run of boosts cannot reach the line; the last few ticks are simulated exactly. Rankings,
+ * finishing ticks and positions have the same distribution as with {@link Engine#STEP}.
+ * Not thread-safe: use one simulator per worker thread.
+ */
+public class HeatSimulator {
+
+    /**
+     * How the ticks of a heat are simulated
+     */
+    public enum Engine {
+        // Every tick of every animal
+        STEP,
+        // Blocks of ticks drawn at once, exact ticks near the line
+        SKIP_AHEAD
+    }
+
+    // Below this many safe ticks, drawing a block costs more than stepping
+    private static final int MIN_BLOCK = 4;
+
+    /**
+     * Finishing order, the same as the scoreboard of a live race ({@link Animal#FINISH_ORDER})
+     */
+    public static final Comparator<Animal> FINISH_ORDER = Animal.FINISH_ORDER;
+
+    // Only provides the race configuration to the animals, never started
+    private final RaceTrack raceTrack;
+    private final Engine engine;
+
+    public HeatSimulator(RaceConfig config) {
+        this(config, Engine.STEP);
+    }
+
+    /**
+     * @param config race parameters
+     * @param engine tick by tick, or skipping ahead (same distribution, different random stream)
+     */
+    public HeatSimulator(RaceConfig config, Engine engine) {
+        this.raceTrack = new RaceTrack(config);
+        this.engine = engine;
+    }
+
+    /**
+     * Creates an animal that can be run by this simulator, heat after heat
+     * @param species species of the animal
+     * @return a new animal (to reset before each heat)
+     */
+    public Animal newAnimal(Species species) {
+        return species.create(raceTrack);
+    }
+
+    /**
+     * Runs a heat between the given entrants
+     * @param entrants competitors of the heat
+     * @param random random generator for base speeds and variations
+     * @return the entrants ranked by finishing order (winner first)
+     */
+    public List<Entrant> runHeat(List<Entrant> entrants, RandomGenerator random) {
+        List<Animal> animals = new ArrayList<>(entrants.size());
+        for (Entrant entrant : entrants) {
+            Animal animal = entrant.species().create(raceTrack);
+            animal.reset(random);
+            animals.add(animal);
+        }
+
+        simulate(animals, random);
+
+        // Sort the entrants through their animal, index by index
+        List<Integer> order = new ArrayList<>(entrants.size());
+        for (int i = 0; i < entrants.size(); i++) {
+            order.add(i);
+        }
+        order.sort(Comparator.comparing(animals::get, FINISH_ORDER));
+
+        List<Entrant> rankedEntrants = new ArrayList<>(entrants.size());
+        for (int index : order) {
+            rankedEntrants.add(entrants.get(index));
+        }
+        return rankedEntrants;
+    }
+
+    /**
+     * Runs a heat between animals already on the starting line
+     * @param animals competitors (reset beforehand)
+     * @param random random generator for speed variations
+     * @return the animals ranked by finishing order (winner first)
+     */
+    public List<Animal> run(List<Animal> animals, RandomGenerator random) {
+        simulate(animals, random);
+
+        List<Animal> ranking = new ArrayList<>(animals);
+        ranking.sort(FINISH_ORDER);
+        return ranking;
+    }
+
+    /**
+     * Advances every animal tick by tick until at least one crosses the line
+     * @param animals competitors
+     * @param random random generator for speed variations
+     */
+    private void simulate(List<Animal> animals, RandomGenerator random) {
+        if (engine == Engine.SKIP_AHEAD) {
+            skipAhead(animals, random);
+        }
+        boolean someoneFinished = false;
+        while (!someoneFinished) {
+            // Every animal completes the tick, so simultaneous finishes are ranked fairly
+            for (Animal animal : animals) {
+                someoneFinished |= animal.step(random);
+            }
+        }
+    }
+
+    /**
+     * Moves every animal in lock-step by blocks of ticks that nobody can finish in,
+     * until the leader is a few ticks away from the line
+     * @param animals competitors
+     * @param random random generator for the moves
+     */
+    private void skipAhead(List<Animal> animals, RandomGenerator random) {
+        while (true) {
+            // Largest block in which no animal reaches the line, even boosting on every tick
+            int block = Integer.MAX_VALUE;
+            for (Animal animal : animals) {
+                SpeciesProfile profile = animal.getProfile();
+                double longestMove = animal.getSpeed() * profile.maxDistanceFactor();
+                int safeTicks = (int) Math.ceil((profile.finishLine() - animal.getPosition()) / longestMove) - 1;
+                block = Math.min(block, safeTicks);
+            }
+            if (block < MIN_BLOCK) {
+                return;
+            }
+
+            for (Animal animal : animals) {
+                SpeciesProfile profile = animal.getProfile();
+                double boostProbability = profile.boostCutoff();
+                double fatigueProbability = profile.fatigueCutoff() - profile.boostCutoff();
+                // Multinomial draw: boosts among all ticks, then slowdowns among the remaining ones
+                int boosts = Binomial.sample(random, block, boostProbability);
+                int fatigues = Binomial.sample(random, block - boosts, fatigueProbability / (1 - boostProbability));
+                // The moves of a block are exchangeable: the last one is any of them
+                int last = random.nextInt(block);
+                SpeedState lastState = last < boosts ? SpeedState.BOOST
+                        : last < boosts + fatigues ? SpeedState.FATIGUE
+                        : SpeedState.NORMAL;
+                animal.skipAhead(block, boosts, fatigues, lastState);
+            }
+        }
+    }
+}
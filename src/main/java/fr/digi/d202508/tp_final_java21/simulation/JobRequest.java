@@ -0,0 +1,60 @@
+package fr.digi.d202508.tp_final_java21.simulation;
+
+/**
+ * Parameters of a simulation job
+ *
+ * @param kind single race or tournament
+ * @param rounds number of rounds (1 for a single race); the maximum when stopping adaptively
+ * @param finishLine track length in units, or 0 to keep the configured one
+ * @param seed seed of the random generator, or null for a random run
+ * @param sampling how the draws of successive rounds are chosen (NAIVE if null)
+ * @param precision target half-width of the 95% interval of the win rates, as a fraction,
+ *                  to stop a tournament early ({@link SequentialStopping}), or 0 to play every round
+ */
+public record JobRequest(Kind kind, int rounds, int finishLine, Long seed, Sampling sampling, double precision) {
+
+    public enum Kind {
+        RACE,
+        TOURNAMENT
+    }
+
+    public JobRequest {
+        if (kind == null) {
+            throw new IllegalArgumentException("Le type de job est obligatoire");
+        }
+        if (kind == Kind.RACE) {
+            rounds = 1;
+        }
+        if (rounds <= 0) {
+            throw new IllegalArgumentException("Le nombre de manches doit être positif: " + rounds);
+        }
+        if (finishLine < 0) {
+            throw new IllegalArgumentException("La ligne d'arrivée doit être positive: " + finishLine);
+        }
+        if (sampling == null) {
+            sampling = Sampling.NAIVE;
+        }
+        if (precision < 0 || precision >= 1) {
+            throw new IllegalArgumentException("La précision doit être comprise entre 0 et 1: " + precision);
+        }
+        if (kind == Kind.RACE) {
+            precision = 0;
+        }
+    }
+
+    public JobRequest(Kind kind, int rounds, int finishLine, Long seed, Sampling sampling) {
+        this(kind, rounds, finishLine, seed, sampling, 0);
+    }
+
+    public JobRequest(Kind kind, int rounds, int finishLine, Long seed) {
+        this(kind, rounds, finishLine, seed, Sampling.NAIVE, 0);
+    }
+
+    /**
+     * Tells whether the tournament may stop before its last round
+     * @return true if a target precision was given
+     */
+    public boolean isAdaptive() {
+        return precision > 0;
+    }
+}
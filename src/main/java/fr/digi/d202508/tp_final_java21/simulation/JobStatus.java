@@ -0,0 +1,81 @@
+package fr.digi.d202508.tp_final_java21.simulation;
+
+import fr.digi.d202508.tp_final_java21.model.RaceStatistics;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Immutable state of a simulation job, replaced as a whole at each transition
+ *
+ * @param id job identifier
+ * @param request parameters of the job
+ * @param state current state
+ * @param submittedAt time of submission
+ * @param startedAt time a worker picked the job, or null
+ * @param finishedAt time the job ended, or null
+ * @param standings final standings once DONE, provisional ones while an adaptive tournament RUNS, empty otherwise
+ * @param roundsPlayed rounds the standings are based on
+ * @param stopReason why the rounds stopped once DONE, or null
+ * @param error failure message once FAILED, or null
+ */
+public record JobStatus(long id, JobRequest request, State state, Instant submittedAt, Instant startedAt,
+                        Instant finishedAt, List<Standing> standings, int roundsPlayed,
+                        SequentialStopping.Reason stopReason, String error) {
+
+    public enum State {
+        QUEUED,
+        RUNNING,
+        DONE,
+        FAILED
+    }
+
+    /**
+     * Result line of one species
+     * @param name species name
+     * @param wins number of rounds won
+     * @param winRate percentage of rounds won
+     * @param averageSpeed average base speed in km/h
+     */
+    public record Standing(String name, int wins, double winRate, double averageSpeed) {
+
+        static List<Standing> from(RaceStatistics statistics) {
+            return statistics.getAllStatsSortedByWins().stream()
+                    .map(stats -> new Standing(stats.getName(), stats.getWins(), stats.getWinRate(), stats.getAverageSpeed()))
+                    .toList();
+        }
+    }
+
+    static JobStatus queued(long id, JobRequest request) {
+        return new JobStatus(id, request, State.QUEUED, Instant.now(), null, null, List.of(), 0, null, null);
+    }
+
+    static JobStatus cached(long id, JobRequest request, ResultCache.Result result) {
+        Instant now = Instant.now();
+        return new JobStatus(id, request, State.DONE, now, now, now, result.standings(), result.roundsPlayed(),
+                result.stopReason(), null);
+    }
+
+    JobStatus running() {
+        return new JobStatus(id, request, State.RUNNING, submittedAt, Instant.now(), null, List.of(), 0, null, null);
+    }
+
+    JobStatus progress(RaceStatistics statistics) {
+        return new JobStatus(id, request, State.RUNNING, submittedAt, startedAt, null, Standing.from(statistics),
+                statistics.getTotalRounds(), null, null);
+    }
+
+    JobStatus done(RaceStatistics statistics, SequentialStopping.Reason reason) {
+        return new JobStatus(id, request, State.DONE, submittedAt, startedAt, Instant.now(), Standing.from(statistics),
+                statistics.getTotalRounds(), reason, null);
+    }
+
+    JobStatus failed(String message) {
+        return new JobStatus(id, request, State.FAILED, submittedAt, startedAt, Instant.now(), List.of(), roundsPlayed,
+                null, message);
+    }
+
+    public boolean isFinished() {
+        return state == State.DONE || state == State.FAILED;
+    }
+}
@@ -0,0 +1,261 @@
+package fr.digi.d202508.tp_final_java21.simulation;
+
+import fr.digi.d202508.tp_final_java21.config.RaceConfig;
+import fr.digi.d202508.tp_final_java21.model.Species;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Qualification event for very large entrant pools (1M+).
+ * <p>
+ * Entrants are split into heats of {@code heatSize}; the {@code advancers} best of each heat
+ * move on to the next stage, until a stage is small enough to be run as a single final.
+ * Heats are simulated without runner threads ({@link HeatSimulator}) on a pool of workers,
+ * and stages overlap: as soon as enough qualified entrants are waiting for the next stage,
+ * a heat of that stage is started, without waiting for the stragglers of the current one.
+ */
+public class KnockoutTournament {
+
+    // Maximum number of first-stage heats waiting in the worker queue per worker
+    private static final int QUEUED_HEATS_PER_WORKER = 4;
+
+    private final int totalEntrants;
+    private final int heatSize;
+    private final int advancers;
+    private final int parallelism;
+
+    private final List<Stage> stages;
+    private final ThreadLocal<HeatSimulator> simulators;
+    private final CountDownLatch finalDone;
+    private final AtomicReference<Throwable> failure;
+    private volatile List<Entrant> finalRanking;
+    private long startNanos;
+    private long elapsedNanos;
+
+    /**
+     * Constructor for KnockoutTournament
+     * @param totalEntrants number of entrants in the first stage
+     * @param heatSize number of entrants per heat
+     * @param advancers number of entrants qualified from each heat (less than heatSize)
+     * @param parallelism number of worker threads running heats
+     * @param config race parameters shared by every heat
+     */
+    public KnockoutTournament(int totalEntrants, int heatSize, int advancers, int parallelism, RaceConfig config) {
+        if (heatSize < 2 || advancers < 1 || advancers >= heatSize) {
+            throw new IllegalArgumentException("Il faut 2 concurrents par manche minimum et moins de qualifiés que de partants");
+        }
+        if (totalEntrants < 1 || parallelism < 1) {
+            throw new IllegalArgumentException("Le nombre de concurrents et de workers doit être positif");
+        }
+        this.totalEntrants = totalEntrants;
+        this.heatSize = heatSize;
+        this.advancers = advancers;
+        this.parallelism = parallelism;
+        this.stages = planStages();
+        this.simulators = ThreadLocal.withInitial(() -> new HeatSimulator(config));
+        this.finalDone = new CountDownLatch(1);
+        this.failure = new AtomicReference<>();
+    }
+
+    /**
+     * Computes the size of every stage up front, so that each stage knows
+     * when its last (possibly incomplete) heat can be formed
+     * @return stages, the last one being the final
+     */
+    private List<Stage> planStages() {
+        List<Stage> planned = new ArrayList<>();
+        int entrants = totalEntrants;
+        while (entrants > heatSize) {
+            planned.add(new Stage(planned.size() + 1, entrants, false));
+            entrants = (entrants / heatSize) * advancers + Math.min(advancers, entrants % heatSize);
+        }
+        planned.add(new Stage(planned.size() + 1, entrants, true));
+
+        for (int i = 0; i < planned.size() - 1; i++) {
+            planned.get(i).next = planned.get(i + 1);
+        }
+        return planned;
+    }
+
+    /**
+     * Runs every stage until the final is over
+     * @return final ranking (champion first)
+     */
+    public List<Entrant> runTournament() {
+        ExecutorService workers = Executors.newFixedThreadPool(parallelism,
+                Thread.ofPlatform().name("Thread-Heat-", 1).daemon().factory());
+        // Limits the number of first-stage heats queued at once (memory stays bounded)
+        Semaphore queuedHeats = new Semaphore(parallelism * QUEUED_HEATS_PER_WORKER);
+
+        startNanos = System.nanoTime();
+        try {
+            Stage first = stages.get(0);
+            Species[] species = Species.values();
+            for (int id = 1; id <= totalEntrants && failure.get() == null; id += heatSize) {
+                List<Entrant> chunk = new ArrayList<>(heatSize);
+                for (int bib = id; bib < id + heatSize && bib <= totalEntrants; bib++) {
+                    chunk.add(new Entrant(bib, species[bib % species.length]));
+                }
+                queuedHeats.acquire();
+                first.accept(chunk, workers, queuedHeats);
+            }
+            finalDone.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            elapsedNanos = System.nanoTime() - startNanos;
+            workers.shutdownNow();
+        }
+
+        if (failure.get() != null) {
+            throw new IllegalStateException("Une manche de qualification a échoué", failure.get());
+        }
+        return finalRanking;
+    }
+
+    /**
+     * One round of the bracket
+     */
+    private final class Stage {
+        private final int number;
+        private final int expectedEntrants;
+        private final boolean isFinal;
+        private Stage next;
+
+        // Qualified entrants waiting for a heat of this stage
+        private final List<Entrant> waiting = new ArrayList<>();
+        private int received;
+
+        private final AtomicInteger completedHeats = new AtomicInteger();
+        private final AtomicLong firstStart = new AtomicLong(Long.MAX_VALUE);
+        private final AtomicLong lastEnd = new AtomicLong();
+
+        private Stage(int number, int expectedEntrants, boolean isFinal) {
+            this.number = number;
+            this.expectedEntrants = expectedEntrants;
+            this.isFinal = isFinal;
+        }
+
+        /**
+         * Receives entrants and starts a heat each time enough of them are waiting
+         * @param arrivals entrants joining this stage
+         * @param workers heat executor
+         * @param queuedHeats permits of the first-stage producer
+         */
+        private void accept(List<Entrant> arrivals, ExecutorService workers, Semaphore queuedHeats) {
+            List<List<Entrant>> readyHeats = new ArrayList<>();
+            synchronized (this) {
+                waiting.addAll(arrivals);
+                received += arrivals.size();
+                while (waiting.size() >= heatSize) {
+                    readyHeats.add(takeWaiting(heatSize));
+                }
+                // Everyone has arrived: the remaining entrants form the last, smaller heat
+                if (received == expectedEntrants && !waiting.isEmpty()) {
+                    readyHeats.add(takeWaiting(waiting.size()));
+                }
+            }
+
+            for (List<Entrant> heat : readyHeats) {
+                workers.execute(() -> runHeat(heat, workers, queuedHeats));
+            }
+        }
+
+        private List<Entrant> takeWaiting(int count) {
+            List<Entrant> heat = new ArrayList<>(waiting.subList(0, count));
+            waiting.subList(0, count).clear();
+            return heat;
+        }
+
+        private void runHeat(List<Entrant> heat, ExecutorService workers, Semaphore queuedHeats) {
+            try {
+                firstStart.accumulateAndGet(System.nanoTime(), Math::min);
+                List<Entrant> ranking = simulators.get().runHeat(heat, ThreadLocalRandom.current());
+                lastEnd.accumulateAndGet(System.nanoTime(), Math::max);
+                completedHeats.incrementAndGet();
+
+                if (isFinal) {
+                    finalRanking = ranking;
+                    finalDone.countDown();
+                } else {
+                    next.accept(ranking.subList(0, Math.min(advancers, ranking.size())), workers, queuedHeats);
+                }
+            } catch (RuntimeException e) {
+                failure.compareAndSet(null, e);
+                finalDone.countDown();
+            } finally {
+                if (number == 1) {
+                    queuedHeats.release();
+                }
+            }
+        }
+    }
+
+    /**
+     * Total wall time of the last run
+     * @return elapsed time in seconds
+     */
+    public double getElapsedSeconds() {
+        return elapsedNanos / 1e9;
+    }
+
+    public List<Entrant> getFinalRanking() {
+        return finalRanking;
+    }
+
+    /**
+     * Planned size of every stage
+     * @return number of entrants of each stage, the final last
+     */
+    public List<Integer> getStageSizes() {
+        return stages.stream().map(stage -> stage.expectedEntrants).toList();
+    }
+
+    /**
+     * Heats run so far in every stage
+     * @return number of completed heats of each stage, the final last
+     */
+    public List<Integer> getCompletedHeats() {
+        return stages.stream().map(stage -> stage.completedHeats.get()).toList();
+    }
+
+    /**
+     * Displays the podium, total wall time and per-stage throughput
+     */
+    public void displayReport() {
+        System.out.println("\n╔════════════════════════════════════════════════════════╗");
+        System.out.println("║           QUALIFICATIONS À ÉLIMINATION DIRECTE         ║");
+        System.out.println("╚════════════════════════════════════════════════════════╝");
+        System.out.printf("%nConcurrents: %,d | Manches de %d, %d qualifiés | Workers: %d%n",
+                totalEntrants, heatSize, advancers, parallelism);
+        System.out.println("─────────────────────────────────────────────────────────");
+
+        for (Stage stage : stages) {
+            double stageSeconds = Math.max(0, stage.lastEnd.get() - stage.firstStart.get()) / 1e9;
+            System.out.printf("%-8s %,10d concurrents | %,8d manches | début +%.3f s | %.3f s | %,.0f manches/s%n",
+                    stage.isFinal ? "Finale" : "Tour " + stage.number,
+                    stage.expectedEntrants, stage.completedHeats.get(),
+                    (stage.firstStart.get() - startNanos) / 1e9, stageSeconds,
+                    stageSeconds > 0 ? stage.completedHeats.get() / stageSeconds : 0.0);
+        }
+
+        System.out.println("─────────────────────────────────────────────────────────");
+        System.out.printf("Durée totale: %.3f s%n", getElapsedSeconds());
+
+        if (finalRanking != null) {
+            String[] medals = {"🥇", "🥈", "🥉"};
+            for (int i = 0; i < Math.min(medals.length, finalRanking.size()); i++) {
+                System.out.printf("%s %s%n", medals[i], finalRanking.get(i).displayName());
+            }
+        }
+    }
+}
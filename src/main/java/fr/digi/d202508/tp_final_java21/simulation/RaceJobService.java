@@ -0,0 +1,221 @@
+package fr.digi.d202508.tp_final_java21.simulation;
+
+import fr.digi.d202508.tp_final_java21.config.CacheProperties;
+import fr.digi.d202508.tp_final_java21.config.JobProperties;
+import fr.digi.d202508.tp_final_java21.config.RaceConfig;
+import fr.digi.d202508.tp_final_java21.model.Animal;
+import fr.digi.d202508.tp_final_java21.model.RaceStatistics;
+import fr.digi.d202508.tp_final_java21.model.Species;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.SplittableRandom;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.random.RandomGenerator;
+
+/**
+ * Runs race and tournament jobs submitted through the HTTP API.
+ * <p>
+ * Jobs wait in a bounded queue and are run by a fixed pool of workers; when the queue
+ * is full the submission is rejected at once (admission control) instead of piling up,
+ * so that submitting stays fast whatever the load. Jobs are simulated without runner
+ * threads ({@link HeatSimulator}), and their status can be polled until they are
+ * forgotten, oldest finished jobs first.
+ * Seeded jobs are deterministic: their results go through a {@link ResultCache}, and a repeat
+ * is answered at submission time, without being queued.
+ * While a tournament runs, its status carries provisional standings, refreshed every
+ * {@value SequentialStopping#CHECK_INTERVAL} rounds; with a target precision it stops as soon as
+ * {@link SequentialStopping} deems the rounds played enough.
+ */
+@Service
+@ConditionalOnProperty(prefix = "race.web", name = "enabled", havingValue = "true")
+public class RaceJobService implements AutoCloseable {
+
+    private final RaceConfig config;
+    private final JobProperties properties;
+    private final ThreadPoolExecutor workers;
+    private final ResultCache cache;
+    private final Map<Long, JobStatus> jobs = new ConcurrentHashMap<>();
+    private final Queue<Long> finishedJobs = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger retainedJobs = new AtomicInteger();
+    private final AtomicLong nextId = new AtomicLong();
+    private final AtomicLong rejectedJobs = new AtomicLong();
+
+    public RaceJobService(RaceConfig config, JobProperties properties, CacheProperties cacheProperties) {
+        this.config = config;
+        this.properties = properties;
+        this.cache = new ResultCache(cacheProperties);
+        AtomicInteger counter = new AtomicInteger();
+        this.workers = new ThreadPoolExecutor(properties.workers(), properties.workers(), 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(properties.queueCapacity()),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "Thread-Job-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Queues a job
+     * @param request job parameters
+     * @return status of the queued job
+     * @throws RejectedExecutionException if the queue is full
+     * @throws IllegalArgumentException if the job exceeds the configured limits
+     */
+    public JobStatus submit(JobRequest request) {
+        if (request.rounds() > properties.maxRounds()) {
+            throw new IllegalArgumentException("Trop de manches pour un job (maximum " + properties.maxRounds() + ")");
+        }
+        if (request.seed() != null) {
+            var cached = cache.get(ResultCache.keyOf(configFor(request), request, properties.engine()));
+            if (cached.isPresent()) {
+                JobStatus done = JobStatus.cached(nextId.incrementAndGet(), request, cached.get());
+                jobs.put(done.id(), done);
+                forgetOldJobs(done.id());
+                return done;
+            }
+        }
+
+        JobStatus queued = JobStatus.queued(nextId.incrementAndGet(), request);
+        jobs.put(queued.id(), queued);
+        try {
+            workers.execute(() -> run(queued.id()));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(queued.id());
+            rejectedJobs.incrementAndGet();
+            throw e;
+        }
+        return queued;
+    }
+
+    /**
+     * Returns the current status of a job
+     * @param id job identifier
+     * @return status, empty if unknown or already forgotten
+     */
+    public Optional<JobStatus> find(long id) {
+        return Optional.ofNullable(jobs.get(id));
+    }
+
+    private void run(long id) {
+        JobStatus running = jobs.computeIfPresent(id, (key, status) -> status.running());
+        if (running == null) {
+            return;
+        }
+        JobStatus finished;
+        try {
+            JobRequest request = running.request();
+            Outcome outcome = simulate(id, request);
+            finished = running.done(outcome.statistics(), outcome.reason());
+            if (request.seed() != null) {
+                cache.put(ResultCache.keyOf(configFor(request), request, properties.engine()),
+                        new ResultCache.Result(finished.standings(), finished.roundsPlayed(), finished.stopReason()));
+            }
+        } catch (RuntimeException e) {
+            finished = running.failed(e.getMessage());
+        }
+        jobs.put(id, finished);
+        forgetOldJobs(id);
+    }
+
+    private record Outcome(RaceStatistics statistics, SequentialStopping.Reason reason) {
+    }
+
+    /**
+     * Plays the rounds of a job on the calling worker, publishing provisional standings on the way
+     * @param id job identifier
+     * @param request job parameters
+     * @return statistics of the rounds played, and why they stopped
+     */
+    private Outcome simulate(long id, JobRequest request) {
+        RaceConfig jobConfig = configFor(request);
+        RandomGenerator random = request.seed() != null
+                ? new SplittableRandom(request.seed())
+                : ThreadLocalRandom.current();
+
+        HeatSimulator simulator = new HeatSimulator(jobConfig, properties.engine());
+        List<Animal> field = new ArrayList<>();
+        for (Species species : Species.values()) {
+            field.add(simulator.newAnimal(species));
+        }
+
+        RaceStatistics statistics = new RaceStatistics();
+        RoundSampler sampler = new RoundSampler(request.sampling(), random, request.rounds());
+        SequentialStopping stopping = request.isAdaptive() ? new SequentialStopping(request.precision()) : null;
+        for (int round = 0; round < request.rounds() && !Thread.currentThread().isInterrupted(); round++) {
+            RandomGenerator roundRandom = sampler.prepare(round, field);
+            statistics.recordRound(simulator.run(field, roundRandom));
+            if ((round + 1) % SequentialStopping.CHECK_INTERVAL == 0 && round + 1 < request.rounds()) {
+                if (stopping != null) {
+                    var reason = stopping.check(statistics);
+                    if (reason.isPresent()) {
+                        return new Outcome(statistics, reason.get());
+                    }
+                }
+                jobs.computeIfPresent(id, (key, status) -> status.progress(statistics));
+            }
+        }
+        return new Outcome(statistics, SequentialStopping.Reason.MAX_ROUNDS);
+    }
+
+    private RaceConfig configFor(JobRequest request) {
+        return request.finishLine() > 0 ? config.withFinishLine(request.finishLine()) : config;
+    }
+
+    private void forgetOldJobs(long finishedId) {
+        finishedJobs.add(finishedId);
+        if (retainedJobs.incrementAndGet() > properties.retainedJobs()) {
+            Long oldest = finishedJobs.poll();
+            if (oldest != null) {
+                retainedJobs.decrementAndGet();
+                jobs.remove(oldest);
+            }
+        }
+    }
+
+    public int getQueuedJobs() {
+        return workers.getQueue().size();
+    }
+
+    public int getRunningJobs() {
+        return workers.getActiveCount();
+    }
+
+    public long getCompletedJobs() {
+        return workers.getCompletedTaskCount();
+    }
+
+    public long getRejectedJobs() {
+        return rejectedJobs.get();
+    }
+
+    public ResultCache getCache() {
+        return cache;
+    }
+
+    public JobProperties getProperties() {
+        return properties;
+    }
+
+    /**
+     * Stops the workers; queued jobs are abandoned
+     */
+    @Override
+    public void close() {
+        workers.shutdownNow();
+    }
+}
@@ -0,0 +1,228 @@
+package fr.digi.d202508.tp_final_java21.simulation;
+
+import fr.digi.d202508.tp_final_java21.config.CacheProperties;
+import fr.digi.d202508.tp_final_java21.config.RaceConfig;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cache of seeded simulation results.
+ * <p>
+ * A seeded job is deterministic: the same physics, rounds and seed always give the same
+ * standings, so a repeat is answered from the cache instead of being simulated again.
+ * Keys are a SHA-256 hash of a canonical description of everything that changes the result
+ * (track length, tick duration, probabilities, multipliers, species, job kind, rounds, seed, sampling,
+ * precision, engine);
+ * the clock mode and time scale only change the pacing and are left out.
+ * Entries expire after the TTL; the least recently used ones are evicted beyond the size limit
+ * and, if a spill directory is set, written to disk and reloaded on a later miss.
+ */
+public class ResultCache {
+
+    private final CacheProperties properties;
+    private final Path spillDirectory;
+    private final Map<String, Entry> entries;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong diskHits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    /**
+     * Result of a seeded job, as it is cached
+     * @param standings final standings
+     * @param roundsPlayed rounds the standings are based on (fewer than requested if stopped early)
+     * @param stopReason why the rounds stopped, or null
+     */
+    public record Result(List<JobStatus.Standing> standings, int roundsPlayed, SequentialStopping.Reason stopReason) {
+
+        public Result {
+            standings = List.copyOf(standings);
+        }
+    }
+
+    private record Entry(Result result, Instant expiresAt) {
+    }
+
+    public ResultCache(CacheProperties properties) {
+        this.properties = properties;
+        this.spillDirectory = properties.spillEnabled() ? Path.of(properties.spillDirectory()) : null;
+        // Access order: iteration starts with the least recently used entry
+        this.entries = new LinkedHashMap<>(16, 0.75f, true);
+        if (spillDirectory != null) {
+            try {
+                Files.createDirectories(spillDirectory);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Impossible de créer le répertoire du cache: " + spillDirectory, e);
+            }
+        }
+    }
+
+    /**
+     * Builds the cache key of a seeded job
+     * @param config race configuration the job runs with
+     * @param request job parameters (seed required)
+     * @param engine heat engine (same distribution, but not the same draws for a given seed)
+     * @return hexadecimal SHA-256 of the canonical description
+     */
+    public static String keyOf(RaceConfig config, JobRequest request, HeatSimulator.Engine engine) {
+        if (request.seed() == null) {
+            throw new IllegalArgumentException("Seuls les jobs avec une graine sont déterministes");
+        }
+        StringBuilder canonical = new StringBuilder(256);
+        canonical.append(config.describePhysics());
+        canonical.append(";kind=").append(request.kind())
+                .append(";rounds=").append(request.rounds())
+                .append(";seed=").append(request.seed())
+                .append(";sampling=").append(request.sampling())
+                .append(";precision=").append(request.precision())
+                .append(";engine=").append(engine);
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(canonical.toString().getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponible", e);
+        }
+    }
+
+    /**
+     * Looks a result up in memory, then on disk
+     * @param key cache key
+     * @return result, empty on a miss
+     */
+    public Optional<Result> get(String key) {
+        Instant now = Instant.now();
+        synchronized (entries) {
+            Entry entry = entries.get(key);
+            if (entry != null) {
+                if (entry.expiresAt().isAfter(now)) {
+                    hits.incrementAndGet();
+                    return Optional.of(entry.result());
+                }
+                entries.remove(key);
+            }
+        }
+
+        Optional<Entry> spilled = readSpilled(key, now);
+        if (spilled.isPresent()) {
+            diskHits.incrementAndGet();
+            store(key, spilled.get());
+            return Optional.of(spilled.get().result());
+        }
+        misses.incrementAndGet();
+        return Optional.empty();
+    }
+
+    /**
+     * Stores the result of a seeded job
+     * @param key cache key
+     * @param result final standings and rounds played
+     */
+    public void put(String key, Result result) {
+        store(key, new Entry(result, Instant.now().plus(properties.ttl())));
+    }
+
+    private void store(String key, Entry entry) {
+        List<Map.Entry<String, Entry>> evicted = new ArrayList<>();
+        synchronized (entries) {
+            entries.put(key, entry);
+            var iterator = entries.entrySet().iterator();
+            while (entries.size() > properties.maxEntries() && iterator.hasNext()) {
+                evicted.add(iterator.next());
+                iterator.remove();
+            }
+        }
+        evictions.addAndGet(evicted.size());
+        // Disk writes happen outside the lock
+        for (Map.Entry<String, Entry> victim : evicted) {
+            spill(victim.getKey(), victim.getValue());
+        }
+    }
+
+    private void spill(String key, Entry entry) {
+        if (spillDirectory == null || !entry.expiresAt().isAfter(Instant.now())) {
+            return;
+        }
+        Result result = entry.result();
+        StringBuilder content = new StringBuilder();
+        content.append(entry.expiresAt().toEpochMilli()).append(';').append(result.roundsPlayed()).append(';')
+                .append(result.stopReason() != null ? result.stopReason().name() : "-").append('\n');
+        for (JobStatus.Standing standing : result.standings()) {
+            content.append(standing.name()).append(';').append(standing.wins()).append(';')
+                    .append(standing.winRate()).append(';').append(standing.averageSpeed()).append('\n');
+        }
+        try {
+            // Written next to the target then renamed, so a reader never sees half a file
+            Path temp = Files.createTempFile(spillDirectory, key, ".tmp");
+            Files.writeString(temp, content);
+            Files.move(temp, spillDirectory.resolve(key), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            // The cache is an optimization: a result that can't be spilled is simply lost
+        }
+    }
+
+    private Optional<Entry> readSpilled(String key, Instant now) {
+        if (spillDirectory == null) {
+            return Optional.empty();
+        }
+        Path file = spillDirectory.resolve(key);
+        try {
+            List<String> lines = Files.readAllLines(file);
+            // Files spilled without the rounds played have a single field here and are misses
+            String[] header = lines.get(0).split(";");
+            Instant expiresAt = Instant.ofEpochMilli(Long.parseLong(header[0]));
+            if (!expiresAt.isAfter(now)) {
+                Files.deleteIfExists(file);
+                return Optional.empty();
+            }
+            List<JobStatus.Standing> standings = new ArrayList<>();
+            for (String line : lines.subList(1, lines.size())) {
+                String[] fields = line.split(";");
+                standings.add(new JobStatus.Standing(fields[0], Integer.parseInt(fields[1]),
+                        Double.parseDouble(fields[2]), Double.parseDouble(fields[3])));
+            }
+            SequentialStopping.Reason stopReason = header[2].equals("-") ? null : SequentialStopping.Reason.valueOf(header[2]);
+            return Optional.of(new Entry(new Result(standings, Integer.parseInt(header[1]), stopReason), expiresAt));
+        } catch (IOException | RuntimeException e) {
+            // Missing or unreadable file: treated as a miss
+            return Optional.empty();
+        }
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getDiskHits() {
+        return diskHits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+}
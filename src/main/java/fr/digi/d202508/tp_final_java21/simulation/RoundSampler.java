@@ -0,0 +1,120 @@
+package fr.digi.d202508.tp_final_java21.simulation;
+
+import fr.digi.d202508.tp_final_java21.model.Animal;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
+
+/**
+ * Prepares the successive rounds of a batch simulation according to a {@link Sampling} strategy:
+ * puts the animals back on the starting line and gives the generator of the round's moves.
+ * <ul>
+ *   <li>NAIVE: every round draws from the shared generator</li>
+ *   <li>ANTITHETIC: even rounds draw from a fresh seed, odd rounds replay it mirrored</li>
+ *   <li>STRATIFIED: within each block of {@value #STRATA} rounds, the base speed of each animal
+ *       falls once in each of {@value #STRATA} equal slices of its range (random order per animal)</li>
+ * </ul>
+ * Rounds form independent units (one round, one pair, one block): the spread of the unit
+ * averages gives the variance of an estimate. Not thread-safe.
+ */
+public class RoundSampler {
+
+    // Rounds per stratified block, and slices of each speed range
+    static final int STRATA = 32;
+
+    private final Sampling sampling;
+    private final RandomGenerator random;
+    private final int rounds;
+    private long pairSeed;
+    private int[][] slices = new int[0][];
+    private int blockStart;
+    private int blockSize;
+
+    /**
+     * @param sampling strategy
+     * @param random shared generator of the batch
+     * @param rounds total number of rounds (the last block may be shorter)
+     */
+    public RoundSampler(Sampling sampling, RandomGenerator random, int rounds) {
+        this.sampling = sampling;
+        this.random = random;
+        this.rounds = rounds;
+    }
+
+    /**
+     * Number of consecutive rounds that form one independent unit
+     * @param sampling strategy
+     * @return rounds per unit
+     */
+    public static int unitSize(Sampling sampling) {
+        return switch (sampling) {
+            case NAIVE -> 1;
+            case ANTITHETIC -> 2;
+            case STRATIFIED -> STRATA;
+        };
+    }
+
+    /**
+     * Puts the field back on the starting line for a round
+     * @param round round number, from 0, in order
+     * @param field animals of the round
+     * @return generator to use for the moves of this round
+     */
+    public RandomGenerator prepare(int round, List<Animal> field) {
+        return switch (sampling) {
+            case NAIVE -> {
+                for (Animal animal : field) {
+                    animal.reset(random);
+                }
+                yield random;
+            }
+            case ANTITHETIC -> {
+                RandomGenerator roundRandom;
+                if (round % 2 == 0) {
+                    pairSeed = random.nextLong();
+                    roundRandom = new SplittableRandom(pairSeed);
+                } else {
+                    roundRandom = new AntitheticRandom(new SplittableRandom(pairSeed));
+                }
+                for (Animal animal : field) {
+                    animal.reset(roundRandom);
+                }
+                yield roundRandom;
+            }
+            case STRATIFIED -> {
+                if (round % STRATA == 0) {
+                    startBlock(round, field.size());
+                }
+                int stratum = round - blockStart;
+                for (int i = 0; i < field.size(); i++) {
+                    // A uniform draw inside the slice assigned to this round
+                    field.get(i).resetAtSpeedQuantile((slices[i][stratum] + random.nextDouble()) / blockSize);
+                }
+                yield random;
+            }
+        };
+    }
+
+    /**
+     * Shuffles, for each animal, the order in which the slices of its speed range are used
+     */
+    private void startBlock(int round, int fieldSize) {
+        blockStart = round;
+        blockSize = Math.min(STRATA, rounds - round);
+        if (slices.length != fieldSize) {
+            slices = new int[fieldSize][STRATA];
+        }
+        for (int[] order : slices) {
+            for (int i = 0; i < blockSize; i++) {
+                order[i] = i;
+            }
+            for (int i = blockSize - 1; i > 0; i--) {
+                int j = random.nextInt(i + 1);
+                int swap = order[i];
+                order[i] = order[j];
+                order[j] = swap;
+            }
+        }
+    }
+}
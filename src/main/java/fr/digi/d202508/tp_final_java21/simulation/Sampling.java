@@ -0,0 +1,14 @@
+package fr.digi.d202508.tp_final_java21.simulation;
+
+/**
+ * How the random draws of successive rounds are chosen in batch simulations.
+ * Every strategy gives unbiased win rates; the last two need fewer rounds for the same precision.
+ */
+public enum Sampling {
+    // Independent rounds
+    NAIVE,
+    // Rounds in pairs: the second one replays the draws of the first one mirrored (u -> 1 - u)
+    ANTITHETIC,
+    // Base speeds spread evenly over their range (Latin hypercube over blocks of rounds)
+    STRATIFIED
+}
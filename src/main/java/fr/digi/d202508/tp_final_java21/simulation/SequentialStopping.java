@@ -0,0 +1,109 @@
+package fr.digi.d202508.tp_final_java21.simulation;
+
+import fr.digi.d202508.tp_final_java21.model.RaceStatistics;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Adaptive stopping of a tournament, checked every {@value #CHECK_INTERVAL} rounds on its
+ * running {@link RaceStatistics}.
+ * <p>
+ * The tournament stops as soon as either
+ * <ul>
+ *   <li>every win rate is known to the target precision: the half-width of its 95% interval,
+ *       sqrt(p (1 - p) / n) times 1.96, is below it, or</li>
+ *   <li>the leader is established: a sequential probability ratio test (Wald) on the rounds won by
+ *       the leader or the runner-up accepts that the leader wins at least
+ *       {@value #INDIFFERENCE} more than half of them, with error rates of {@value #ERROR_RATE}.</li>
+ * </ul>
+ * A clear-cut field is thus settled in a few hundred rounds, while a close one runs until the
+ * precision is reached or the rounds requested are exhausted.
+ * The intervals ignore the gain of antithetic or stratified sampling, so they are conservative there.
+ */
+public class SequentialStopping {
+
+    public static final int CHECK_INTERVAL = 100;
+
+    // Smallest edge over 50% of the leader/runner-up duels that the test must detect
+    static final double INDIFFERENCE = 0.02;
+    // Probability of naming a leader that has no edge, and of missing one that has it
+    static final double ERROR_RATE = 0.01;
+    private static final double Z_95 = 1.96;
+
+    private static final double UPPER_BOUND = Math.log((1 - ERROR_RATE) / ERROR_RATE);
+    private static final double WIN_WEIGHT = Math.log((0.5 + INDIFFERENCE) / 0.5);
+    private static final double LOSS_WEIGHT = Math.log((0.5 - INDIFFERENCE) / 0.5);
+
+    public enum Reason {
+        // Every win rate known to the target precision
+        PRECISION,
+        // Sequential test: the leader is ahead of the runner-up
+        LEADER,
+        // All the rounds requested were played
+        MAX_ROUNDS
+    }
+
+    private final double precision;
+    private double largestHalfWidth = Double.NaN;
+    private double logLikelihoodRatio;
+
+    /**
+     * @param precision target half-width of the 95% interval of every win rate, as a fraction (0.01 for ±1 point)
+     */
+    public SequentialStopping(double precision) {
+        if (!(precision > 0 && precision < 1)) {
+            throw new IllegalArgumentException("La précision doit être comprise entre 0 et 1: " + precision);
+        }
+        this.precision = precision;
+    }
+
+    /**
+     * Tells whether the rounds played so far are enough
+     * @param statistics rounds played so far
+     * @return the reason to stop, or empty to go on
+     */
+    public Optional<Reason> check(RaceStatistics statistics) {
+        int rounds = statistics.getTotalRounds();
+        List<RaceStatistics.AnimalStats> standings = statistics.getTopStandings(2);
+        if (rounds < CHECK_INTERVAL || standings.size() < 2) {
+            return Optional.empty();
+        }
+
+        // p(1 - p) grows up to p = 1/2 and at most one animal wins more than half of the rounds:
+        // the widest interval is the leader's or the runner-up's
+        largestHalfWidth = 0;
+        for (RaceStatistics.AnimalStats stats : standings) {
+            double p = (double) stats.getWins() / rounds;
+            largestHalfWidth = Math.max(largestHalfWidth, Z_95 * Math.sqrt(p * (1 - p) / rounds));
+        }
+
+        int leaderWins = standings.get(0).getWins();
+        int runnerUpWins = standings.get(1).getWins();
+        logLikelihoodRatio = leaderWins * WIN_WEIGHT + runnerUpWins * LOSS_WEIGHT;
+
+        if (largestHalfWidth <= precision) {
+            return Optional.of(Reason.PRECISION);
+        }
+        if (logLikelihoodRatio >= UPPER_BOUND) {
+            return Optional.of(Reason.LEADER);
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Half-width of the widest 95% interval at the last check
+     * @return half-width as a fraction, NaN before the first check
+     */
+    public double getLargestHalfWidth() {
+        return largestHalfWidth;
+    }
+
+    /**
+     * Log-likelihood ratio of the sequential test at the last check
+     * @return log ratio; the leader is established above log((1 - error) / error)
+     */
+    public double getLogLikelihoodRatio() {
+        return logLikelihoodRatio;
+    }
+}
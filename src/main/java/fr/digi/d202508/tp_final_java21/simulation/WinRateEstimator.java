@@ -0,0 +1,190 @@
+package fr.digi.d202508.tp_final_java21.simulation;
+
+import fr.digi.d202508.tp_final_java21.config.RaceConfig;
+import fr.digi.d202508.tp_final_java21.model.Animal;
+import fr.digi.d202508.tp_final_java21.model.Species;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
+
+/**
+ * Estimates the win rate of each species from batch heats, and how precise the estimate is.
+ * <p>
+ * The variance of an estimate is measured from independent units of rounds (see
+ * {@link RoundSampler#unitSize(Sampling)}) and compared with the variance naive sampling would have
+ * after as many rounds, p(1 - p) / n: a ratio of 5 means the strategy needs 5 times fewer
+ * rounds for the same confidence interval.
+ * Configurations are compared with common random numbers: both run every heat from the
+ * same seed, so their difference is not drowned in the noise of two independent samples.
+ */
+public class WinRateEstimator {
+
+    private static final int SPECIES = Species.values().length;
+
+    /**
+     * Win rates of a batch and their precision
+     * @param sampling strategy used
+     * @param rounds number of rounds played
+     * @param winRates win rate of each species, indexed by {@link Species#ordinal()}
+     * @param variances measured variance of each win rate
+     */
+    public record Estimate(Sampling sampling, int rounds, double[] winRates, double[] variances) {
+
+        /**
+         * Variance of the same estimate with independent rounds
+         * @param species the species
+         * @return p(1 - p) / n
+         */
+        public double naiveVariance(Species species) {
+            double p = winRates[species.ordinal()];
+            return p * (1 - p) / rounds;
+        }
+
+        /**
+         * Naive variance over the measured one (how many naive rounds one round is worth)
+         * @param species the species
+         * @return variance ratio, 1 for naive sampling
+         */
+        public double varianceRatio(Species species) {
+            double variance = variances[species.ordinal()];
+            return variance > 0 ? naiveVariance(species) / variance : Double.NaN;
+        }
+
+        /**
+         * Half-width of the 95% confidence interval of a win rate
+         * @param species the species
+         * @return 1.96 standard errors
+         */
+        public double halfWidth95(Species species) {
+            return 1.96 * Math.sqrt(variances[species.ordinal()]);
+        }
+    }
+
+    /**
+     * Difference of win rates between two configurations (first minus second)
+     * @param commonRandomNumbers whether both configurations ran every heat from the same seed
+     * @param rounds heats played by each configuration
+     * @param differences difference of win rate of each species
+     * @param variances measured variance of each difference
+     * @param independentVariances variance the difference would have with independent samples
+     */
+    public record Comparison(boolean commonRandomNumbers, int rounds, double[] differences,
+                             double[] variances, double[] independentVariances) {
+
+        public double varianceRatio(Species species) {
+            double variance = variances[species.ordinal()];
+            return variance > 0 ? independentVariances[species.ordinal()] / variance : Double.NaN;
+        }
+    }
+
+    private final HeatSimulator simulator;
+    private final List<Animal> field = new ArrayList<>();
+
+    /**
+     * @param config race parameters
+     * @param engine heat engine
+     */
+    public WinRateEstimator(RaceConfig config, HeatSimulator.Engine engine) {
+        this.simulator = new HeatSimulator(config, engine);
+        for (Species species : Species.values()) {
+            field.add(simulator.newAnimal(species));
+        }
+    }
+
+    /**
+     * Plays a batch of heats and estimates the win rates
+     * @param rounds number of heats (rounded up to a whole number of units)
+     * @param sampling strategy
+     * @param random generator of the batch
+     * @return win rates and their measured variance
+     */
+    public Estimate estimate(int rounds, Sampling sampling, RandomGenerator random) {
+        int unitSize = RoundSampler.unitSize(sampling);
+        int units = Math.max(2, (rounds + unitSize - 1) / unitSize);
+        int totalRounds = units * unitSize;
+        RoundSampler sampler = new RoundSampler(sampling, random, totalRounds);
+
+        double[] sum = new double[SPECIES];
+        double[] sumOfSquares = new double[SPECIES];
+        int[] unitWins = new int[SPECIES];
+        for (int round = 0; round < totalRounds; round++) {
+            RandomGenerator roundRandom = sampler.prepare(round, field);
+            unitWins[simulator.run(field, roundRandom).get(0).getSpecies().ordinal()]++;
+
+            if ((round + 1) % unitSize == 0) {
+                for (int s = 0; s < SPECIES; s++) {
+                    double unitMean = (double) unitWins[s] / unitSize;
+                    sum[s] += unitMean;
+                    sumOfSquares[s] += unitMean * unitMean;
+                    unitWins[s] = 0;
+                }
+            }
+        }
+
+        double[] winRates = new double[SPECIES];
+        double[] variances = new double[SPECIES];
+        for (int s = 0; s < SPECIES; s++) {
+            double mean = sum[s] / units;
+            winRates[s] = mean;
+            // Sample variance of the unit averages, divided by the number of units
+            variances[s] = Math.max(0.0, (sumOfSquares[s] - units * mean * mean) / (units - 1)) / units;
+        }
+        return new Estimate(sampling, totalRounds, winRates, variances);
+    }
+
+    /**
+     * Estimates the difference of win rates between two configurations
+     * @param first first configuration
+     * @param second second configuration
+     * @param rounds heats per configuration
+     * @param commonRandomNumbers run each heat of both configurations from the same seed
+     * @param random generator of the seeds
+     * @return differences and their measured variance
+     */
+    public static Comparison compare(RaceConfig first, RaceConfig second, int rounds,
+                                     boolean commonRandomNumbers, RandomGenerator random) {
+        // Tick by tick, so that both configurations consume the same draws in the same order
+        WinRateEstimator a = new WinRateEstimator(first, HeatSimulator.Engine.STEP);
+        WinRateEstimator b = new WinRateEstimator(second, HeatSimulator.Engine.STEP);
+        int n = Math.max(2, rounds);
+
+        double[] winsA = new double[SPECIES];
+        double[] winsB = new double[SPECIES];
+        double[] sum = new double[SPECIES];
+        double[] sumOfSquares = new double[SPECIES];
+        for (int round = 0; round < n; round++) {
+            long seed = random.nextLong();
+            int winnerA = a.playHeat(new SplittableRandom(seed));
+            int winnerB = b.playHeat(new SplittableRandom(commonRandomNumbers ? seed : random.nextLong()));
+            winsA[winnerA]++;
+            winsB[winnerB]++;
+            for (int s = 0; s < SPECIES; s++) {
+                double difference = (winnerA == s ? 1 : 0) - (winnerB == s ? 1 : 0);
+                sum[s] += difference;
+                sumOfSquares[s] += difference * difference;
+            }
+        }
+
+        double[] differences = new double[SPECIES];
+        double[] variances = new double[SPECIES];
+        double[] independentVariances = new double[SPECIES];
+        for (int s = 0; s < SPECIES; s++) {
+            double mean = sum[s] / n;
+            double pA = winsA[s] / n;
+            double pB = winsB[s] / n;
+            differences[s] = mean;
+            variances[s] = Math.max(0.0, (sumOfSquares[s] - n * mean * mean) / (n - 1)) / n;
+            independentVariances[s] = (pA * (1 - pA) + pB * (1 - pB)) / n;
+        }
+        return new Comparison(commonRandomNumbers, n, differences, variances, independentVariances);
+    }
+
+    private int playHeat(RandomGenerator random) {
+        for (Animal animal : field) {
+            animal.reset(random);
+        }
+        return simulator.run(field, random).get(0).getSpecies().ordinal();
+    }
+}
@@ -0,0 +1,82 @@
+package fr.digi.d202508.tp_final_java21.web;
+
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import fr.digi.d202508.tp_final_java21.config.WebProperties;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Embedded HTTP server shared by the web endpoints.
+ * Based on the JDK server ({@code com.sun.net.httpserver}) with one virtual thread per exchange,
+ * so that thousands of long-lived connections (live feed) cost a few KB each.
+ * Only created when {@code race.web.enabled=true}; endpoints register their context
+ * before the server is started by the Spring lifecycle.
+ */
+@Component
+@ConditionalOnProperty(prefix = "race.web", name = "enabled", havingValue = "true")
+public class EmbeddedHttpServer implements SmartLifecycle {
+
+    private final WebProperties properties;
+    private final HttpServer server;
+    private final ExecutorService exchanges;
+    private volatile boolean running;
+
+    public EmbeddedHttpServer(WebProperties properties) {
+        this.properties = properties;
+        this.exchanges = Executors.newVirtualThreadPerTaskExecutor();
+        try {
+            this.server = HttpServer.create();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Impossible de créer le serveur HTTP", e);
+        }
+        this.server.setExecutor(exchanges);
+    }
+
+    /**
+     * Registers a handler for every request whose path starts with the given prefix
+     * @param path path prefix (e.g. "/race/live")
+     * @param handler request handler, run on its own virtual thread
+     */
+    public void register(String path, HttpHandler handler) {
+        server.createContext(path, handler);
+    }
+
+    @Override
+    public void start() {
+        try {
+            server.bind(new InetSocketAddress(properties.port()), 0);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Impossible d'écouter sur le port " + properties.port(), e);
+        }
+        server.start();
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        server.stop(0);
+        exchanges.shutdownNow();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Actual listening port (useful when the configured port is 0)
+     * @return bound port
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+}
@@ -0,0 +1,188 @@
+package fr.digi.d202508.tp_final_java21.web;
+
+import com.sun.net.httpserver.HttpExchange;
+import fr.digi.d202508.tp_final_java21.simulation.JobRequest;
+import fr.digi.d202508.tp_final_java21.simulation.JobStatus;
+import fr.digi.d202508.tp_final_java21.simulation.RaceJobService;
+import fr.digi.d202508.tp_final_java21.simulation.ResultCache;
+import fr.digi.d202508.tp_final_java21.simulation.Sampling;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * HTTP API of the simulation jobs.
+ * <ul>
+ *   <li>{@code POST /jobs?type=race|tournament&rounds=100&seed=42&finishLine=200&sampling=stratified&precision=0.01}:
+ *       202 and the job id,
+ *       200 when a seeded job is answered from the cache, or 503 when the queue is full</li>
+ *   <li>{@code GET /jobs/{id}}: status of a job, with its standings once done
+ *       (provisional ones while a tournament runs)</li>
+ *   <li>{@code GET /jobs}: queue occupancy and cache metrics</li>
+ * </ul>
+ * Parameters are read from the query string and responses are small JSON documents.
+ */
+@Component
+@ConditionalOnProperty(prefix = "race.web", name = "enabled", havingValue = "true")
+public class JobEndpoint {
+
+    private final RaceJobService jobService;
+
+    public JobEndpoint(EmbeddedHttpServer server, RaceJobService jobService) {
+        this.jobService = jobService;
+        server.register("/jobs", this::handle);
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            String path = exchange.getRequestURI().getPath();
+            String method = exchange.getRequestMethod();
+
+            if (path.equals("/jobs") || path.equals("/jobs/")) {
+                switch (method) {
+                    case "POST" -> submit(exchange);
+                    case "GET" -> respond(exchange, 200, queueJson());
+                    default -> exchange.sendResponseHeaders(405, -1);
+                }
+            } else if (method.equals("GET")) {
+                status(exchange, path.substring("/jobs/".length()));
+            } else {
+                exchange.sendResponseHeaders(405, -1);
+            }
+        }
+    }
+
+    private void submit(HttpExchange exchange) throws IOException {
+        JobStatus queued;
+        try {
+            queued = jobService.submit(parseRequest(exchange.getRequestURI().getRawQuery()));
+        } catch (IllegalArgumentException e) {
+            respond(exchange, 400, errorJson(e.getMessage()));
+            return;
+        } catch (RejectedExecutionException e) {
+            // Overloaded: the client is told to come back instead of waiting in an unbounded queue
+            exchange.getResponseHeaders().set("Retry-After", "1");
+            respond(exchange, 503, errorJson("File de jobs pleine, réessayez plus tard"));
+            return;
+        }
+        exchange.getResponseHeaders().set("Location", "/jobs/" + queued.id());
+        // A repeat of a seeded job is answered from the cache, already done
+        respond(exchange, queued.isFinished() ? 200 : 202, statusJson(queued));
+    }
+
+    private void status(HttpExchange exchange, String id) throws IOException {
+        long jobId;
+        try {
+            jobId = Long.parseLong(id);
+        } catch (NumberFormatException e) {
+            respond(exchange, 400, errorJson("Identifiant de job invalide: " + id));
+            return;
+        }
+        var status = jobService.find(jobId);
+        if (status.isPresent()) {
+            respond(exchange, 200, statusJson(status.get()));
+        } else {
+            respond(exchange, 404, errorJson("Job inconnu: " + jobId));
+        }
+    }
+
+    /**
+     * Reads the job parameters from the query string
+     * @param rawQuery query string (may be null)
+     * @return job request
+     * @throws IllegalArgumentException if a parameter is missing or invalid
+     */
+    static JobRequest parseRequest(String rawQuery) {
+        Map<String, String> parameters = new HashMap<>();
+        if (rawQuery != null) {
+            for (String pair : rawQuery.split("&")) {
+                int separator = pair.indexOf('=');
+                if (separator > 0) {
+                    parameters.put(URLDecoder.decode(pair.substring(0, separator), StandardCharsets.UTF_8),
+                            URLDecoder.decode(pair.substring(separator + 1), StandardCharsets.UTF_8));
+                }
+            }
+        }
+        try {
+            JobRequest.Kind kind = JobRequest.Kind.valueOf(parameters.getOrDefault("type", "race").toUpperCase(Locale.ROOT));
+            int rounds = Integer.parseInt(parameters.getOrDefault("rounds", "1"));
+            int finishLine = Integer.parseInt(parameters.getOrDefault("finishLine", "0"));
+            Long seed = parameters.containsKey("seed") ? Long.valueOf(parameters.get("seed")) : null;
+            Sampling sampling = Sampling.valueOf(parameters.getOrDefault("sampling", "naive").toUpperCase(Locale.ROOT));
+            double precision = Double.parseDouble(parameters.getOrDefault("precision", "0"));
+            return new JobRequest(kind, rounds, finishLine, seed, sampling, precision);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Paramètre numérique invalide: " + e.getMessage());
+        }
+    }
+
+    private String queueJson() {
+        ResultCache cache = jobService.getCache();
+        return String.format(Locale.ROOT,
+                "{\"workers\":%d,\"queueCapacity\":%d,\"queued\":%d,\"running\":%d,\"completed\":%d,\"rejected\":%d,"
+                        + "\"cache\":{\"size\":%d,\"hits\":%d,\"diskHits\":%d,\"misses\":%d,\"evictions\":%d}}",
+                jobService.getProperties().workers(), jobService.getProperties().queueCapacity(),
+                jobService.getQueuedJobs(), jobService.getRunningJobs(),
+                jobService.getCompletedJobs(), jobService.getRejectedJobs(),
+                cache.size(), cache.getHits(), cache.getDiskHits(), cache.getMisses(), cache.getEvictions());
+    }
+
+    private static String statusJson(JobStatus status) {
+        StringBuilder json = new StringBuilder(256);
+        json.append("{\"id\":").append(status.id())
+                .append(",\"type\":\"").append(status.request().kind().name().toLowerCase(Locale.ROOT)).append('"')
+                .append(",\"rounds\":").append(status.request().rounds())
+                .append(",\"sampling\":\"").append(status.request().sampling().name().toLowerCase(Locale.ROOT)).append('"')
+                .append(",\"precision\":").append(status.request().precision())
+                .append(",\"state\":\"").append(status.state()).append('"')
+                .append(",\"roundsPlayed\":").append(status.roundsPlayed())
+                .append(",\"stopReason\":").append(status.stopReason() != null
+                        ? "\"" + status.stopReason().name().toLowerCase(Locale.ROOT) + "\"" : "null")
+                .append(",\"submittedAt\":").append(quoted(status.submittedAt()))
+                .append(",\"startedAt\":").append(quoted(status.startedAt()))
+                .append(",\"finishedAt\":").append(quoted(status.finishedAt()));
+        if (status.error() != null) {
+            json.append(",\"error\":\"").append(escape(status.error())).append('"');
+        }
+        json.append(",\"standings\":[");
+        for (int i = 0; i < status.standings().size(); i++) {
+            JobStatus.Standing standing = status.standings().get(i);
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append(String.format(Locale.ROOT, "{\"name\":\"%s\",\"wins\":%d,\"winRate\":%.2f,\"averageSpeed\":%.2f}",
+                    standing.name(), standing.wins(), standing.winRate(), standing.averageSpeed()));
+        }
+        return json.append("]}").toString();
+    }
+
+    private static String quoted(Instant instant) {
+        return instant != null ? "\"" + instant + "\"" : "null";
+    }
+
+    private static String errorJson(String message) {
+        return "{\"error\":\"" + escape(message) + "\"}";
+    }
+
+    private static String escape(String text) {
+        return text == null ? "" : text.replace("\\", "\\\\").replace("\"", "\\\"");
+    }
+
+    private static void respond(HttpExchange exchange, int statusCode, String json) throws IOException {
+        byte[] body = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(statusCode, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+}
@@ -0,0 +1,249 @@
+package fr.digi.d202508.tp_final_java21.web;
+
+import com.sun.net.httpserver.HttpExchange;
+import fr.digi.d202508.tp_final_java21.config.WebProperties;
+import fr.digi.d202508.tp_final_java21.model.TickSnapshot;
+import fr.digi.d202508.tp_final_java21.service.LatestTickSubscriber;
+import fr.digi.d202508.tp_final_java21.service.OddsEngine;
+import fr.digi.d202508.tp_final_java21.service.RaceTrack;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Server-Sent Events feed of the race being broadcast: {@code GET /race/live}.
+ * <p>
+ * A single pump thread subscribes to the track's snapshots, computes the live win
+ * probabilities and encodes each snapshot once into an SSE frame; the same byte array
+ * is then handed to every connection.
+ * Each connection is written by its own exchange thread, a virtual thread, with a one-frame
+ * conflation slot: a client that reads slowly skips intermediate frames and always gets the
+ * latest one, so memory stays bounded whatever the number or the speed of the viewers.
+ * <p>
+ * A client that stops reading is dropped after {@code race.web.write-timeout-ms}. The JDK server
+ * writes a response while holding a monitor, so a virtual writer blocked on a full socket pins its
+ * carrier: a single platform watchdog thread interrupts the writes that last longer than the
+ * deadline, which closes the socket and frees the carrier for the pump and the other viewers.
+ */
+@Component
+@ConditionalOnProperty(prefix = "race.web", name = "enabled", havingValue = "true")
+public class LiveFeedEndpoint implements AutoCloseable {
+
+    private static final byte[] KEEP_ALIVE = ": keep-alive\n\n".getBytes(StandardCharsets.UTF_8);
+    private static final long IDLE = Long.MIN_VALUE;
+    private static final long DROPPED = Long.MAX_VALUE;
+
+    private final Set<Connection> connections = ConcurrentHashMap.newKeySet();
+    private final long keepAliveNanos;
+    private final long writeTimeoutNanos;
+    private final ScheduledExecutorService watchdog;
+    private final AtomicLong droppedViewers = new AtomicLong();
+    private volatile Thread pump;
+
+    public LiveFeedEndpoint(EmbeddedHttpServer server, WebProperties properties) {
+        this.keepAliveNanos = TimeUnit.MILLISECONDS.toNanos(properties.keepAliveMs());
+        this.writeTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(properties.writeTimeoutMs());
+        // A platform thread: it must run even while a blocked write pins every carrier
+        this.watchdog = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().daemon().name("Thread-Live-Watchdog").factory());
+        long period = Math.max(1, properties.writeTimeoutMs() / 4);
+        watchdog.scheduleWithFixedDelay(this::dropStalledViewers, period, period, TimeUnit.MILLISECONDS);
+        server.register("/race/live", this::stream);
+    }
+
+    /**
+     * Streams the given track to every connected viewer, replacing the previous one
+     * @param raceTrack track of the race to broadcast
+     */
+    public synchronized void broadcast(RaceTrack raceTrack) {
+        if (pump != null) {
+            pump.interrupt();
+        }
+        pump = Thread.ofVirtual().name("Thread-Live-Feed").start(() -> pumpSnapshots(raceTrack));
+    }
+
+    /**
+     * Encodes the latest snapshot once per tick and hands it to every connection.
+     * Runs until the track's feed is completed or another track is broadcast.
+     */
+    private void pumpSnapshots(RaceTrack raceTrack) {
+        LatestTickSubscriber ticks = new LatestTickSubscriber();
+        OddsEngine odds = new OddsEngine(raceTrack.getConfig());
+        raceTrack.snapshots().subscribe(ticks);
+        try {
+            while (!ticks.isCompleted()) {
+                TickSnapshot snapshot = ticks.take(Duration.ofSeconds(1));
+                if (snapshot != null) {
+                    byte[] frame = encode(snapshot, odds.winProbabilities(snapshot));
+                    for (Connection connection : connections) {
+                        connection.offer(frame);
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            ticks.cancel();
+        }
+    }
+
+    /**
+     * Builds the SSE frame of a snapshot
+     * @param snapshot state of the race
+     * @param winProbabilities live odds of the runners, in the same order
+     * @return UTF-8 frame shared by every connection
+     */
+    static byte[] encode(TickSnapshot snapshot, double[] winProbabilities) {
+        StringBuilder json = new StringBuilder(96 + 112 * snapshot.runners().size());
+        json.append("event: ").append(snapshot.raceFinished() ? "finish" : "tick").append('\n')
+                .append("id: ").append(snapshot.sequence()).append('\n')
+                .append("data: {\"sequence\":").append(snapshot.sequence())
+                .append(",\"finishLine\":").append(snapshot.finishLine())
+                .append(",\"winner\":");
+        if (snapshot.winner() != null) {
+            json.append('"').append(snapshot.winner().getDisplayName()).append('"');
+        } else {
+            json.append("null");
+        }
+        json.append(",\"runners\":[");
+        for (int i = 0; i < snapshot.runners().size(); i++) {
+            TickSnapshot.Runner runner = snapshot.runners().get(i);
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append(String.format(Locale.ROOT,
+                    "{\"name\":\"%s\",\"position\":%.2f,\"speed\":%.2f,\"state\":\"%s\",\"finished\":%b,\"winProbability\":%.4f}",
+                    runner.name(), runner.position(), runner.currentSpeed(), runner.speedState(), runner.finished(),
+                    winProbabilities[i]));
+        }
+        json.append("]}\n\n");
+        return json.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Handles one viewer: sends frames until the client goes away
+     */
+    private void stream(HttpExchange exchange) throws IOException {
+        if (!"GET".equals(exchange.getRequestMethod())) {
+            exchange.sendResponseHeaders(405, -1);
+            exchange.close();
+            return;
+        }
+        exchange.getResponseHeaders().set("Content-Type", "text/event-stream; charset=utf-8");
+        exchange.getResponseHeaders().set("Cache-Control", "no-cache");
+        exchange.sendResponseHeaders(200, 0);
+
+        Connection connection = new Connection(Thread.currentThread());
+        connections.add(connection);
+        try (OutputStream body = exchange.getResponseBody()) {
+            connection.writeUntilClosed(body);
+        } catch (IOException e) {
+            // Client disconnected, or dropped by the watchdog
+        } finally {
+            connections.remove(connection);
+            exchange.close();
+        }
+    }
+
+    /**
+     * Interrupts the writes that have been blocked for longer than the deadline.
+     * Interrupting a thread blocked on a socket channel closes it, so the write fails at once.
+     */
+    private void dropStalledViewers() {
+        long now = System.nanoTime();
+        for (Connection connection : connections) {
+            long started = connection.writeStarted.get();
+            if (started != IDLE && started != DROPPED && now - started > writeTimeoutNanos
+                    && connection.writeStarted.compareAndSet(started, DROPPED)) {
+                droppedViewers.incrementAndGet();
+                connection.writer.interrupt();
+            }
+        }
+    }
+
+    /**
+     * Number of viewers currently connected
+     * @return open connections
+     */
+    public int getConnectionCount() {
+        return connections.size();
+    }
+
+    /**
+     * Number of viewers disconnected because they stopped reading
+     * @return viewers dropped since the endpoint was created
+     */
+    public long getDroppedViewerCount() {
+        return droppedViewers.get();
+    }
+
+    /**
+     * Stops the watchdog and the broadcast; the connections are closed with the server
+     */
+    @Override
+    public synchronized void close() {
+        watchdog.shutdownNow();
+        if (pump != null) {
+            pump.interrupt();
+        }
+    }
+
+    /**
+     * One viewer: a single pending frame, overwritten until the writer thread picks it up
+     */
+    private final class Connection {
+        private final Thread writer;
+        private final AtomicReference<byte[]> pending = new AtomicReference<>();
+        // Start of the write in progress, IDLE between writes, DROPPED once the watchdog gave up
+        private final AtomicLong writeStarted = new AtomicLong(IDLE);
+
+        private Connection(Thread writer) {
+            this.writer = writer;
+        }
+
+        private void offer(byte[] frame) {
+            pending.set(frame);
+            LockSupport.unpark(writer);
+        }
+
+        private void writeUntilClosed(OutputStream body) throws IOException {
+            while (!Thread.currentThread().isInterrupted()) {
+                byte[] frame = pending.getAndSet(null);
+                if (frame != null) {
+                    write(body, frame);
+                    continue;
+                }
+                long parkedAt = System.nanoTime();
+                LockSupport.parkNanos(this, keepAliveNanos);
+                // Nothing to send for a while: a comment line detects clients that went away
+                if (pending.get() == null && System.nanoTime() - parkedAt >= keepAliveNanos) {
+                    write(body, KEEP_ALIVE);
+                }
+            }
+        }
+
+        private void write(OutputStream body, byte[] bytes) throws IOException {
+            long started = System.nanoTime();
+            writeStarted.set(started);
+            body.write(bytes);
+            body.flush();
+            if (!writeStarted.compareAndSet(started, IDLE)) {
+                // The watchdog interrupted this write just as it completed
+                throw new IOException("Spectateur trop lent");
+            }
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package fr.digi.d202508.tp_final_java21.benchmark;
+
+import fr.digi.d202508.tp_final_java21.config.CacheProperties;
+import fr.digi.d202508.tp_final_java21.config.JobProperties;
+import fr.digi.d202508.tp_final_java21.config.RaceConfig;
+import fr.digi.d202508.tp_final_java21.simulation.HeatSimulator;
+import fr.digi.d202508.tp_final_java21.simulation.JobRequest;
+import fr.digi.d202508.tp_final_java21.simulation.JobStatus;
+import fr.digi.d202508.tp_final_java21.simulation.RaceJobService;
+import fr.digi.d202508.tp_final_java21.simulation.Sampling;
+
+import java.time.Duration;
+import java.util.stream.Collectors;
+
+/**
+ * Rounds played and time spent by tournaments with a fixed number of rounds and with adaptive
+ * stopping, over several track lengths: clear-cut fields stop early, close ones play longer.
+ * <p>
+ * Not a unit test: run it on demand, e.g.
+ * {@code java -cp target/classes:target/test-classes fr.digi.d202508.tp_final_java21.benchmark.EarlyStoppingBenchmark}
+ * (optional arguments: maximum number of rounds, target precision, then track lengths).
+ */
+public class EarlyStoppingBenchmark {
+
+    public static void main(String[] args) throws InterruptedException {
+        int rounds = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+        double precision = args.length > 1 ? Double.parseDouble(args[1]) : 0.01;
+        int[] finishLines = args.length > 2
+                ? java.util.Arrays.stream(args, 2, args.length).mapToInt(Integer::parseInt).toArray()
+                : new int[]{10, 50, 200, 1000};
+
+        JobProperties properties = new JobProperties(1, 16, rounds, 100, HeatSimulator.Engine.SKIP_AHEAD);
+        try (RaceJobService service = new RaceJobService(RaceConfig.defaults(), properties,
+                new CacheProperties(0, Duration.ofHours(1), ""))) {
+            System.out.printf("%-7s %-9s %9s %-11s %10s  %s%n", "Piste", "Arrêt", "Manches", "Raison", "Durée (ms)", "Classement");
+            for (int finishLine : finishLines) {
+                for (double target : new double[]{0, precision}) {
+                    JobRequest request = new JobRequest(JobRequest.Kind.TOURNAMENT, rounds, finishLine, 42L, Sampling.NAIVE, target);
+                    long start = System.nanoTime();
+                    JobStatus status = service.submit(request);
+                    while (!status.isFinished()) {
+                        Thread.sleep(1);
+                        status = service.find(status.id()).orElseThrow();
+                    }
+                    System.out.printf("%-7d %-9s %9d %-11s %10.0f  %s%n", finishLine,
+                            target > 0 ? "adaptatif" : "fixe", status.roundsPlayed(), status.stopReason(),
+                            (System.nanoTime() - start) / 1e6,
+                            status.standings().stream()
+                                    .map(standing -> String.format("%s %.2f%%", standing.name(), standing.winRate()))
+                                    .collect(Collectors.joining(", ")));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package fr.digi.d202508.tp_final_java21.benchmark;
+
+import fr.digi.d202508.tp_final_java21.model.HeadToHead;
+import fr.digi.d202508.tp_final_java21.model.RaceStatistics;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * Cost of the head-to-head counts: rounds of a few competitors drawn among the field are recorded
+ * with and without them, then pairs are queried and the counts exported as CSV. A small field stays
+ * in the dense matrix, a large one goes to the sparse table; both are compared with counts kept in
+ * a map of boxed pairs. Then whole fields race every round, up to thousands of competitors, to time
+ * one round and each of the k(k-1)/2 pairs it decides.
+ * <p>
+ * Not a unit test: run it on demand, e.g.
+ * {@code java -cp target/classes:target/test-classes fr.digi.d202508.tp_final_java21.benchmark.HeadToHeadBenchmark}
+ * (optional arguments: number of rounds, competitors per round).
+ */
+public class HeadToHeadBenchmark {
+
+    private static final int QUERIES = 1_000_000;
+    private static final int[] WHOLE_FIELDS = {100, 1_000, 2_048, 4_000};
+    // Pairs decided per field size: sets the number of rounds timed
+    private static final long WHOLE_FIELD_PAIRS = 200_000_000L;
+
+    // Keeps the timed work from being optimized away
+    private static volatile long sink;
+
+    public static void main(String[] args) throws IOException {
+        int rounds = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        int fieldSize = args.length > 1 ? Integer.parseInt(args[1]) : 8;
+
+        System.out.printf("%-10s %-8s %18s %18s %14s %12s %10s%n", "Concurrents", "Stockage", "Manches/s",
+                "Map<paire> (m/s)", "Requête (ns)", "CSV (ms)", "Paires");
+        for (int pass = 0; pass < 2; pass++) {
+            for (int competitors : new int[]{1_000, 100_000}) {
+                run(pass, competitors, rounds, fieldSize);
+            }
+        }
+
+        // A round decides k(k-1)/2 pairs: what one round costs when the whole field races
+        System.out.printf("%n%-12s %-8s %14s %16s%n", "Par manche", "Stockage", "Manche (ms)", "Par paire (ns)");
+        for (int pass = 0; pass < 2; pass++) {
+            for (int competitors : WHOLE_FIELDS) {
+                runWholeField(pass, competitors);
+            }
+        }
+    }
+
+    private static void runWholeField(int pass, int competitors) {
+        List<RaceStatistics.Placing> placings = new ArrayList<>(competitors);
+        for (int i = 0; i < competitors; i++) {
+            placings.add(new RaceStatistics.Placing("Concurrent #" + i, 50, 30, Double.NaN));
+        }
+        int rounds = (int) Math.max(3, WHOLE_FIELD_PAIRS / ((long) competitors * competitors));
+        SplittableRandom random = new SplittableRandom(competitors);
+        RaceStatistics statistics = new RaceStatistics();
+        // Untimed: the storage reaches its final size on the first round
+        statistics.recordPlacings(placings);
+        long nanos = 0;
+        for (int round = 0; round < rounds; round++) {
+            // A new finishing order every round
+            for (int i = competitors - 1; i > 0; i--) {
+                Collections.swap(placings, i, random.nextInt(i + 1));
+            }
+            long start = System.nanoTime();
+            statistics.recordPlacings(placings);
+            nanos += System.nanoTime() - start;
+        }
+        double pairs = (double) competitors * (competitors - 1) / 2;
+        if (pass > 0) {
+            System.out.printf("%-12d %-8s %14.2f %16.2f%n", competitors,
+                    statistics.getHeadToHead().isDense() ? "dense" : "creux", nanos / 1e6 / rounds, nanos / (pairs * rounds));
+        }
+    }
+
+    private static void run(int pass, int competitors, int rounds, int fieldSize) throws IOException {
+        String[] names = new String[competitors];
+        for (int i = 0; i < competitors; i++) {
+            names[i] = "Concurrent #" + i;
+        }
+        List<List<RaceStatistics.Placing>> schedule = new ArrayList<>(rounds);
+        SplittableRandom random = new SplittableRandom(competitors);
+        for (int round = 0; round < rounds; round++) {
+            List<RaceStatistics.Placing> ranking = new ArrayList<>(fieldSize);
+            for (int i = 0; i < fieldSize; i++) {
+                ranking.add(new RaceStatistics.Placing(names[random.nextInt(competitors)], 50 - i, 30, Double.NaN));
+            }
+            schedule.add(ranking);
+        }
+
+        RaceStatistics statistics = new RaceStatistics();
+        long start = System.nanoTime();
+        for (List<RaceStatistics.Placing> ranking : schedule) {
+            statistics.recordPlacings(ranking);
+        }
+        double roundsPerSecond = rounds / ((System.nanoTime() - start) / 1e9);
+
+        double boxedPerSecond = recordBoxed(schedule, fieldSize);
+
+        HeadToHead headToHead = statistics.getHeadToHead();
+        int known = statistics.getAllStatsSortedByWins().size();
+        start = System.nanoTime();
+        for (int i = 0; i < QUERIES; i++) {
+            sink += headToHead.ahead(random.nextInt(known), random.nextInt(known));
+        }
+        double queryNanos = (double) (System.nanoTime() - start) / QUERIES;
+
+        long[] pairs = new long[1];
+        headToHead.forEachMeeting((a, b, aAhead, bAhead) -> pairs[0]++);
+        start = System.nanoTime();
+        statistics.writeHeadToHeadCsv(Writer.nullWriter());
+        double csvMillis = (System.nanoTime() - start) / 1e6;
+
+        // The first pass only warms up
+        if (pass > 0) {
+            System.out.printf("%-10d %-8s %18.0f %18.0f %14.1f %12.1f %10d%n", competitors,
+                    headToHead.isDense() ? "dense" : "creux", roundsPerSecond, boxedPerSecond, queryNanos, csvMillis, pairs[0]);
+        }
+    }
+
+    /**
+     * Records the same rounds in a map of boxed pairs, dropped on return
+     * @return rounds per second
+     */
+    private static double recordBoxed(List<List<RaceStatistics.Placing>> schedule, int fieldSize) {
+        Map<String, Integer> ids = new HashMap<>();
+        Map<Long, Integer> boxed = new HashMap<>();
+        int[] roundIds = new int[fieldSize];
+        long start = System.nanoTime();
+        for (List<RaceStatistics.Placing> ranking : schedule) {
+            for (int i = 0; i < fieldSize; i++) {
+                roundIds[i] = ids.computeIfAbsent(ranking.get(i).name(), name -> ids.size());
+            }
+            for (int r = 0; r < fieldSize; r++) {
+                for (int s = r + 1; s < fieldSize; s++) {
+                    if (roundIds[r] != roundIds[s]) {
+                        boxed.merge(((long) roundIds[r] << 32) | roundIds[s], 1, Integer::sum);
+                    }
+                }
+            }
+        }
+        double perSecond = schedule.size() / ((System.nanoTime() - start) / 1e9);
+        sink += boxed.size();
+        return perSecond;
+    }
+}
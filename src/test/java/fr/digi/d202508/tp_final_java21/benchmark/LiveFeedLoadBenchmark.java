@@ -0,0 +1,271 @@
+package fr.digi.d202508.tp_final_java21.benchmark;
+
+import fr.digi.d202508.tp_final_java21.config.RaceConfig;
+import fr.digi.d202508.tp_final_java21.config.WebProperties;
+import fr.digi.d202508.tp_final_java21.model.Animal;
+import fr.digi.d202508.tp_final_java21.model.Species;
+import fr.digi.d202508.tp_final_java21.service.RaceTrack;
+import fr.digi.d202508.tp_final_java21.web.EmbeddedHttpServer;
+import fr.digi.d202508.tp_final_java21.web.LiveFeedEndpoint;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Load test of the live feed: thousands of SSE viewers on virtual threads, some of which never read,
+ * while a race is published at a fast tick.
+ * <p>
+ * The viewers run in a second JVM started by this one, so that each process stays under the open-file
+ * limit (one descriptor per connection on each side). Reports the heap used per connection on the server,
+ * the heap during the race, the time taken by a publish, the frames received by the viewers and the
+ * stalled viewers dropped by the write deadline.
+ * <p>
+ * Not a unit test: run it on demand, e.g.
+ * {@code java -cp target/classes:target/test-classes:<dependencies> fr.digi.d202508.tp_final_java21.benchmark.LiveFeedLoadBenchmark}
+ * (optional arguments: viewers, stalled viewers among them, race seconds, runners, write deadline in ms).
+ */
+public class LiveFeedLoadBenchmark {
+
+    private static final String CLIENTS = "--clients";
+
+    public static void main(String[] args) throws Exception {
+        if (args.length > 0 && CLIENTS.equals(args[0])) {
+            runClients(Integer.parseInt(args[1]), Integer.parseInt(args[2]), Integer.parseInt(args[3]));
+            return;
+        }
+        int viewers = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        int stalled = args.length > 1 ? Integer.parseInt(args[1]) : 500;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 20;
+        int runnerCount = args.length > 3 ? Integer.parseInt(args[3]) : 20;
+        long writeTimeoutMs = args.length > 4 ? Long.parseLong(args[4]) : 500;
+
+        WebProperties properties = new WebProperties(true, 0, 15_000, writeTimeoutMs);
+        EmbeddedHttpServer server = new EmbeddedHttpServer(properties);
+        LiveFeedEndpoint endpoint = new LiveFeedEndpoint(server, properties);
+        server.start();
+        long idleHeap = usedHeapAfterGc();
+
+        Process clients = new ProcessBuilder(Path.of(System.getProperty("java.home"), "bin", "java").toString(),
+                "-cp", System.getProperty("java.class.path"), LiveFeedLoadBenchmark.class.getName(),
+                CLIENTS, String.valueOf(server.getPort()), String.valueOf(viewers), String.valueOf(stalled))
+                .redirectError(ProcessBuilder.Redirect.INHERIT)
+                .start();
+        BufferedReader clientOutput = new BufferedReader(new InputStreamReader(clients.getInputStream(), StandardCharsets.UTF_8));
+        long connectStart = System.nanoTime();
+        while (endpoint.getConnectionCount() < viewers && System.nanoTime() - connectStart < Duration.ofMinutes(3).toNanos()) {
+            Thread.sleep(100);
+        }
+        long connectMillis = Duration.ofNanos(System.nanoTime() - connectStart).toMillis();
+        int connected = endpoint.getConnectionCount();
+        long connectedHeap = usedHeapAfterGc();
+        System.out.printf("Spectateurs connectés : %d / %d en %.1f s%n", connected, viewers, connectMillis / 1e3);
+        System.out.printf("Tas serveur : %.1f Mo au repos, %.1f Mo connectés, %.1f Ko par connexion%n",
+                idleHeap / 1e6, connectedHeap / 1e6, (connectedHeap - idleHeap) / 1e3 / Math.max(1, connected));
+
+        RaceTrack raceTrack = new RaceTrack(RaceConfig.defaults());
+        for (int i = 0; i < runnerCount; i++) {
+            raceTrack.addParticipant(Species.values()[i % Species.values().length].create(raceTrack));
+        }
+        List<Animal> runners = raceTrack.getParticipants();
+        endpoint.broadcast(raceTrack);
+        Thread.sleep(500);
+
+        // One move per millisecond, like a fast tick, while the heap is sampled every second
+        long moves = 0;
+        long publishingNanos = 0;
+        long slowestPublish = 0;
+        long maxHeap = 0;
+        long raceEnd = System.nanoTime() + Duration.ofSeconds(seconds).toNanos();
+        long nextSample = System.nanoTime();
+        while (System.nanoTime() < raceEnd) {
+            long start = System.nanoTime();
+            raceTrack.publishMove(runners.get((int) (moves % runnerCount)));
+            long publish = System.nanoTime() - start;
+            publishingNanos += publish;
+            slowestPublish = Math.max(slowestPublish, publish);
+            moves++;
+            if (start >= nextSample) {
+                maxHeap = Math.max(maxHeap, ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed());
+                nextSample = start + Duration.ofSeconds(1).toNanos();
+            }
+            Thread.sleep(1);
+        }
+        raceTrack.closeFeed();
+        Thread.sleep(3_000);
+        long raceHeap = usedHeapAfterGc();
+
+        System.out.printf("Course : %d mouvements, publication %.1f µs en moyenne, %.1f ms au pire%n",
+                moves, publishingNanos / 1e3 / moves, slowestPublish / 1e6);
+        System.out.printf("Tas serveur pendant la course : %.1f Mo au plus, %.1f Mo après la course%n",
+                maxHeap / 1e6, raceHeap / 1e6);
+        System.out.printf("Spectateurs déconnectés faute de lire : %d, encore connectés : %d%n",
+                endpoint.getDroppedViewerCount(), endpoint.getConnectionCount());
+
+        // The clients report once they have drained what the stalled sockets held
+        try (OutputStream stop = clients.getOutputStream()) {
+            stop.write('\n');
+        }
+        String line;
+        while ((line = clientOutput.readLine()) != null) {
+            System.out.println(line);
+        }
+        clients.waitFor();
+        endpoint.close();
+        server.stop();
+    }
+
+    /**
+     * Client side: opens the viewers, the stalled ones last, and reads until told to stop on stdin
+     */
+    private static void runClients(int port, int viewers, int stalled) throws Exception {
+        PrintStream out = new PrintStream(System.out, true, StandardCharsets.UTF_8);
+        List<Client> clients = new ArrayList<>();
+        Semaphore connecting = new Semaphore(16);
+        AtomicInteger failed = new AtomicInteger();
+        try (ExecutorService threads = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < viewers; i++) {
+                Client client = new Client(i >= viewers - stalled);
+                clients.add(client);
+                connecting.acquire();
+                threads.execute(() -> {
+                    try {
+                        client.connect(port);
+                    } catch (IOException e) {
+                        failed.incrementAndGet();
+                        return;
+                    } finally {
+                        connecting.release();
+                    }
+                    if (!client.stalled) {
+                        client.readUntilClosed();
+                    }
+                });
+            }
+            long heap = usedHeapAfterGc();
+
+            System.in.read();
+            for (Client client : clients) {
+                if (client.stalled && client.socket != null) {
+                    threads.execute(client::readUntilClosed);
+                }
+            }
+            Thread.sleep(5_000);
+            // Ends the reads with an end of stream rather than an exception, then waits for them
+            for (Client client : clients) {
+                client.stopping = true;
+                if (client.socket != null && !client.socket.isInputShutdown()) {
+                    client.socket.shutdownInput();
+                }
+            }
+            Thread.sleep(1_000);
+            for (Client client : clients) {
+                if (client.socket != null) {
+                    client.socket.close();
+                }
+            }
+
+            long readers = clients.stream().filter(client -> !client.stalled && client.socket != null).count();
+            AtomicLong readerFrames = new AtomicLong();
+            AtomicLong fewest = new AtomicLong(Long.MAX_VALUE);
+            long stalledFrames = 0;
+            long closedByServer = 0;
+            for (Client client : clients) {
+                if (!client.stalled) {
+                    readerFrames.addAndGet(client.frames);
+                    fewest.accumulateAndGet(client.frames, Math::min);
+                } else {
+                    stalledFrames += client.frames;
+                    closedByServer += client.closedByServer ? 1 : 0;
+                }
+            }
+            out.printf("Clients : %d connexions échouées, %.1f Ko de tas client par connexion%n",
+                    failed.get(), heap / 1e3 / Math.max(1, viewers));
+            out.printf("Spectateurs qui lisent : %.1f images en moyenne, %d au moins%n",
+                    (double) readerFrames.get() / Math.max(1, readers), fewest.get());
+            out.printf("Spectateurs bloqués : %.1f images en moyenne, %d / %d coupés par le serveur%n",
+                    (double) stalledFrames / Math.max(1, stalled), closedByServer, stalled);
+            threads.shutdownNow();
+        }
+    }
+
+    private static long usedHeapAfterGc() throws InterruptedException {
+        System.gc();
+        Thread.sleep(200);
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    /**
+     * One viewer: counts the events of the stream ("event: " lines), chunk headers included in the bytes read
+     */
+    private static final class Client {
+        private static final byte[] EVENT = "event: ".getBytes(StandardCharsets.US_ASCII);
+
+        private final boolean stalled;
+        private volatile Socket socket;
+        private volatile long frames;
+        private volatile boolean closedByServer;
+        private volatile boolean stopping;
+
+        private Client(boolean stalled) {
+            this.stalled = stalled;
+        }
+
+        private void connect(int port) throws IOException {
+            Socket connection = new Socket();
+            if (stalled) {
+                // Small window, so that the server's writes block soon
+                connection.setReceiveBufferSize(4096);
+            }
+            connection.connect(new InetSocketAddress("localhost", port), 30_000);
+            OutputStream request = connection.getOutputStream();
+            request.write("GET /race/live HTTP/1.1\r\nHost: localhost\r\n\r\n".getBytes(StandardCharsets.US_ASCII));
+            request.flush();
+            socket = connection;
+        }
+
+        private void readUntilClosed() {
+            try {
+                countEvents(socket.getInputStream());
+            } catch (IOException e) {
+                // Reset by the server when it gave up
+            }
+            closedByServer = !stopping;
+        }
+
+        /**
+         * Reads until the end of the stream, counting the events
+         */
+        private void countEvents(InputStream in) throws IOException {
+            byte[] buffer = new byte[8192];
+            int matched = 0;
+            long count = 0;
+            int read;
+            while ((read = in.read(buffer)) >= 0) {
+                for (int i = 0; i < read; i++) {
+                    matched = buffer[i] == EVENT[matched] ? matched + 1 : (buffer[i] == EVENT[0] ? 1 : 0);
+                    if (matched == EVENT.length) {
+                        frames = ++count;
+                        matched = 0;
+                    }
+                }
+            }
+        }
+    }
+}
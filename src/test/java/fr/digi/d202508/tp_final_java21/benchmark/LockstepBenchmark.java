@@ -0,0 +1,98 @@
+package fr.digi.d202508.tp_final_java21.benchmark;
+
+import fr.digi.d202508.tp_final_java21.config.RaceConfig;
+import fr.digi.d202508.tp_final_java21.service.SimulationClock;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Start skew, drift and barrier cost of the runner clocks, one virtual thread per runner:
+ * <ul>
+ *   <li>start skew: spread of the first moves, the threads being started one after the other;</li>
+ *   <li>drift: spread of the end of the last tick, after a fixed number of 1 ms ticks;</li>
+ *   <li>barrier cost: wall time of a tick in VIRTUAL mode, where nothing else waits
+ *       (first move of the first runner to last move of the last one, divided by the ticks).</li>
+ * </ul>
+ * THREADS sleeps on every runner (its VIRTUAL mode is the single flat Phaser of the Stepped clock),
+ * LOCKSTEP goes through the tiered Phasers.
+ * <p>
+ * Not a unit test: run it on demand, e.g.
+ * {@code java -cp target/classes:target/test-classes fr.digi.d202508.tp_final_java21.benchmark.LockstepBenchmark}
+ * (optional arguments: number of ticks, then field sizes).
+ */
+public class LockstepBenchmark {
+
+    public static void main(String[] args) throws InterruptedException {
+        int ticks = args.length > 0 ? Integer.parseInt(args[0]) : 50;
+        int[] fieldSizes = args.length > 1
+                ? Arrays.stream(args, 1, args.length).mapToInt(Integer::parseInt).toArray()
+                : new int[]{10, 1_000, 100_000};
+
+        // Warm-up
+        for (RaceConfig.RunnerMode mode : new RaceConfig.RunnerMode[]{RaceConfig.RunnerMode.THREADS, RaceConfig.RunnerMode.LOCKSTEP}) {
+            run(SimulationClock.create(RaceConfig.defaults().withRunnerMode(mode)
+                    .withClock(SimulationClock.Mode.VIRTUAL, 1)), 1_000, ticks);
+        }
+
+        System.out.printf("%-8s %-9s %16s %14s %18s%n", "Coureurs", "Mode", "Écart départ (ms)", "Dérive (ms)", "Coût barrière (µs)");
+        for (int runners : fieldSizes) {
+            for (RaceConfig.RunnerMode mode : new RaceConfig.RunnerMode[]{RaceConfig.RunnerMode.THREADS, RaceConfig.RunnerMode.LOCKSTEP}) {
+                RaceConfig config = RaceConfig.defaults().withRunnerMode(mode);
+                Run paced = run(SimulationClock.create(config.withClock(SimulationClock.Mode.SCALED, 50)), runners, ticks);
+                String barrierCost;
+                try {
+                    Run virtual = run(SimulationClock.create(config.withClock(SimulationClock.Mode.VIRTUAL, 1)), runners, ticks);
+                    barrierCost = String.format("%.2f", virtual.runningNanos() / 1e3 / ticks);
+                } catch (IllegalStateException e) {
+                    // A single Phaser holds at most 65535 parties
+                    barrierCost = "impossible";
+                }
+                System.out.printf("%-8d %-9s %16.2f %14.2f %18s%n", runners, mode,
+                        paced.startSkewNanos() / 1e6, paced.driftNanos() / 1e6, barrierCost);
+            }
+        }
+    }
+
+    private record Run(long startSkewNanos, long driftNanos, long runningNanos) {
+    }
+
+    /**
+     * Starts one virtual thread per runner, each waiting for the start then for the given number of ticks
+     */
+    private static Run run(SimulationClock clock, int runners, int ticks) throws InterruptedException {
+        long[] firstMoves = new long[runners];
+        long[] lastMoves = new long[runners];
+        for (int i = 0; i < runners; i++) {
+            clock.register();
+        }
+        List<Thread> threads = new ArrayList<>(runners);
+        for (int i = 0; i < runners; i++) {
+            int runner = i;
+            threads.add(Thread.ofVirtual().start(() -> {
+                try {
+                    clock.awaitStart();
+                    firstMoves[runner] = System.nanoTime();
+                    for (int tick = 0; tick < ticks; tick++) {
+                        clock.awaitNextTick();
+                    }
+                    lastMoves[runner] = System.nanoTime();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    clock.deregister();
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        return new Run(spread(firstMoves), spread(lastMoves),
+                Arrays.stream(lastMoves).max().orElse(0) - Arrays.stream(firstMoves).min().orElse(0));
+    }
+
+    private static long spread(long[] times) {
+        return Arrays.stream(times).max().orElse(0) - Arrays.stream(times).min().orElse(0);
+    }
+}
@@ -0,0 +1,78 @@
+package fr.digi.d202508.tp_final_java21.benchmark;
+
+import fr.digi.d202508.tp_final_java21.config.RaceConfig;
+import fr.digi.d202508.tp_final_java21.service.OddsEngine;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Cost of the live odds per tick on large fields: every runner moves by a random distance
+ * around its mean, then the win probabilities of the whole field are recomputed, until someone
+ * crosses the line (then a new race starts). The budget is 1 ms per tick for 1,000 runners.
+ * <p>
+ * Not a unit test: run it on demand, e.g.
+ * {@code java -cp target/classes:target/test-classes fr.digi.d202508.tp_final_java21.benchmark.OddsBenchmark}
+ * (optional arguments: number of ticks, then field sizes).
+ */
+public class OddsBenchmark {
+
+    private static final double BUDGET_NANOS = 1e6;
+
+    // Keeps the timed computations from being optimized away
+    private static volatile double sink;
+
+    public static void main(String[] args) {
+        int ticks = args.length > 0 ? Integer.parseInt(args[0]) : 5_000;
+        int[] fieldSizes = args.length > 1
+                ? Arrays.stream(args, 1, args.length).mapToInt(Integer::parseInt).toArray()
+                : new int[]{10, 1_000, 10_000};
+        OddsEngine engine = new OddsEngine(RaceConfig.defaults());
+
+        // Warm-up
+        run(engine, 1_000, ticks);
+
+        System.out.printf("%-8s %12s %12s %12s %16s%n", "Coureurs", "Moyenne (µs)", "p50 (µs)", "p99 (µs)", "Ticks > 1 ms");
+        for (int runners : fieldSizes) {
+            long[] nanos = run(engine, runners, ticks);
+            Arrays.sort(nanos);
+            long over = Arrays.stream(nanos).filter(time -> time > BUDGET_NANOS).count();
+            System.out.printf("%-8d %12.1f %12.1f %12.1f %16s%n", runners,
+                    Arrays.stream(nanos).average().orElse(0) / 1e3, nanos[nanos.length / 2] / 1e3,
+                    nanos[(int) (nanos.length * 0.99)] / 1e3, over + " / " + nanos.length);
+        }
+    }
+
+    /**
+     * Times the odds of every tick of back-to-back races of the given field size
+     */
+    private static long[] run(OddsEngine engine, int runners, int ticks) {
+        SplittableRandom random = new SplittableRandom(17);
+        double finishLine = 50;
+        double[] remaining = new double[runners];
+        double[] meanPerTick = new double[runners];
+        double[] variancePerTick = new double[runners];
+        double[] probabilities = new double[runners];
+        long[] nanos = new long[ticks];
+        boolean finished = true;
+        for (int tick = 0; tick < ticks; tick++) {
+            if (finished) {
+                for (int i = 0; i < runners; i++) {
+                    remaining[i] = finishLine;
+                    meanPerTick[i] = random.nextDouble(1.5, 3);
+                    variancePerTick[i] = meanPerTick[i] * meanPerTick[i] * 0.1;
+                }
+                finished = false;
+            }
+            for (int i = 0; i < runners; i++) {
+                remaining[i] -= meanPerTick[i] + Math.sqrt(variancePerTick[i]) * random.nextDouble(-1.7, 1.7);
+                finished |= remaining[i] <= 0;
+            }
+            long start = System.nanoTime();
+            engine.winProbabilities(remaining, meanPerTick, variancePerTick, probabilities);
+            nanos[tick] = System.nanoTime() - start;
+            sink = probabilities[0];
+        }
+        return nanos;
+    }
+}
@@ -0,0 +1,86 @@
+package fr.digi.d202508.tp_final_java21.benchmark;
+
+import fr.digi.d202508.tp_final_java21.config.RaceConfig;
+import fr.digi.d202508.tp_final_java21.model.Animal;
+import fr.digi.d202508.tp_final_java21.model.QuantileSketch;
+import fr.digi.d202508.tp_final_java21.model.Species;
+import fr.digi.d202508.tp_final_java21.simulation.HeatSimulator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Accuracy of the quantile sketches against a full sort, on the finish ticks of the winners
+ * of simulated heats, filled by several "workers" and merged; then the cost of adding a value.
+ * <p>
+ * Not a unit test: run it on demand, e.g.
+ * {@code java -cp target/classes:target/test-classes fr.digi.d202508.tp_final_java21.benchmark.QuantileSketchBenchmark}
+ * (optional arguments: number of heats, number of workers).
+ */
+public class QuantileSketchBenchmark {
+
+    private static final double[] QUANTILES = {0.01, 0.5, 0.95, 0.99, 0.999};
+
+    // Keeps the timed quantile queries from being optimized away
+    private static volatile double sink;
+
+    public static void main(String[] args) {
+        int heats = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int workers = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+
+        HeatSimulator simulator = new HeatSimulator(RaceConfig.defaults(), HeatSimulator.Engine.SKIP_AHEAD);
+        List<Animal> field = new ArrayList<>();
+        for (Species species : Species.values()) {
+            field.add(simulator.newAnimal(species));
+        }
+        SplittableRandom random = new SplittableRandom(3);
+        double[] finishTicks = new double[heats];
+        QuantileSketch[] sketches = new QuantileSketch[workers];
+        for (int w = 0; w < workers; w++) {
+            sketches[w] = new QuantileSketch();
+        }
+        for (int heat = 0; heat < heats; heat++) {
+            for (Animal animal : field) {
+                animal.reset(random);
+            }
+            finishTicks[heat] = simulator.run(field, random).get(0).getFinishTick();
+            sketches[heat % workers].add(finishTicks[heat]);
+        }
+        QuantileSketch merged = new QuantileSketch();
+        for (QuantileSketch sketch : sketches) {
+            merged.merge(sketch);
+        }
+
+        Arrays.sort(finishTicks);
+        System.out.printf("Tick d'arrivée du gagnant, %d manches réparties sur %d esquisses%n", heats, workers);
+        System.out.printf("%-8s %12s %12s %10s%n", "Quantile", "Exact", "Esquisse", "Écart");
+        for (double quantile : QUANTILES) {
+            double exact = finishTicks[(int) (quantile * (heats - 1))];
+            double estimate = merged.quantile(quantile);
+            System.out.printf("p%-7s %12.3f %12.3f %9.3f%%%n", format(quantile), exact, estimate,
+                    100 * Math.abs(estimate - exact) / exact);
+        }
+
+        QuantileSketch timed = new QuantileSketch();
+        for (int round = 0; round < 3; round++) {
+            long start = System.nanoTime();
+            for (double value : finishTicks) {
+                timed.add(value);
+            }
+            long nanos = System.nanoTime() - start;
+            start = System.nanoTime();
+            for (double quantile : QUANTILES) {
+                sink += timed.quantile(quantile);
+            }
+            System.out.printf("ajout: %.1f ns/valeur, %d quantiles: %.1f µs%n", (double) nanos / heats,
+                    QUANTILES.length, (System.nanoTime() - start) / 1e3);
+        }
+    }
+
+    private static String format(double quantile) {
+        String digits = String.valueOf(quantile * 100);
+        return digits.endsWith(".0") ? digits.substring(0, digits.length() - 2) : digits;
+    }
+}
@@ -0,0 +1,104 @@
+package fr.digi.d202508.tp_final_java21.benchmark;
+
+import fr.digi.d202508.tp_final_java21.config.RaceConfig;
+import fr.digi.d202508.tp_final_java21.service.PacingPolicy;
+import fr.digi.d202508.tp_final_java21.service.Race;
+import fr.digi.d202508.tp_final_java21.service.SimulationClock;
+
+import java.lang.management.ManagementFactory;
+import java.util.SplittableRandom;
+
+/**
+ * Per-round cost of back-to-back rounds, one race reused for every round (what the tournaments do)
+ * against a new race per round (new track, animals and runner pool, what they used to do):
+ * <ul>
+ *   <li>setup: wall time and bytes allocated by the calling thread to put a field on the
+ *       starting line, up to the runners being handed to the pool;</li>
+ *   <li>round: wall time of the whole round, setup and teardown included.</li>
+ * </ul>
+ * Rounds are unpaced in VIRTUAL time, so what is left is the overhead around the ticks.
+ * <p>
+ * Not a unit test: run it on demand, e.g.
+ * {@code java -cp target/classes:target/test-classes fr.digi.d202508.tp_final_java21.benchmark.RaceRoundBenchmark}
+ * (optional argument: number of rounds).
+ */
+public class RaceRoundBenchmark {
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    public static void main(String[] args) {
+        int rounds = args.length > 0 ? Integer.parseInt(args[0]) : 2_000;
+
+        // Warm-up
+        for (RaceConfig.RunnerMode mode : RaceConfig.RunnerMode.values()) {
+            RaceConfig config = config(mode);
+            reused(config, rounds / 4);
+            fresh(config, rounds / 4);
+        }
+
+        System.out.printf("%-9s %-10s %16s %18s %16s%n",
+                "Mode", "Course", "Préparation (µs)", "Préparation (Ko)", "Manche (µs)");
+        for (RaceConfig.RunnerMode mode : RaceConfig.RunnerMode.values()) {
+            RaceConfig config = config(mode);
+            print(mode, "réutilisée", reused(config, rounds));
+            print(mode, "neuve", fresh(config, rounds));
+        }
+    }
+
+    private record Cost(long setupNanos, long setupBytes, long roundNanos) {
+    }
+
+    private static RaceConfig config(RaceConfig.RunnerMode mode) {
+        return RaceConfig.defaults().withRunnerMode(mode).withClock(SimulationClock.Mode.VIRTUAL, 1);
+    }
+
+    /**
+     * Every round on the same race, the animals put back on the starting line
+     */
+    private static Cost reused(RaceConfig config, int rounds) {
+        SplittableRandom random = new SplittableRandom(7);
+        long setupNanos = 0;
+        long setupBytes = 0;
+        long start = System.nanoTime();
+        try (Race race = new Race(config, PacingPolicy.unpaced())) {
+            for (int round = 0; round < rounds; round++) {
+                long bytes = THREADS.getCurrentThreadAllocatedBytes();
+                long setup = System.nanoTime();
+                race.initializeRace(random.split());
+                race.launchRunners();
+                setupNanos += System.nanoTime() - setup;
+                setupBytes += THREADS.getCurrentThreadAllocatedBytes() - bytes;
+                race.monitorRace();
+            }
+        }
+        return new Cost(setupNanos / rounds, setupBytes / rounds, (System.nanoTime() - start) / rounds);
+    }
+
+    /**
+     * A new race per round, closed at the end of the round
+     */
+    private static Cost fresh(RaceConfig config, int rounds) {
+        SplittableRandom random = new SplittableRandom(7);
+        long setupNanos = 0;
+        long setupBytes = 0;
+        long start = System.nanoTime();
+        for (int round = 0; round < rounds; round++) {
+            long bytes = THREADS.getCurrentThreadAllocatedBytes();
+            long setup = System.nanoTime();
+            Race race = new Race(config, PacingPolicy.unpaced());
+            race.initializeRace(random.split());
+            race.launchRunners();
+            setupNanos += System.nanoTime() - setup;
+            setupBytes += THREADS.getCurrentThreadAllocatedBytes() - bytes;
+            race.monitorRace();
+            race.close();
+        }
+        return new Cost(setupNanos / rounds, setupBytes / rounds, (System.nanoTime() - start) / rounds);
+    }
+
+    private static void print(RaceConfig.RunnerMode mode, String race, Cost cost) {
+        System.out.printf("%-9s %-10s %16.1f %18.1f %16.1f%n", mode, race,
+                cost.setupNanos() / 1e3, cost.setupBytes() / 1024.0, cost.roundNanos() / 1e3);
+    }
+}
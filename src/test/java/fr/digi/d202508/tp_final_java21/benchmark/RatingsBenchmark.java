@@ -0,0 +1,123 @@
+package fr.digi.d202508.tp_final_java21.benchmark;
+
+import fr.digi.d202508.tp_final_java21.model.RaceStatistics;
+import fr.digi.d202508.tp_final_java21.model.Ratings;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Cost of the skill ratings: rounds of a few competitors drawn among the field are rated on their
+ * own (ids already known) and compared with a multiplayer Elo that plays every pair of the round;
+ * then the leaderboard is queried and parallel heats are merged into one tracker.
+ * <p>
+ * Not a unit test: run it on demand, e.g.
+ * {@code java -cp target/classes:target/test-classes fr.digi.d202508.tp_final_java21.benchmark.RatingsBenchmark}
+ * (optional arguments: number of rounds, competitors per round).
+ */
+public class RatingsBenchmark {
+
+    private static final int HEATS = 4;
+    private static final int QUERIES = 10_000;
+
+    // Keeps the timed work from being optimized away
+    private static volatile double sink;
+
+    public static void main(String[] args) {
+        int rounds = args.length > 0 ? Integer.parseInt(args[0]) : 2_000_000;
+        int fieldSize = args.length > 1 ? Integer.parseInt(args[1]) : 8;
+
+        System.out.printf("%-12s %16s %18s %16s %18s%n", "Concurrents", "Cotes (m/s)", "Elo par paires (m/s)",
+                "Top 10 (µs)", "Fusion 4 séries (ms)");
+        for (int pass = 0; pass < 2; pass++) {
+            for (int competitors : new int[]{1_000, 100_000}) {
+                run(pass, competitors, rounds, fieldSize);
+            }
+        }
+    }
+
+    private static void run(int pass, int competitors, int rounds, int fieldSize) {
+        SplittableRandom random = new SplittableRandom(competitors);
+        int[] schedule = new int[rounds * fieldSize];
+        for (int i = 0; i < schedule.length; i++) {
+            schedule[i] = random.nextInt(competitors);
+        }
+
+        Ratings ratings = new Ratings();
+        int[] round = new int[fieldSize];
+        long start = System.nanoTime();
+        for (int r = 0; r < rounds; r++) {
+            System.arraycopy(schedule, r * fieldSize, round, 0, fieldSize);
+            ratings.rate(round, fieldSize);
+        }
+        double ratedPerSecond = rounds / ((System.nanoTime() - start) / 1e9);
+
+        double[] elo = new double[competitors];
+        start = System.nanoTime();
+        for (int r = 0; r < rounds; r++) {
+            pairwiseElo(elo, schedule, r * fieldSize, fieldSize);
+        }
+        double eloPerSecond = rounds / ((System.nanoTime() - start) / 1e9);
+
+        start = System.nanoTime();
+        for (int i = 0; i < QUERIES; i++) {
+            sink += ratings.top(10)[0];
+        }
+        double topMicros = (System.nanoTime() - start) / 1e3 / QUERIES;
+
+        double mergeMillis = mergeHeats(competitors, fieldSize, random);
+
+        // The first pass only warms up
+        if (pass > 0) {
+            System.out.printf("%-12d %16.0f %18.0f %16.2f %18.1f%n", competitors, ratedPerSecond, eloPerSecond,
+                    topMicros, mergeMillis);
+        }
+    }
+
+    /**
+     * Multiplayer Elo: every pair of the round is a game, updates applied after the round
+     */
+    private static void pairwiseElo(double[] elo, int[] schedule, int from, int fieldSize) {
+        double[] delta = new double[fieldSize];
+        for (int i = 0; i < fieldSize; i++) {
+            for (int j = i + 1; j < fieldSize; j++) {
+                double expected = 1 / (1 + Math.pow(10, (elo[schedule[from + j]] - elo[schedule[from + i]]) / 400));
+                double change = 32.0 / (fieldSize - 1) * (1 - expected);
+                delta[i] += change;
+                delta[j] -= change;
+            }
+        }
+        for (int i = 0; i < fieldSize; i++) {
+            elo[schedule[from + i]] += delta[i];
+        }
+    }
+
+    /**
+     * Merges the statistics of parallel heats into one tracker, in heat order
+     * @return time of the merges in ms
+     */
+    private static double mergeHeats(int competitors, int fieldSize, SplittableRandom random) {
+        List<RaceStatistics> heats = new ArrayList<>(HEATS);
+        for (int heat = 0; heat < HEATS; heat++) {
+            RaceStatistics statistics = new RaceStatistics();
+            for (int r = 0; r < 20_000; r++) {
+                List<RaceStatistics.Placing> ranking = new ArrayList<>(fieldSize);
+                for (int i = 0; i < fieldSize; i++) {
+                    ranking.add(new RaceStatistics.Placing("Concurrent #" + random.nextInt(competitors), 50 - i, 30,
+                            Double.NaN));
+                }
+                statistics.recordPlacings(ranking);
+            }
+            heats.add(statistics);
+        }
+        RaceStatistics merged = new RaceStatistics();
+        long start = System.nanoTime();
+        for (RaceStatistics heat : heats) {
+            merged.merge(heat);
+        }
+        double millis = (System.nanoTime() - start) / 1e6;
+        sink += merged.getRatings().size();
+        return millis;
+    }
+}
@@ -0,0 +1,84 @@
+package fr.digi.d202508.tp_final_java21.benchmark;
+
+import fr.digi.d202508.tp_final_java21.config.RaceConfig;
+import fr.digi.d202508.tp_final_java21.model.Animal;
+import fr.digi.d202508.tp_final_java21.model.Species;
+import fr.digi.d202508.tp_final_java21.simulation.HeatSimulator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Compares the tick-by-tick and skip-ahead heat engines: heats per second, and the
+ * distribution of the outcomes (win rate of each species, mean winning tick), which must match.
+ * <p>
+ * Not a unit test: run it on demand, e.g.
+ * {@code java -cp target/classes:target/test-classes fr.digi.d202508.tp_final_java21.benchmark.SkipAheadBenchmark}
+ * (optional arguments: number of heats, then track lengths).
+ */
+public class SkipAheadBenchmark {
+
+    private static final int WARMUP_ROUNDS = 2;
+
+    public static void main(String[] args) {
+        int heats = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        int[] finishLines = args.length > 1
+                ? java.util.Arrays.stream(args, 1, args.length).mapToInt(Integer::parseInt).toArray()
+                : new int[]{50, 500, 5000};
+
+        System.out.printf("%-7s %-11s %12s %9s %9s %9s %12s%n",
+                "Piste", "Moteur", "Manches/s", "Tortue", "Lapin", "Cheval", "Tick gagnant");
+        for (int finishLine : finishLines) {
+            RaceConfig config = RaceConfig.defaults().withFinishLine(finishLine);
+            int heatsForTrack = Math.max(1_000, heats * 50 / finishLine);
+            Result step = null;
+            Result skip = null;
+            for (int round = 0; round <= WARMUP_ROUNDS; round++) {
+                step = run(config, HeatSimulator.Engine.STEP, heatsForTrack, 1 + round);
+                skip = run(config, HeatSimulator.Engine.SKIP_AHEAD, heatsForTrack, 101 + round);
+            }
+            step.print(finishLine);
+            skip.print(finishLine);
+            System.out.printf("%-7s speedup x%.1f%n%n", "", skip.heatsPerSecond() / step.heatsPerSecond());
+        }
+    }
+
+    private record Result(HeatSimulator.Engine engine, int heats, long nanos, long[] wins, double winningTicks) {
+
+        double heatsPerSecond() {
+            return heats / (nanos / 1e9);
+        }
+
+        void print(int finishLine) {
+            System.out.printf("%-7d %-11s %12.0f %8.2f%% %8.2f%% %8.2f%% %12.2f%n",
+                    finishLine, engine, heatsPerSecond(),
+                    100.0 * wins[Species.TORTUE.ordinal()] / heats,
+                    100.0 * wins[Species.LAPIN.ordinal()] / heats,
+                    100.0 * wins[Species.CHEVAL.ordinal()] / heats,
+                    winningTicks / heats);
+        }
+    }
+
+    private static Result run(RaceConfig config, HeatSimulator.Engine engine, int heats, long seed) {
+        HeatSimulator simulator = new HeatSimulator(config, engine);
+        List<Animal> field = new ArrayList<>();
+        for (Species species : Species.values()) {
+            field.add(simulator.newAnimal(species));
+        }
+        SplittableRandom random = new SplittableRandom(seed);
+        long[] wins = new long[Species.values().length];
+        double winningTicks = 0;
+
+        long start = System.nanoTime();
+        for (int heat = 0; heat < heats; heat++) {
+            for (Animal animal : field) {
+                animal.reset(random);
+            }
+            Animal winner = simulator.run(field, random).get(0);
+            wins[winner.getSpecies().ordinal()]++;
+            winningTicks += winner.getFinishTick();
+        }
+        return new Result(engine, heats, System.nanoTime() - start, wins, winningTicks);
+    }
+}
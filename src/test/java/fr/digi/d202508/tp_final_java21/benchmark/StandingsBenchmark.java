@@ -0,0 +1,125 @@
+package fr.digi.d202508.tp_final_java21.benchmark;
+
+import fr.digi.d202508.tp_final_java21.model.RaceStatistics;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * Cost of the standings queries with many distinct competitors: rounds of a few competitors drawn
+ * among the field are recorded, then the incrementally maintained rankings are queried and compared
+ * with what the queries used to do (sort every animal by wins, scan every animal for the fastest
+ * average and for the lowest variance recomputed from the list of its races, kept here on the side
+ * as the statistics used to keep it).
+ * <p>
+ * Not a unit test: run it on demand, e.g.
+ * {@code java -cp target/classes:target/test-classes fr.digi.d202508.tp_final_java21.benchmark.StandingsBenchmark}
+ * (optional arguments: number of competitors, number of rounds, competitors per round).
+ */
+public class StandingsBenchmark {
+
+    private static final int QUERIES = 1_000;
+
+    // Keeps the timed queries from being optimized away
+    private static volatile long sink;
+
+    public static void main(String[] args) {
+        int competitors = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 500_000;
+        int fieldSize = args.length > 2 ? Integer.parseInt(args[2]) : 8;
+
+        String[] names = new String[competitors];
+        for (int i = 0; i < competitors; i++) {
+            names[i] = "Concurrent #" + i;
+        }
+        SplittableRandom random = new SplittableRandom(11);
+        RaceStatistics statistics = new RaceStatistics();
+        Map<String, List<Double>> speeds = new HashMap<>();
+        long recordNanos = 0;
+        for (int round = 0; round < rounds; round++) {
+            List<RaceStatistics.Placing> ranking = new ArrayList<>(fieldSize);
+            double distance = 50;
+            for (int i = 0; i < fieldSize; i++) {
+                distance -= random.nextDouble();
+                ranking.add(new RaceStatistics.Placing(names[random.nextInt(competitors)], distance,
+                        10 + random.nextDouble() * 50, Double.NaN));
+            }
+            long start = System.nanoTime();
+            statistics.recordPlacings(ranking);
+            recordNanos += System.nanoTime() - start;
+            for (RaceStatistics.Placing placing : ranking) {
+                speeds.computeIfAbsent(placing.name(), name -> new ArrayList<>()).add(placing.speed());
+            }
+        }
+        System.out.printf("%d manches de %d parmi %d concurrents: %.0f manches/s (%.2f µs/manche)%n", rounds, fieldSize,
+                statistics.getAllStatsSortedByWins().size(), rounds / (recordNanos / 1e9), recordNanos / 1e3 / rounds);
+
+        System.out.printf("%-28s %16s %16s%n", "Requête", "Incrémental (µs)", "Tri/parcours (µs)");
+        List<RaceStatistics.AnimalStats> all = statistics.getAllStatsSortedByWins();
+        for (int pass = 0; pass < 2; pass++) {
+            print(pass, "Podium (3 premiers)",
+                    time(() -> sink += statistics.getTopStandings(3).size()),
+                    time(() -> sink += all.stream()
+                            .sorted(Comparator.comparingInt(RaceStatistics.AnimalStats::getWins).reversed())
+                            .limit(3).toList().size()));
+            print(pass, "Rang d'un concurrent",
+                    time(() -> sink += statistics.getRank(names[random.nextInt(competitors)]).orElse(0)),
+                    time(() -> {
+                        String name = names[random.nextInt(competitors)];
+                        List<RaceStatistics.AnimalStats> sorted = all.stream()
+                                .sorted(Comparator.comparingInt(RaceStatistics.AnimalStats::getWins).reversed())
+                                .toList();
+                        for (int i = 0; i < sorted.size(); i++) {
+                            if (sorted.get(i).getName().equals(name)) {
+                                sink += i;
+                                break;
+                            }
+                        }
+                    }));
+            print(pass, "Plus rapide (moyenne)",
+                    time(() -> sink += statistics.getFastestAnimalAverage().map(RaceStatistics.AnimalStats::getRaces).orElse(0)),
+                    time(() -> sink += all.stream()
+                            .max(Comparator.comparingDouble(s -> speeds.get(s.getName()).stream()
+                                    .mapToDouble(Double::doubleValue).average().orElse(0.0)))
+                            .map(RaceStatistics.AnimalStats::getRaces).orElse(0)));
+            print(pass, "Plus régulier (variance)",
+                    time(() -> sink += statistics.getMostConsistentAnimal().map(RaceStatistics.AnimalStats::getRaces).orElse(0)),
+                    time(() -> sink += all.stream()
+                            .min(Comparator.comparingDouble(s -> recomputedVariance(speeds.get(s.getName()))))
+                            .map(RaceStatistics.AnimalStats::getRaces).orElse(0)));
+        }
+    }
+
+    private static void print(int pass, String query, double incrementalMicros, double scanMicros) {
+        // The first pass only warms up
+        if (pass > 0) {
+            System.out.printf("%-28s %16.2f %16.1f%n", query, incrementalMicros, scanMicros);
+        }
+    }
+
+    /**
+     * Mean time of a query in µs; the slow ones are run fewer times
+     */
+    private static double time(Runnable query) {
+        long start = System.nanoTime();
+        int runs = 0;
+        while (runs < QUERIES && (runs < 3 || System.nanoTime() - start < 500_000_000L)) {
+            query.run();
+            runs++;
+        }
+        return (System.nanoTime() - start) / 1e3 / runs;
+    }
+
+    /**
+     * Variance recomputed from the list of races, as the statistics used to compute it
+     */
+    private static double recomputedVariance(List<Double> values) {
+        // The variance of the speeds costs the same pass over the races as the one of the positions
+        double mean = values.stream().mapToDouble(Double::doubleValue).average().orElse(0.0);
+        return values.stream().mapToDouble(v -> Math.pow(v - mean, 2)).average().orElse(0.0);
+    }
+}
@@ -0,0 +1,93 @@
+package fr.digi.d202508.tp_final_java21.benchmark;
+
+import fr.digi.d202508.tp_final_java21.model.SpeedState;
+import fr.digi.d202508.tp_final_java21.service.TickRing;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Publish throughput of the move ring, for several numbers of writers and of readers draining
+ * it continuously, with the records each reader read and lost.
+ * <p>
+ * Not a unit test: run it on demand, e.g.
+ * {@code java -cp target/classes:target/test-classes fr.digi.d202508.tp_final_java21.benchmark.TickRingBenchmark}
+ * (optional arguments: records per writer, ring capacity).
+ */
+public class TickRingBenchmark {
+
+    private static final int BATCH = 256;
+
+    public static void main(String[] args) throws InterruptedException {
+        int records = args.length > 0 ? Integer.parseInt(args[0]) : 20_000_000;
+        int capacity = args.length > 1 ? Integer.parseInt(args[1]) : 1 << 12;
+
+        // Warm-up
+        run(1, 1, records / 10, capacity);
+
+        System.out.printf("%-10s %-8s %16s %14s %14s%n", "Écrivains", "Lecteurs", "Publication (M/s)", "Lus (%)", "Perdus (%)");
+        for (int writers : new int[]{1, 3}) {
+            for (int readers : new int[]{0, 1, 4}) {
+                Result result = run(writers, readers, records, capacity);
+                System.out.printf("%-10d %-8d %16.1f %14.1f %14.1f%n", writers, readers,
+                        result.published() / (result.nanos() / 1e3),
+                        readers > 0 ? 100.0 * result.read() / readers / result.published() : 0.0,
+                        readers > 0 ? 100.0 * result.lost() / readers / result.published() : 0.0);
+            }
+        }
+    }
+
+    private record Result(long published, long nanos, long read, long lost) {
+    }
+
+    private static Result run(int writers, int readers, int recordsPerWriter, int capacity) throws InterruptedException {
+        TickRing ring = new TickRing(capacity);
+        AtomicBoolean writing = new AtomicBoolean(true);
+        long[] read = new long[readers];
+        List<TickRing.Reader> ringReaders = new ArrayList<>();
+        List<Thread> readerThreads = new ArrayList<>();
+        for (int r = 0; r < readers; r++) {
+            int reader = r;
+            TickRing.Reader ringReader = ring.newReader();
+            ringReaders.add(ringReader);
+            readerThreads.add(Thread.ofPlatform().daemon().start(() -> {
+                double[] positions = new double[writers];
+                while (writing.get() || ringReader.getBacklog() > 0) {
+                    int batch = ringReader.drain(move -> positions[move.runner()] = move.position(), BATCH);
+                    read[reader] += batch;
+                    if (batch == 0) {
+                        Thread.onSpinWait();
+                    }
+                }
+            }));
+        }
+
+        List<Thread> writerThreads = new ArrayList<>();
+        long start = System.nanoTime();
+        for (int w = 0; w < writers; w++) {
+            int runner = w;
+            writerThreads.add(Thread.ofPlatform().start(() -> {
+                for (int move = 1; move <= recordsPerWriter; move++) {
+                    ring.publish(runner, move, move * 0.1, 10.0, 10.0, SpeedState.NORMAL, false);
+                }
+            }));
+        }
+        for (Thread thread : writerThreads) {
+            thread.join();
+        }
+        long nanos = System.nanoTime() - start;
+        writing.set(false);
+        for (Thread thread : readerThreads) {
+            thread.join();
+        }
+
+        long totalRead = 0;
+        long totalLost = 0;
+        for (int r = 0; r < readers; r++) {
+            totalRead += read[r];
+            totalLost += ringReaders.get(r).getLost();
+        }
+        return new Result(ring.getPublished(), nanos, totalRead, totalLost);
+    }
+}
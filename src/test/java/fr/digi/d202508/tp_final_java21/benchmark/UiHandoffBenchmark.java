@@ -0,0 +1,129 @@
+package fr.digi.d202508.tp_final_java21.benchmark;
+
+import fr.digi.d202508.tp_final_java21.controller.UiUpdateQueue;
+import fr.digi.d202508.tp_final_java21.service.TripleBuffer;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Handoffs between a simulation thread and a UI thread, the UI thread being a single-thread
+ * executor standing for the JavaFX one:
+ * <ul>
+ *   <li>UI updates: tasks queued and largest backlog of the UI thread when a fast tournament posts
+ *       four updates per round, each one with its own task or through the coalescing queue;</li>
+ *   <li>frames: frames written by a writer going flat out, frames taken by a 60 Hz reader, and frames
+ *       found torn (written while being read), through the triple buffer.</li>
+ * </ul>
+ * <p>
+ * Not a unit test: run it on demand, e.g.
+ * {@code java -cp target/classes:target/test-classes fr.digi.d202508.tp_final_java21.benchmark.UiHandoffBenchmark}
+ * (optional arguments: number of rounds, frame test duration in ms).
+ */
+public class UiHandoffBenchmark {
+
+    private static final int FRAME_SIZE = 64;
+
+    // Keeps the UI work from being optimized away
+    private static volatile long sink;
+
+    public static void main(String[] args) throws InterruptedException {
+        int rounds = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        long frameMillis = args.length > 1 ? Long.parseLong(args[1]) : 2_000;
+
+        System.out.printf("%-12s %12s %14s %18s %14s%n", "Mises à jour", "Manches", "Tâches UI", "File UI max", "Durée (ms)");
+        for (boolean coalesced : new boolean[]{false, true}) {
+            postUpdates(rounds, coalesced);
+        }
+
+        System.out.println();
+        handOffFrames(frameMillis);
+    }
+
+    private static void postUpdates(int rounds, boolean coalesced) throws InterruptedException {
+        ThreadPoolExecutor uiThread = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>());
+        AtomicInteger tasks = new AtomicInteger();
+        int largestBacklog = 0;
+        UiUpdateQueue queue = new UiUpdateQueue(task -> {
+            tasks.incrementAndGet();
+            uiThread.execute(task);
+        });
+
+        long start = System.nanoTime();
+        for (int round = 1; round <= rounds; round++) {
+            int currentRound = round;
+            Runnable[] updates = {
+                    () -> sink += currentRound,
+                    () -> sink ^= currentRound,
+                    () -> sink -= currentRound,
+                    () -> sink += Long.toString(currentRound).length()
+            };
+            for (int kind = 0; kind < updates.length; kind++) {
+                if (coalesced) {
+                    queue.post(kind, updates[kind]);
+                } else {
+                    tasks.incrementAndGet();
+                    uiThread.execute(updates[kind]);
+                }
+            }
+            largestBacklog = Math.max(largestBacklog, uiThread.getQueue().size());
+        }
+        uiThread.shutdown();
+        uiThread.awaitTermination(1, TimeUnit.MINUTES);
+        long nanos = System.nanoTime() - start;
+        System.out.printf("%-12s %12d %14d %18d %14.1f%n", coalesced ? "regroupées" : "directes",
+                rounds, tasks.get(), largestBacklog, nanos / 1e6);
+    }
+
+    private static void handOffFrames(long millis) throws InterruptedException {
+        // Each frame is filled with its number: a frame holding two numbers was read while written
+        TripleBuffer<long[]> buffer = new TripleBuffer<>(() -> new long[FRAME_SIZE]);
+        AtomicBoolean running = new AtomicBoolean(true);
+        long[] written = new long[1];
+        ExecutorService writer = Executors.newSingleThreadExecutor();
+        writer.execute(() -> {
+            long frame = 0;
+            while (running.get()) {
+                long[] back = buffer.back();
+                frame++;
+                for (int i = 0; i < FRAME_SIZE; i++) {
+                    back[i] = frame;
+                }
+                buffer.publish();
+            }
+            written[0] = frame;
+        });
+
+        long taken = 0;
+        long torn = 0;
+        long skipped = 0;
+        long lastFrame = 0;
+        long end = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(millis);
+        while (System.nanoTime() < end) {
+            long[] frame = buffer.acquire();
+            if (frame != null) {
+                taken++;
+                for (int i = 1; i < FRAME_SIZE; i++) {
+                    if (frame[i] != frame[0]) {
+                        torn++;
+                        break;
+                    }
+                }
+                skipped += frame[0] - lastFrame - 1;
+                lastFrame = frame[0];
+            }
+            Thread.sleep(16);
+        }
+        running.set(false);
+        writer.shutdown();
+        writer.awaitTermination(1, TimeUnit.MINUTES);
+
+        System.out.printf("Triple tampon, %d ms: %d images écrites, %d prises à 60 Hz, %d sautées, %d déchirées%n",
+                millis, written[0], taken, skipped, torn);
+    }
+}
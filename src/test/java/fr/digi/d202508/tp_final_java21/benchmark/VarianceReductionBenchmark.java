@@ -0,0 +1,52 @@
+package fr.digi.d202508.tp_final_java21.benchmark;
+
+import fr.digi.d202508.tp_final_java21.config.RaceConfig;
+import fr.digi.d202508.tp_final_java21.model.Species;
+import fr.digi.d202508.tp_final_java21.simulation.HeatSimulator;
+import fr.digi.d202508.tp_final_java21.simulation.Sampling;
+import fr.digi.d202508.tp_final_java21.simulation.WinRateEstimator;
+
+import java.util.SplittableRandom;
+
+/**
+ * Variance of the win rate estimates per sampling strategy, relative to naive sampling,
+ * and variance of a comparison between two track lengths with and without common random numbers.
+ * <p>
+ * Not a unit test: run it on demand, e.g.
+ * {@code java -cp target/classes:target/test-classes fr.digi.d202508.tp_final_java21.benchmark.VarianceReductionBenchmark}
+ * (optional argument: number of rounds).
+ */
+public class VarianceReductionBenchmark {
+
+    public static void main(String[] args) {
+        int rounds = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        RaceConfig config = RaceConfig.defaults();
+        WinRateEstimator estimator = new WinRateEstimator(config, HeatSimulator.Engine.STEP);
+
+        System.out.printf("Estimation des taux de victoire (%d manches, piste %d)%n", rounds, config.finishLine());
+        System.out.printf("%-12s %-8s %9s %10s %14s%n", "Stratégie", "Espèce", "Victoire", "IC 95%", "Gain variance");
+        for (Sampling sampling : Sampling.values()) {
+            WinRateEstimator.Estimate estimate = estimator.estimate(rounds, sampling, new SplittableRandom(7));
+            for (Species species : Species.values()) {
+                System.out.printf("%-12s %-8s %8.3f%% %9.3f%% %13.2fx%n", sampling, species.getDisplayName(),
+                        100 * estimate.winRates()[species.ordinal()], 100 * estimate.halfWidth95(species),
+                        estimate.varianceRatio(species));
+            }
+        }
+
+        RaceConfig longer = config.withFinishLine(config.finishLine() + 10);
+        System.out.printf("%nComparaison piste %d - piste %d (%d manches chacune)%n",
+                config.finishLine(), longer.finishLine(), rounds);
+        System.out.printf("%-22s %-8s %10s %10s %14s%n", "Tirages", "Espèce", "Écart", "IC 95%", "Gain variance");
+        for (boolean common : new boolean[]{false, true}) {
+            WinRateEstimator.Comparison comparison = WinRateEstimator.compare(config, longer, rounds, common, new SplittableRandom(11));
+            for (Species species : Species.values()) {
+                System.out.printf("%-22s %-8s %9.3f%% %9.3f%% %13.2fx%n",
+                        common ? "communs" : "indépendants", species.getDisplayName(),
+                        100 * comparison.differences()[species.ordinal()],
+                        100 * 1.96 * Math.sqrt(comparison.variances()[species.ordinal()]),
+                        comparison.varianceRatio(species));
+            }
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package fr.digi.d202508.tp_final_java21.config;
+
+import fr.digi.d202508.tp_final_java21.service.SimulationClock;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.context.properties.bind.BindException;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.MapConfigurationPropertySource;
+import org.springframework.core.NestedExceptionUtils;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class RaceConfigTest {
+
+    @Test
+    void missingPropertiesKeepTheDefaults() {
+        assertEquals(RaceConfig.defaults(), bind(Map.of("race.finish-line", "50")));
+    }
+
+    @Test
+    void propertiesAreBoundWithoutRecompiling() {
+        RaceConfig config = bind(Map.of(
+                "race.finish-line", "100000",
+                "race.tick-interval-ms", "1",
+                "race.clock-mode", "SCALED",
+                "race.time-scale", "100",
+                "race.runner-mode", "TICKS",
+                "race.boost-probability", "0.3",
+                "race.lapin.min-speed", "9",
+                "race.lapin.max-speed", "12",
+                "race.lapin.stamina", "0.4"));
+
+        assertEquals(100_000, config.finishLine());
+        assertEquals(0.001, config.tickSeconds());
+        assertEquals(SimulationClock.Mode.SCALED, config.clockMode());
+        assertEquals(100, config.timeScale());
+        assertEquals(RaceConfig.RunnerMode.TICKS, config.runnerMode());
+        assertEquals(0.3, config.boostProbability());
+        assertEquals(0.20, config.fatigueProbability());
+        assertEquals(new RaceConfig.SpeciesConfig(9, 12, 0.4), config.lapin());
+        // Species left out of the properties keep their historical values
+        assertEquals(RaceConfig.defaults().tortue(), config.tortue());
+        assertEquals(RaceConfig.defaults().cheval(), config.cheval());
+    }
+
+    @Test
+    void invalidPropertiesAreRejectedAtBinding() {
+        BindException failure = assertThrows(BindException.class, () -> bind(Map.of("race.finish-line", "0")));
+        assertInstanceOf(IllegalArgumentException.class, NestedExceptionUtils.getRootCause(failure));
+    }
+
+    @Test
+    void invalidParametersAreRejected() {
+        RaceConfig defaults = RaceConfig.defaults();
+        assertThrows(IllegalArgumentException.class, () -> defaults.withFinishLine(-1));
+        assertThrows(IllegalArgumentException.class, () -> defaults.withClock(SimulationClock.Mode.SCALED, 0));
+        assertThrows(IllegalArgumentException.class, () -> new RaceConfig(50, 0, null, 1, null, 0.15, 0.20, 1.5, 0.7,
+                null, null, null));
+        assertThrows(IllegalArgumentException.class, () -> new RaceConfig(50, 500, null, 1, null, 0.6, 0.5, 1.5, 0.7,
+                null, null, null));
+        assertThrows(IllegalArgumentException.class, () -> new RaceConfig.SpeciesConfig(8, 6, 0.5));
+        assertThrows(IllegalArgumentException.class, () -> new RaceConfig.SpeciesConfig(0, 6, 0.5));
+        assertThrows(IllegalArgumentException.class, () -> new RaceConfig.SpeciesConfig(6, 8, 1.5));
+    }
+
+    @Test
+    void physicsIgnoresThePacing() {
+        RaceConfig defaults = RaceConfig.defaults();
+        assertEquals(defaults.describePhysics(),
+                defaults.withClock(SimulationClock.Mode.VIRTUAL, 1).withRunnerMode(RaceConfig.RunnerMode.TICKS).describePhysics());
+        assertNotEquals(defaults.describePhysics(), defaults.withFinishLine(51).describePhysics());
+    }
+
+    private static RaceConfig bind(Map<String, String> properties) {
+        Binder binder = new Binder(new MapConfigurationPropertySource(properties));
+        return binder.bindOrCreate("race", RaceConfig.class);
+    }
+}
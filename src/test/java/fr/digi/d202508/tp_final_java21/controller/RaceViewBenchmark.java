@@ -0,0 +1,275 @@
+package fr.digi.d202508.tp_final_java21.controller;
+
+import fr.digi.d202508.tp_final_java21.config.RaceConfig;
+import fr.digi.d202508.tp_final_java21.model.Species;
+import fr.digi.d202508.tp_final_java21.model.SpeedState;
+import fr.digi.d202508.tp_final_java21.model.TickSnapshot;
+import fr.digi.d202508.tp_final_java21.service.OddsEngine;
+import javafx.animation.AnimationTimer;
+import javafx.application.Platform;
+import javafx.fxml.FXMLLoader;
+import javafx.scene.Parent;
+import javafx.scene.Scene;
+import javafx.stage.Stage;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of a pulse of the race view: the real {@code race-view.fxml} and {@link RaceController} are
+ * shown in a window and fed synthetic race frames of several field sizes (the species cycle, so
+ * the three lanes are redrawn once per runner), one frame per pulse. For each field size it
+ * records:
+ * <ul>
+ *   <li>time and bytes allocated by {@code updateRaceDisplay} (with {@code updateSpeedIndicator});</li>
+ *   <li>time and bytes allocated by the CSS and layout passes of the pulse, and the number of
+ *       pulses whose layout pass had work to do.</li>
+ * </ul>
+ * It sits in the controller package to draw frames through the package-private {@link RaceFrames}.
+ * <p>
+ * Runs without a monitor under the headless Monocle platform when it is on the classpath
+ * (test dependency {@code org.testfx:openjfx-monocle}; {@code -Dglass.platform=Monocle
+ * -Dmonocle.platform=Headless -Dprism.order=sw} are set by default when Monocle is found), or else
+ * under a virtual display ({@code xvfb-run}). Text layout still needs the native Pango libraries.
+ * Not a unit test: run it on demand, e.g.
+ * {@code java -cp target/classes:target/test-classes fr.digi.d202508.tp_final_java21.controller.RaceViewBenchmark}
+ * (optional arguments: measured pulses per field size, then field sizes).
+ */
+public class RaceViewBenchmark {
+
+    private static final String MONOCLE = "com.sun.glass.ui.monocle.MonocleApplication";
+    private static final int WARM_UP_PULSES = 120;
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    public static void main(String[] args) throws InterruptedException {
+        int pulses = args.length > 0 ? Integer.parseInt(args[0]) : 600;
+        int[] fieldSizes = args.length > 1
+                ? Arrays.stream(args, 1, args.length).mapToInt(Integer::parseInt).toArray()
+                : new int[]{3, 30, 300};
+
+        if (!startPlatform()) {
+            return;
+        }
+        View view;
+        try {
+            view = showRaceView();
+        } catch (IllegalStateException e) {
+            System.out.println(e.getMessage() + ": " + e.getCause());
+            Platform.exit();
+            return;
+        }
+
+        System.out.printf("%-8s %14s %14s %14s %16s %14s %10s%n", "Coureurs", "Dessin (µs)", "Dessin p99",
+                "Dessin (o)", "CSS+layout (µs)", "CSS+layout (o)", "Layouts");
+        for (int runners : fieldSizes) {
+            Pulses measured = measure(view, runners, pulses);
+            System.out.printf("%-8d %14.1f %14.1f %14d %16.1f %14d %10d%n", runners,
+                    mean(measured.drawNanos) / 1e3, percentile(measured.drawNanos, 0.99) / 1e3,
+                    Math.round(mean(measured.drawBytes)),
+                    mean(measured.layoutNanos) / 1e3, Math.round(mean(measured.layoutBytes)),
+                    measured.layoutPasses);
+        }
+        Platform.exit();
+    }
+
+    /**
+     * Starts JavaFX, on Monocle if it is available
+     * @return false if there is no platform to start (no Monocle and no display)
+     */
+    private static boolean startPlatform() throws InterruptedException {
+        if (System.getProperty("glass.platform") == null && isOnClasspath(MONOCLE)) {
+            System.setProperty("glass.platform", "Monocle");
+            System.setProperty("monocle.platform", "Headless");
+            System.setProperty("prism.order", "sw");
+        }
+        CountDownLatch started = new CountDownLatch(1);
+        try {
+            Platform.startup(() -> {
+                // A pulse that fails (e.g. native text layout libraries missing) would never end the measure
+                Thread.currentThread().setUncaughtExceptionHandler((thread, e) -> {
+                    System.out.println("Erreur sur le fil JavaFX: " + e);
+                    System.exit(1);
+                });
+                started.countDown();
+            });
+        } catch (RuntimeException e) {
+            System.out.println("Impossible de démarrer JavaFX (" + e.getMessage() + ")");
+            System.out.println("Ajouter Monocle au classpath (org.testfx:openjfx-monocle) ou lancer sous xvfb-run");
+            return false;
+        }
+        started.await();
+        System.out.printf("Plateforme JavaFX: %s%n", System.getProperty("glass.platform", "par défaut"));
+        return true;
+    }
+
+    private static boolean isOnClasspath(String className) {
+        try {
+            Class.forName(className, false, RaceViewBenchmark.class.getClassLoader());
+            return true;
+        } catch (ClassNotFoundException e) {
+            return false;
+        }
+    }
+
+    private record View(RaceController controller, Scene scene) {
+    }
+
+    private static View showRaceView() throws InterruptedException {
+        View[] view = new View[1];
+        Throwable[] failure = new Throwable[1];
+        CountDownLatch shown = new CountDownLatch(1);
+        Platform.runLater(() -> {
+            try {
+                FXMLLoader loader = new FXMLLoader(RaceViewBenchmark.class.getResource("/fxml/race-view.fxml"));
+                Parent root = loader.load();
+                Stage stage = new Stage();
+                Scene scene = new Scene(root, 1200, 900);
+                stage.setScene(scene);
+                stage.show();
+                view[0] = new View(loader.getController(), scene);
+            } catch (Exception | LinkageError e) {
+                failure[0] = e;
+            } finally {
+                shown.countDown();
+            }
+        });
+        shown.await();
+        if (failure[0] != null) {
+            throw new IllegalStateException("Impossible d'afficher la vue de course", failure[0]);
+        }
+        return view[0];
+    }
+
+    private static final class Pulses {
+        private final long[] drawNanos;
+        private final long[] drawBytes;
+        private final long[] layoutNanos;
+        private final long[] layoutBytes;
+        private int layoutPasses;
+
+        private Pulses(int pulses) {
+            drawNanos = new long[pulses];
+            drawBytes = new long[pulses];
+            layoutNanos = new long[pulses];
+            layoutBytes = new long[pulses];
+        }
+    }
+
+    /**
+     * Draws one synthetic frame per pulse until the given number of pulses has been measured
+     */
+    private static Pulses measure(View view, int runners, int pulses) throws InterruptedException {
+        Pulses measured = new Pulses(pulses);
+        RaceConfig config = RaceConfig.defaults();
+        SyntheticRace race = new SyntheticRace(config, runners);
+        RaceFrames.Frame frame = new RaceFrames.Frame();
+        CountDownLatch done = new CountDownLatch(1);
+
+        Platform.runLater(() -> {
+            Scene scene = view.scene();
+            long[] layoutStart = new long[2];
+            int[] pulse = {-WARM_UP_PULSES};
+            Runnable preLayout = () -> {
+                if (pulse[0] >= 0 && pulse[0] < pulses && scene.getRoot().isNeedsLayout()) {
+                    measured.layoutPasses++;
+                }
+                layoutStart[0] = System.nanoTime();
+                layoutStart[1] = THREADS.getCurrentThreadAllocatedBytes();
+            };
+            Runnable postLayout = () -> {
+                int current = pulse[0]++;
+                if (current >= 0 && current < pulses) {
+                    measured.layoutNanos[current] = System.nanoTime() - layoutStart[0];
+                    measured.layoutBytes[current] = THREADS.getCurrentThreadAllocatedBytes() - layoutStart[1];
+                }
+            };
+            scene.addPreLayoutPulseListener(preLayout);
+            scene.addPostLayoutPulseListener(postLayout);
+
+            new AnimationTimer() {
+                @Override
+                public void handle(long now) {
+                    int current = pulse[0];
+                    if (current >= pulses) {
+                        stop();
+                        scene.removePreLayoutPulseListener(preLayout);
+                        scene.removePostLayoutPulseListener(postLayout);
+                        done.countDown();
+                        return;
+                    }
+                    race.advance(frame);
+                    long bytes = THREADS.getCurrentThreadAllocatedBytes();
+                    long start = System.nanoTime();
+                    view.controller().updateRaceDisplay(frame);
+                    if (current >= 0) {
+                        measured.drawNanos[current] = System.nanoTime() - start;
+                        measured.drawBytes[current] = THREADS.getCurrentThreadAllocatedBytes() - bytes;
+                    }
+                }
+            }.start();
+        });
+        if (!done.await(pulses + WARM_UP_PULSES, TimeUnit.SECONDS)) {
+            throw new IllegalStateException("Les impulsions JavaFX n'ont pas eu lieu");
+        }
+        return measured;
+    }
+
+    /**
+     * Runners moving by random steps, restarted once the leader crosses the line
+     */
+    private static final class SyntheticRace {
+        private static final Species[] SPECIES = Species.values();
+        private static final SpeedState[] STATES = SpeedState.values();
+
+        private final RaceConfig config;
+        private final OddsEngine odds;
+        private final SplittableRandom random = new SplittableRandom(7);
+        private final double[] positions;
+        private final double[] baseSpeeds;
+
+        private SyntheticRace(RaceConfig config, int runners) {
+            this.config = config;
+            this.odds = new OddsEngine(config);
+            this.positions = new double[runners];
+            this.baseSpeeds = new double[runners];
+            for (int i = 0; i < runners; i++) {
+                baseSpeeds[i] = 10 + random.nextDouble() * 40;
+            }
+        }
+
+        private void advance(RaceFrames.Frame frame) {
+            double leader = 0;
+            List<TickSnapshot.Runner> runners = new ArrayList<>(positions.length);
+            for (int i = 0; i < positions.length; i++) {
+                SpeedState state = STATES[random.nextInt(STATES.length)];
+                double speed = baseSpeeds[i] * (0.5 + random.nextDouble());
+                positions[i] += speed / 10;
+                leader = Math.max(leader, positions[i]);
+                runners.add(new TickSnapshot.Runner(SPECIES[i % SPECIES.length], positions[i], baseSpeeds[i],
+                        speed, state, false));
+            }
+            if (leader >= config.finishLine()) {
+                Arrays.fill(positions, 0.0);
+            }
+            TickSnapshot snapshot = new TickSnapshot(0, config.finishLine(), -1, runners);
+            frame.fill(snapshot, odds.winProbabilities(snapshot));
+        }
+    }
+
+    private static double mean(long[] values) {
+        return Arrays.stream(values).average().orElse(0);
+    }
+
+    private static double percentile(long[] values, double quantile) {
+        long[] sorted = values.clone();
+        Arrays.sort(sorted);
+        return sorted[(int) (quantile * (sorted.length - 1))];
+    }
+}
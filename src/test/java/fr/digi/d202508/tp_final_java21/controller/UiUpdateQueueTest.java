@@ -0,0 +1,81 @@
+package fr.digi.d202508.tp_final_java21.controller;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class UiUpdateQueueTest {
+
+    // Written on the test thread only, by the updates it runs
+    private int lastApplied;
+
+    @Test
+    void aBurstIsOneUiRunWithTheLatestUpdatePerKey() {
+        // Stands for Platform::runLater: the runs wait until the test plays the UI thread
+        List<Runnable> uiRuns = new ArrayList<>();
+        UiUpdateQueue queue = new UiUpdateQueue(uiRuns::add);
+        List<String> applied = new ArrayList<>();
+        for (int i = 0; i < 1_000; i++) {
+            int value = i;
+            queue.post("positions", () -> applied.add("positions " + value));
+            queue.post("statut", () -> applied.add("statut " + value));
+        }
+        queue.post(() -> applied.add("fin"));
+        assertEquals(1, uiRuns.size(), "exécutions en attente sur le thread graphique");
+
+        uiRuns.removeFirst().run();
+        assertEquals(List.of("positions 999", "statut 999", "fin"), applied);
+
+        // The next post after a flush schedules a new run
+        queue.post("positions", () -> applied.add("positions 1000"));
+        assertEquals(1, uiRuns.size());
+    }
+
+    @Test
+    void aConcurrentProducerNeverHasMoreThanOnePendingRun() throws InterruptedException {
+        BlockingQueue<Runnable> uiRuns = new LinkedBlockingQueue<>();
+        UiUpdateQueue queue = new UiUpdateQueue(uiRuns::add);
+        int updates = 100_000;
+        AtomicReference<String> failure = new AtomicReference<>();
+        Thread producer = Thread.ofPlatform().start(() -> {
+            for (int i = 1; i <= updates; i++) {
+                int value = i;
+                queue.post("positions", () -> applied(value, failure));
+                if (uiRuns.size() > 1) {
+                    failure.compareAndSet(null, uiRuns.size() + " exécutions en attente");
+                }
+            }
+        });
+
+        // The UI thread: runs the flushes as they come, slower than the producer
+        int runs = 0;
+        while (lastApplied < updates && failure.get() == null) {
+            Runnable run = uiRuns.poll(5, TimeUnit.SECONDS);
+            assertTrue(run != null, "aucune exécution reçue après la mise à jour " + lastApplied);
+            run.run();
+            runs++;
+            Thread.sleep(0, 100_000);
+        }
+        producer.join();
+
+        assertNull(failure.get(), failure.get());
+        assertEquals(updates, lastApplied);
+        assertTrue(runs < updates, "aucune rafale regroupée");
+    }
+
+    private void applied(int value, AtomicReference<String> failure) {
+        if (value <= lastApplied) {
+            failure.compareAndSet(null, "mise à jour " + value + " appliquée après " + lastApplied);
+        }
+        lastApplied = value;
+    }
+}
@@ -0,0 +1,130 @@
+package fr.digi.d202508.tp_final_java21.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HeadToHeadTest {
+
+    @Test
+    void countsSurviveTheSwitchToTheSparseTable() {
+        SplittableRandom random = new SplittableRandom(49);
+        HeadToHead headToHead = new HeadToHead();
+        Map<Long, Integer> expected = new HashMap<>();
+
+        // Up to the dense limit: the matrix grows by doubling
+        for (int round = 0; round < 2_000; round++) {
+            record(headToHead, expected, randomRanking(random, HeadToHead.DENSE_LIMIT, 10));
+        }
+        record(headToHead, expected, new int[] {HeadToHead.DENSE_LIMIT - 1, 0, 1});
+        assertTrue(headToHead.isDense());
+        assertSameCounts(expected, headToHead);
+
+        // One more competitor and every count moves to the sparse table
+        record(headToHead, expected, new int[] {HeadToHead.DENSE_LIMIT, 0, 1});
+        assertFalse(headToHead.isDense());
+        assertSameCounts(expected, headToHead);
+        for (int round = 0; round < 2_000; round++) {
+            record(headToHead, expected, randomRanking(random, 3 * HeadToHead.DENSE_LIMIT, 10));
+        }
+        assertSameCounts(expected, headToHead);
+    }
+
+    @Test
+    void mergeCopyAndSerializationKeepEveryCount() throws IOException {
+        SplittableRandom random = new SplittableRandom(50);
+        HeadToHead dense = new HeadToHead();
+        HeadToHead sparse = new HeadToHead();
+        Map<Long, Integer> denseCounts = new HashMap<>();
+        Map<Long, Integer> sparseCounts = new HashMap<>();
+        for (int round = 0; round < 500; round++) {
+            record(dense, denseCounts, randomRanking(random, 100, 8));
+            record(sparse, sparseCounts, randomRanking(random, 3_000, 8));
+        }
+
+        for (HeadToHead source : new HeadToHead[] {dense, sparse}) {
+            Map<Long, Integer> counts = source == dense ? denseCounts : sparseCounts;
+            HeadToHead copy = source.copy();
+            copy.recordRanking(new int[] {0, 1}, 2);
+            assertSameCounts(counts, source);
+
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            source.writeTo(new DataOutputStream(bytes));
+            HeadToHead read = HeadToHead.readFrom(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())), 3_000);
+            assertSameCounts(counts, read);
+        }
+
+        // The dense counts renumbered past the sparse ids, then added into the sparse tracker
+        int[] ids = new int[100];
+        Map<Long, Integer> merged = new HashMap<>(sparseCounts);
+        for (int id = 0; id < ids.length; id++) {
+            ids[id] = id % 2 == 0 ? id : 3_000 + id;
+        }
+        denseCounts.forEach((pair, count) -> merged.merge(
+                pair(ids[(int) (pair >>> 32)], ids[(int) (long) pair]), count, Integer::sum));
+        sparse.merge(dense, ids);
+        assertSameCounts(merged, sparse);
+    }
+
+    @Test
+    void outOfRangeCompetitorsAreRejectedOnReading() throws IOException {
+        HeadToHead headToHead = new HeadToHead();
+        headToHead.recordRanking(new int[] {5, 2}, 2);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        headToHead.writeTo(new DataOutputStream(bytes));
+        assertThrows(IOException.class, () ->
+                HeadToHead.readFrom(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())), 5));
+    }
+
+    private static void record(HeadToHead headToHead, Map<Long, Integer> expected, int[] ranking) {
+        headToHead.recordRanking(ranking, ranking.length);
+        for (int r = 0; r < ranking.length; r++) {
+            for (int s = r + 1; s < ranking.length; s++) {
+                expected.merge(pair(ranking[r], ranking[s]), 1, Integer::sum);
+            }
+        }
+    }
+
+    /**
+     * Same pairs with the same counts, both through the lookups and through the visitor
+     */
+    private static void assertSameCounts(Map<Long, Integer> expected, HeadToHead actual) {
+        expected.forEach((pair, count) -> {
+            int a = (int) (pair >>> 32);
+            int b = (int) (long) pair;
+            assertEquals(count, actual.ahead(a, b), a + " devant " + b);
+            assertEquals(count + expected.getOrDefault(pair(b, a), 0), actual.meetings(a, b));
+        });
+        Map<Long, Integer> visited = new HashMap<>();
+        actual.forEachMeeting((a, b, aAhead, bAhead) -> {
+            assertTrue(a < b, a + " / " + b);
+            if (aAhead != 0) {
+                visited.put(pair(a, b), aAhead);
+            }
+            if (bAhead != 0) {
+                visited.put(pair(b, a), bAhead);
+            }
+        });
+        assertEquals(expected, visited);
+    }
+
+    private static int[] randomRanking(SplittableRandom random, int competitors, int size) {
+        return random.ints(0, competitors).distinct().limit(size).toArray();
+    }
+
+    private static long pair(int a, int b) {
+        return (long) a << 32 | b;
+    }
+}
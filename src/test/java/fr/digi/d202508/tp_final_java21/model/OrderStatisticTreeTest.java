@@ -0,0 +1,100 @@
+package fr.digi.d202508.tp_final_java21.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OrderStatisticTreeTest {
+
+    // Most wins first, ties broken by name, like the standings
+    private static final Comparator<Standing> ORDER =
+            Comparator.comparingInt(Standing::wins).reversed().thenComparing(Standing::name);
+
+    private record Standing(String name, int wins) {
+    }
+
+    @Test
+    void ranksAndFirstElementsMatchASortedReference() {
+        SplittableRandom random = new SplittableRandom(48);
+        OrderStatisticTree<Standing> tree = new OrderStatisticTree<>(ORDER);
+        TreeSet<Standing> reference = new TreeSet<>(ORDER);
+        Map<String, Standing> current = new HashMap<>();
+
+        for (int operation = 0; operation < 20_000; operation++) {
+            String name = "Coureur " + random.nextInt(300);
+            Standing before = current.get(name);
+            if (before == null) {
+                Standing added = new Standing(name, random.nextInt(50));
+                tree.add(added);
+                reference.add(added);
+                current.put(name, added);
+            } else if (random.nextInt(10) == 0) {
+                assertTrue(tree.remove(before));
+                reference.remove(before);
+                current.remove(name);
+            } else {
+                // A win changes the key: remove, update, add back
+                Standing after = new Standing(name, before.wins() + 1);
+                assertTrue(tree.remove(before));
+                tree.add(after);
+                reference.remove(before);
+                reference.add(after);
+                current.put(name, after);
+            }
+
+            assertEquals(reference.size(), tree.size());
+            if (operation % 500 == 0) {
+                List<Standing> sorted = new ArrayList<>(reference);
+                for (int rank = 0; rank < sorted.size(); rank++) {
+                    assertEquals(rank, tree.rank(sorted.get(rank)), sorted.get(rank).name());
+                }
+                assertEquals(sorted, tree.first(sorted.size() + 5));
+                assertEquals(sorted.subList(0, Math.min(10, sorted.size())), tree.first(10));
+            }
+        }
+    }
+
+    @Test
+    void missingElementsAreNotFound() {
+        OrderStatisticTree<Standing> tree = new OrderStatisticTree<>(ORDER);
+        Standing tortue = new Standing("Tortue", 3);
+        assertEquals(-1, tree.rank(tortue));
+        assertFalse(tree.remove(tortue));
+        assertEquals(List.of(), tree.first(3));
+
+        tree.add(tortue);
+        // Same name, other key: another element for the tree
+        assertEquals(-1, tree.rank(new Standing("Tortue", 4)));
+        assertFalse(tree.remove(new Standing("Tortue", 4)));
+        assertEquals(0, tree.rank(tortue));
+        assertEquals(0, tree.first(0).size());
+    }
+
+    @Test
+    void elementsAddedInOrderKeepTheTreeShallow() {
+        // A plain binary search tree would degenerate into a list and overflow the stack
+        OrderStatisticTree<Integer> tree = new OrderStatisticTree<>(Comparator.naturalOrder());
+        int count = 200_000;
+        for (int i = 0; i < count; i++) {
+            tree.add(i);
+        }
+        assertEquals(count, tree.size());
+        assertEquals(count - 1, tree.rank(count - 1));
+        assertEquals(List.of(0, 1, 2), tree.first(3));
+        for (int i = 0; i < count; i += 2) {
+            assertTrue(tree.remove(i));
+        }
+        assertEquals(count / 2, tree.size());
+        assertEquals(count / 2 - 1, tree.rank(count - 1));
+    }
+}
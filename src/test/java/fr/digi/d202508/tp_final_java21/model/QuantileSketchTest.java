@@ -0,0 +1,129 @@
+package fr.digi.d202508.tp_final_java21.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class QuantileSketchTest {
+
+    private static final double[] QUANTILES = {0.0, 0.01, 0.25, 0.5, 0.9, 0.95, 0.99, 0.999, 1.0};
+
+    @Test
+    void quantilesStayWithinTheRelativeAccuracy() {
+        SplittableRandom random = new SplittableRandom(43);
+        // Speeds, finish ticks and margins: from a few hundredths to a few thousands
+        double[] values = new double[100_000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = Math.exp(random.nextGaussian() * 2 + 2);
+        }
+        QuantileSketch sketch = sketchOf(values);
+        Arrays.sort(values);
+
+        assertEquals(values.length, sketch.getCount());
+        assertEquals(values[0], sketch.getMin());
+        assertEquals(values[values.length - 1], sketch.getMax());
+        for (double quantile : QUANTILES) {
+            assertWithinAccuracy(values, quantile, sketch.quantile(quantile));
+        }
+    }
+
+    @Test
+    void extremeValuesAreClampedButKeepTheExactBounds() {
+        QuantileSketch sketch = new QuantileSketch();
+        sketch.add(-5);
+        sketch.add(0);
+        sketch.add(Double.NaN);
+        sketch.add(1e12);
+        for (int i = 1; i <= 97; i++) {
+            sketch.add(i);
+        }
+
+        // NaN is ignored, the negative value counts as zero
+        assertEquals(100, sketch.getCount());
+        assertEquals(0.0, sketch.getMin());
+        assertEquals(1e12, sketch.getMax());
+        assertEquals(0.0, sketch.quantile(0.01));
+        assertEquals(1e12, sketch.quantile(1.0));
+        assertEquals(48, sketch.quantile(0.5), 48 * QuantileSketch.RELATIVE_ACCURACY);
+    }
+
+    @Test
+    void mergedWorkersAnswerLikeASingleSketch() {
+        SplittableRandom random = new SplittableRandom(7);
+        double[] values = random.doubles(40_000, 0.5, 5_000).toArray();
+        QuantileSketch whole = sketchOf(values);
+
+        // Four workers sharing the values, merged into an empty sketch
+        QuantileSketch merged = new QuantileSketch();
+        for (int worker = 0; worker < 4; worker++) {
+            QuantileSketch part = new QuantileSketch();
+            for (int i = worker; i < values.length; i += 4) {
+                part.add(values[i]);
+            }
+            merged.merge(part);
+        }
+        merged.merge(new QuantileSketch());
+
+        assertEquals(whole.getCount(), merged.getCount());
+        assertEquals(whole.getMin(), merged.getMin());
+        assertEquals(whole.getMax(), merged.getMax());
+        for (double quantile : QUANTILES) {
+            assertEquals(whole.quantile(quantile), merged.quantile(quantile), "quantile " + quantile);
+        }
+    }
+
+    @Test
+    void copyAndSerializationAreIndependentAndExact() throws IOException {
+        QuantileSketch sketch = sketchOf(new SplittableRandom(3).doubles(5_000, 0.01, 1e6).toArray());
+        QuantileSketch copy = sketch.copy();
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        sketch.writeTo(new DataOutputStream(bytes));
+        QuantileSketch read = QuantileSketch.readFrom(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+        // Only the non-empty buckets are written: less than half the size of the raw values
+        assertTrue(bytes.size() < 5_000 * Double.BYTES / 2, bytes.size() + " octets");
+
+        sketch.add(1e6);
+        for (QuantileSketch other : new QuantileSketch[] {copy, read}) {
+            assertEquals(5_000, other.getCount());
+            for (double quantile : QUANTILES) {
+                assertEquals(copy.quantile(quantile), other.quantile(quantile), "quantile " + quantile);
+            }
+        }
+    }
+
+    @Test
+    void emptySketchHasNoQuantile() {
+        QuantileSketch sketch = new QuantileSketch();
+        assertTrue(Double.isNaN(sketch.quantile(0.5)));
+        assertThrows(IllegalArgumentException.class, () -> sketch.quantile(1.5));
+        assertThrows(IllegalArgumentException.class, () -> sketch.quantile(-0.1));
+    }
+
+    /**
+     * The estimate must be within the relative accuracy of the exact value at the same rank
+     */
+    private static void assertWithinAccuracy(double[] sorted, double quantile, double estimate) {
+        double exact = sorted[(int) (quantile * (sorted.length - 1))];
+        assertEquals(exact, estimate, exact * QuantileSketch.RELATIVE_ACCURACY,
+                "quantile " + quantile + " : " + estimate + " au lieu de " + exact);
+    }
+
+    private static QuantileSketch sketchOf(double[] values) {
+        QuantileSketch sketch = new QuantileSketch();
+        for (double value : values) {
+            sketch.add(value);
+        }
+        return sketch;
+    }
+}
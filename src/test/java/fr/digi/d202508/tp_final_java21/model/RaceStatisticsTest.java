@@ -0,0 +1,80 @@
+package fr.digi.d202508.tp_final_java21.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RaceStatisticsTest {
+
+    @Test
+    void standingsKeptUpToDateMatchAFullSort() {
+        SplittableRandom random = new SplittableRandom(48);
+        RaceStatistics statistics = new RaceStatistics();
+        assertTrue(statistics.getFastestAnimalAverage().isEmpty());
+        assertTrue(statistics.getRank("Tortue").isEmpty());
+
+        for (int round = 1; round <= 3_000; round++) {
+            statistics.recordPlacings(randomRound(random, 500, 8));
+            if (round % 300 == 0) {
+                assertStandings(statistics);
+            }
+        }
+    }
+
+    /**
+     * Compares every incremental ranking with a scan of all the animals
+     */
+    private static void assertStandings(RaceStatistics statistics) {
+        List<RaceStatistics.AnimalStats> all = new ArrayList<>(statistics.getAllStatsSortedByWins());
+        List<RaceStatistics.AnimalStats> sorted = new ArrayList<>(all);
+        sorted.sort(Comparator.comparingInt(RaceStatistics.AnimalStats::getWins).reversed()
+                .thenComparing(RaceStatistics.AnimalStats::getName));
+        assertEquals(sorted, all);
+        assertEquals(sorted.subList(0, 10), statistics.getTopStandings(10));
+        for (int rank = 0; rank < sorted.size(); rank++) {
+            String name = sorted.get(rank).getName();
+            assertEquals(rank + 1, statistics.getRank(name).getAsInt(), name);
+        }
+
+        assertEquals(best(all, Comparator.comparingDouble(RaceStatistics.AnimalStats::getAverageSpeed).reversed()),
+                statistics.getFastestAnimalAverage().orElseThrow());
+        assertEquals(best(all, Comparator.comparingDouble(RaceStatistics.AnimalStats::getPositionVariance)),
+                statistics.getMostConsistentAnimal().orElseThrow());
+    }
+
+    /**
+     * First animal in the given order, the earliest competitor on ties
+     */
+    private static RaceStatistics.AnimalStats best(Collection<RaceStatistics.AnimalStats> all,
+                                                   Comparator<RaceStatistics.AnimalStats> order) {
+        return all.stream().min(order.thenComparingInt(RaceStatistics.AnimalStats::getId)).orElseThrow();
+    }
+
+    /**
+     * A round between a random field drawn from a pool of competitors, best placed first
+     */
+    static List<RaceStatistics.Placing> randomRound(SplittableRandom random, int pool, int fieldSize) {
+        List<RaceStatistics.Placing> placings = new ArrayList<>();
+        List<Integer> entered = new ArrayList<>();
+        while (entered.size() < fieldSize) {
+            int competitor = random.nextInt(pool);
+            if (!entered.contains(competitor)) {
+                entered.add(competitor);
+            }
+        }
+        double distance = 50;
+        for (int competitor : entered) {
+            placings.add(new RaceStatistics.Placing("Coureur " + competitor, distance,
+                    random.nextDouble(4, 12), distance >= 50 ? random.nextDouble(20, 40) : Double.NaN));
+            distance -= random.nextDouble(0.1, 5);
+        }
+        return placings;
+    }
+}
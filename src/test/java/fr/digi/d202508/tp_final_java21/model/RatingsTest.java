@@ -0,0 +1,119 @@
+package fr.digi.d202508.tp_final_java21.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Comparator;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RatingsTest {
+
+    private static final int COMPETITORS = 6;
+
+    @Test
+    void strongerCompetitorsEndUpRatedHigher() {
+        Ratings ratings = new Ratings();
+        assertEquals(Ratings.INITIAL_MEAN, ratings.mean(3));
+        assertEquals(Ratings.INITIAL_DEVIATION, ratings.deviation(3));
+        assertEquals(0, ratings.top(3).length);
+
+        playRounds(ratings, new SplittableRandom(50), 2_000);
+
+        // Competitor 0 is the strongest, 5 the weakest
+        for (int id = 0; id < COMPETITORS; id++) {
+            assertTrue(ratings.deviation(id) < Ratings.INITIAL_DEVIATION / 2, "écart-type de " + id);
+            if (id > 0) {
+                assertTrue(ratings.mean(id - 1) > ratings.mean(id), id - 1 + " devant " + id);
+            }
+        }
+        assertArrayEquals(new int[] {0, 1, 2}, ratings.top(3));
+        // The leaderboard is left as it was
+        assertArrayEquals(new int[] {0, 1, 2, 3, 4, 5}, ratings.top(10));
+    }
+
+    @Test
+    void copySerializationAndMergeIntoAnEmptyTrackerAreExact() throws IOException {
+        Ratings ratings = new Ratings();
+        playRounds(ratings, new SplittableRandom(7), 500);
+
+        Ratings copy = ratings.copy();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ratings.writeTo(new DataOutputStream(bytes));
+        Ratings read = Ratings.readFrom(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())), COMPETITORS);
+        Ratings merged = new Ratings();
+        merged.merge(ratings, IntStream.range(0, COMPETITORS).toArray());
+        Ratings before = ratings.copy();
+        ratings.rate(new int[] {5, 4, 3, 2, 1, 0}, COMPETITORS);
+
+        for (Ratings other : new Ratings[] {copy, read, merged}) {
+            assertSameRatings(before, other);
+        }
+        assertThrows(IOException.class, () ->
+                Ratings.readFrom(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())), COMPETITORS - 1));
+    }
+
+    @Test
+    void parallelTracksMergeDeterministicallyIntoTheSameLeaderboard() {
+        Ratings sequential = new Ratings();
+        Ratings[] tracks = new Ratings[4];
+        for (int track = 0; track < tracks.length; track++) {
+            tracks[track] = new Ratings();
+            playRounds(tracks[track], new SplittableRandom(100 + track), 1_000);
+            // The same rounds, one track after another, on a single tracker
+            playRounds(sequential, new SplittableRandom(100 + track), 1_000);
+        }
+
+        Ratings merged = mergeInOrder(tracks);
+        assertSameRatings(merged, mergeInOrder(tracks));
+        assertArrayEquals(sequential.top(COMPETITORS), merged.top(COMPETITORS));
+        for (int id = 0; id < COMPETITORS; id++) {
+            // Four times the evidence of one track: the uncertainty halves
+            assertEquals(tracks[0].deviation(id) / 2, merged.deviation(id), tracks[0].deviation(id) / 4, "écart-type de " + id);
+            assertTrue(merged.deviation(id) < tracks[0].deviation(id), "écart-type de " + id);
+        }
+    }
+
+    private static Ratings mergeInOrder(Ratings[] tracks) {
+        Ratings merged = new Ratings();
+        int[] ids = IntStream.range(0, COMPETITORS).toArray();
+        for (Ratings track : tracks) {
+            merged.merge(track, ids);
+        }
+        return merged;
+    }
+
+    /**
+     * Rounds where each competitor runs at its skill plus noise, competitor 0 being the strongest
+     */
+    private static void playRounds(Ratings ratings, SplittableRandom random, int rounds) {
+        for (int round = 0; round < rounds; round++) {
+            double[] performances = new double[COMPETITORS];
+            for (int id = 0; id < COMPETITORS; id++) {
+                performances[id] = -id + 2 * random.nextGaussian();
+            }
+            int[] ranking = IntStream.range(0, COMPETITORS).boxed()
+                    .sorted(Comparator.comparingDouble(id -> -performances[id]))
+                    .mapToInt(Integer::intValue).toArray();
+            ratings.rate(ranking, ranking.length);
+        }
+    }
+
+    private static void assertSameRatings(Ratings expected, Ratings actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int id = 0; id < expected.size(); id++) {
+            assertEquals(expected.mean(id), actual.mean(id), "moyenne de " + id);
+            assertEquals(expected.deviation(id), actual.deviation(id), "écart-type de " + id);
+        }
+        assertArrayEquals(expected.top(expected.size()), actual.top(actual.size()));
+    }
+}
@@ -0,0 +1,190 @@
+package fr.digi.d202508.tp_final_java21.service;
+
+import fr.digi.d202508.tp_final_java21.model.TickSnapshot;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConflatingPublisherTest {
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final ConflatingPublisher<Long> publisher = new ConflatingPublisher<>(executor);
+
+    @AfterEach
+    void shutDown() {
+        publisher.close();
+        executor.shutdownNow();
+    }
+
+    @Test
+    void nothingIsDeliveredWithoutDemand() throws InterruptedException {
+        Recorder recorder = new Recorder();
+        publisher.subscribe(recorder);
+        for (long i = 1; i <= 100; i++) {
+            publisher.publish(i);
+        }
+        Thread.sleep(200);
+        assertTrue(recorder.items.isEmpty(), "livré sans demande : " + recorder.items);
+    }
+
+    @Test
+    void aSlowSubscriberOnlyGetsTheNewestItem() throws InterruptedException {
+        Recorder recorder = new Recorder();
+        publisher.subscribe(recorder);
+        for (long i = 1; i <= 100; i++) {
+            publisher.publish(i);
+        }
+        recorder.requestAndAwait(1);
+        assertEquals(List.of(100L), recorder.items);
+
+        // Published while the subscriber had no demand: only the last one is kept
+        for (long i = 101; i <= 200; i++) {
+            publisher.publish(i);
+        }
+        recorder.requestAndAwait(2);
+        assertEquals(List.of(100L, 200L), recorder.items);
+    }
+
+    @Test
+    void aSlowSubscriberNeverGetsAnOlderItemAfterANewerOne() throws InterruptedException {
+        Recorder recorder = new Recorder();
+        publisher.subscribe(recorder);
+        long last = 200_000;
+        Thread producer = Thread.ofPlatform().start(() -> {
+            for (long i = 1; i <= last; i++) {
+                publisher.publish(i);
+            }
+        });
+        // One item at a time, slower than the producer, until the last one
+        while (recorder.items.isEmpty() || recorder.items.getLast() != last) {
+            recorder.requestAndAwait(recorder.items.size() + 1);
+            Thread.sleep(1);
+        }
+        producer.join();
+
+        List<Long> items = recorder.items;
+        for (int i = 1; i < items.size(); i++) {
+            assertTrue(items.get(i) > items.get(i - 1), "élément périmé après un plus récent : " + items.subList(i - 1, i + 1));
+        }
+        assertEquals(last, items.getLast());
+        assertTrue(items.size() < last, "aucun élément sauté");
+    }
+
+    @Test
+    void closeCompletesEverySubscriber() throws InterruptedException {
+        Recorder unbounded = new Recorder();
+        Recorder drained = new Recorder();
+        Recorder waiting = new Recorder();
+        publisher.subscribe(unbounded);
+        publisher.subscribe(drained);
+        publisher.subscribe(waiting);
+        unbounded.subscription.request(Long.MAX_VALUE);
+        publisher.publish(1L);
+        drained.requestAndAwait(1);
+        publisher.publish(2L);
+        drained.requestAndAwait(2);
+
+        publisher.close();
+        assertTrue(unbounded.completed.await(5, TimeUnit.SECONDS), "abonné sans limite non terminé");
+        assertTrue(drained.completed.await(5, TimeUnit.SECONDS), "abonné à jour non terminé");
+        // The pending item is delivered before the completion, on the next request
+        waiting.subscription.request(1);
+        assertTrue(waiting.completed.await(5, TimeUnit.SECONDS), "abonné en attente non terminé");
+        assertEquals(List.of(2L), waiting.items);
+
+        // Subscribing after the close completes at once
+        Recorder late = new Recorder();
+        publisher.subscribe(late);
+        assertTrue(late.completed.await(5, TimeUnit.SECONDS), "abonné tardif non terminé");
+        assertFalse(publisher.hasSubscribers());
+    }
+
+    @Test
+    void latestTickSubscriberHandsOverTheNewestSnapshot() throws InterruptedException {
+        ConflatingPublisher<TickSnapshot> snapshots = new ConflatingPublisher<>(executor);
+        LatestTickSubscriber subscriber = new LatestTickSubscriber();
+        snapshots.subscribe(subscriber);
+        for (long sequence = 1; sequence <= 50; sequence++) {
+            snapshots.publish(snapshot(sequence));
+        }
+        assertEquals(50, subscriber.take(Duration.ofSeconds(5)).sequence());
+
+        // Nothing new since the last one
+        Thread.sleep(100);
+        assertNull(subscriber.poll());
+
+        snapshots.publish(snapshot(51));
+        snapshots.publish(snapshot(52));
+        TickSnapshot next = subscriber.take(Duration.ofSeconds(5));
+        assertNotNull(next);
+        assertEquals(52, next.sequence());
+
+        snapshots.close();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!subscriber.isCompleted() && System.nanoTime() < deadline) {
+            // The completion comes with the demand of the next poll
+            subscriber.poll();
+            Thread.sleep(10);
+        }
+        assertTrue(subscriber.isCompleted(), "abonné non terminé après close()");
+    }
+
+    private static TickSnapshot snapshot(long sequence) {
+        return new TickSnapshot(sequence, 50, -1, List.of());
+    }
+
+    /**
+     * Records what it receives and only requests when the test asks
+     */
+    private static final class Recorder implements Flow.Subscriber<Long> {
+        private final List<Long> items = new CopyOnWriteArrayList<>();
+        private final CountDownLatch completed = new CountDownLatch(1);
+        private volatile Flow.Subscription subscription;
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+        }
+
+        @Override
+        public void onNext(Long item) {
+            items.add(item);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            completed.countDown();
+        }
+
+        @Override
+        public void onComplete() {
+            completed.countDown();
+        }
+
+        /**
+         * Requests one more item and waits until the given number of items has been received
+         */
+        private void requestAndAwait(int count) throws InterruptedException {
+            subscription.request(1);
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (items.size() < count) {
+                assertTrue(System.nanoTime() < deadline, "élément " + count + " non reçu");
+                Thread.sleep(1);
+            }
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package fr.digi.d202508.tp_final_java21.service;
+
+import fr.digi.d202508.tp_final_java21.config.RaceConfig;
+import fr.digi.d202508.tp_final_java21.model.Animal;
+import fr.digi.d202508.tp_final_java21.model.Species;
+import fr.digi.d202508.tp_final_java21.model.SpeedState;
+import fr.digi.d202508.tp_final_java21.model.TickSnapshot;
+import fr.digi.d202508.tp_final_java21.simulation.HeatSimulator;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OddsEngineTest {
+
+    private final RaceConfig config = RaceConfig.defaults();
+    private final OddsEngine engine = new OddsEngine(config);
+
+    @Test
+    void probabilitiesOfARunningRaceSumToOne() {
+        SplittableRandom random = new SplittableRandom(3);
+        for (int race = 0; race < 50; race++) {
+            List<TickSnapshot.Runner> runners = new ArrayList<>();
+            for (Species species : Species.values()) {
+                runners.add(runner(species, random.nextDouble(0, config.finishLine()), random.nextDouble(6, 11)));
+            }
+            double[] probabilities = engine.winProbabilities(new TickSnapshot(race, config.finishLine(), -1, runners));
+            assertEquals(1.0, Arrays.stream(probabilities).sum(), 1e-9);
+            for (double probability : probabilities) {
+                assertTrue(probability >= 0 && probability <= 1, "probabilité " + probability);
+            }
+        }
+    }
+
+    @Test
+    void probabilitiesOfALargeFieldSumToOne() {
+        SplittableRandom random = new SplittableRandom(5);
+        int count = 1_000;
+        double[] remaining = new double[count];
+        double[] meanPerTick = new double[count];
+        double[] variancePerTick = new double[count];
+        for (int i = 0; i < count; i++) {
+            remaining[i] = random.nextDouble(1, 50);
+            meanPerTick[i] = random.nextDouble(1, 3);
+            variancePerTick[i] = random.nextDouble(0.1, 1);
+        }
+        double[] probabilities = new double[count];
+        engine.winProbabilities(remaining, meanPerTick, variancePerTick, probabilities);
+        assertEquals(1.0, Arrays.stream(probabilities).sum(), 1e-9);
+    }
+
+    @Test
+    void leaderIsTheFavourite() {
+        List<TickSnapshot.Runner> runners = List.of(
+                runner(Species.TORTUE, 30, 8),
+                runner(Species.LAPIN, 27, 8),
+                runner(Species.CHEVAL, 24, 8));
+        double[] probabilities = engine.winProbabilities(new TickSnapshot(1, config.finishLine(), -1, runners));
+        assertTrue(probabilities[0] > probabilities[1] && probabilities[1] > probabilities[2],
+                Arrays.toString(probabilities));
+    }
+
+    @Test
+    void probabilitiesMatchTheWinRatesOfSimulatedFinishes() {
+        // Mid-race state: every runner has made the same number of moves at its own base speed
+        Species[] species = {Species.TORTUE, Species.LAPIN, Species.LAPIN, Species.CHEVAL, Species.CHEVAL};
+        double[] speedQuantiles = {0.95, 0.25, 0.3, 0.05, 0.15};
+        int movesDone = 20;
+        HeatSimulator simulator = new HeatSimulator(config);
+        List<Animal> animals = new ArrayList<>();
+        for (Species s : species) {
+            animals.add(simulator.newAnimal(s));
+        }
+        placeMidRace(animals, speedQuantiles, movesDone);
+        List<TickSnapshot.Runner> runners = new ArrayList<>();
+        for (Animal animal : animals) {
+            runners.add(new TickSnapshot.Runner(animal.getSpecies(), animal.getPosition(), animal.getSpeed(),
+                    animal.getCurrentSpeed(), animal.getSpeedState(), false));
+        }
+        double[] probabilities = engine.winProbabilities(new TickSnapshot(movesDone, config.finishLine(), -1, runners));
+
+        // The rest of the race, simulated tick by tick from the same state
+        int heats = 4_000;
+        int[] wins = new int[animals.size()];
+        SplittableRandom random = new SplittableRandom(11);
+        for (int heat = 0; heat < heats; heat++) {
+            placeMidRace(animals, speedQuantiles, movesDone);
+            wins[animals.indexOf(simulator.run(animals, random).getFirst())]++;
+        }
+
+        // Three standard errors of the win rates (0.008 at most), which also covers the normal approximation
+        double tolerance = 0.025;
+        for (int i = 0; i < animals.size(); i++) {
+            double winRate = (double) wins[i] / heats;
+            assertEquals(winRate, probabilities[i], tolerance, "coureur " + i + " : taux simulés "
+                    + Arrays.toString(wins) + " sur " + heats + ", probabilités " + Arrays.toString(probabilities));
+        }
+    }
+
+    @Test
+    void onlyTheWinnerHasWonOnceTheRaceIsOver() {
+        // Two runners of the winner's species: only the one that crossed the line first has won
+        List<TickSnapshot.Runner> runners = List.of(
+                runner(Species.TORTUE, 49, 8),
+                runner(Species.TORTUE, 51, 8),
+                runner(Species.LAPIN, 30, 9));
+        double[] probabilities = engine.winProbabilities(new TickSnapshot(1, config.finishLine(), 1, runners));
+        assertArrayEquals(new double[]{0, 1, 0}, probabilities);
+    }
+
+    /**
+     * Same base speeds and the same moves at normal pace for every call
+     */
+    private static void placeMidRace(List<Animal> animals, double[] speedQuantiles, int moves) {
+        for (int i = 0; i < animals.size(); i++) {
+            animals.get(i).resetAtSpeedQuantile(speedQuantiles[i]);
+            animals.get(i).skipAhead(moves, 0, 0, SpeedState.NORMAL);
+        }
+    }
+
+    private static TickSnapshot.Runner runner(Species species, double position, double baseSpeed) {
+        return new TickSnapshot.Runner(species, position, baseSpeed, baseSpeed, SpeedState.NORMAL, position >= 50);
+    }
+}
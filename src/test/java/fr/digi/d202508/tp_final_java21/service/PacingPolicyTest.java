@@ -0,0 +1,69 @@
+package fr.digi.d202508.tp_final_java21.service;
+
+import fr.digi.d202508.tp_final_java21.config.PacingProperties;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PacingPolicyTest {
+
+    @Test
+    void interactivePausesForTheNominalDelay() throws InterruptedException {
+        PacingPolicy pacing = PacingPolicy.interactive();
+        assertTrue(pacing.isInteractive());
+        assertTrue(timeOf(pacing, 100).toMillis() >= 100);
+    }
+
+    @Test
+    void acceleratedDividesTheDelay() throws InterruptedException {
+        PacingPolicy pacing = PacingPolicy.accelerated(20);
+        assertFalse(pacing.isInteractive());
+        // A 3 s countdown plus the 0.5 s "GO!" at x20: 175 ms instead of 3.5 s
+        Duration countdown = timeOf(pacing, 3_500);
+        assertTrue(countdown.toMillis() >= 175, "compte à rebours de " + countdown.toMillis() + " ms");
+        assertTrue(countdown.toMillis() < 1_000, "compte à rebours de " + countdown.toMillis() + " ms");
+    }
+
+    @Test
+    void acceleratedFactorMustSpeedUp() {
+        assertThrows(IllegalArgumentException.class, () -> PacingPolicy.accelerated(0.5));
+    }
+
+    @Test
+    void unpacedDoesNotWait() throws InterruptedException {
+        PacingPolicy pacing = PacingPolicy.unpaced();
+        assertFalse(pacing.isInteractive());
+        // Ten rounds of countdowns and pauses between rounds
+        long start = System.nanoTime();
+        for (int round = 0; round < 10; round++) {
+            pacing.pause(3_500);
+            pacing.pause(2_000);
+        }
+        assertTrue(System.nanoTime() - start < Duration.ofMillis(100).toNanos());
+    }
+
+    @Test
+    void unpacedStillHonoursInterruptions() {
+        Thread.currentThread().interrupt();
+        assertThrows(InterruptedException.class, () -> PacingPolicy.unpaced().pause(1_000));
+        assertFalse(Thread.currentThread().isInterrupted());
+    }
+
+    @Test
+    void propertiesSelectThePolicy() {
+        assertEquals(PacingPolicy.interactive(), new PacingProperties(PacingProperties.Mode.INTERACTIVE, 10).toPolicy());
+        assertEquals(PacingPolicy.accelerated(10), new PacingProperties(PacingProperties.Mode.ACCELERATED, 10).toPolicy());
+        assertEquals(PacingPolicy.unpaced(), new PacingProperties(PacingProperties.Mode.UNPACED, 10).toPolicy());
+    }
+
+    private static Duration timeOf(PacingPolicy pacing, long nominalMillis) throws InterruptedException {
+        long start = System.nanoTime();
+        pacing.pause(nominalMillis);
+        return Duration.ofNanos(System.nanoTime() - start);
+    }
+}
@@ -0,0 +1,122 @@
+package fr.digi.d202508.tp_final_java21.service;
+
+import fr.digi.d202508.tp_final_java21.config.RaceConfig;
+import fr.digi.d202508.tp_final_java21.model.RaceStatistics;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ParallelTournamentTest {
+
+    private static final Pattern HEAT_LINE =
+            Pattern.compile("Manche +(\\d+) \\| Piste +(\\d+) \\| 🥇 (\\S+) 🥈 (\\S+) 🥉 (\\S+)");
+    private static final List<String> NAMES = List.of("Tortue", "Lapin", "Cheval", "Zèbre", "Gazelle", "Autruche");
+
+    @Test
+    void parallelHeatsAddUpToTheHeatsRunOneByOne() {
+        int heats = 60;
+        List<String> reports = Collections.synchronizedList(new ArrayList<>());
+        ParallelTournament tournament = new ParallelTournament(heats, 4,
+                RaceConfig.defaults().withClock(SimulationClock.Mode.VIRTUAL, 1), reports::add);
+        RaceStatistics merged = tournament.runTournament();
+
+        // One complete line per heat, in whatever order the tracks finished them
+        TreeMap<Integer, List<String>> podiums = new TreeMap<>();
+        for (String report : reports) {
+            Matcher matcher = HEAT_LINE.matcher(report);
+            assertTrue(matcher.matches(), "ligne mélangée : " + report);
+            podiums.put(Integer.parseInt(matcher.group(1)), List.of(matcher.group(3), matcher.group(4), matcher.group(5)));
+        }
+        assertEquals(heats, reports.size());
+        assertEquals(heats, podiums.size());
+        assertEquals(1, podiums.firstKey());
+        assertEquals(heats, podiums.lastKey());
+
+        // The same heats recorded one after another on a single tracker
+        RaceStatistics sequential = new RaceStatistics();
+        for (List<String> podium : podiums.values()) {
+            List<RaceStatistics.Placing> placings = new ArrayList<>();
+            for (String name : podium) {
+                placings.add(new RaceStatistics.Placing(name, 50, 8, Double.NaN));
+            }
+            sequential.recordPlacings(placings);
+        }
+        assertEquals(heats, merged.getTotalRounds());
+        assertSamePlaces(sequential, merged);
+    }
+
+    @Test
+    void mergingTheTracksInOrderGivesTheSequentialStatistics() {
+        SplittableRandom random = new SplittableRandom(21);
+        List<List<RaceStatistics.Placing>> rounds = new ArrayList<>();
+        for (int round = 0; round < 400; round++) {
+            List<String> field = new ArrayList<>(NAMES);
+            Collections.shuffle(field, new Random(random.nextLong()));
+            List<RaceStatistics.Placing> placings = new ArrayList<>();
+            for (int place = 0; place < 4; place++) {
+                placings.add(new RaceStatistics.Placing(field.get(place), 50 - place * random.nextDouble(0, 3),
+                        random.nextDouble(6, 11), 20 + place + random.nextDouble()));
+            }
+            rounds.add(placings);
+        }
+
+        RaceStatistics sequential = new RaceStatistics();
+        rounds.forEach(sequential::recordPlacings);
+        // Four tracks, each with a contiguous share of the rounds, merged in track order
+        RaceStatistics merged = new RaceStatistics();
+        for (int track = 0; track < 4; track++) {
+            RaceStatistics trackStatistics = new RaceStatistics();
+            rounds.subList(track * 100, (track + 1) * 100).forEach(trackStatistics::recordPlacings);
+            merged.merge(trackStatistics);
+        }
+
+        assertEquals(sequential.getTotalRounds(), merged.getTotalRounds());
+        assertSamePlaces(sequential, merged);
+        for (String name : NAMES) {
+            RaceStatistics.AnimalStats expected = sequential.getAnimalStats(name);
+            RaceStatistics.AnimalStats actual = merged.getAnimalStats(name);
+            assertEquals(expected.getTotalDistance(), actual.getTotalDistance(), 1e-9);
+            assertEquals(expected.getAverageSpeed(), actual.getAverageSpeed(), 1e-9);
+            assertEquals(expected.getAveragePosition(), actual.getAveragePosition(), 1e-9);
+            assertEquals(expected.getPositionVariance(), actual.getPositionVariance(), 1e-9);
+        }
+        assertEquals(sequential.getFastestAnimalAverage().orElseThrow().getName(),
+                merged.getFastestAnimalAverage().orElseThrow().getName());
+        assertEquals(sequential.getMostConsistentAnimal().orElseThrow().getName(),
+                merged.getMostConsistentAnimal().orElseThrow().getName());
+    }
+
+    /**
+     * Same places for every competitor, same standings and same head-to-head counts
+     */
+    private static void assertSamePlaces(RaceStatistics expected, RaceStatistics actual) {
+        List<RaceStatistics.AnimalStats> expectedStandings = expected.getAllStatsSortedByWins();
+        List<RaceStatistics.AnimalStats> actualStandings = actual.getAllStatsSortedByWins();
+        assertEquals(expectedStandings.size(), actualStandings.size());
+        for (RaceStatistics.AnimalStats stats : expectedStandings) {
+            RaceStatistics.AnimalStats other = actual.getAnimalStats(stats.getName());
+            assertEquals(stats.getRaces(), other.getRaces(), stats.getName());
+            assertEquals(stats.getWins(), other.getWins(), stats.getName());
+            assertEquals(stats.getSecondPlace(), other.getSecondPlace(), stats.getName());
+            assertEquals(stats.getThirdPlace(), other.getThirdPlace(), stats.getName());
+            for (RaceStatistics.AnimalStats opponent : expectedStandings) {
+                assertEquals(expected.getTimesAhead(stats.getName(), opponent.getName()),
+                        actual.getTimesAhead(stats.getName(), opponent.getName()),
+                        stats.getName() + " devant " + opponent.getName());
+            }
+        }
+        for (int rank = 0; rank < expectedStandings.size(); rank++) {
+            assertEquals(expectedStandings.get(rank).getWins(), actualStandings.get(rank).getWins());
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package fr.digi.d202508.tp_final_java21.service;
+
+import fr.digi.d202508.tp_final_java21.config.RaceConfig;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+class RaceTest {
+
+    @Test
+    void runnersThatNeverStartedDoNotBlockTheNextRound() {
+        // A pool busy with other heats: only the first runner gets a thread, and wins alone
+        RaceConfig config = RaceConfig.defaults().withClock(SimulationClock.Mode.SCALED, 1_000);
+        ExecutorService busyPool = Executors.newFixedThreadPool(1);
+        try (Race race = new Race(config, PacingPolicy.unpaced(), busyPool)) {
+            for (int round = 0; round < 3; round++) {
+                // The cancelled runners count as stopped: no failed round, and the race can be reset
+                assertDoesNotThrow(() -> race.initializeRace());
+                race.launchRunners();
+                assertDoesNotThrow(race::monitorRace);
+                assertNotNull(race.getRaceTrack().getWinner());
+            }
+        } finally {
+            busyPool.shutdownNow();
+        }
+    }
+}
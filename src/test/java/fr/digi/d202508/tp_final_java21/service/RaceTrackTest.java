@@ -0,0 +1,106 @@
+package fr.digi.d202508.tp_final_java21.service;
+
+import fr.digi.d202508.tp_final_java21.config.RaceConfig;
+import fr.digi.d202508.tp_final_java21.model.Animal;
+import fr.digi.d202508.tp_final_java21.model.RaceEvent;
+import fr.digi.d202508.tp_final_java21.model.Species;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RaceTrackTest {
+
+    private final RaceConfig config = RaceConfig.defaults();
+
+    @Test
+    void animalsOfATrackShareTheirSpeciesProfile() {
+        RaceTrack raceTrack = new RaceTrack(config);
+        for (Species species : Species.values()) {
+            assertSame(raceTrack.getProfile(species), species.create(raceTrack).getProfile(), species.name());
+            assertSame(species.create(raceTrack).getProfile(), species.create(raceTrack).getProfile(), species.name());
+        }
+    }
+
+    @Test
+    void everyTrackBuildsItsOwnProfiles() {
+        RaceTrack raceTrack = new RaceTrack(config);
+        RaceTrack sameConfig = new RaceTrack(config);
+        RaceTrack longer = new RaceTrack(config.withFinishLine(1_234));
+        for (Species species : Species.values()) {
+            // Equal but not shared: nothing outlives the track
+            assertNotSame(raceTrack.getProfile(species), sameConfig.getProfile(species));
+            assertEquals(raceTrack.getProfile(species), sameConfig.getProfile(species));
+            assertEquals(1_234, longer.getProfile(species).finishLine());
+            assertEquals(config.finishLine(), species.create(raceTrack).getProfile().finishLine());
+        }
+    }
+
+    @Test
+    void aReplacedWinnerIsCorrectedOnTheEventFeed() throws InterruptedException {
+        RaceTrack raceTrack = new RaceTrack(config);
+        Animal fast = Species.LAPIN.create(raceTrack);
+        Animal slow = Species.TORTUE.create(raceTrack);
+        Animal slowest = Species.TORTUE.create(raceTrack);
+        raceTrack.addParticipant(fast);
+        raceTrack.addParticipant(slow);
+        raceTrack.addParticipant(slowest);
+        List<RaceEvent> events = new CopyOnWriteArrayList<>();
+        raceTrack.events().subscribe(new Flow.Subscriber<>() {
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+                subscription.request(Long.MAX_VALUE);
+            }
+
+            @Override
+            public void onNext(RaceEvent event) {
+                events.add(event);
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+            }
+
+            @Override
+            public void onComplete() {
+            }
+        });
+
+        SplittableRandom random = new SplittableRandom(7);
+        fast.resetAtSpeedQuantile(1.0);
+        slow.resetAtSpeedQuantile(0.5);
+        slowest.resetAtSpeedQuantile(0.0);
+        for (Animal animal : List.of(fast, slow, slowest)) {
+            while (!animal.step(random)) {
+                // Runs to the line
+            }
+        }
+        assertTrue(fast.getFinishTick() < slow.getFinishTick() && slow.getFinishTick() < slowest.getFinishTick());
+
+        // The slow runner's thread gets there first, then the fast one's: the fast one takes the victory
+        assertTrue(raceTrack.declareWinner(slow));
+        raceTrack.awaitFinish();
+        assertTrue(raceTrack.declareWinner(fast));
+        assertFalse(raceTrack.declareWinner(slowest));
+        assertSame(fast, raceTrack.getWinner());
+        assertSame(fast, raceTrack.getFinalScoreboard().getFirst());
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (events.size() < 2 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        Thread.sleep(100);
+        assertEquals(List.of(new RaceEvent.Winner(0, Species.TORTUE, slow.getFinishTick()),
+                new RaceEvent.Winner(0, Species.LAPIN, fast.getFinishTick())), events);
+        raceTrack.closeFeed();
+    }
+}
@@ -0,0 +1,188 @@
+package fr.digi.d202508.tp_final_java21.service;
+
+import fr.digi.d202508.tp_final_java21.config.RaceConfig;
+import fr.digi.d202508.tp_final_java21.model.Animal;
+import fr.digi.d202508.tp_final_java21.model.Species;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SimulationClockTest {
+
+    private final RaceConfig config = RaceConfig.defaults();
+
+    @Test
+    void realWaitFollowsTheMode() {
+        assertEquals(Duration.ofMillis(500), SimulationClock.realInterval(config));
+        assertEquals(Duration.ofMillis(5), SimulationClock.realInterval(config.withClock(SimulationClock.Mode.SCALED, 100)));
+        assertEquals(Duration.ZERO, SimulationClock.realInterval(config.withClock(SimulationClock.Mode.VIRTUAL, 1)));
+    }
+
+    @Test
+    void configurationPicksTheClock() {
+        assertInstanceOf(SimulationClock.Sleeping.class, SimulationClock.create(config));
+        assertInstanceOf(SimulationClock.Sleeping.class,
+                SimulationClock.create(config.withClock(SimulationClock.Mode.SCALED, 100)));
+        assertInstanceOf(SimulationClock.Stepped.class,
+                SimulationClock.create(config.withClock(SimulationClock.Mode.VIRTUAL, 1)));
+        assertInstanceOf(SimulationClock.Lockstep.class,
+                SimulationClock.create(config.withRunnerMode(RaceConfig.RunnerMode.LOCKSTEP)));
+    }
+
+    @Test
+    void distancesDoNotDependOnTheClock() {
+        List<Double> real = positions(config);
+        assertEquals(real, positions(config.withClock(SimulationClock.Mode.SCALED, 100)));
+        assertEquals(real, positions(config.withClock(SimulationClock.Mode.VIRTUAL, 1)));
+    }
+
+    @Test
+    void virtualClockKeepsTheRunnersOnTheSameTick() throws InterruptedException {
+        int runners = 4;
+        int ticks = 500;
+        SimulationClock.Stepped clock = new SimulationClock.Stepped();
+        AtomicIntegerArray moves = new AtomicIntegerArray(runners);
+        AtomicReference<String> drift = new AtomicReference<>();
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < runners; i++) {
+            clock.register();
+        }
+        for (int i = 0; i < runners; i++) {
+            int runner = i;
+            threads.add(Thread.ofPlatform().start(() -> {
+                try {
+                    for (int tick = 1; tick <= ticks; tick++) {
+                        moves.set(runner, tick);
+                        clock.awaitNextTick();
+                        // Released only once every runner has made this move
+                        for (int other = 0; other < runners; other++) {
+                            if (moves.get(other) < tick) {
+                                drift.compareAndSet(null, "coureur " + other + " en retard au tick " + tick);
+                            }
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.join(10_000);
+        }
+        assertNull(drift.get(), drift.get());
+        assertEquals(ticks, clock.getTick());
+    }
+
+    @Test
+    void lockstepReleasesLargeFieldsTogetherAndOnTime() throws InterruptedException {
+        // Three leaves of the barrier tree, the last one partial
+        int runners = 2 * SimulationClock.Lockstep.TIER_SIZE + 22;
+        int ticks = 20;
+        int leavingTick = 5;
+        long intervalNanos = Duration.ofMillis(5).toNanos();
+        SimulationClock.Lockstep clock = new SimulationClock.Lockstep(Duration.ofNanos(intervalNanos));
+        AtomicIntegerArray moves = new AtomicIntegerArray(runners);
+        AtomicLongArray arrivals = new AtomicLongArray(runners);
+        AtomicLongArray releases = new AtomicLongArray(runners);
+        AtomicReference<String> failure = new AtomicReference<>();
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < runners; i++) {
+            clock.register();
+        }
+        for (int i = 0; i < runners; i++) {
+            int runner = i;
+            // Every tenth runner leaves the race early, in every leaf
+            boolean leaving = runner % 10 == 0;
+            threads.add(Thread.ofPlatform().start(() -> {
+                try {
+                    arrivals.set(runner, System.nanoTime());
+                    clock.awaitStart();
+                    releases.set(runner, System.nanoTime());
+                    int lastTick = leaving ? leavingTick : ticks;
+                    for (int tick = 1; tick <= lastTick; tick++) {
+                        moves.set(runner, tick);
+                        clock.awaitNextTick();
+                        long released = System.nanoTime();
+                        if (released < clock.getStartNanos() + tick * intervalNanos) {
+                            failure.compareAndSet(null, "tick " + tick + " libéré trop tôt");
+                        }
+                        for (int other = 0; other < runners; other++) {
+                            int otherMoves = moves.get(other);
+                            boolean left = other % 10 == 0 && tick > leavingTick;
+                            if (!left && (otherMoves < tick || otherMoves > tick + 1)) {
+                                failure.compareAndSet(null, "coureur " + other + " à " + otherMoves
+                                        + " mouvements au tick " + tick);
+                            }
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    clock.deregister();
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.join(10_000);
+            // The runners that left must not hold the others at the barrier
+            assertFalse(thread.isAlive(), "coureur bloqué");
+        }
+        assertNull(failure.get(), failure.get());
+
+        // Nobody started before the last runner was on the line
+        long lastArrival = 0;
+        long firstRelease = Long.MAX_VALUE;
+        for (int i = 0; i < runners; i++) {
+            lastArrival = Math.max(lastArrival, arrivals.get(i));
+            firstRelease = Math.min(firstRelease, releases.get(i));
+        }
+        assertTrue(firstRelease >= lastArrival, "départ donné avant l'arrivée du dernier coureur");
+        assertTrue(clock.getStartNanos() >= lastArrival);
+    }
+
+    @Test
+    void compressedRacesRunFasterThanRealTime() {
+        // A race of about 45 ticks of 500 ms: more than 20 s in real time
+        for (RaceConfig compressed : List.of(config.withClock(SimulationClock.Mode.SCALED, 1_000),
+                config.withClock(SimulationClock.Mode.VIRTUAL, 1))) {
+            long start = System.nanoTime();
+            try (Race race = new Race(compressed, PacingPolicy.unpaced())) {
+                race.initializeRace();
+                race.launchRunners();
+                race.monitorRace();
+                assertNotNull(race.getRaceTrack().getWinner());
+            }
+            long millis = Duration.ofNanos(System.nanoTime() - start).toMillis();
+            assertTrue(millis < 5_000, compressed.clockMode() + " : course en " + millis + " ms");
+        }
+    }
+
+    /**
+     * Positions of a seeded Lapin after each of its moves on a track with the given clock
+     */
+    private static List<Double> positions(RaceConfig config) {
+        RaceTrack track = new RaceTrack(config);
+        Animal lapin = Species.LAPIN.create(track);
+        SplittableRandom random = new SplittableRandom(11);
+        lapin.reset(random);
+        List<Double> positions = new ArrayList<>();
+        while (!lapin.step(random)) {
+            positions.add(lapin.getPosition());
+        }
+        positions.add(lapin.getPosition());
+        return positions;
+    }
+}
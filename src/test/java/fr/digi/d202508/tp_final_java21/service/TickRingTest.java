@@ -0,0 +1,146 @@
+package fr.digi.d202508.tp_final_java21.service;
+
+import fr.digi.d202508.tp_final_java21.model.SpeedState;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TickRingTest {
+
+    private static final SpeedState[] STATES = SpeedState.values();
+
+    @Test
+    void capacityMustBeAPowerOfTwo() {
+        assertThrows(IllegalArgumentException.class, () -> new TickRing(0));
+        assertThrows(IllegalArgumentException.class, () -> new TickRing(12));
+        assertEquals(16, new TickRing(16).capacity());
+    }
+
+    @Test
+    void readerGetsEveryRecordPublishedAfterItWasCreated() {
+        TickRing ring = new TickRing(16);
+        publish(ring, 0, 1);
+        TickRing.Reader reader = ring.newReader();
+        for (int move = 1; move <= 10; move++) {
+            publish(ring, move % 3, move);
+        }
+
+        // Batches of at most 4 records, oldest first
+        List<Long> sequences = new ArrayList<>();
+        assertEquals(4, reader.drain(move -> sequences.add(move.sequence()), 4));
+        assertEquals(6, reader.getBacklog());
+        assertEquals(6, reader.drain(move -> {
+            assertRecord(move);
+            sequences.add(move.sequence());
+        }, 100));
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L, 9L, 10L), sequences);
+        assertEquals(0, reader.drain(move -> sequences.add(move.sequence()), 100));
+        assertEquals(0, reader.getLost());
+        assertEquals(11, ring.getPublished());
+    }
+
+    @Test
+    void lappedReaderSkipsToTheOldestRecordAndCountsTheLostOnes() {
+        TickRing ring = new TickRing(8);
+        TickRing.Reader slow = ring.newReader();
+        TickRing.Reader fast = ring.newReader();
+        List<Long> fastSequences = new ArrayList<>();
+        for (int move = 0; move < 20; move++) {
+            publish(ring, 1, move);
+            fast.drain(record -> fastSequences.add(record.sequence()), 100);
+        }
+
+        List<Long> slowSequences = new ArrayList<>();
+        assertEquals(8, slow.drain(record -> {
+            assertRecord(record);
+            slowSequences.add(record.sequence());
+        }, 100));
+        assertEquals(List.of(12L, 13L, 14L, 15L, 16L, 17L, 18L, 19L), slowSequences);
+        assertEquals(12, slow.getLost());
+        assertEquals(0, slow.getBacklog());
+        // The slow reader costs nothing to the runners nor to the other reader
+        assertEquals(20, fastSequences.size());
+        assertEquals(0, fast.getLost());
+    }
+
+    @Test
+    void concurrentRunnersNeverHandOverATornRecord() throws InterruptedException {
+        TickRing ring = new TickRing(256);
+        TickRing.Reader reader = ring.newReader();
+        int runners = 4;
+        int movesPerRunner = 100_000;
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicReference<String> error = new AtomicReference<>();
+        long[] read = new long[1];
+        int[] lastMove = new int[runners];
+        long[] lastSequence = {-1};
+
+        Thread consumer = Thread.ofPlatform().start(() -> {
+            TickRing.MoveHandler check = move -> {
+                read[0]++;
+                if (move.sequence() <= lastSequence[0] || move.move() <= lastMove[move.runner()]
+                        || move.position() != position(move.runner(), move.move())
+                        || move.currentSpeed() != move.baseSpeed() * 2
+                        || move.speedState() != STATES[move.move() % STATES.length]
+                        || move.finished() != (move.move() == movesPerRunner)) {
+                    error.compareAndSet(null, "enregistrement incohérent " + move.sequence()
+                            + " : coureur " + move.runner() + ", mouvement " + move.move());
+                }
+                lastSequence[0] = move.sequence();
+                lastMove[move.runner()] = move.move();
+            };
+            while (running.get() || reader.getBacklog() > 0) {
+                if (reader.drain(check, 64) == 0) {
+                    Thread.onSpinWait();
+                }
+            }
+        });
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < runners; i++) {
+            int runner = i;
+            threads.add(Thread.ofPlatform().start(() -> {
+                for (int move = 1; move <= movesPerRunner; move++) {
+                    publish(ring, runner, move);
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        running.set(false);
+        consumer.join(10_000);
+
+        assertNull(error.get(), error.get());
+        assertEquals((long) runners * movesPerRunner, ring.getPublished());
+        assertEquals(ring.getPublished(), read[0] + reader.getLost());
+        assertTrue(read[0] > 0);
+    }
+
+    /**
+     * Publishes a record whose fields can all be checked from the runner and the move number
+     */
+    private static void publish(TickRing ring, int runner, int move) {
+        double baseSpeed = 5 + runner;
+        ring.publish(runner, move, position(runner, move), baseSpeed, baseSpeed * 2,
+                STATES[move % STATES.length], move == 100_000);
+    }
+
+    private static double position(int runner, int move) {
+        return runner * 1_000_000.0 + move;
+    }
+
+    private static void assertRecord(TickRing.Move move) {
+        assertEquals(position(move.runner(), move.move()), move.position());
+        assertEquals(5 + move.runner(), move.baseSpeed());
+        assertEquals(move.baseSpeed() * 2, move.currentSpeed());
+        assertEquals(STATES[move.move() % STATES.length], move.speedState());
+    }
+}
@@ -0,0 +1,116 @@
+package fr.digi.d202508.tp_final_java21.service;
+
+import fr.digi.d202508.tp_final_java21.config.RaceConfig;
+import fr.digi.d202508.tp_final_java21.model.Animal;
+import fr.digi.d202508.tp_final_java21.model.Species;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TickSchedulerTest {
+
+    // Ticks chained without waiting
+    private final RaceConfig config = RaceConfig.defaults()
+            .withRunnerMode(RaceConfig.RunnerMode.TICKS)
+            .withClock(SimulationClock.Mode.VIRTUAL, 1);
+
+    @Test
+    void everyAnimalMovesOncePerTick() throws InterruptedException {
+        // Several batches, the last one partial
+        RaceTrack raceTrack = track(config.withFinishLine(200), 3 * TickScheduler.BATCH_SIZE + 5);
+        TickScheduler scheduler = new TickScheduler(raceTrack);
+        CountDownLatch done = new CountDownLatch(1);
+        scheduler.start(raceTrack.getParticipants(), done::countDown);
+        assertTrue(done.await(10, TimeUnit.SECONDS), "la course ne s'est pas terminée");
+
+        // The race ends on the tick where the first animal finishes, so nobody skipped a move
+        assertTrue(scheduler.getTicks() > 1);
+        for (Animal animal : raceTrack.getParticipants()) {
+            assertEquals(scheduler.getTicks(), animal.getMoveCount(), animal.getRunnerIndex() + " : mouvements");
+        }
+    }
+
+    @Test
+    void winnerIsTheFirstInFinishOrder() throws InterruptedException {
+        int sharedFinishes = 0;
+        for (int race = 0; race < 20; race++) {
+            RaceTrack raceTrack = track(config, 4 * TickScheduler.BATCH_SIZE);
+            TickScheduler scheduler = new TickScheduler(raceTrack);
+            CountDownLatch done = new CountDownLatch(1);
+            scheduler.start(raceTrack.getParticipants(), done::countDown);
+            assertTrue(done.await(10, TimeUnit.SECONDS), "la course ne s'est pas terminée");
+
+            List<Animal> field = raceTrack.getParticipants();
+            Animal first = field.stream().min(Animal.FINISH_ORDER).orElseThrow();
+            assertSame(first, raceTrack.getWinner(), "course " + race);
+            if (field.stream().filter(Animal::isFinished).count() > 1) {
+                sharedFinishes++;
+            }
+        }
+        // Otherwise the batch order could not have picked another winner
+        assertTrue(sharedFinishes > 0, "aucune arrivée partagée entre plusieurs animaux");
+    }
+
+    @Test
+    void stopWaitsForTheRunningTickAndSignalsOnce() throws InterruptedException {
+        // Long ticks on a track nobody finishes, so that stop() lands in the middle of one
+        RaceTrack raceTrack = track(config.withFinishLine(1_000_000), 200 * TickScheduler.BATCH_SIZE);
+        List<Animal> field = raceTrack.getParticipants();
+        TickScheduler scheduler = new TickScheduler(raceTrack);
+        AtomicInteger stops = new AtomicInteger();
+        AtomicLong movesAtStop = new AtomicLong();
+        AtomicReference<String> partialTick = new AtomicReference<>();
+        CountDownLatch done = new CountDownLatch(1);
+        scheduler.start(field, () -> {
+            stops.incrementAndGet();
+            int fewest = field.stream().mapToInt(Animal::getMoveCount).min().orElseThrow();
+            int most = field.stream().mapToInt(Animal::getMoveCount).max().orElseThrow();
+            if (fewest != most) {
+                partialTick.set("arrêt pendant un tick : " + fewest + " à " + most + " mouvements");
+            }
+            movesAtStop.set(totalMoves(field));
+            done.countDown();
+        });
+        while (scheduler.getTicks() < 3) {
+            Thread.sleep(1);
+        }
+
+        List<Thread> stoppers = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            stoppers.add(Thread.ofPlatform().start(scheduler::stop));
+        }
+        for (Thread stopper : stoppers) {
+            stopper.join();
+        }
+        assertTrue(done.await(10, TimeUnit.SECONDS), "onStop n'a pas été appelé");
+        Thread.sleep(200);
+
+        assertEquals(1, stops.get(), "appels de onStop");
+        assertNull(partialTick.get());
+        assertEquals(movesAtStop.get(), totalMoves(field), "des animaux ont bougé après onStop");
+    }
+
+    private static RaceTrack track(RaceConfig config, int runners) {
+        RaceTrack raceTrack = new RaceTrack(config);
+        Species[] species = Species.values();
+        for (int i = 0; i < runners; i++) {
+            raceTrack.addParticipant(species[i % species.length].create(raceTrack));
+        }
+        return raceTrack;
+    }
+
+    private static long totalMoves(List<Animal> field) {
+        return field.stream().mapToLong(Animal::getMoveCount).sum();
+    }
+}
@@ -0,0 +1,171 @@
+package fr.digi.d202508.tp_final_java21.service;
+
+import fr.digi.d202508.tp_final_java21.config.CheckpointProperties;
+import fr.digi.d202508.tp_final_java21.config.RaceConfig;
+import fr.digi.d202508.tp_final_java21.model.RaceStatistics;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TournamentCheckpointsTest {
+
+    private static final int TOTAL_ROUNDS = 40;
+    private static final long SEED = 42;
+    private static final String[] NAMES = {"Tortue", "Lapin", "Cheval", "Tortue #2", "Lapin #2"};
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void resumedTournamentEndsWithTheSameStandings() {
+        RaceConfig config = RaceConfig.defaults();
+        RaceStatistics uninterrupted = new RaceStatistics();
+        try (TournamentCheckpoints checkpoints = checkpoints(config)) {
+            // Interrupted after 25 rounds: the checkpoint is whichever write went through last
+            for (int round = 1; round <= 25; round++) {
+                uninterrupted.recordPlacings(round(SEED, round));
+                checkpoints.roundCompleted(round, SEED, uninterrupted);
+            }
+        }
+
+        Optional<TournamentCheckpoints.Checkpoint> restored;
+        try (TournamentCheckpoints checkpoints = checkpoints(config)) {
+            restored = checkpoints.restore();
+        }
+        assertTrue(restored.isPresent());
+        assertEquals(SEED, restored.get().seed());
+        int completed = restored.get().completedRounds();
+        assertTrue(completed >= 1 && completed <= 25, "manches sauvegardées: " + completed);
+
+        // Resumed the way Tournament does: merged into fresh statistics, then the next rounds
+        RaceStatistics resumed = new RaceStatistics();
+        resumed.merge(restored.get().statistics());
+        for (int round = completed + 1; round <= TOTAL_ROUNDS; round++) {
+            resumed.recordPlacings(round(restored.get().seed(), round));
+        }
+        for (int round = 26; round <= TOTAL_ROUNDS; round++) {
+            uninterrupted.recordPlacings(round(SEED, round));
+        }
+
+        assertSameStandings(uninterrupted, resumed);
+    }
+
+    @Test
+    void checkpointOfAnotherTournamentIsIgnored() {
+        RaceConfig config = RaceConfig.defaults();
+        RaceStatistics statistics = new RaceStatistics();
+        try (TournamentCheckpoints checkpoints = checkpoints(config)) {
+            statistics.recordPlacings(round(SEED, 1));
+            checkpoints.roundCompleted(1, SEED, statistics);
+        }
+
+        try (TournamentCheckpoints otherPhysics = checkpoints(config.withFinishLine(500));
+             TournamentCheckpoints otherLength = new TournamentCheckpoints(properties(), "tournoi", config, TOTAL_ROUNDS + 1)) {
+            assertFalse(otherPhysics.restore().isPresent());
+            assertFalse(otherLength.restore().isPresent());
+        }
+    }
+
+    @Test
+    void finishedTournamentLeavesNoCheckpoint() {
+        RaceConfig config = RaceConfig.defaults();
+        RaceStatistics statistics = new RaceStatistics();
+        try (TournamentCheckpoints checkpoints = checkpoints(config)) {
+            statistics.recordPlacings(round(SEED, 1));
+            checkpoints.roundCompleted(1, SEED, statistics);
+            checkpoints.finish();
+        }
+        assertFalse(Files.exists(directory.resolve("tournoi.ckpt")));
+    }
+
+    @Test
+    void checkpointSizeDoesNotGrowWithTheRounds() throws Exception {
+        RaceConfig config = RaceConfig.defaults();
+        // Once the sketches have reached the range of the values, only counters change
+        long afterFewRounds = checkpointSize(config, 2_000);
+        long afterManyRounds = checkpointSize(config, 20_000);
+        // Before the running sums, every race added 12 bytes per animal (over 1 MB here)
+        assertTrue(afterManyRounds - afterFewRounds < 2_048,
+                afterFewRounds + " octets après 2 000 manches, " + afterManyRounds + " après 20 000");
+    }
+
+    private long checkpointSize(RaceConfig config, int rounds) throws Exception {
+        Path file = directory.resolve("tournoi.ckpt");
+        Files.deleteIfExists(file);
+        RaceStatistics statistics = new RaceStatistics();
+        for (int round = 1; round <= rounds; round++) {
+            statistics.recordPlacings(round(SEED, round));
+        }
+        try (TournamentCheckpoints checkpoints = new TournamentCheckpoints(properties(), "tournoi", config, rounds + 1)) {
+            checkpoints.roundCompleted(rounds, SEED, statistics);
+        }
+        return Files.size(file);
+    }
+
+    private TournamentCheckpoints checkpoints(RaceConfig config) {
+        return new TournamentCheckpoints(properties(), "tournoi", config, TOTAL_ROUNDS);
+    }
+
+    private CheckpointProperties properties() {
+        // Interval 0: a checkpoint after every round whose previous write is done
+        return new CheckpointProperties(directory.toString(), Duration.ZERO);
+    }
+
+    /**
+     * Ranking of a round, drawn from the tournament seed and the round number like the base speeds
+     */
+    private static List<RaceStatistics.Placing> round(long seed, int round) {
+        SplittableRandom random = new SplittableRandom(seed * 31 + round);
+        List<String> field = new ArrayList<>(List.of(NAMES));
+        List<RaceStatistics.Placing> ranking = new ArrayList<>(field.size());
+        double distance = 50;
+        while (!field.isEmpty()) {
+            String name = field.remove(random.nextInt(field.size()));
+            ranking.add(new RaceStatistics.Placing(name, distance, 6 + random.nextDouble() * 5,
+                    distance >= 50 ? 20 + random.nextInt(10) : Double.NaN));
+            distance -= 1 + random.nextDouble() * 5;
+        }
+        return ranking;
+    }
+
+    private static void assertSameStandings(RaceStatistics expected, RaceStatistics actual) {
+        assertEquals(expected.getTotalRounds(), actual.getTotalRounds());
+        List<RaceStatistics.AnimalStats> expectedStandings = expected.getAllStatsSortedByWins();
+        List<RaceStatistics.AnimalStats> actualStandings = actual.getAllStatsSortedByWins();
+        assertEquals(names(expectedStandings), names(actualStandings));
+        for (int i = 0; i < expectedStandings.size(); i++) {
+            RaceStatistics.AnimalStats e = expectedStandings.get(i);
+            RaceStatistics.AnimalStats a = actualStandings.get(i);
+            assertEquals(e.getWins(), a.getWins(), e.getName());
+            assertEquals(e.getSecondPlace(), a.getSecondPlace(), e.getName());
+            assertEquals(e.getThirdPlace(), a.getThirdPlace(), e.getName());
+            assertEquals(e.getRaces(), a.getRaces(), e.getName());
+            assertEquals(e.getAverageSpeed(), a.getAverageSpeed(), 1e-9, e.getName());
+            assertEquals(e.getAveragePosition(), a.getAveragePosition(), 1e-9, e.getName());
+            assertEquals(e.getPositionVariance(), a.getPositionVariance(), 1e-9, e.getName());
+            assertEquals(e.getTotalDistance(), a.getTotalDistance(), 1e-9, e.getName());
+            assertEquals(e.getSpeedSketch().quantile(0.5), a.getSpeedSketch().quantile(0.5), e.getName());
+            assertEquals(expected.getRank(e.getName()), actual.getRank(e.getName()));
+            for (RaceStatistics.AnimalStats opponent : expectedStandings) {
+                assertEquals(expected.getTimesAhead(e.getName(), opponent.getName()),
+                        actual.getTimesAhead(e.getName(), opponent.getName()));
+            }
+        }
+        assertEquals(names(expected.getTopRated(NAMES.length)), names(actual.getTopRated(NAMES.length)));
+    }
+
+    private static List<String> names(List<RaceStatistics.AnimalStats> stats) {
+        return stats.stream().map(RaceStatistics.AnimalStats::getName).toList();
+    }
+}
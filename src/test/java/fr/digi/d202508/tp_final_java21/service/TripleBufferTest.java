@@ -0,0 +1,74 @@
+package fr.digi.d202508.tp_final_java21.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TripleBufferTest {
+
+    // Long enough for a reader racing the writer to catch it halfway through a frame
+    private static final int FRAME_SIZE = 256;
+
+    @Test
+    void nothingNewMeansNoFrame() {
+        TripleBuffer<long[]> buffer = new TripleBuffer<>(() -> new long[FRAME_SIZE]);
+        assertNull(buffer.acquire());
+
+        Arrays.fill(buffer.back(), 1);
+        buffer.publish();
+        Arrays.fill(buffer.back(), 2);
+        buffer.publish();
+        long[] frame = buffer.acquire();
+        assertEquals(2, frame[0]);
+        assertSame(frame, buffer.front());
+        assertNull(buffer.acquire());
+    }
+
+    @Test
+    void readerNeverSeesATornOrOlderFrame() throws InterruptedException {
+        TripleBuffer<long[]> buffer = new TripleBuffer<>(() -> new long[FRAME_SIZE]);
+        long frames = 200_000;
+        Thread writer = Thread.ofPlatform().start(() -> {
+            for (long sequence = 1; sequence <= frames; sequence++) {
+                Arrays.fill(buffer.back(), sequence);
+                buffer.publish();
+            }
+        });
+
+        AtomicReference<String> failure = new AtomicReference<>();
+        long last = 0;
+        long acquired = 0;
+        while (last < frames && failure.get() == null) {
+            long[] frame = buffer.acquire();
+            if (frame == null) {
+                Thread.onSpinWait();
+                continue;
+            }
+            acquired++;
+            long sequence = frame[0];
+            // Read twice: the writer must not be filling the frame held by the reader
+            for (int pass = 0; pass < 2; pass++) {
+                for (long value : frame) {
+                    if (value != sequence) {
+                        failure.set("image déchirée : " + sequence + " et " + value);
+                    }
+                }
+            }
+            if (sequence <= last) {
+                failure.set("image " + sequence + " reçue après l'image " + last);
+            }
+            last = sequence;
+        }
+        writer.join();
+
+        assertNull(failure.get(), failure.get());
+        assertEquals(frames, last);
+        assertTrue(acquired > 1, "une seule image lue");
+    }
+}
@@ -0,0 +1,67 @@
+package fr.digi.d202508.tp_final_java21.simulation;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BinomialTest {
+
+    private static final int DRAWS = 200_000;
+
+    @Test
+    void degenerateTrialsNeedNoRandomness() {
+        SplittableRandom random = new SplittableRandom(1);
+        assertEquals(0, Binomial.sample(random, 0, 0.3));
+        assertEquals(0, Binomial.sample(random, 40, 0.0));
+        assertEquals(40, Binomial.sample(random, 40, 1.0));
+    }
+
+    @Test
+    void inversionFollowsTheBinomialDistribution() {
+        // n.p = 6: drawn by inversion
+        assertFitsBinomial(20, 0.3, 2);
+    }
+
+    @Test
+    void rejectionFollowsTheBinomialDistribution() {
+        // n.p = 60 and 150: drawn by BTRD, in the box and in the tails
+        assertFitsBinomial(200, 0.3, 3);
+        assertFitsBinomial(1_000, 0.15, 4);
+    }
+
+    @Test
+    void likelyTrialsCountTheFailures() {
+        // p > 1/2: drawn as n minus a binomial of the failures
+        assertFitsBinomial(50, 0.8, 5);
+        assertFitsBinomial(400, 0.95, 6);
+    }
+
+    /**
+     * Pearson's test of the draws against the exact probabilities, at the 0.1% level
+     */
+    private static void assertFitsBinomial(int n, double p, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        long[] observed = new long[n + 1];
+        for (int i = 0; i < DRAWS; i++) {
+            int k = Binomial.sample(random, n, p);
+            assertTrue(k >= 0 && k <= n, "tirage hors bornes: " + k);
+            observed[k]++;
+        }
+        double[] expected = new double[n + 1];
+        for (int k = 0; k <= n; k++) {
+            expected[k] = DRAWS * Math.exp(logChoose(n, k) + k * Math.log(p) + (n - k) * Math.log1p(-p));
+        }
+        ChiSquare.assertFits(observed, expected, "binomiale(" + n + ", " + p + ")");
+    }
+
+    private static double logChoose(int n, int k) {
+        double log = 0;
+        for (int i = 1; i <= k; i++) {
+            log += Math.log((double) (n - k + i) / i);
+        }
+        return log;
+    }
+}
@@ -0,0 +1,91 @@
+package fr.digi.d202508.tp_final_java21.simulation;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Pearson's chi-square tests at the 0.1% level, for the distribution tests of the samplers
+ */
+final class ChiSquare {
+
+    // Neighbouring classes are pooled until they expect at least this many draws
+    private static final double MIN_EXPECTED = 5;
+    // Standard normal quantile of 0.999
+    private static final double Z_999 = 3.0902;
+
+    private ChiSquare() {
+    }
+
+    /**
+     * Checks observed counts against expected ones
+     * @param observed counts per class
+     * @param expected expected counts per class, same total
+     * @param what description for the failure message
+     */
+    static void assertFits(long[] observed, double[] expected, String what) {
+        List<double[]> classes = pool(observed, expected, MIN_EXPECTED);
+        double statistic = 0;
+        for (double[] pooled : classes) {
+            statistic += square(pooled[0] - pooled[1]) / pooled[1];
+        }
+        assertBelowCritical(statistic, classes.size() - 1, what);
+    }
+
+    /**
+     * Checks that two samples of the same size come from the same distribution
+     * @param first counts per class of the first sample
+     * @param second counts per class of the second sample
+     * @param what description for the failure message
+     */
+    static void assertSameDistribution(long[] first, long[] second, String what) {
+        double[] total = new double[first.length];
+        for (int i = 0; i < first.length; i++) {
+            total[i] = first[i] + second[i];
+        }
+        List<double[]> classes = pool(first, total, 2 * MIN_EXPECTED);
+        double statistic = 0;
+        for (double[] pooled : classes) {
+            // Each sample expects half of the class
+            double other = pooled[1] - pooled[0];
+            statistic += square(pooled[0] - other) / pooled[1];
+        }
+        assertBelowCritical(statistic, classes.size() - 1, what);
+    }
+
+    /**
+     * Pools neighbouring classes until each expects enough draws; the rest of the tail joins the last class
+     * @return observed and expected count of each pooled class
+     */
+    private static List<double[]> pool(long[] observed, double[] expected, double minExpected) {
+        List<double[]> classes = new ArrayList<>();
+        double[] current = new double[2];
+        for (int i = 0; i < observed.length; i++) {
+            current[0] += observed[i];
+            current[1] += expected[i];
+            if (current[1] >= minExpected) {
+                classes.add(current);
+                current = new double[2];
+            }
+        }
+        if (current[1] > 0 && !classes.isEmpty()) {
+            double[] last = classes.get(classes.size() - 1);
+            last[0] += current[0];
+            last[1] += current[1];
+        }
+        return classes;
+    }
+
+    private static void assertBelowCritical(double statistic, int degreesOfFreedom, String what) {
+        // Wilson-Hilferty approximation of the chi-square quantile
+        double h = 2.0 / (9 * degreesOfFreedom);
+        double critical = degreesOfFreedom * Math.pow(1 - h + Z_999 * Math.sqrt(h), 3);
+        assertTrue(statistic < critical, String.format("%s : khi² %.1f pour %d degrés de liberté (seuil %.1f)",
+                what, statistic, degreesOfFreedom, critical));
+    }
+
+    private static double square(double value) {
+        return value * value;
+    }
+}
@@ -0,0 +1,76 @@
+package fr.digi.d202508.tp_final_java21.simulation;
+
+import fr.digi.d202508.tp_final_java21.config.RaceConfig;
+import fr.digi.d202508.tp_final_java21.model.Animal;
+import fr.digi.d202508.tp_final_java21.model.Species;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class HeatSimulatorTest {
+
+    private static final int HEATS = 20_000;
+    // Long enough for the skip-ahead engine to draw most of the race in blocks
+    private final RaceConfig config = RaceConfig.defaults().withFinishLine(500);
+
+    @Test
+    void skipAheadGivesTheSameOutcomesAsStepByStep() {
+        Outcomes step = run(HeatSimulator.Engine.STEP, 1);
+        Outcomes skipAhead = run(HeatSimulator.Engine.SKIP_AHEAD, 2);
+
+        ChiSquare.assertSameDistribution(step.winners, skipAhead.winners, "espèce gagnante");
+        ChiSquare.assertSameDistribution(step.winningTicks, skipAhead.winningTicks, "tick d'arrivée du gagnant");
+        ChiSquare.assertSameDistribution(step.lastPositions, skipAhead.lastPositions, "position du dernier");
+    }
+
+    @Test
+    void heatEndsOnTheFirstFinishingTick() {
+        HeatSimulator simulator = new HeatSimulator(config, HeatSimulator.Engine.SKIP_AHEAD);
+        SplittableRandom random = new SplittableRandom(3);
+        for (int heat = 0; heat < 1_000; heat++) {
+            List<Animal> ranking = simulator.run(field(simulator, random), random);
+            Animal winner = ranking.get(0);
+            assertEquals(config.finishLine(), winner.getPosition());
+            // Every animal made the same number of moves, the winner's last one crossing the line
+            for (Animal animal : ranking) {
+                assertEquals(winner.getMoveCount(), animal.getMoveCount());
+            }
+        }
+    }
+
+    /**
+     * Histograms of the heats run by one engine
+     */
+    private Outcomes run(HeatSimulator.Engine engine, long seed) {
+        HeatSimulator simulator = new HeatSimulator(config, engine);
+        SplittableRandom random = new SplittableRandom(seed);
+        Outcomes outcomes = new Outcomes();
+        for (int heat = 0; heat < HEATS; heat++) {
+            List<Animal> ranking = simulator.run(field(simulator, random), random);
+            outcomes.winners[ranking.get(0).getSpecies().ordinal()]++;
+            outcomes.winningTicks[(int) ranking.get(0).getFinishTick()]++;
+            outcomes.lastPositions[(int) ranking.get(ranking.size() - 1).getPosition()]++;
+        }
+        return outcomes;
+    }
+
+    private static List<Animal> field(HeatSimulator simulator, SplittableRandom random) {
+        List<Animal> animals = new ArrayList<>();
+        for (Species species : Species.values()) {
+            Animal animal = simulator.newAnimal(species);
+            animal.reset(random);
+            animals.add(animal);
+        }
+        return animals;
+    }
+
+    private final class Outcomes {
+        private final long[] winners = new long[Species.values().length];
+        private final long[] winningTicks = new long[2_000];
+        private final long[] lastPositions = new long[config.finishLine() + 1];
+    }
+}
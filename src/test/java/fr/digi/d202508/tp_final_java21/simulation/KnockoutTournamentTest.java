@@ -0,0 +1,61 @@
+package fr.digi.d202508.tp_final_java21.simulation;
+
+import fr.digi.d202508.tp_final_java21.config.RaceConfig;
+import fr.digi.d202508.tp_final_java21.service.SimulationClock;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class KnockoutTournamentTest {
+
+    private final RaceConfig config = RaceConfig.defaults().withClock(SimulationClock.Mode.VIRTUAL, 1);
+
+    @Test
+    void stagesShrinkUntilAFinal() {
+        assertEquals(List.of(1_000, 300, 90, 27, 9), plan(1_000));
+    }
+
+    @Test
+    void incompleteHeatQualifiesAtMostItsEntrants() {
+        // The last heat of a stage has the 3 or 1 entrants left over
+        assertEquals(List.of(1_003, 303, 93, 30, 9), plan(1_003));
+        assertEquals(List.of(1_001, 301, 91, 28, 9), plan(1_001));
+    }
+
+    @Test
+    void smallPoolOnlyRunsTheFinal() {
+        assertEquals(List.of(8), plan(8));
+        assertEquals(List.of(10), plan(10));
+    }
+
+    @Test
+    void invalidBracketIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new KnockoutTournament(100, 10, 10, 1, config));
+        assertThrows(IllegalArgumentException.class, () -> new KnockoutTournament(100, 1, 0, 1, config));
+        assertThrows(IllegalArgumentException.class, () -> new KnockoutTournament(0, 10, 3, 1, config));
+        assertThrows(IllegalArgumentException.class, () -> new KnockoutTournament(100, 10, 3, 0, config));
+    }
+
+    @Test
+    void everyStageRunsItsHeatsUpToTheFinal() {
+        KnockoutTournament tournament = new KnockoutTournament(10_007, 10, 3, 2, config);
+        List<Entrant> ranking = tournament.runTournament();
+
+        List<Integer> sizes = tournament.getStageSizes();
+        assertEquals(sizes.get(sizes.size() - 1), ranking.size());
+        assertEquals(ranking.size(), ranking.stream().map(Entrant::id).distinct().count());
+        assertTrue(ranking.stream().allMatch(entrant -> entrant.id() >= 1 && entrant.id() <= 10_007));
+        List<Integer> heats = tournament.getCompletedHeats();
+        for (int stage = 0; stage < sizes.size(); stage++) {
+            assertEquals((sizes.get(stage) + 9) / 10, heats.get(stage), "manches du tour " + (stage + 1));
+        }
+    }
+
+    private List<Integer> plan(int entrants) {
+        return new KnockoutTournament(entrants, 10, 3, 1, config).getStageSizes();
+    }
+}
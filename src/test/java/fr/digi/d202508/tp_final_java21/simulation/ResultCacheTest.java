@@ -0,0 +1,127 @@
+package fr.digi.d202508.tp_final_java21.simulation;
+
+import fr.digi.d202508.tp_final_java21.config.CacheProperties;
+import fr.digi.d202508.tp_final_java21.config.JobProperties;
+import fr.digi.d202508.tp_final_java21.config.RaceConfig;
+import fr.digi.d202508.tp_final_java21.service.SimulationClock;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ResultCacheTest {
+
+    private static final HeatSimulator.Engine ENGINE = HeatSimulator.Engine.SKIP_AHEAD;
+
+    private final RaceConfig config = RaceConfig.defaults();
+    private final JobRequest request = new JobRequest(JobRequest.Kind.TOURNAMENT, 500, 0, 42L);
+
+    @TempDir
+    Path spillDirectory;
+
+    @Test
+    void keyOnlyDependsOnWhatChangesTheResult() {
+        String key = ResultCache.keyOf(config, request, ENGINE);
+        assertEquals(key, ResultCache.keyOf(RaceConfig.defaults(), new JobRequest(JobRequest.Kind.TOURNAMENT, 500, 0, 42L), ENGINE));
+        // Pacing only
+        assertEquals(key, ResultCache.keyOf(config.withClock(SimulationClock.Mode.VIRTUAL, 1), request, ENGINE));
+
+        assertNotEquals(key, ResultCache.keyOf(config, new JobRequest(JobRequest.Kind.TOURNAMENT, 500, 0, 43L), ENGINE));
+        assertNotEquals(key, ResultCache.keyOf(config, new JobRequest(JobRequest.Kind.TOURNAMENT, 501, 0, 42L), ENGINE));
+        assertNotEquals(key, ResultCache.keyOf(config.withFinishLine(60), request, ENGINE));
+        assertNotEquals(key, ResultCache.keyOf(config, request, HeatSimulator.Engine.STEP));
+        assertNotEquals(key, ResultCache.keyOf(config,
+                new JobRequest(JobRequest.Kind.TOURNAMENT, 500, 0, 42L, Sampling.ANTITHETIC), ENGINE));
+        assertNotEquals(key, ResultCache.keyOf(config,
+                new JobRequest(JobRequest.Kind.TOURNAMENT, 500, 0, 42L, Sampling.NAIVE, 0.05), ENGINE));
+    }
+
+    @Test
+    void jobWithoutSeedHasNoKey() {
+        assertThrows(IllegalArgumentException.class,
+                () -> ResultCache.keyOf(config, new JobRequest(JobRequest.Kind.RACE, 1, 0, null), ENGINE));
+    }
+
+    @Test
+    void expiredResultIsAMiss() throws InterruptedException {
+        ResultCache cache = new ResultCache(new CacheProperties(10, Duration.ofMillis(20), ""));
+        cache.put("a", result(10));
+        assertTrue(cache.get("a").isPresent());
+        Thread.sleep(50);
+        assertTrue(cache.get("a").isEmpty());
+        assertEquals(1, cache.getMisses());
+    }
+
+    @Test
+    void leastRecentlyUsedResultIsEvicted() {
+        ResultCache cache = new ResultCache(new CacheProperties(2, Duration.ofHours(1), ""));
+        cache.put("a", result(1));
+        cache.put("b", result(2));
+        cache.get("a");
+        cache.put("c", result(3));
+
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.getEvictions());
+        assertTrue(cache.get("a").isPresent());
+        assertTrue(cache.get("b").isEmpty());
+        assertTrue(cache.get("c").isPresent());
+    }
+
+    @Test
+    void evictedResultIsReloadedFromDisk() {
+        ResultCache cache = new ResultCache(new CacheProperties(1, Duration.ofHours(1), spillDirectory.toString()));
+        ResultCache.Result stoppedEarly = new ResultCache.Result(standings(), 300, SequentialStopping.Reason.LEADER);
+        cache.put("a", stoppedEarly);
+        cache.put("b", result(2));
+
+        Optional<ResultCache.Result> reloaded = cache.get("a");
+        assertTrue(reloaded.isPresent());
+        assertEquals(stoppedEarly, reloaded.get());
+        assertEquals(1, cache.getDiskHits());
+    }
+
+    @Test
+    void repeatedJobReportsTheRoundsOfTheFirstRun() throws InterruptedException {
+        JobRequest adaptive = new JobRequest(JobRequest.Kind.TOURNAMENT, 20_000, 0, 7L, Sampling.NAIVE, 0.05);
+        try (RaceJobService service = new RaceJobService(config,
+                new JobProperties(1, 4, 100_000, 100, ENGINE), new CacheProperties(10, Duration.ofHours(1), ""))) {
+            JobStatus first = awaitFinished(service, service.submit(adaptive).id());
+            assertEquals(JobStatus.State.DONE, first.state());
+            assertTrue(first.roundsPlayed() < adaptive.rounds(), "manches jouées: " + first.roundsPlayed());
+
+            JobStatus repeat = service.submit(adaptive);
+            assertEquals(JobStatus.State.DONE, repeat.state());
+            assertEquals(first.standings(), repeat.standings());
+            assertEquals(first.roundsPlayed(), repeat.roundsPlayed());
+            assertEquals(first.stopReason(), repeat.stopReason());
+            assertEquals(1, service.getCache().getHits());
+        }
+    }
+
+    static JobStatus awaitFinished(RaceJobService service, long id) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(30).toNanos();
+        JobStatus status = service.find(id).orElseThrow();
+        while (!status.isFinished() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+            status = service.find(id).orElseThrow();
+        }
+        return status;
+    }
+
+    private static ResultCache.Result result(int rounds) {
+        return new ResultCache.Result(standings(), rounds, SequentialStopping.Reason.MAX_ROUNDS);
+    }
+
+    private static List<JobStatus.Standing> standings() {
+        return List.of(new JobStatus.Standing("Lapin", 5, 50.0, 9.1), new JobStatus.Standing("Cheval", 3, 30.0, 8.9),
+                new JobStatus.Standing("Tortue", 2, 20.0, 7.0));
+    }
+}
@@ -0,0 +1,107 @@
+package fr.digi.d202508.tp_final_java21.simulation;
+
+import fr.digi.d202508.tp_final_java21.model.RaceStatistics;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SequentialStoppingTest {
+
+    private static final List<String> FIELD = List.of("Tortue", "Lapin", "Cheval");
+
+    @Test
+    void precisionMustBeAFraction() {
+        assertThrows(IllegalArgumentException.class, () -> new SequentialStopping(0));
+        assertThrows(IllegalArgumentException.class, () -> new SequentialStopping(1));
+        assertThrows(IllegalArgumentException.class, () -> new SequentialStopping(Double.NaN));
+    }
+
+    @Test
+    void nothingIsDecidedBeforeTheFirstCheck() {
+        SequentialStopping stopping = new SequentialStopping(0.5);
+        RaceStatistics statistics = new RaceStatistics();
+        for (int round = 1; round < SequentialStopping.CHECK_INTERVAL; round++) {
+            record(statistics, 0);
+            assertEquals(Optional.empty(), stopping.check(statistics));
+        }
+        assertTrue(Double.isNaN(stopping.getLargestHalfWidth()));
+    }
+
+    @Test
+    void clearLeaderStopsTheTournamentEarly() {
+        SequentialStopping stopping = new SequentialStopping(0.01);
+        RaceStatistics statistics = new RaceStatistics();
+        // Out of every 10 rounds: 7 won by the Tortue, 2 by the Lapin, 1 by the Cheval
+        int[] winners = {0, 0, 1, 0, 0, 2, 0, 1, 0, 0};
+        Optional<SequentialStopping.Reason> reason = Optional.empty();
+        while (reason.isEmpty()) {
+            for (int round = 0; round < SequentialStopping.CHECK_INTERVAL; round++) {
+                record(statistics, winners[round % winners.length]);
+            }
+            reason = stopping.check(statistics);
+        }
+        // 210 wins against 60 after 300 rounds: log ratio 5.8, above log(99) = 4.6 (3.9 after 200 rounds)
+        assertEquals(SequentialStopping.Reason.LEADER, reason.get());
+        assertEquals(300, statistics.getTotalRounds());
+        assertTrue(stopping.getLogLikelihoodRatio() >= Math.log(99));
+        assertTrue(stopping.getLargestHalfWidth() > 0.01);
+    }
+
+    @Test
+    void closeFieldRunsUntilThePrecisionIsReached() {
+        SequentialStopping stopping = new SequentialStopping(0.05);
+        RaceStatistics statistics = new RaceStatistics();
+        Optional<SequentialStopping.Reason> reason = Optional.empty();
+        while (reason.isEmpty()) {
+            for (int round = 0; round < SequentialStopping.CHECK_INTERVAL; round++) {
+                record(statistics, statistics.getTotalRounds() % FIELD.size());
+            }
+            reason = stopping.check(statistics);
+        }
+        // 1.96 sqrt((1/3)(2/3) / n) <= 0.05 from n = 342 on
+        assertEquals(SequentialStopping.Reason.PRECISION, reason.get());
+        assertEquals(400, statistics.getTotalRounds());
+        assertTrue(stopping.getLargestHalfWidth() <= 0.05);
+    }
+
+    @Test
+    void evenDuelRarelyNamesALeader() {
+        SplittableRandom random = new SplittableRandom(8);
+        int tournaments = 200;
+        int falseLeaders = 0;
+        for (int tournament = 0; tournament < tournaments; tournament++) {
+            // Out of reach within 3,000 rounds: only the sequential test can stop
+            SequentialStopping stopping = new SequentialStopping(0.001);
+            RaceStatistics statistics = new RaceStatistics();
+            Optional<SequentialStopping.Reason> reason = Optional.empty();
+            while (reason.isEmpty() && statistics.getTotalRounds() < 3_000) {
+                for (int round = 0; round < SequentialStopping.CHECK_INTERVAL; round++) {
+                    // The Tortue and the Lapin win half of the rounds each
+                    record(statistics, random.nextInt(2));
+                }
+                reason = stopping.check(statistics);
+            }
+            falseLeaders += reason.isPresent() ? 1 : 0;
+        }
+        // Error rate of 1% per side, either animal can be taken for the leader
+        assertTrue(falseLeaders <= tournaments * 0.04, falseLeaders + " leaders désignés à tort sur " + tournaments);
+    }
+
+    private static void record(RaceStatistics statistics, int winner) {
+        List<RaceStatistics.Placing> placings = new ArrayList<>();
+        placings.add(new RaceStatistics.Placing(FIELD.get(winner), 50, 8, Double.NaN));
+        for (int i = 0; i < FIELD.size(); i++) {
+            if (i != winner) {
+                placings.add(new RaceStatistics.Placing(FIELD.get(i), 40, 8, Double.NaN));
+            }
+        }
+        statistics.recordPlacings(placings);
+    }
+}
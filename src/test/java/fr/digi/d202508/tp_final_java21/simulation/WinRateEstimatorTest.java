@@ -0,0 +1,78 @@
+package fr.digi.d202508.tp_final_java21.simulation;
+
+import fr.digi.d202508.tp_final_java21.config.RaceConfig;
+import fr.digi.d202508.tp_final_java21.model.Species;
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WinRateEstimatorTest {
+
+    // Independent batches per strategy, each a whole number of stratified blocks
+    private static final int BATCHES = 40;
+    private static final int ROUNDS = 32 * RoundSampler.STRATA;
+    // Standard errors allowed between two means before calling one of them biased
+    private static final double Z = 4.0;
+    // Upper 1% point of the F law with (39, 39) degrees of freedom: a variance ratio above it is not noise
+    private static final double F_CRITICAL = 2.1;
+
+    private final RaceConfig config = RaceConfig.defaults();
+
+    @Test
+    void varianceReductionIsUnbiasedAndNoNoisier() {
+        Spread naive = batches(Sampling.NAIVE);
+        for (Sampling sampling : new Sampling[]{Sampling.ANTITHETIC, Sampling.STRATIFIED}) {
+            Spread reduced = batches(sampling);
+            double naiveTotal = 0;
+            double reducedTotal = 0;
+            for (Species species : Species.values()) {
+                int s = species.ordinal();
+                double bound = Z * Math.sqrt((naive.variance(s) + reduced.variance(s)) / BATCHES);
+                String what = sampling + " / " + species + " : " + reduced.mean(s) + " contre " + naive.mean(s)
+                        + " en moyenne, variance " + reduced.variance(s) + " contre " + naive.variance(s);
+                assertTrue(Math.abs(reduced.mean(s) - naive.mean(s)) <= bound, "biais " + what);
+                // Rare winners (the Tortue) gain nothing: their variance only has to stay within the noise
+                assertTrue(reduced.variance(s) <= F_CRITICAL * naive.variance(s), "variance plus forte " + what);
+                naiveTotal += naive.variance(s);
+                reducedTotal += reduced.variance(s);
+            }
+            assertTrue(reducedTotal < naiveTotal, sampling + " : variance totale " + reducedTotal + " contre " + naiveTotal);
+        }
+    }
+
+    /**
+     * Win rates of independent batches of one strategy, from a fixed seed
+     */
+    private Spread batches(Sampling sampling) {
+        WinRateEstimator estimator = new WinRateEstimator(config, HeatSimulator.Engine.SKIP_AHEAD);
+        SplittableRandom random = new SplittableRandom(17);
+        Spread spread = new Spread();
+        for (int batch = 0; batch < BATCHES; batch++) {
+            double[] winRates = estimator.estimate(ROUNDS, sampling, random.split()).winRates();
+            for (int s = 0; s < winRates.length; s++) {
+                spread.sum[s] += winRates[s];
+                spread.sumOfSquares[s] += winRates[s] * winRates[s];
+            }
+        }
+        return spread;
+    }
+
+    /**
+     * Mean and variance of the win rates across batches
+     */
+    private static final class Spread {
+        private final double[] sum = new double[Species.values().length];
+        private final double[] sumOfSquares = new double[Species.values().length];
+
+        private double mean(int species) {
+            return sum[species] / BATCHES;
+        }
+
+        private double variance(int species) {
+            double mean = mean(species);
+            return (sumOfSquares[species] - BATCHES * mean * mean) / (BATCHES - 1);
+        }
+    }
+}
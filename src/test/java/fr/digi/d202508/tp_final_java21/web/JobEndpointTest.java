@@ -0,0 +1,115 @@
+package fr.digi.d202508.tp_final_java21.web;
+
+import fr.digi.d202508.tp_final_java21.config.CacheProperties;
+import fr.digi.d202508.tp_final_java21.config.JobProperties;
+import fr.digi.d202508.tp_final_java21.config.RaceConfig;
+import fr.digi.d202508.tp_final_java21.config.WebProperties;
+import fr.digi.d202508.tp_final_java21.simulation.HeatSimulator;
+import fr.digi.d202508.tp_final_java21.simulation.RaceJobService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JobEndpointTest {
+
+    private static final Pattern ID = Pattern.compile("\"id\":(\\d+)");
+
+    private final HttpClient client = HttpClient.newHttpClient();
+    private EmbeddedHttpServer server;
+    private RaceJobService jobService;
+
+    /**
+     * Starts the server on a free port with the given queue
+     */
+    private void start(int workers, int queueCapacity) {
+        server = new EmbeddedHttpServer(new WebProperties(true, 0, 15_000, 500));
+        jobService = new RaceJobService(RaceConfig.defaults(),
+                new JobProperties(workers, queueCapacity, 100_000, 100, HeatSimulator.Engine.STEP),
+                new CacheProperties(16, Duration.ofHours(1), ""));
+        new JobEndpoint(server, jobService);
+        server.start();
+    }
+
+    @AfterEach
+    void stop() {
+        if (server != null) {
+            server.stop();
+            jobService.close();
+        }
+    }
+
+    @Test
+    void submittedJobIsPolledUntilDone() throws Exception {
+        start(1, 4);
+        HttpResponse<String> submitted = send("POST", "/jobs?type=tournament&rounds=200&seed=42");
+        assertEquals(202, submitted.statusCode(), submitted.body());
+        String id = id(submitted.body());
+        assertEquals("/jobs/" + id, submitted.headers().firstValue("Location").orElseThrow());
+
+        HttpResponse<String> status = send("GET", "/jobs/" + id);
+        long deadline = System.nanoTime() + Duration.ofSeconds(30).toNanos();
+        while (!status.body().contains("\"state\":\"DONE\"") && System.nanoTime() < deadline) {
+            assertEquals(200, status.statusCode());
+            Thread.sleep(20);
+            status = send("GET", "/jobs/" + id);
+        }
+        assertTrue(status.body().contains("\"state\":\"DONE\""), status.body());
+        assertTrue(status.body().contains("\"roundsPlayed\":200"), status.body());
+        assertTrue(status.body().contains("\"name\":\"Lapin\""), status.body());
+
+        // Same seed: answered from the cache, already done
+        HttpResponse<String> repeat = send("POST", "/jobs?type=tournament&rounds=200&seed=42");
+        assertEquals(200, repeat.statusCode(), repeat.body());
+        assertTrue(repeat.body().contains("\"roundsPlayed\":200"), repeat.body());
+    }
+
+    @Test
+    void fullQueueIsRejectedWithServiceUnavailable() throws Exception {
+        // One worker busy with a long job, one place in the queue
+        start(1, 1);
+        assertEquals(202, send("POST", "/jobs?type=tournament&rounds=100000").statusCode());
+        assertEquals(202, send("POST", "/jobs?type=tournament&rounds=100000").statusCode());
+
+        HttpResponse<String> rejected = send("POST", "/jobs?type=tournament&rounds=100000");
+        assertEquals(503, rejected.statusCode(), rejected.body());
+        assertEquals("1", rejected.headers().firstValue("Retry-After").orElseThrow());
+
+        HttpResponse<String> queue = send("GET", "/jobs");
+        assertTrue(queue.body().contains("\"queued\":1"), queue.body());
+        assertTrue(queue.body().contains("\"rejected\":1"), queue.body());
+    }
+
+    @Test
+    void invalidRequestsAreAnswered() throws Exception {
+        start(1, 1);
+        assertEquals(400, send("POST", "/jobs?type=tournament&rounds=-3").statusCode());
+        assertEquals(400, send("POST", "/jobs?type=tournament&rounds=200000").statusCode());
+        assertEquals(400, send("GET", "/jobs/abc").statusCode());
+        assertEquals(404, send("GET", "/jobs/999").statusCode());
+        assertEquals(405, send("DELETE", "/jobs").statusCode());
+    }
+
+    private HttpResponse<String> send(String method, String path) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + server.getPort() + path))
+                .method(method, HttpRequest.BodyPublishers.noBody())
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static String id(String json) {
+        Matcher matcher = ID.matcher(json);
+        assertTrue(matcher.find(), json);
+        return matcher.group(1);
+    }
+}
@@ -0,0 +1,213 @@
+package fr.digi.d202508.tp_final_java21.web;
+
+import fr.digi.d202508.tp_final_java21.config.RaceConfig;
+import fr.digi.d202508.tp_final_java21.config.WebProperties;
+import fr.digi.d202508.tp_final_java21.model.Animal;
+import fr.digi.d202508.tp_final_java21.model.Species;
+import fr.digi.d202508.tp_final_java21.service.RaceTrack;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LiveFeedEndpointTest {
+
+    private static final int FAST_VIEWERS = 20;
+    private static final int STALLED_VIEWERS = 20;
+    // About 33 KB per frame: a stalled socket is full after a few dozen frames
+    private static final int RUNNERS = 300;
+    private static final int MOVES = 2_000;
+    private static final long WRITE_TIMEOUT_MS = 250;
+
+    private EmbeddedHttpServer server;
+    private LiveFeedEndpoint endpoint;
+    private final List<Viewer> viewers = new ArrayList<>();
+
+    @AfterEach
+    void stop() throws IOException {
+        for (Viewer viewer : viewers) {
+            viewer.socket.close();
+        }
+        if (endpoint != null) {
+            endpoint.close();
+        }
+        if (server != null) {
+            server.stop();
+        }
+    }
+
+    @Test
+    void stalledViewersAreDroppedWithoutSlowingTheRunners() throws Exception {
+        WebProperties properties = new WebProperties(true, 0, 15_000, WRITE_TIMEOUT_MS);
+        server = new EmbeddedHttpServer(properties);
+        endpoint = new LiveFeedEndpoint(server, properties);
+        server.start();
+
+        List<Viewer> fast = new ArrayList<>();
+        List<Viewer> stalled = new ArrayList<>();
+        for (int i = 0; i < FAST_VIEWERS; i++) {
+            Viewer viewer = connect(server.getPort());
+            // Reads everything as it comes
+            Thread.ofPlatform().daemon().start(viewer::readUntilClosed);
+            fast.add(viewer);
+        }
+        for (int i = 0; i < STALLED_VIEWERS; i++) {
+            // Never reads while the race runs: once its socket is full, the server can no longer write to it
+            stalled.add(connect(server.getPort()));
+        }
+        awaitUntil(() -> endpoint.getConnectionCount() == FAST_VIEWERS + STALLED_VIEWERS, Duration.ofSeconds(10));
+
+        RaceTrack raceTrack = new RaceTrack(RaceConfig.defaults());
+        for (int i = 0; i < RUNNERS; i++) {
+            raceTrack.addParticipant(Species.values()[i % Species.values().length].create(raceTrack));
+        }
+        List<Animal> runners = raceTrack.getParticipants();
+        endpoint.broadcast(raceTrack);
+        // Moves published before the pump has subscribed are not broadcast
+        awaitUntil(() -> {
+            raceTrack.publishMove(runners.get(0));
+            return fast.get(0).frames > 0;
+        }, Duration.ofSeconds(10));
+
+        // This thread plays the runners: one move then a short pause, like a fast tick
+        long publishingNanos = 0;
+        for (int move = 0; move < MOVES; move++) {
+            long start = System.nanoTime();
+            raceTrack.publishMove(runners.get(move % RUNNERS));
+            publishingNanos += System.nanoTime() - start;
+            Thread.sleep(1);
+        }
+        raceTrack.closeFeed();
+        // A publish never waits for a viewer: tens of µs each, while the writes to the stalled sockets stay stuck
+        assertTrue(publishingNanos / MOVES < 1_000_000, "publication en " + publishingNanos / MOVES + " ns en moyenne");
+
+        // Each stalled viewer is disconnected once a write to it has been blocked for the deadline
+        awaitUntil(() -> endpoint.getConnectionCount() == FAST_VIEWERS, Duration.ofSeconds(30));
+        assertEquals(STALLED_VIEWERS, endpoint.getDroppedViewerCount());
+
+        // The fast viewers all end on the last frame
+        awaitUntil(() -> fast.stream().allMatch(viewer -> viewer.idleFor(Duration.ofMillis(500))), Duration.ofSeconds(20));
+        long lastFrame = fast.get(0).lastSequence;
+        for (Viewer viewer : fast) {
+            assertEquals(lastFrame, viewer.lastSequence);
+        }
+
+        // Once they read again, the stalled viewers get what their sockets held, then the end of the stream
+        for (Viewer viewer : stalled) {
+            viewer.socket.setSoTimeout(20_000);
+            viewer.readUntilClosed();
+            assertTrue(viewer.lastSequence < lastFrame, "un spectateur bloqué a reçu la dernière image");
+            assertTrue(viewer.frames < fast.get(0).frames,
+                    viewer.frames + " images reçues par un spectateur bloqué, " + fast.get(0).frames + " par un rapide");
+        }
+    }
+
+    private Viewer connect(int port) throws IOException {
+        Socket socket = new Socket();
+        // Small window, so that a viewer that does not read blocks the server's writes quickly
+        socket.setReceiveBufferSize(4096);
+        socket.connect(new InetSocketAddress("localhost", port));
+        OutputStream out = socket.getOutputStream();
+        out.write("GET /race/live HTTP/1.1\r\nHost: localhost\r\n\r\n".getBytes(StandardCharsets.US_ASCII));
+        out.flush();
+        Viewer viewer = new Viewer(socket);
+        viewers.add(viewer);
+        return viewer;
+    }
+
+    private static void awaitUntil(java.util.function.BooleanSupplier condition, Duration timeout) throws InterruptedException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "délai dépassé");
+            Thread.sleep(20);
+        }
+    }
+
+    /**
+     * One SSE client on a raw socket: decodes the chunked response and counts the events it reads
+     */
+    private static final class Viewer {
+        private final Socket socket;
+        private final InputStream in;
+        private final StringBuilder events = new StringBuilder();
+        private boolean headersRead;
+        private volatile int frames;
+        private volatile long lastSequence = -1;
+        private volatile long lastReadNanos = System.nanoTime();
+
+        private Viewer(Socket socket) throws IOException {
+            this.socket = socket;
+            this.in = new BufferedInputStream(socket.getInputStream());
+        }
+
+        private void readUntilClosed() {
+            try {
+                while (readChunk()) {
+                    // Counted in readChunk
+                }
+            } catch (IOException e) {
+                // Closed at the end of the test, or reset by the server
+            }
+        }
+
+        /**
+         * Reads one chunk of the body (the status line and headers before the first one)
+         * @return false once the response is over
+         */
+        private boolean readChunk() throws IOException {
+            if (!headersRead) {
+                String line;
+                do {
+                    line = readLine();
+                } while (line != null && !line.isEmpty());
+                headersRead = true;
+            }
+            String size = readLine();
+            if (size == null || size.isEmpty() || Integer.parseInt(size, 16) == 0) {
+                return false;
+            }
+            byte[] chunk = in.readNBytes(Integer.parseInt(size, 16));
+            readLine();
+            events.append(new String(chunk, StandardCharsets.UTF_8));
+            int end;
+            while ((end = events.indexOf("\n\n")) >= 0) {
+                String event = events.substring(0, end);
+                events.delete(0, end + 2);
+                int id = event.indexOf("id: ");
+                if (id >= 0) {
+                    frames++;
+                    lastSequence = Long.parseLong(event.substring(id + 4, event.indexOf('\n', id)));
+                    lastReadNanos = System.nanoTime();
+                }
+            }
+            return true;
+        }
+
+        private String readLine() throws IOException {
+            StringBuilder line = new StringBuilder();
+            int b;
+            while ((b = in.read()) >= 0 && b != '\n') {
+                if (b != '\r') {
+                    line.append((char) b);
+                }
+            }
+            return b < 0 && line.isEmpty() ? null : line.toString();
+        }
+
+        private boolean idleFor(Duration duration) {
+            return lastSequence >= 0 && System.nanoTime() - lastReadNanos > duration.toNanos();
+        }
+    }
+}